@@ -37,4 +37,12 @@ public interface ContentConfigurations {
 	 * @return the share code secret key configuration
 	 */
 	ConfigurationProperty<String> getShareCodeSecretKey();
+
+	/**
+	 * Gets the configuration that enables computing of SHA-256 content digest in addition to the MD5 digest when the
+	 * content is written to the content store.
+	 *
+	 * @return the SHA-256 digest enabled configuration
+	 */
+	ConfigurationProperty<Boolean> isSha256DigestEnabled();
 }
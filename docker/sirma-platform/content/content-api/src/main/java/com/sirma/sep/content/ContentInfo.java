@@ -1,5 +1,6 @@
 package com.sirma.sep.content;
 
+import java.io.File;
 import java.io.InputStream;
 import java.io.Serializable;
 
@@ -127,6 +128,17 @@ public interface ContentInfo extends FileDescriptor, Named {
 	 */
 	boolean isReuseable();
 
+	/**
+	 * Gets the local file that holds the content if the content is stored on the local file system. The returned file
+	 * should be used only for reading and allows random access to the content without opening the
+	 * {@link #getInputStream()}.
+	 *
+	 * @return the local file or <code>null</code> if the content is not stored locally
+	 */
+	default File getLocalFile() {
+		return null;
+	}
+
 	/**
 	 * Represents unknown or non existing content. The method {@link ContentInfo#exists()} returns always
 	 * <code>false</code> and all other return <code>null</code>.
@@ -10,7 +10,7 @@ import org.jsoup.nodes.Document;
 
 import com.sirma.itt.seip.context.Context;
 import com.sirma.itt.seip.io.FileDescriptor;
-import com.sirma.sep.content.descriptor.ByteArrayFileDescriptor;
+import com.sirma.sep.content.descriptor.DocumentFileDescriptor;
 
 /**
  * Context object used by the {@link InstanceViewPreProcessor}. Provides means for accessing the persisted view and
@@ -203,17 +203,18 @@ public class ViewPreProcessorContext extends Context<String, Object> {
 	/**
 	 * If the parsed view has been updated and the {@link FileDescriptor} has been requested we will flush changes to
 	 * the descriptor and remove the update flag. This way multiple updates to the view could happen without constantly
-	 * converting the view and then parse again.
+	 * converting the view and then parse again. The view is not serialized here but when the content is written to the
+	 * store.
 	 */
 	private void flushViewChanges() {
 		if (isViewUpdated()) {
 			Document parsed = getParsedView();
 			Content content = getIfSameType(NEW_VIEW, Content.class);
 			FileDescriptor descriptor = content.getContent();
-			byte[] bytes = parsed.toString().getBytes(StandardCharsets.UTF_8);
+			// the document is serialized when the content is written, the actual length is known after that
 			content
-					.setContent(new ByteArrayFileDescriptor(descriptor.getId(), descriptor.getContainerId(), bytes))
-						.setContentLength(Long.valueOf(bytes.length));
+					.setContent(new DocumentFileDescriptor(descriptor.getId(), descriptor.getContainerId(), parsed))
+						.setContentLength(null);
 			remove(VIEW_UPDATED);
 		}
 	}
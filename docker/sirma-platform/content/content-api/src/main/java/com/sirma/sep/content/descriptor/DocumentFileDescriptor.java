@@ -0,0 +1,175 @@
+package com.sirma.sep.content.descriptor;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+import org.apache.commons.io.output.CountingOutputStream;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+
+import com.sirma.itt.seip.io.FileDescriptor;
+
+/**
+ * File descriptor that provides the HTML of a parsed {@link Document} encoded in UTF-8. The document is serialized
+ * when the content is requested and not when the descriptor is created.
+ * <p>
+ * When the content is written via {@link #writeTo(OutputStream)} the document is encoded directly in the given stream
+ * node by node, without building the whole content as byte array. Calling {@link #getInputStream()} serializes the
+ * document in memory and the result is reused for all consecutive calls. The produced content is the same as the one
+ * returned by {@link Document#toString()}.
+ *
+ * @author BBonev
+ */
+public class DocumentFileDescriptor implements FileDescriptor {
+
+	private static final long serialVersionUID = -1585235542407376123L;
+
+	private final String id;
+	private final String containerId;
+	private transient Document document;
+	private byte[] data;
+
+	/**
+	 * Instantiates a new document file descriptor.
+	 *
+	 * @param id
+	 *            the name of the file
+	 * @param containerId
+	 *            the container id (Optional)
+	 * @param document
+	 *            the document to serialize
+	 */
+	public DocumentFileDescriptor(String id, String containerId, Document document) {
+		this.id = id;
+		this.containerId = containerId;
+		this.document = Objects.requireNonNull(document, "Document is required");
+	}
+
+	@Override
+	public String getId() {
+		return id;
+	}
+
+	@Override
+	public String getContainerId() {
+		return containerId;
+	}
+
+	@Override
+	public InputStream getInputStream() {
+		return new ByteArrayInputStream(getData());
+	}
+
+	@Override
+	public long writeTo(OutputStream outputStream) throws IOException {
+		Objects.requireNonNull(outputStream, "Cannot write to null OutputStream");
+		byte[] serialized = data;
+		if (serialized != null) {
+			outputStream.write(serialized);
+			return serialized.length;
+		}
+		CountingOutputStream countingStream = new CountingOutputStream(outputStream);
+		write(document, countingStream);
+		return countingStream.getByteCount();
+	}
+
+	private synchronized byte[] getData() {
+		if (data == null) {
+			ByteArrayOutputStream output = new ByteArrayOutputStream();
+			try {
+				write(document, output);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			data = output.toByteArray();
+		}
+		return data;
+	}
+
+	/**
+	 * Writes the top level nodes of the document one by one. The result matches {@link Document#toString()}: when pretty
+	 * print is enabled the top level elements are separated by new line and the whole content is trimmed.
+	 */
+	private static void write(Document document, OutputStream outputStream) throws IOException {
+		boolean prettyPrint = document.outputSettings().prettyPrint();
+		Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+		boolean hasContent = false;
+		boolean started = !prettyPrint;
+		StringBuilder trailingWhitespace = new StringBuilder();
+		for (Node node : document.childNodes()) {
+			String html = node.outerHtml();
+			if (prettyPrint && hasContent && node instanceof Element) {
+				html = "\n" + html;
+			}
+			hasContent |= !html.isEmpty();
+			if (!started) {
+				html = stripLeadingWhitespace(html);
+				if (html.isEmpty()) {
+					continue;
+				}
+				started = true;
+			}
+			int end = prettyPrint ? getTrimmedEnd(html) : html.length();
+			if (end > 0) {
+				writer.append(trailingWhitespace).write(html, 0, end);
+				trailingWhitespace.setLength(0);
+			}
+			trailingWhitespace.append(html, end, html.length());
+		}
+		if (!prettyPrint) {
+			writer.append(trailingWhitespace);
+		}
+		writer.flush();
+	}
+
+	private static String stripLeadingWhitespace(String html) {
+		int start = 0;
+		while (start < html.length() && html.charAt(start) <= ' ') {
+			start++;
+		}
+		return html.substring(start);
+	}
+
+	private static int getTrimmedEnd(String html) {
+		int end = html.length();
+		while (end > 0 && html.charAt(end - 1) <= ' ') {
+			end--;
+		}
+		return end;
+	}
+
+	@Override
+	public long length() {
+		byte[] serialized = data;
+		return serialized == null ? -1L : serialized.length;
+	}
+
+	@Override
+	public void close() {
+		// after deserialization the content could not be produced again without the serialized data
+		if (document != null) {
+			data = null;
+		}
+	}
+
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		// the document is not serializable so the content is serialized instead
+		getData();
+		out.defaultWriteObject();
+	}
+
+	@Override
+	public String toString() {
+		return "DocumentFileDescriptor [id=" + id + ", containerId=" + containerId + "]";
+	}
+}
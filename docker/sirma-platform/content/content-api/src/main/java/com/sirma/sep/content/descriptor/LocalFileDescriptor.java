@@ -68,6 +68,15 @@ public class LocalFileDescriptor implements WritableFileDescriptor {
 		return path;
 	}
 
+	/**
+	 * Gets the file described by the descriptor. The file may not exist.
+	 *
+	 * @return the file
+	 */
+	public File getFile() {
+		return new File(path);
+	}
+
 	@Override
 	public InputStream getInputStream() {
 		try {
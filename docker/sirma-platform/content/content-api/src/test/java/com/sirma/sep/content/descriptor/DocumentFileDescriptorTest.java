@@ -0,0 +1,104 @@
+package com.sirma.sep.content.descriptor;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.junit.Test;
+
+/**
+ * Test for {@link DocumentFileDescriptor}
+ *
+ * @author BBonev
+ */
+public class DocumentFileDescriptorTest {
+
+	private static final String CONTENT = "<div data-tabs-counter=\"2\"><section data-id=\"tab1\"><p>Tab 1 ©</p></section>"
+			+ "<section data-id=\"tab2\"><p>Tab 2</p></section></div>";
+
+	@Test
+	public void writeTo_shouldProduceTheSameContentAsToString() throws Exception {
+		Document document = createStrippedDocument(" text <div>first</div>\n<p>second</p> <span>third</span> ");
+		DocumentFileDescriptor descriptor = new DocumentFileDescriptor("view.html", null, document);
+
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		long written = descriptor.writeTo(output);
+
+		byte[] expected = document.toString().getBytes(StandardCharsets.UTF_8);
+		assertEquals(expected.length, written);
+		assertEquals(document.toString(), output.toString(StandardCharsets.UTF_8.name()));
+		// written directly to the stream, nothing is kept in memory
+		assertEquals(-1L, descriptor.length());
+	}
+
+	@Test
+	public void writeTo_shouldProduceTheSameContentAsToString_ForFullDocument() throws Exception {
+		Document document = Jsoup.parse(CONTENT);
+		DocumentFileDescriptor descriptor = new DocumentFileDescriptor("view.html", null, document);
+
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		descriptor.writeTo(output);
+
+		assertEquals(document.toString(), output.toString(StandardCharsets.UTF_8.name()));
+	}
+
+	@Test
+	public void getInputStream_shouldSerializeTheDocumentOnce() throws Exception {
+		Document document = createStrippedDocument(CONTENT);
+		DocumentFileDescriptor descriptor = new DocumentFileDescriptor("view.html", "container", document);
+
+		String content = descriptor.asString();
+		document.select("section").remove();
+
+		assertEquals(createStrippedDocument(CONTENT).toString(), content);
+		assertEquals(content, descriptor.asString());
+		assertEquals(content.getBytes(StandardCharsets.UTF_8).length, descriptor.length());
+	}
+
+	@Test
+	public void shouldBeSerializable() throws Exception {
+		DocumentFileDescriptor descriptor = new DocumentFileDescriptor("view.html", "container",
+				createStrippedDocument(CONTENT));
+
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		try (ObjectOutputStream stream = new ObjectOutputStream(output)) {
+			stream.writeObject(descriptor);
+		}
+		try (ObjectInputStream stream = new ObjectInputStream(new ByteArrayInputStream(output.toByteArray()))) {
+			DocumentFileDescriptor copy = (DocumentFileDescriptor) stream.readObject();
+			assertEquals("view.html", copy.getId());
+			assertEquals("container", copy.getContainerId());
+			assertEquals(descriptor.asString(), copy.asString());
+		}
+	}
+
+	@Test
+	public void close_shouldKeepTheContent_OfDeserializedDescriptor() throws Exception {
+		DocumentFileDescriptor descriptor = new DocumentFileDescriptor("view.html", "container",
+				createStrippedDocument(CONTENT));
+
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		try (ObjectOutputStream stream = new ObjectOutputStream(output)) {
+			stream.writeObject(descriptor);
+		}
+		try (ObjectInputStream stream = new ObjectInputStream(new ByteArrayInputStream(output.toByteArray()))) {
+			DocumentFileDescriptor copy = (DocumentFileDescriptor) stream.readObject();
+			copy.close();
+			assertEquals(descriptor.asString(), copy.asString());
+		}
+	}
+
+	private static Document createStrippedDocument(String html) {
+		Document document = Jsoup.parse(html);
+		document.getElementsByTag("html").unwrap();
+		document.getElementsByTag("head").remove();
+		document.getElementsByTag("body").unwrap();
+		return document;
+	}
+}
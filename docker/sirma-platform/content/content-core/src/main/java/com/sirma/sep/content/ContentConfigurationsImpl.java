@@ -39,6 +39,11 @@ public class ContentConfigurationsImpl implements ContentConfigurations {
 	@ConfigurationPropertyDefinition(name = "file.upload.max.simultaneous.files.count", type = Integer.class, defaultValue = "10", label = "Limits the number of files that are allowed to be uploaded at once per user via the UI.")
 	private ConfigurationProperty<Integer> maxFilesToUploadAtOnce;
 
+	@Inject
+	@Configuration
+	@ConfigurationPropertyDefinition(name = "content.digest.sha256.enabled", type = Boolean.class, defaultValue = "false", system = true, label = "If enabled SHA-256 digest will be computed in addition to the MD5 digest while the content is written to the content store.")
+	private ConfigurationProperty<Boolean> sha256DigestEnabled;
+
 	@ConfigurationPropertyDefinition(password = true, system = true, sensitive = true, label = "Secret key used when constructing and deconstructing share codes added as an extra measurement of security")
 	private static final String SHARE_CODE_SECRET_KEY = "content.sharecode.secret.key";
 
@@ -79,4 +84,9 @@ public class ContentConfigurationsImpl implements ContentConfigurations {
 	public ConfigurationProperty<String> getShareCodeSecretKey() {
 		return shareCodeSecretKey;
 	}
+
+	@Override
+	public ConfigurationProperty<Boolean> isSha256DigestEnabled() {
+		return sha256DigestEnabled;
+	}
 }
@@ -141,6 +141,12 @@ public class ContentEntity extends BaseStringIdEntity implements Named {
 	@Column(name = "checksum", length = 50, nullable = true)
 	private String checksum;
 
+	@Column(name = "md5_digest", length = 32, nullable = true)
+	private String md5Digest;
+
+	@Column(name = "sha256_digest", length = 64, nullable = true)
+	private String sha256Digest;
+
 	@Column(name = "createdOn")
 	@Temporal(TemporalType.TIMESTAMP)
 	@CreationTimestamp
@@ -370,6 +376,22 @@ public class ContentEntity extends BaseStringIdEntity implements Named {
 		this.checksum = checksum;
 	}
 
+	public String getMd5Digest() {
+		return md5Digest;
+	}
+
+	public void setMd5Digest(String md5Digest) {
+		this.md5Digest = md5Digest;
+	}
+
+	public String getSha256Digest() {
+		return sha256Digest;
+	}
+
+	public void setSha256Digest(String sha256Digest) {
+		this.sha256Digest = sha256Digest;
+	}
+
 	public Date getCreatedOn() {
 		return createdOn;
 	}
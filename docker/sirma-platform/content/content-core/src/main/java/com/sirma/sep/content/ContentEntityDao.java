@@ -205,18 +205,44 @@ public class ContentEntityDao {
 	 * @return content entity, not null
 	 */
 	ContentEntity getUniqueContent(Serializable instance, Content content) {
-		String digest = contentDigestProvider.digest(content);
+		String digest = digest(content);
 		ContentEntity entity = getEntityByChecksum(digest);
 		if (entity == null) {
-			entity = createNewEntity(0, content.getContentId());
-			Serializable instanceId = resolver.resolve(instance).orElse(null);
-			entity.setInstanceId(Objects.toString(instanceId, null));
-			fillEntityMetadata(entity, content, instance);
+			entity = createUniqueContentEntity(instance, content);
 			entity.setChecksum(digest);
 		}
 		return entity;
 	}
 
+	/**
+	 * Creates new entity for unique content without checksum. The checksum should be set after the content digest is
+	 * computed.
+	 *
+	 * @param instance
+	 *            that is assigned to the content
+	 * @param content
+	 *            the content that should be stored
+	 * @return new content entity, not null
+	 */
+	ContentEntity createUniqueContentEntity(Serializable instance, Content content) {
+		ContentEntity entity = createNewEntity(0, content.getContentId());
+		Serializable instanceId = resolver.resolve(instance).orElse(null);
+		entity.setInstanceId(Objects.toString(instanceId, null));
+		fillEntityMetadata(entity, content, instance);
+		return entity;
+	}
+
+	/**
+	 * Calculates the digest of the given content using the installed {@link ContentDigestProvider}s
+	 *
+	 * @param content
+	 *            the content to digest
+	 * @return the digest or <code>null</code> if could not be calculated
+	 */
+	String digest(Content content) {
+		return contentDigestProvider.digest(content);
+	}
+
 	/**
 	 * Gets the entity for the given digest/checksum
 	 *
@@ -1,5 +1,6 @@
 package com.sirma.sep.content;
 
+import java.io.File;
 import java.io.InputStream;
 import java.io.Serializable;
 import java.lang.invoke.MethodHandles;
@@ -19,6 +20,7 @@ import org.slf4j.LoggerFactory;
 
 import com.sirma.itt.seip.event.EventService;
 import com.sirma.itt.seip.io.FileDescriptor;
+import com.sirma.sep.content.descriptor.LocalFileDescriptor;
 import com.sirma.sep.content.event.ContentAddEvent;
 import com.sirma.sep.content.event.ContentUpdatedEvent;
 import com.sirma.sep.content.event.InstanceViewAddedEvent;
@@ -48,15 +50,21 @@ class ContentPersistProvider {
 	 *            event service instance
 	 * @param entityDao
 	 *            entity dao responsible for entity persistence and loading
+	 * @param contentConfigurations
+	 *            content configurations used to check which content digests to compute
 	 */
 	@Inject
 	protected ContentPersistProvider(ContentStoreProvider contentStoreProvider,
-			InstanceViewPreProcessor viewPreProcessor, EventService eventService, ContentEntityDao entityDao) {
-
-		contentPersister = new ContentPersister(contentStoreProvider, eventService, entityDao);
-		viewPersister = new ViewPersister(contentStoreProvider, eventService, entityDao, viewPreProcessor);
-		noContentPersister = new NoContentPersister(contentStoreProvider, eventService, entityDao);
-		noViewPersister = new NoViewPersister(contentStoreProvider, eventService, entityDao, viewPreProcessor);
+			InstanceViewPreProcessor viewPreProcessor, EventService eventService, ContentEntityDao entityDao,
+			ContentConfigurations contentConfigurations) {
+
+		contentPersister = new ContentPersister(contentStoreProvider, eventService, entityDao, contentConfigurations);
+		viewPersister = new ViewPersister(contentStoreProvider, eventService, entityDao, contentConfigurations,
+				viewPreProcessor);
+		noContentPersister = new NoContentPersister(contentStoreProvider, eventService, entityDao,
+				contentConfigurations);
+		noViewPersister = new NoViewPersister(contentStoreProvider, eventService, entityDao, contentConfigurations,
+				viewPreProcessor);
 	}
 
 	/**
@@ -106,6 +114,7 @@ class ContentPersistProvider {
 		protected final ContentStoreProvider contentStoreProvider;
 		protected final EventService eventService;
 		protected final ContentEntityDao entityDao;
+		protected final ContentConfigurations contentConfigurations;
 
 		/**
 		 * Instantiates a new content persister.
@@ -116,12 +125,15 @@ class ContentPersistProvider {
 		 *            the event service
 		 * @param entityDao
 		 *            the entity dao
+		 * @param contentConfigurations
+		 *            the content configurations
 		 */
 		private ContentPersister(ContentStoreProvider contentStoreProvider, EventService eventService,
-				ContentEntityDao entityDao) {
+				ContentEntityDao entityDao, ContentConfigurations contentConfigurations) {
 			this.contentStoreProvider = contentStoreProvider;
 			this.eventService = eventService;
 			this.entityDao = entityDao;
+			this.contentConfigurations = contentConfigurations;
 		}
 
 		/**
@@ -159,6 +171,11 @@ class ContentPersistProvider {
 		 */
 		public ContentInfo persist(Serializable instance, Content content) {
 			if (content.isReuseAllowed()) {
+				if (shouldDigestOnUpload(content)) {
+					// the digest will be computed while writing the content to the store and the check for existing
+					// content with the same digest will be performed after that
+					return persistEntity(instance, content, entityDao.createUniqueContentEntity(instance, content));
+				}
 				ContentEntity entity = entityDao.getUniqueContent(instance, content);
 				if (entityDao.isNewEntity(entity)) {
 					return persistEntity(instance, content, entity);
@@ -220,6 +237,9 @@ class ContentPersistProvider {
 				boolean isNewVersion) {
 			try {
 				Content updatedView = beforeContentSave(instance, content, previousVersion.getPreviousVersion());
+				// the digests are computed while the store reads the content
+				DigestingFileDescriptor digestingDescriptor = DigestingFileDescriptor.install(updatedView,
+						isSha256DigestEnabled());
 
 				StoreItemInfo storeItemInfo;
 				if (isNew) {
@@ -228,7 +248,21 @@ class ContentPersistProvider {
 					storeItemInfo = contentStore.update(instance, updatedView, previousInfo);
 				}
 
+				if (isNew && content.isReuseAllowed() && entity.getChecksum() == null) {
+					String digest = entityDao.digest(updatedView);
+					ContentEntity existing = entityDao.getEntityByChecksum(digest);
+					if (existing != null) {
+						LOGGER.debug("Reusing content {}", existing.getId());
+						contentStore.delete(storeItemInfo);
+						return toContentInfo(existing);
+					}
+					entity.setChecksum(digest);
+				}
+
 				entity.copyFrom(storeItemInfo);
+				if (digestingDescriptor != null) {
+					digestingDescriptor.copyTo(entity);
+				}
 
 				entityDao.persistEntity(entity, isNew);
 
@@ -240,6 +274,29 @@ class ContentPersistProvider {
 			return toContentInfo(entity);
 		}
 
+		/**
+		 * Checks if the digest of reusable content should be computed while the content is written to the store
+		 * instead of reading the content before that. This is possible only if the persister writes the content and
+		 * the digest is not already known.
+		 *
+		 * @param content
+		 *            the content that is going to be persisted
+		 * @return true, if the content should be checked for reuse after it's written to the store
+		 */
+		@SuppressWarnings("static-method")
+		protected boolean shouldDigestOnUpload(Content content) {
+			return content.getContent() != null && DigestingFileDescriptor.getMd5Digest(content) == null;
+		}
+
+		/**
+		 * Checks if SHA-256 digest should be computed in addition to the MD5 digest.
+		 *
+		 * @return true, if SHA-256 digest is enabled
+		 */
+		protected boolean isSha256DigestEnabled() {
+			return contentConfigurations.isSha256DigestEnabled().get().booleanValue();
+		}
+
 		/**
 		 * Provide previous version of the content associated with the given instance and located in the given store. If
 		 * applicable the returned instance should return a copy of the content or <code>null</code>.
@@ -407,12 +464,15 @@ class ContentPersistProvider {
 		 *            the event service
 		 * @param entityDao
 		 *            the entity dao
+		 * @param contentConfigurations
+		 *            the content configurations
 		 * @param viewPreProcessor
 		 *            the view pre processor
 		 */
 		private ViewPersister(ContentStoreProvider contentStoreProvider, EventService eventService,
-				ContentEntityDao entityDao, InstanceViewPreProcessor viewPreProcessor) {
-			super(contentStoreProvider, eventService, entityDao);
+				ContentEntityDao entityDao, ContentConfigurations contentConfigurations,
+				InstanceViewPreProcessor viewPreProcessor) {
+			super(contentStoreProvider, eventService, entityDao, contentConfigurations);
 			this.viewPreProcessor = viewPreProcessor;
 		}
 
@@ -480,10 +540,18 @@ class ContentPersistProvider {
 		 *            event service to use
 		 * @param entityDao
 		 *            entity dao to use
+		 * @param contentConfigurations
+		 *            content configurations to use
 		 */
 		private NoContentPersister(ContentStoreProvider contentStoreProvider, EventService eventService,
-				ContentEntityDao entityDao) {
-			super(contentStoreProvider, eventService, entityDao);
+				ContentEntityDao entityDao, ContentConfigurations contentConfigurations) {
+			super(contentStoreProvider, eventService, entityDao, contentConfigurations);
+		}
+
+		@Override
+		protected boolean shouldDigestOnUpload(Content content) {
+			// content is not written by this persister
+			return false;
 		}
 
 		@Override
@@ -520,12 +588,21 @@ class ContentPersistProvider {
 		 *            event service to use
 		 * @param entityDao
 		 *            entity dao to use
+		 * @param contentConfigurations
+		 *            content configurations to use
 		 * @param viewPreProcessor
 		 *            view pre processor to use
 		 */
 		private NoViewPersister(ContentStoreProvider contentStoreProvider, EventService eventService,
-				ContentEntityDao entityDao, InstanceViewPreProcessor viewPreProcessor) {
-			super(contentStoreProvider, eventService, entityDao, viewPreProcessor);
+				ContentEntityDao entityDao, ContentConfigurations contentConfigurations,
+				InstanceViewPreProcessor viewPreProcessor) {
+			super(contentStoreProvider, eventService, entityDao, contentConfigurations, viewPreProcessor);
+		}
+
+		@Override
+		protected boolean shouldDigestOnUpload(Content content) {
+			// content is not written by this persister
+			return false;
 		}
 
 		@Override
@@ -634,6 +711,19 @@ class ContentPersistProvider {
 			return getDescriptor() != null;
 		}
 
+		@Override
+		public File getLocalFile() {
+			FileDescriptor fileDescriptor = getDescriptor();
+			if (fileDescriptor instanceof LocalFileDescriptor) {
+				File file = ((LocalFileDescriptor) fileDescriptor).getFile();
+				// only existing files with full path could be read directly
+				if (file.isAbsolute() && file.isFile()) {
+					return file;
+				}
+			}
+			return null;
+		}
+
 		private FileDescriptor getDescriptor() {
 			if (descriptor == null) {
 				descriptor = descriptorSupplier.get();
@@ -17,7 +17,9 @@ import com.sirma.sep.content.Content;
 import com.sirma.sep.content.ContentDigestProvider;
 
 /**
- * Default implementation of {@link ContentDigestProvider} that computes MD5 digest of the entire content.
+ * Default implementation of {@link ContentDigestProvider} that computes MD5 digest of the entire content. If the digest
+ * was already computed while the content was written to the content store it will be used instead of reading the
+ * content again.
  *
  * @author BBonev
  */
@@ -33,6 +35,10 @@ public class DefaultContentDigestProvider implements ContentDigestProvider {
 
 	@Override
 	public String digest(Content content) {
+		String computedDigest = DigestingFileDescriptor.getMd5Digest(content);
+		if (computedDigest != null) {
+			return computedDigest;
+		}
 		LOGGER.debug("Digesting content {} with size {}", content.getName(), content.getContentLength());
 		// we need fresh digest each time
 		// as message digest is stateful and not thread safe
@@ -0,0 +1,237 @@
+package com.sirma.sep.content;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+
+import com.sirma.itt.seip.io.FileDescriptor;
+
+/**
+ * File descriptor proxy that computes the content digests while the content is read from the wrapped descriptor. This
+ * allows the digests to be computed during the write to the content store without reading the content second time.
+ * <br>
+ * The MD5 digest is always computed and SHA-256 digest is computed only if requested. The digests are available after
+ * the stream returned by {@link #getInputStream()} is read to the end or after the content is written via
+ * {@link #writeTo(OutputStream)}. If the stream is not fully read or some of the data is skipped the digests will not be
+ * available.
+ *
+ * @author BBonev
+ */
+class DigestingFileDescriptor implements FileDescriptor {
+
+	private static final long serialVersionUID = 2410733815375569402L;
+
+	private final FileDescriptor delegate;
+	private final boolean computeSha256;
+	private volatile String md5Digest;
+	private volatile String sha256Digest;
+
+	/**
+	 * Instantiates a new digesting file descriptor.
+	 *
+	 * @param delegate
+	 *            the actual descriptor to read from
+	 * @param computeSha256
+	 *            if SHA-256 digest should be computed in addition to the MD5 digest
+	 */
+	DigestingFileDescriptor(FileDescriptor delegate, boolean computeSha256) {
+		this.delegate = delegate;
+		this.computeSha256 = computeSha256;
+	}
+
+	/**
+	 * Replaces the descriptor of the given content with a {@link DigestingFileDescriptor} so that any consecutive
+	 * content read computes the content digests. If the content is already digesting the current descriptor is
+	 * returned.
+	 *
+	 * @param content
+	 *            the content to update
+	 * @param computeSha256
+	 *            if SHA-256 digest should be computed in addition to the MD5 digest
+	 * @return the installed descriptor or <code>null</code> if the content does not have a descriptor
+	 */
+	static DigestingFileDescriptor install(Content content, boolean computeSha256) {
+		FileDescriptor descriptor = content.getContent();
+		if (descriptor == null) {
+			return null;
+		}
+		if (descriptor instanceof DigestingFileDescriptor) {
+			return (DigestingFileDescriptor) descriptor;
+		}
+		DigestingFileDescriptor digestingDescriptor = new DigestingFileDescriptor(descriptor, computeSha256);
+		content.setContent(digestingDescriptor);
+		return digestingDescriptor;
+	}
+
+	/**
+	 * Gets the MD5 digest for the given content if it was computed while the content was read.
+	 *
+	 * @param content
+	 *            the content to check
+	 * @return the MD5 digest as hex string or <code>null</code> if not computed
+	 */
+	static String getMd5Digest(Content content) {
+		FileDescriptor descriptor = content.getContent();
+		if (descriptor instanceof DigestingFileDescriptor) {
+			return ((DigestingFileDescriptor) descriptor).getMd5Digest();
+		}
+		return null;
+	}
+
+	/**
+	 * Sets the computed digests to the given entity. If the content was not fully read the entity digests will be
+	 * cleared as they no longer represent the current content.
+	 *
+	 * @param entity
+	 *            the entity to update
+	 */
+	void copyTo(ContentEntity entity) {
+		String md5 = md5Digest;
+		entity.setMd5Digest(md5);
+		entity.setSha256Digest(md5 == null ? null : sha256Digest);
+	}
+
+	String getMd5Digest() {
+		return md5Digest;
+	}
+
+	String getSha256Digest() {
+		return sha256Digest;
+	}
+
+	@Override
+	public String getId() {
+		return delegate.getId();
+	}
+
+	@Override
+	public String getContainerId() {
+		return delegate.getContainerId();
+	}
+
+	@Override
+	public InputStream getInputStream() {
+		InputStream inputStream = delegate.getInputStream();
+		if (inputStream == null) {
+			return null;
+		}
+		MessageDigest md5 = DigestUtils.getMd5Digest();
+		MessageDigest sha256 = computeSha256 ? DigestUtils.getSha256Digest() : null;
+		InputStream stream = new DigestInputStream(inputStream, md5);
+		if (sha256 != null) {
+			stream = new DigestInputStream(stream, sha256);
+		}
+		return new DigestCompletingInputStream(stream, md5, sha256);
+	}
+
+	/**
+	 * Writes the content of the wrapped descriptor by passing the written bytes through the digests. This way
+	 * descriptors that can produce their content directly in the output stream are not read via their input stream.
+	 */
+	@Override
+	public long writeTo(OutputStream outputStream) throws IOException {
+		MessageDigest md5 = DigestUtils.getMd5Digest();
+		MessageDigest sha256 = computeSha256 ? DigestUtils.getSha256Digest() : null;
+		OutputStream stream = new DigestOutputStream(outputStream, md5);
+		if (sha256 != null) {
+			stream = new DigestOutputStream(stream, sha256);
+		}
+		long written = delegate.writeTo(stream);
+		stream.flush();
+		if (written >= 0L) {
+			publishDigests(md5, sha256);
+		}
+		return written;
+	}
+
+	private void publishDigests(MessageDigest md5, MessageDigest sha256) {
+		if (sha256 != null) {
+			sha256Digest = Hex.encodeHexString(sha256.digest());
+		}
+		md5Digest = Hex.encodeHexString(md5.digest());
+	}
+
+	@Override
+	public String getFileName() {
+		return delegate.getFileName();
+	}
+
+	@Override
+	public long length() {
+		return delegate.length();
+	}
+
+	@Override
+	public void close() {
+		delegate.close();
+	}
+
+	@Override
+	public String toString() {
+		return "DigestingFileDescriptor [" + delegate + "]";
+	}
+
+	/**
+	 * Input stream that publishes the computed digests when the end of the stream is reached
+	 *
+	 * @author BBonev
+	 */
+	private class DigestCompletingInputStream extends FilterInputStream {
+
+		private final MessageDigest md5;
+		private final MessageDigest sha256;
+		private boolean skipped;
+		private boolean completed;
+
+		DigestCompletingInputStream(InputStream in, MessageDigest md5, MessageDigest sha256) {
+			super(in);
+			this.md5 = md5;
+			this.sha256 = sha256;
+		}
+
+		@Override
+		public int read() throws IOException {
+			int read = super.read();
+			if (read == -1) {
+				complete();
+			}
+			return read;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int read = super.read(b, off, len);
+			if (read == -1) {
+				complete();
+			}
+			return read;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			// skipped bytes does not pass through the digest so the result will not be valid
+			skipped = true;
+			return super.skip(n);
+		}
+
+		@Override
+		public boolean markSupported() {
+			return false;
+		}
+
+		private void complete() {
+			if (completed || skipped) {
+				return;
+			}
+			completed = true;
+			publishDigests(md5, sha256);
+		}
+	}
+}
@@ -75,6 +75,8 @@ class InstanceContentServiceImpl implements InstanceContentService {
 	private SecurityContext securityContext;
 	@Inject
 	private TransactionSupport transactionSupport;
+	@Inject
+	private ContentConfigurations contentConfigurations;
 
 	private ContentPersistProvider contentPersistProvider;
 	private ContentEntityDao entityDao;
@@ -86,7 +88,7 @@ class InstanceContentServiceImpl implements InstanceContentService {
 	protected void init() {
 		entityDao = new ContentEntityDao(idManager, mimeTypeResolver, dbDao, idResolver, digestProvider, transactionSupport);
 		contentPersistProvider = new ContentPersistProvider(contentStoreProvider, viewPreProcessor, eventService,
-				entityDao);
+				entityDao, contentConfigurations);
 	}
 
 	@Override
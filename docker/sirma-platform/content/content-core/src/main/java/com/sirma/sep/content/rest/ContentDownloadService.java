@@ -2,13 +2,20 @@ package com.sirma.sep.content.rest;
 
 import static com.sirma.itt.seip.collections.CollectionUtils.isEmpty;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.lang.invoke.MethodHandles;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
 import java.util.function.Function;
 
 import javax.inject.Inject;
@@ -39,7 +46,9 @@ import com.sirma.sep.content.ContentInfo;
 import com.sirma.sep.content.InstanceContentService;
 
 /**
- * Helper service to provide content streaming and download
+ * Helper service to provide content streaming and download. Content that is stored on the local file system is sent
+ * directly from the file channel, without reading it through the content input stream, and supports single and multiple
+ * ranges requests. Multiple ranges are sent as {@code multipart/byteranges} response.
  *
  * @author BBonev
  */
@@ -49,6 +58,10 @@ public class ContentDownloadService {
 	private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
 	private static final long ONE_MB = 1024L * 1024L;
+	private static final int TRANSFER_BUFFER_SIZE = 64 * 1024;
+
+	private static final String MULTIPART_BYTERANGES = "multipart/byteranges; boundary=";
+	private static final String CRLF = "\r\n";
 
 	@Inject
 	private InstanceContentService instanceContentService;
@@ -133,16 +146,20 @@ public class ContentDownloadService {
 			return;
 		}
 
+		setPreviewContentType(contentInfo, response);
+		File localFile = contentInfo.getLocalFile();
+		if (localFile != null && localFile.isFile()) {
+			sendFile(localFile, response, range);
+			return;
+		}
+
+		// the preview could be different from the original content and the exact length is not known in advance so
+		// the remote content is copied locally first to be able to serve the requested ranges
 		File file = null;
 		try {
 			Pair<String, String> namePair = FileUtil.splitNameAndExtension(contentInfo.getName());
 			file = tempFileProvider.createTempFile(namePair.getFirst(), namePair.getSecond());
 			FileUtils.copyInputStreamToFile(contentInfo.getInputStream(), file);
-			setPreviewContentType(contentInfo, response);
-			addContentLength(file.length(), response, range);
-			// status code always comes before any output in the data returned to the client
-			response.setStatus(
-					range.isAllRequested() ? HttpServletResponse.SC_OK : HttpServletResponse.SC_PARTIAL_CONTENT);
 			sendFile(file, response, range);
 		} catch (IOException e) {
 			LOGGER.trace("", e);
@@ -167,28 +184,147 @@ public class ContentDownloadService {
 			response.setHeader(Range.HTTP_HEADER_ACCEPT_RANGES, Range.BYTES);
 
 			if (!range.isAllRequested()) {
-				if (range.isToTheEnd()) {
-					contentLength = lenght - range.getFrom();
-				} else {
-					contentLength = range.getRangeLength();
-				}
-				response.setHeader(Range.HTTP_HEADER_CONTENT_RANGE, range.asResponse(lenght));
+				contentLength = getRangeLength(range, lenght);
+				response.setHeader(Range.HTTP_HEADER_CONTENT_RANGE, asResponse(range, lenght));
 			}
 			response.setContentLengthLong(contentLength);
 		}
 	}
 
-	@SuppressWarnings("resource")
+	/**
+	 * Sends the requested range or ranges of the given file. The status code and the content length are set by the
+	 * method. The content type should be set before calling the method. If the requested range starts after the end of
+	 * the file {@link HttpServletResponse#SC_REQUESTED_RANGE_NOT_SATISFIABLE} is returned.
+	 */
 	private static void sendFile(File file, HttpServletResponse response, Range range) {
+		long length = file.length();
+		if (range.isMultiRange()) {
+			sendRanges(file, response, range.getRanges(), length);
+			return;
+		}
+		if (!range.isAllRequested() && range.getFrom() >= length) {
+			setRangeNotSatisfiable(response, length);
+			return;
+		}
+		addContentLength(length, response, range);
+		// status code always comes before any output in the data returned to the client
+		response.setStatus(range.isAllRequested() ? HttpServletResponse.SC_OK : HttpServletResponse.SC_PARTIAL_CONTENT);
 		addHeaders(response);
-		try {
-			streamData(response.getOutputStream(), new FileInputStream(file), range);
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+				ServletOutputStream out = response.getOutputStream()) {
+			transfer(channel, out, range.getFrom(), getRangeLength(range, length));
+			out.flush();
+		} catch (IOException e) {
+			LOGGER.trace("", e);
+			LOGGER.warn("Client disconnected during content download: {}", e.getMessage());
+		}
+	}
+
+	/**
+	 * Sends multiple ranges of the given file as {@code multipart/byteranges} response. Ranges that start after the
+	 * end of the file are ignored. If none of the ranges could be satisfied
+	 * {@link HttpServletResponse#SC_REQUESTED_RANGE_NOT_SATISFIABLE} is returned.
+	 */
+	private static void sendRanges(File file, HttpServletResponse response, List<Range> ranges, long length) {
+		List<Range> satisfiable = new ArrayList<>(ranges.size());
+		for (Range range : ranges) {
+			if (range.getFrom() < length) {
+				satisfiable.add(range);
+			}
+		}
+		if (satisfiable.isEmpty()) {
+			setRangeNotSatisfiable(response, length);
+			return;
+		}
+
+		String partContentType = response.getContentType() == null ? MediaType.APPLICATION_OCTET_STREAM
+				: response.getContentType();
+		String boundary = UUID.randomUUID().toString().replace("-", "");
+		// part headers are build in advance in order to calculate the response length
+		List<byte[]> partHeaders = new ArrayList<>(satisfiable.size());
+		long contentLength = 0L;
+		for (Range range : satisfiable) {
+			String header = new StringBuilder(128)
+					.append(CRLF).append("--").append(boundary).append(CRLF)
+						.append(HttpHeaders.CONTENT_TYPE).append(": ").append(partContentType).append(CRLF)
+						.append(Range.HTTP_HEADER_CONTENT_RANGE).append(": ")
+						.append(asResponse(range, length)).append(CRLF)
+						.append(CRLF)
+						.toString();
+			byte[] headerBytes = header.getBytes(StandardCharsets.US_ASCII);
+			partHeaders.add(headerBytes);
+			contentLength += headerBytes.length + getRangeLength(range, length);
+		}
+		byte[] end = (CRLF + "--" + boundary + "--" + CRLF).getBytes(StandardCharsets.US_ASCII);
+		contentLength += end.length;
+
+		response.setHeader(Range.HTTP_HEADER_ACCEPT_RANGES, Range.BYTES);
+		response.setContentType(MULTIPART_BYTERANGES + boundary);
+		response.setContentLengthLong(contentLength);
+		response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+		addHeaders(response);
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+				ServletOutputStream out = response.getOutputStream()) {
+			for (int i = 0; i < satisfiable.size(); i++) {
+				Range range = satisfiable.get(i);
+				out.write(partHeaders.get(i));
+				transfer(channel, out, range.getFrom(), getRangeLength(range, length));
+			}
+			out.write(end);
+			out.flush();
 		} catch (IOException e) {
 			LOGGER.trace("", e);
 			LOGGER.warn("Client disconnected during content download: {}", e.getMessage());
 		}
 	}
 
+	private static void setRangeNotSatisfiable(HttpServletResponse response, long length) {
+		response.setHeader(Range.HTTP_HEADER_CONTENT_RANGE, Range.BYTES + " */" + length);
+		response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+	}
+
+	/**
+	 * Copies the given number of bytes from the file channel to the output stream starting from the given position. The
+	 * data is read at the given position so the preceding bytes are not read.
+	 */
+	private static void transfer(FileChannel source, OutputStream out, long position, long count)
+			throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(count, TRANSFER_BUFFER_SIZE));
+		long transferred = 0L;
+		while (transferred < count) {
+			buffer.clear();
+			buffer.limit((int) Math.min(buffer.capacity(), count - transferred));
+			int read = source.read(buffer, position + transferred);
+			if (read <= 0) {
+				// end of file reached
+				return;
+			}
+			out.write(buffer.array(), 0, read);
+			transferred += read;
+		}
+	}
+
+	private static long getRangeLength(Range range, long length) {
+		long available = length - range.getFrom();
+		if (range.isToTheEnd()) {
+			return available;
+		}
+		return Math.min(range.getTo() - range.getFrom() + 1, available);
+	}
+
+	private static String asResponse(Range range, long length) {
+		long to = range.isToTheEnd() ? length - 1L : Math.min(range.getTo(), length - 1L);
+		return new StringBuilder(64)
+				.append(range.getUnit())
+					.append(" ")
+					.append(range.getFrom())
+					.append("-")
+					.append(to)
+					.append("/")
+					.append(length)
+					.toString();
+	}
+
 	private static void streamData(ServletOutputStream outputStream, InputStream inputStream, Range range) {
 		try (ServletOutputStream out = outputStream; InputStream in = inputStream) {
 			// first send 1MB or the requested range if less
@@ -243,17 +379,24 @@ public class ContentDownloadService {
 			return;
 		}
 
-		if (contentInfo.getLength() > 0L && range.getFrom() >= contentInfo.getLength()) {
-			response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+		if (contentInfo.getLength() > 0L && !range.isMultiRange() && range.getFrom() >= contentInfo.getLength()) {
+			setRangeNotSatisfiable(response, contentInfo.getLength());
 			return;
 		}
 
 		setContentType(contentInfo.getMimeType(), response);
 		addDispositionIfNeeded(contentInfo.getName(), response, forDownload, fileName);
-		addContentLength(contentInfo.getLength(), response, range);
+		File localFile = contentInfo.getLocalFile();
+		if (localFile != null && localFile.isFile()) {
+			sendFile(localFile, response, range);
+			return;
+		}
+		// multiple ranges are supported only for local files, for the rest the whole content is returned
+		Range toSend = range.isMultiRange() ? Range.ALL : range;
+		addContentLength(contentInfo.getLength(), response, toSend);
 		// status code always comes before any output in the data returned to the client
-		response.setStatus(range.isAllRequested() ? HttpServletResponse.SC_OK : HttpServletResponse.SC_PARTIAL_CONTENT);
-		sendContent(contentInfo, response, range);
+		response.setStatus(toSend.isAllRequested() ? HttpServletResponse.SC_OK : HttpServletResponse.SC_PARTIAL_CONTENT);
+		sendContent(contentInfo, response, toSend);
 	}
 
 	private static void addDispositionIfNeeded(String persistedName, HttpServletResponse response, boolean forDownload,
@@ -329,9 +472,7 @@ public class ContentDownloadService {
 
 		setContentType(mimeType, response);
 		addDispositionIfNeeded(file.getName(), response, forDownload, fileName);
-		addContentLength(file.length(), response, range);
 		setDownloadCookie(response);
-		response.setStatus(range.isAllRequested() ? HttpServletResponse.SC_OK : HttpServletResponse.SC_PARTIAL_CONTENT);
 		sendFile(file, response, range);
 	}
 
@@ -1,10 +1,15 @@
 package com.sirma.sep.content;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 
 import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.IOUtils;
 import org.junit.Test;
 
 import com.sirma.itt.seip.io.FileDescriptor;
@@ -30,6 +35,23 @@ public class DefaultContentDigestProviderTest {
 		assertNotNull(digestProvider.digest(content));
 	}
 
+	@Test
+	public void shouldUseDigestComputedWhileReadingTheContent() throws Exception {
+		AtomicInteger reads = new AtomicInteger();
+		Content content = Content.create("test.txt", FileDescriptor.create(() -> {
+			reads.incrementAndGet();
+			return new ByteArrayInputStream(DATA.getBytes());
+		}, DATA.length()));
+		DigestingFileDescriptor.install(content, false);
+		try (InputStream stream = content.getContent().getInputStream()) {
+			IOUtils.toByteArray(stream);
+		}
+
+		DefaultContentDigestProvider digestProvider = new DefaultContentDigestProvider();
+		assertEquals(DigestUtils.md5Hex(DATA), digestProvider.digest(content));
+		assertEquals(1, reads.get());
+	}
+
 	@Test()
 	public void onInvalidContent() throws Exception {
 		Content content = Content.create("test.txt", FileDescriptor.create(() -> new FailingInputStream(), 0));
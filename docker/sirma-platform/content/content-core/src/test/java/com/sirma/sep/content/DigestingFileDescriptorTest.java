@@ -0,0 +1,109 @@
+package com.sirma.sep.content;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import com.sirma.itt.seip.io.FileDescriptor;
+
+/**
+ * Test for {@link DigestingFileDescriptor}
+ *
+ * @author BBonev
+ */
+public class DigestingFileDescriptorTest {
+
+	private static final String DATA = "some content data";
+
+	@Test
+	public void shouldComputeDigestsWhenTheContentIsFullyRead() throws Exception {
+		DigestingFileDescriptor descriptor = new DigestingFileDescriptor(createDescriptor(), true);
+
+		try (InputStream stream = descriptor.getInputStream()) {
+			IOUtils.toByteArray(stream);
+		}
+
+		assertEquals(DigestUtils.md5Hex(DATA), descriptor.getMd5Digest());
+		assertEquals(DigestUtils.sha256Hex(DATA), descriptor.getSha256Digest());
+	}
+
+	@Test
+	public void shouldNotComputeSha256IfNotRequested() throws Exception {
+		DigestingFileDescriptor descriptor = new DigestingFileDescriptor(createDescriptor(), false);
+
+		descriptor.writeTo(new ByteArrayOutputStream());
+
+		assertEquals(DigestUtils.md5Hex(DATA), descriptor.getMd5Digest());
+		assertNull(descriptor.getSha256Digest());
+	}
+
+	@Test
+	public void shouldComputeDigestsWhenTheContentIsWrittenDirectly() throws Exception {
+		FileDescriptor delegate = mock(FileDescriptor.class);
+		when(delegate.writeTo(any(OutputStream.class))).then(a -> {
+			a.getArgumentAt(0, OutputStream.class).write(DATA.getBytes(StandardCharsets.UTF_8));
+			return Long.valueOf(DATA.length());
+		});
+		DigestingFileDescriptor descriptor = new DigestingFileDescriptor(delegate, true);
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+		assertEquals(DATA.length(), descriptor.writeTo(output));
+
+		assertEquals(DATA, output.toString(StandardCharsets.UTF_8.name()));
+		assertEquals(DigestUtils.md5Hex(DATA), descriptor.getMd5Digest());
+		assertEquals(DigestUtils.sha256Hex(DATA), descriptor.getSha256Digest());
+		verify(delegate, never()).getInputStream();
+	}
+
+	@Test
+	public void shouldNotProvideDigestsForPartialRead() throws Exception {
+		DigestingFileDescriptor descriptor = new DigestingFileDescriptor(createDescriptor(), true);
+
+		try (InputStream stream = descriptor.getInputStream()) {
+			stream.read(new byte[5]);
+		}
+		assertNull(descriptor.getMd5Digest());
+
+		try (InputStream stream = descriptor.getInputStream()) {
+			stream.skip(5);
+			IOUtils.toByteArray(stream);
+		}
+		assertNull(descriptor.getMd5Digest());
+
+		ContentEntity entity = new ContentEntity();
+		entity.setMd5Digest("oldDigest");
+		descriptor.copyTo(entity);
+		assertNull(entity.getMd5Digest());
+	}
+
+	@Test
+	public void install_shouldReplaceTheContentDescriptorOnlyOnce() throws Exception {
+		Content content = Content.create("test.txt", createDescriptor());
+
+		DigestingFileDescriptor descriptor = DigestingFileDescriptor.install(content, false);
+
+		assertSame(descriptor, content.getContent());
+		assertSame(descriptor, DigestingFileDescriptor.install(content, false));
+		assertNull(DigestingFileDescriptor.install(Content.createEmpty(), false));
+	}
+
+	private static FileDescriptor createDescriptor() {
+		byte[] data = DATA.getBytes(StandardCharsets.UTF_8);
+		return FileDescriptor.create(() -> new ByteArrayInputStream(data), data.length);
+	}
+}
@@ -21,6 +21,8 @@ import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertNotNull;
 
 import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
 import java.nio.charset.StandardCharsets;
@@ -37,6 +39,8 @@ import java.util.concurrent.TimeUnit;
 
 import javax.ws.rs.core.MediaType;
 
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.IOUtils;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
@@ -65,6 +69,7 @@ import com.sirma.itt.seip.tasks.DefaultSchedulerConfiguration;
 import com.sirma.itt.seip.tasks.SchedulerEntryType;
 import com.sirma.itt.seip.tasks.SchedulerService;
 import com.sirma.itt.seip.testutil.CustomMatcher;
+import com.sirma.itt.seip.testutil.mocks.ConfigurationPropertyMock;
 import com.sirma.itt.seip.testutil.fakes.TransactionSupportFake;
 import com.sirma.itt.seip.testutil.mocks.InstanceReferenceMock;
 import com.sirma.itt.seip.tx.TransactionSupport;
@@ -121,6 +126,8 @@ public class InstanceContentServiceImplTest {
 	private SenderService senderService;
 	@Spy
 	private TransactionSupport transactionSupport = new TransactionSupportFake();
+	@Mock
+	private ContentConfigurations contentConfigurations;
 
 	@Before
 	public void beforeMethod() {
@@ -128,6 +135,7 @@ public class InstanceContentServiceImplTest {
 		idResolver = new IdResolver(typeConverter);
 		MockitoAnnotations.initMocks(this);
 		when(securityContext.getCurrentTenantId()).thenReturn("tenant.com");
+		when(contentConfigurations.isSha256DigestEnabled()).thenReturn(new ConfigurationPropertyMock<>(Boolean.FALSE));
 		when(contentStoreProvider.getStore(any(Instance.class), any(Content.class))).thenReturn(contentStore);
 		when(contentStoreProvider.getViewStore(any(Instance.class), any(Content.class))).thenReturn(contentStore);
 		when(contentStoreProvider.findStore(REMOTE_SYSTEM)).thenReturn(Optional.of(contentStore));
@@ -992,7 +1000,9 @@ public class InstanceContentServiceImplTest {
 		when(dbDao.fetchWithNamed(eq(ContentEntity.QUERY_CONTENT_BY_CHECKSUM_KEY), anyListOf(Pair.class)))
 				.thenReturn(Collections.emptyList(), Collections.singletonList(entity));
 
-		when(idManager.isPersisted(any(Entity.class))).thenReturn(Boolean.FALSE, Boolean.TRUE);
+		// the first save computes the digest after the upload and the second uses the already computed digest to
+		// find the existing content
+		when(idManager.isPersisted(any(Entity.class))).thenReturn(Boolean.TRUE);
 
 		ContentInfo content = service.saveContent(instance, viewDescriptor);
 		assertNotNull(content);
@@ -1009,6 +1019,71 @@ public class InstanceContentServiceImplTest {
 		verify(mimeTypeResolver).getMimeType(any(BufferedInputStream.class), Matchers.eq(fileName));
 	}
 
+	@Test
+	@SuppressWarnings("unchecked")
+	public void saveWithContentReuse_shouldRemoveUploadedContentIfReused() {
+		Content content = Content
+				.createEmpty()
+					.setName("test.txt")
+					.setContent("test content", StandardCharsets.UTF_8.name())
+					.setMimeType("text/plain")
+					.setPurpose(Content.PRIMARY_CONTENT)
+					.allowReuse();
+		Instance instance = new EmfInstance();
+		instance.setId(INSTANCE_ID);
+		mockNoEntity();
+		StoreItemInfo storeInfo = new StoreItemInfo().setProviderType(REMOTE_SYSTEM).setRemoteId("newRemoteId");
+		when(contentStore.add(instance, content)).then(a -> readContent(a.getArgumentAt(1, Content.class), storeInfo));
+
+		ContentEntity entity = createEntity();
+		entity.setChecksum(DigestUtils.md5Hex("test content"));
+		when(dbDao.fetchWithNamed(eq(ContentEntity.QUERY_CONTENT_BY_CHECKSUM_KEY), anyListOf(Pair.class)))
+				.then(a -> {
+					Pair<String, Object> checksum = (Pair<String, Object>) a.getArgumentAt(1, List.class).get(0);
+					return entity.getChecksum().equals(checksum.getSecond()) ? Collections.singletonList(entity)
+							: Collections.emptyList();
+				});
+
+		ContentInfo info = service.saveContent(instance, content);
+
+		assertTrue(info.isReuseable());
+		assertEquals("1", info.getContentId());
+		verify(contentStore).delete(storeInfo);
+		verify(dbDao, never()).saveOrUpdate(any(ContentEntity.class));
+		verify(eventService, never()).fire(any(ContentAddEvent.class));
+	}
+
+	@Test
+	public void saveContent_shouldStoreDigestsComputedDuringUpload() {
+		when(contentConfigurations.isSha256DigestEnabled()).thenReturn(new ConfigurationPropertyMock<>(Boolean.TRUE));
+		Content content = Content
+				.createEmpty()
+					.setName("test.txt")
+					.setContent("test content", StandardCharsets.UTF_8.name())
+					.setMimeType("text/plain")
+					.setPurpose(Content.PRIMARY_CONTENT);
+		Instance instance = new EmfInstance();
+		instance.setId(INSTANCE_ID);
+		mockNoEntity();
+		StoreItemInfo storeInfo = new StoreItemInfo().setProviderType(REMOTE_SYSTEM).setRemoteId("remoteId");
+		when(contentStore.add(instance, content)).then(a -> readContent(a.getArgumentAt(1, Content.class), storeInfo));
+
+		service.saveContent(instance, content);
+
+		ArgumentCaptor<ContentEntity> captor = ArgumentCaptor.forClass(ContentEntity.class);
+		verify(dbDao).saveOrUpdate(captor.capture());
+		assertEquals(DigestUtils.md5Hex("test content"), captor.getValue().getMd5Digest());
+		assertEquals(DigestUtils.sha256Hex("test content"), captor.getValue().getSha256Digest());
+		assertNull(captor.getValue().getChecksum());
+	}
+
+	private static StoreItemInfo readContent(Content content, StoreItemInfo storeInfo) throws IOException {
+		try (InputStream stream = content.getContent().getInputStream()) {
+			IOUtils.copy(stream, new ByteArrayOutputStream());
+		}
+		return storeInfo;
+	}
+
 	@SuppressWarnings("unchecked")
 	private void mockExistingContentForInstance() {
 		when(dbDao.fetchWithNamed(eq(ContentEntity.QUERY_LATEST_CONTENT_BY_INSTANCE_KEY), anyListOf(Pair.class)))
@@ -3,6 +3,7 @@ package com.sirma.sep.content.rest;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyInt;
@@ -13,17 +14,21 @@ import static org.mockito.Matchers.intThat;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 
 import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
 import javax.servlet.http.HttpServletResponse;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
@@ -35,6 +40,7 @@ import org.hamcrest.BaseMatcher;
 import org.hamcrest.Description;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Matchers;
 import org.mockito.Mock;
@@ -334,6 +340,110 @@ public class ContentDownloadServiceTest {
 		FileTestUtils.deleteFile(file);
 	}
 
+	@Test
+	public void getContentPreview_localFile_shouldNotCopyToTempFile() throws Exception {
+		File file = createLocalFile();
+		ContentInfoMock contentInfo = new ContentInfoMock("preview.pdf", true);
+		contentInfo.localFile = file;
+		when(instanceContentService.getContentPreview(anyString(), anyString())).thenReturn(contentInfo);
+		HttpServletResponse servletResponse = mock(HttpServletResponse.class);
+		ByteArrayOutputStream output = mockOutput(servletResponse);
+
+		service.sendPreview("contentId", "purpose", servletResponse, Range.fromString("bytes=10-"));
+
+		verify(servletResponse).setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+		verify(servletResponse).setContentLengthLong(6L);
+		verify(servletResponse).setHeader("Content-Range", "bytes 10-15/16");
+		assertEquals("abcdef", output.toString(StandardCharsets.UTF_8.name()));
+		verify(tempFileProvider, never()).createTempFile(anyString(), anyString());
+		FileTestUtils.deleteFile(file);
+	}
+
+	@Test
+	public void getContent_localFile_shouldSendAllContent() throws Exception {
+		File file = createLocalFile();
+		mockExistingLocalContent(file);
+		HttpServletResponse servletResponse = mock(HttpServletResponse.class);
+		ByteArrayOutputStream output = mockOutput(servletResponse);
+
+		service.sendContent("contentId", "purpose", Range.ALL, false, servletResponse, null);
+
+		verify(servletResponse).setStatus(HttpServletResponse.SC_OK);
+		verify(servletResponse).setContentLengthLong(16L);
+		assertEquals("0123456789abcdef", output.toString(StandardCharsets.UTF_8.name()));
+		FileTestUtils.deleteFile(file);
+	}
+
+	@Test
+	public void getContent_localFile_shouldSendRequestedRange() throws Exception {
+		File file = createLocalFile();
+		mockExistingLocalContent(file);
+		HttpServletResponse servletResponse = mock(HttpServletResponse.class);
+		ByteArrayOutputStream output = mockOutput(servletResponse);
+
+		service.sendContent("contentId", "purpose", Range.fromString("bytes=2-5"), false, servletResponse, null);
+
+		verify(servletResponse).setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+		verify(servletResponse).setContentLengthLong(4L);
+		verify(servletResponse).setHeader("Content-Range", "bytes 2-5/16");
+		assertEquals("2345", output.toString(StandardCharsets.UTF_8.name()));
+		FileTestUtils.deleteFile(file);
+	}
+
+	@Test
+	public void getContent_localFile_shouldSendMultipleRangesAsMultipart() throws Exception {
+		File file = createLocalFile();
+		mockExistingLocalContent(file);
+		HttpServletResponse servletResponse = mock(HttpServletResponse.class);
+		when(servletResponse.getContentType()).thenReturn("text/plain");
+		ByteArrayOutputStream output = mockOutput(servletResponse);
+
+		service.sendContent("contentId", "purpose", Range.fromString("bytes=0-1,10-,20-30"), false, servletResponse,
+				null);
+
+		verify(servletResponse).setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+		ArgumentCaptor<String> contentType = ArgumentCaptor.forClass(String.class);
+		verify(servletResponse, times(2)).setContentType(contentType.capture());
+		String multipartType = contentType.getValue();
+		assertTrue(multipartType.startsWith("multipart/byteranges; boundary="));
+		String boundary = multipartType.substring(multipartType.indexOf('=') + 1);
+
+		String body = output.toString(StandardCharsets.US_ASCII.name());
+		verify(servletResponse).setContentLengthLong(body.length());
+		String expected = "\r\n--" + boundary + "\r\nContent-Type: text/plain\r\nContent-Range: bytes 0-1/16\r\n\r\n01"
+				+ "\r\n--" + boundary + "\r\nContent-Type: text/plain\r\nContent-Range: bytes 10-15/16\r\n\r\nabcdef"
+				+ "\r\n--" + boundary + "--\r\n";
+		assertEquals(expected, body);
+		FileTestUtils.deleteFile(file);
+	}
+
+	@Test
+	public void sendFile_shouldFailForNotSatisfiableRanges() throws Exception {
+		File file = createLocalFile();
+		HttpServletResponse servletResponse = mock(HttpServletResponse.class);
+
+		service.sendFile(file, Range.fromString("bytes=20-30,40-"), false, servletResponse, null, null);
+
+		verify(servletResponse).setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+		verify(servletResponse).setHeader("Content-Range", "bytes */16");
+		verify(servletResponse, never()).getOutputStream();
+		FileTestUtils.deleteFile(file);
+	}
+
+	@Test
+	public void sendFile_shouldFailForNotSatisfiableSingleRange() throws Exception {
+		File file = createLocalFile();
+		HttpServletResponse servletResponse = mock(HttpServletResponse.class);
+
+		service.sendFile(file, Range.fromString("bytes=16-20"), false, servletResponse, null, null);
+
+		verify(servletResponse).setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+		verify(servletResponse).setHeader("Content-Range", "bytes */16");
+		verify(servletResponse, never()).setContentLengthLong(anyLong());
+		verify(servletResponse, never()).getOutputStream();
+		FileTestUtils.deleteFile(file);
+	}
+
 	@Test
 	public void sendFile_nullFile_notFoundResponse() {
 		HttpServletResponse servletResponse = mock(HttpServletResponse.class);
@@ -412,6 +522,40 @@ public class ContentDownloadServiceTest {
 		}
 	}
 
+	private void mockExistingLocalContent(File file) {
+		ContentInfoMock contentInfo = new ContentInfoMock(true, file.length());
+		contentInfo.localFile = file;
+		when(instanceContentService.getContent(anyString(), anyString())).thenReturn(contentInfo);
+	}
+
+	private static File createLocalFile() throws IOException {
+		File file = File.createTempFile("test", ".tmp");
+		Files.write(file.toPath(), "0123456789abcdef".getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+
+	private static ByteArrayOutputStream mockOutput(HttpServletResponse servletResponse) throws IOException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		when(servletResponse.getOutputStream()).thenReturn(new ServletOutputStream() {
+
+			@Override
+			public void write(int b) throws IOException {
+				output.write(b);
+			}
+
+			@Override
+			public boolean isReady() {
+				return true;
+			}
+
+			@Override
+			public void setWriteListener(WriteListener writeListener) {
+				// nothing to do
+			}
+		});
+		return output;
+	}
+
 	private ContentInfo mockExistingContentUnknownSize() {
 		ContentInfoMock contentInfo = new ContentInfoMock(true, -1L);
 		when(instanceContentService.getContent(anyString(), anyString())).thenReturn(contentInfo);
@@ -451,6 +595,7 @@ public class ContentDownloadServiceTest {
 		private String name;
 		private boolean exists;
 		private Long length;
+		private File localFile;
 
 		/**
 		 * Instantiates a new content info mock.
@@ -590,6 +735,11 @@ public class ContentDownloadServiceTest {
 			return "checksum";
 		}
 
+		@Override
+		public File getLocalFile() {
+			return localFile;
+		}
+
 	}
 
 }
@@ -1,9 +1,11 @@
 package com.sirma.sep.content.idoc.extensions.widgets;
 
 import static com.sirma.itt.seip.collections.CollectionUtils.emptyList;
+import static com.sirma.itt.seip.instance.version.VersionProperties.WidgetsHandlerContextProperties.WIDGET_SEARCH_CACHE_KEY;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
@@ -21,6 +23,7 @@ import com.sirma.itt.seip.domain.search.SearchRequest;
 import com.sirma.itt.seip.domain.search.tree.Condition;
 import com.sirma.itt.seip.domain.search.tree.ConditionBuilder;
 import com.sirma.itt.seip.domain.search.tree.SearchCriteriaBuilder;
+import com.sirma.itt.seip.instance.version.WidgetSearchCache;
 import com.sirma.itt.seip.search.SearchService;
 import com.sirma.itt.seip.search.converters.JsonToConditionConverter;
 import com.sirma.itt.seip.search.converters.JsonToDateRangeConverter;
@@ -51,6 +54,9 @@ import com.sirma.sep.content.idoc.handler.SearchContentNodeHandler;
  * <p>
  * Note that when the search for the widget is executed, all permissions checks will be skipped, because we need to get
  * all of the instances.
+ * <p>
+ * If the handler context contains a {@link WidgetSearchCache} the widgets with equal search queries will share the
+ * results of a single search execution. The results are only read by the handlers so they are safe to be shared.
  *
  * @param <W> the type of the widget
  * @author A. Kunchev
@@ -98,7 +104,7 @@ public abstract class AbstractWidgetSearchHandler<W extends Widget> implements S
 				.getSearchCriteria()
 					.map(jsonToConditionConverter::parseCondition)
 					.map(condition -> buildSearchRequest(condition, node))
-					.map(request -> search(request, context.getCurrentInstanceId()))
+					.map(request -> search(request, context))
 					.map(this::handleResults)
 					// only if current object is selected we don't have search criteria. In that case its fine to return
 					// empty result, because we don't need to process the widget further (for now)
@@ -137,6 +143,35 @@ public abstract class AbstractWidgetSearchHandler<W extends Widget> implements S
 	 * @exception IllegalArgumentException when the search request is not valid
 	 */
 	protected SearchArguments<Instance> search(SearchRequest request, String currentInstanceId) {
+		SearchArguments<Instance> arguments = buildSearchArguments(request, currentInstanceId);
+		searchService.search(Instance.class, arguments);
+		return arguments;
+	}
+
+	/**
+	 * Parses given search request and perform search in the same way as {@link #search(SearchRequest, String)}. If the
+	 * given context contains {@link WidgetSearchCache} the search will be executed only if search with the same query
+	 * is not already executed for other widget. In that case the returned arguments are shared and should not be
+	 * modified.
+	 *
+	 * @param request {@link SearchRequest} object that is used to build search arguments
+	 * @param context the handler context that provides the current instance id and the optional search cache
+	 * @return {@link SearchArguments} object that contains the results from the search
+	 * @exception IllegalArgumentException when the search request is not valid
+	 */
+	protected SearchArguments<Instance> search(SearchRequest request, HandlerContext context) {
+		WidgetSearchCache searchCache = context.getIfSameType(WIDGET_SEARCH_CACHE_KEY, WidgetSearchCache.class);
+		if (searchCache == null) {
+			return search(request, context.getCurrentInstanceId());
+		}
+		SearchArguments<Instance> arguments = buildSearchArguments(request, context.getCurrentInstanceId());
+		return searchCache.getOrSearch(buildSearchKey(arguments), () -> {
+			searchService.search(Instance.class, arguments);
+			return arguments;
+		});
+	}
+
+	private SearchArguments<Instance> buildSearchArguments(SearchRequest request, String currentInstanceId) {
 		SearchArguments<Instance> arguments = searchService.parseRequest(request);
 		if (arguments == null) {
 			throw new IllegalArgumentException("Valid search request is requeried!");
@@ -150,10 +185,18 @@ public abstract class AbstractWidgetSearchHandler<W extends Widget> implements S
 		// permission will be applied when the versions are displayed, however if we use this handler for other
 		// functionalities we need to pass this as some kind of configuration
 		arguments.setPermissionsType(QueryResultPermissionFilter.NONE);
-		searchService.search(Instance.class, arguments);
 		return arguments;
 	}
 
+	/**
+	 * All widget searches are executed with the same paging and permission settings so the searches are equal if they
+	 * have the same query and query parameters.
+	 */
+	private static Object buildSearchKey(SearchArguments<Instance> arguments) {
+		return Arrays.asList(arguments.getDialect(), arguments.getStringQuery(), arguments.getArguments(),
+				arguments.getProjection(), Boolean.valueOf(arguments.shouldGroupBy()), arguments.getGroupBy());
+	}
+
 	/**
 	 * Converts the results from the {@link SearchArguments} in to format suitable for the widgets.
 	 * <p />
@@ -57,7 +57,7 @@ public abstract class AbstractAggregatedSearchHandler<W extends Widget> extends
 			return new HandlerResult(node);
 		}
 		SearchRequest searchRequest = buildSearchRequest(node, searchResult);
-		SearchArguments<Instance> searchArguments = search(searchRequest, context.getCurrentInstanceId());
+		SearchArguments<Instance> searchArguments = search(searchRequest, context);
 		Map<String, Object> resultMap = new HashMap<>(2);
 		resultMap.put(AGGREGATED_DATA_RESULT_MAP_KEY, searchArguments.getAggregatedData());
 		resultMap.put(INSTANCE_IDS_RESULT_MAP_KEY, searchRequest.get(SELECTED_OBJECTS));
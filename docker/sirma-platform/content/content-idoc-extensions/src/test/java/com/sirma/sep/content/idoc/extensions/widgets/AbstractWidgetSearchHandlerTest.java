@@ -9,12 +9,14 @@ import static org.mockito.Mockito.CALLS_REAL_METHODS;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Optional;
 
 import javax.json.JsonObject;
@@ -36,6 +38,8 @@ import com.sirma.itt.seip.domain.search.SearchRequest;
 import com.sirma.itt.seip.domain.search.tree.Condition;
 import com.sirma.itt.seip.domain.search.tree.ConditionBuilder;
 import com.sirma.itt.seip.domain.search.tree.SearchCriteriaBuilder;
+import com.sirma.itt.seip.instance.version.VersionProperties.WidgetsHandlerContextProperties;
+import com.sirma.itt.seip.instance.version.WidgetSearchCache;
 import com.sirma.itt.seip.search.SearchService;
 import com.sirma.itt.seip.search.converters.JsonToConditionConverter;
 import com.sirma.itt.seip.search.converters.JsonToDateRangeConverter;
@@ -97,6 +101,35 @@ public class AbstractWidgetSearchHandlerTest {
 		}
 	}
 
+	@Test
+	public void handle_shouldShareSearchResults_ForEqualQueries() throws IOException {
+		when(jsonToConditionConverter.parseCondition(any(JsonObject.class))).thenReturn(
+				SearchCriteriaBuilder.createConditionBuilder().build());
+		when(searchService.parseRequest(any(SearchRequest.class))).then(a -> {
+			SearchArguments<Object> arguments = new SearchArguments<>();
+			arguments.setResult(Arrays.asList(new EmfInstance("instance-id-1")));
+			arguments.setStringQuery("select * where { current_object emf:hasChild ?instance }");
+			return arguments;
+		});
+		HandlerContext context = new HandlerContext("emf:parent");
+		context.put(WidgetsHandlerContextProperties.WIDGET_SEARCH_CACHE_KEY, new WidgetSearchCache());
+
+		try (InputStream stream = AbstractWidgetSearchHandlerTest.class
+				.getClassLoader()
+					.getResourceAsStream(CONFIGURATION_WITH_SEARCH_CRITERIA)) {
+			String configuration = IOUtils.toString(stream);
+			for (int i = 0; i < 3; i++) {
+				Element node = new Element(Tag.valueOf("div"), "");
+				node.attr("config", configuration);
+				ObjectDataWidget dataWidget = new ObjectDataWidget(node);
+				handler.handle(dataWidget, context);
+				assertEquals(Collections.singleton("instance-id-1"),
+						dataWidget.getConfiguration().getSearchResults().getResultsAsCollection());
+			}
+		}
+		verify(searchService).search(any(), any(SearchArguments.class));
+	}
+
 	@Test(expected = IllegalArgumentException.class)
 	public void handle_withoutSearchArguments() throws IOException {
 		when(jsonToConditionConverter.parseCondition(any(JsonObject.class))).thenReturn(
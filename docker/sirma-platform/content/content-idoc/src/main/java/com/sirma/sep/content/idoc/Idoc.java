@@ -216,12 +216,14 @@ public class Idoc implements NodeContainer {
 	}
 
 	/**
-	 * Deep clone the {@link Idoc} structure.
+	 * Deep clone the {@link Idoc} structure. The widget configurations are flushed and the underlying document is
+	 * cloned without serializing and parsing it again.
 	 *
 	 * @return copy of the current {@link Idoc} instance.
 	 */
 	public Idoc deepCopy() {
-		return parse(asHtml());
+		flushWidgetConfigurations();
+		return new Idoc(content.clone());
 	}
 
 	/**
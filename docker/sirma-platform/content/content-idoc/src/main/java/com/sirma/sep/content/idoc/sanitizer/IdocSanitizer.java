@@ -1,6 +1,8 @@
 package com.sirma.sep.content.idoc.sanitizer;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -9,8 +11,10 @@ import javax.inject.Singleton;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.jsoup.Jsoup;
+import org.jsoup.nodes.Attribute;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
+import org.jsoup.safety.Cleaner;
 import org.jsoup.safety.Whitelist;
 import org.jsoup.select.Elements;
 
@@ -21,10 +25,11 @@ import org.jsoup.select.Elements;
  * - removing ui framework specific tags, attributes and style-classes.<br/>
  * - remove style classes.<br/>
  * - generates missing ui tabs identifiers.<br/>
+ * All steps are performed over a single parsed document. The content is parsed at most once and serialized only if
+ * the caller requested the result as text.
  *
  * @author Adrian Mitev
  */
-// TODO: we should re-design this class a lot of parsing, serializing and then parsing again is performed, rename
 @Singleton
 public class IdocSanitizer {
 
@@ -37,8 +42,6 @@ public class IdocSanitizer {
 
 	private static final String NON_EXISTENT_DOMAIN = "http://non.existent.domain.com/";
 
-	private static final Pattern EMPTY_ATTRIBUTE_PATTERN = Pattern.compile("[a-z]+=\"\\s*\"");
-
 	private static final String IDOC_VISUAL_CLASSES = "idoc-visual-";
 
 	private static final String TEMP_TAGS = "div[data-cke-temp]";
@@ -49,9 +52,6 @@ public class IdocSanitizer {
 
 	private static final Pattern NG_CLASSES_PATTERN = Pattern.compile("(^|\\s)" + NG_CLASSES + "[a-zA-Z0-9\\-_]+");
 
-	private static final Pattern TRIM_TAGS_PATTERN = Pattern
-			.compile("<([a-zA-Z-0-9]+?)(\\s[a-zA-Z-0-9\\-]+?\\=\"[^\"]+\")*\\s+>");
-
 	/**
 	 * Sections css selector used when uploading a document. It's used for retrieving all tab sections from the uploaded
 	 * document's template that do not have a set id.
@@ -132,14 +132,12 @@ public class IdocSanitizer {
 			throw new IllegalArgumentException("Could not sanitize content with [" + content + "] value.");
 		}
 
-		String result = sanitizeInternal(Jsoup.parse(content), origin);
-		result = removeEmptyAttributes(result);
-		result = trimTagWhitespaces(result);
-		return result;
+		return sanitizeInternal(Jsoup.parse(content), origin).body().html();
 	}
 
 	/**
-	 * Sanitize the given html document by updating or creating new document.
+	 * Sanitize the given html document. The document is modified in place and then only the allowed nodes are copied
+	 * to the returned document, without serializing and parsing the content again.
 	 *
 	 * @param source
 	 *            the source document to update
@@ -152,10 +150,7 @@ public class IdocSanitizer {
 		if (origin != null) {
 			originUrl = origin;
 		}
-		String result = sanitizeInternal(source, originUrl);
-		result = removeEmptyAttributes(result);
-		result = trimTagWhitespaces(result);
-		Document sanitizedDocument = Jsoup.parse(result);
+		Document sanitizedDocument = sanitizeInternal(source, originUrl);
 		sanitizedDocument = sanitizeWidgetElements(sanitizedDocument);
 		return removeWrappingHtmlAndBody(sanitizedDocument);
 	}
@@ -171,22 +166,14 @@ public class IdocSanitizer {
 	 * @return sanitized html
 	 */
 	public String sanitizeTemplate(String content, String origin) {
-		String sanitized = sanitizeInternal(Jsoup.parse(content), origin);
-		Document document = removeWrappingHtmlAndBody(Jsoup.parse(sanitized));
+		Document document = removeWrappingHtmlAndBody(sanitizeInternal(Jsoup.parse(content), origin));
 
 		// remove widget values
 		removeAttribute(document, WIDGET_SELECTOR, "data-value");
 
 		// remove id attributes of all elements without widgets
 		removeAttribute(document, ID_SELECTOR, "id");
-		String result = document.toString();
-
-		// remove empty tags
-		result = removeEmptyAttributes(result);
-
-		result = trimTagWhitespaces(result);
-
-		return result;
+		return document.toString();
 	}
 
 	/**
@@ -227,9 +214,9 @@ public class IdocSanitizer {
 	 *            content to sanitize.
 	 * @param origin
 	 *            the origin
-	 * @return sanitized document.
+	 * @return new document that contains only the allowed nodes of the sanitized document.
 	 */
-	private String sanitizeInternal(Document document, String origin) {
+	private Document sanitizeInternal(Document document, String origin) {
 
 		removeWidgetContent(document);
 
@@ -247,7 +234,10 @@ public class IdocSanitizer {
 
 		sanitizeLayouts(document);
 		// clean is at last position because it breaks the widget content
-		return clean(document, origin);
+		Document cleaned = clean(document, origin);
+
+		removeEmptyAttributes(cleaned);
+		return cleaned;
 	}
 
 	/**
@@ -261,7 +251,8 @@ public class IdocSanitizer {
 	}
 
 	/**
-	 * Cleans up the document using the document list.
+	 * Cleans up the document using the document list. The links are resolved against the given origin so it's set as
+	 * base uri of all document nodes before cleaning.
 	 *
 	 * @param document
 	 *            document object
@@ -269,12 +260,28 @@ public class IdocSanitizer {
 	 *            the origin
 	 * @return cleaned up document object.
 	 */
-	private String clean(Document document, String origin) {
+	private Document clean(Document document, String origin) {
 		String local = origin;
 		if (local == null) {
 			local = "";
 		}
-		return Jsoup.clean(document.toString(), local, documentWhiteList);
+		Document source = ensureBody(document);
+		source.setBaseUri(local);
+		return new Cleaner(documentWhiteList).clean(source);
+	}
+
+	/**
+	 * The cleaner processes only the document body. Documents that were stripped from their html and body tags are
+	 * moved to a new document shell so that their content is not lost.
+	 */
+	private static Document ensureBody(Document document) {
+		if (document.body() != null) {
+			return document;
+		}
+		Document shell = Document.createShell(document.baseUri());
+		Element body = shell.body();
+		new ArrayList<>(document.childNodes()).forEach(body::appendChild);
+		return shell;
 	}
 
 	/**
@@ -357,25 +364,21 @@ public class IdocSanitizer {
 	}
 
 	/**
-	 * Removes empty attributes from html.
+	 * Removes the attributes with blank values from all document elements.
 	 *
-	 * @param html
-	 *            html which empty attributes to remove.
-	 * @return html with empty attributes removed.
-	 */
-	private static String removeEmptyAttributes(String html) {
-		return EMPTY_ATTRIBUTE_PATTERN.matcher(html).replaceAll("");
-	}
-
-	/**
-	 * Trims ending whatspaces from tags.
-	 *
-	 * @param content
-	 *            content to trim.
-	 * @return trimmed content.
+	 * @param document
+	 *            document which empty attributes to remove.
 	 */
-	private static String trimTagWhitespaces(String content) {
-		return TRIM_TAGS_PATTERN.matcher(content).replaceAll("<$1$2>");
+	private static void removeEmptyAttributes(Document document) {
+		for (Element element : document.getAllElements()) {
+			List<String> emptyAttributes = new ArrayList<>();
+			for (Attribute attribute : element.attributes()) {
+				if (StringUtils.isBlank(attribute.getValue())) {
+					emptyAttributes.add(attribute.getKey());
+				}
+			}
+			emptyAttributes.forEach(element::removeAttr);
+		}
 	}
 
 	/**
@@ -215,4 +215,16 @@ public class IdocTest {
 		Assert.assertEquals(idoc.children().count(), 0);
 	}
 
+	@Test()
+	public static void deepCopyShouldNotShareTheDocument() {
+		Idoc idoc = Idoc.parse("<div data-tabs-counter=\"1\"><section data-id=\"tab1\"><p>text</p></section></div>");
+
+		Idoc copy = idoc.deepCopy();
+		Assert.assertEquals(copy.asHtml(), idoc.asHtml());
+
+		copy.getContent().select("p").remove();
+		Assert.assertEquals(idoc.getContent().select("p").size(), 1);
+		Assert.assertEquals(copy.getSections().count(), 1);
+	}
+
 }
@@ -8,6 +8,7 @@ import java.nio.charset.StandardCharsets;
 
 import org.apache.commons.io.FileUtils;
 import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -107,6 +108,22 @@ public class IdocSanitizerTest {
 		Assert.assertTrue(result.contains("data-id"));
 	}
 
+	@Test
+	public void shouldRemoveEmptyAttributes() {
+		String result = sanitizer.sanitize("<div data-tabs-counter=\"1\" data-value=\" \" class=\"\"><p id=\"p1\">text</p></div>");
+
+		Assert.assertEquals("<div data-tabs-counter=\"1\">\n <p id=\"p1\">text</p>\n</div>", result);
+	}
+
+	@Test
+	public void shouldSanitizeDocumentWithoutBody() {
+		Document document = sanitizer.sanitize(Jsoup.parse("<div><script>alert(1)</script><p>text</p></div>"), null);
+
+		Document sanitized = sanitizer.sanitize(document, null);
+
+		Assert.assertEquals("<div>\n <p>text</p>\n</div>", sanitized.toString());
+	}
+
 	private static String unprettyPrintHtml(String html) {
 		String notPretty = html.replace((char) 10, ' ');
 		notPretty = notPretty.replace((char) 13, ' ');
@@ -1,6 +1,7 @@
 package com.sirma.itt.cmf.cache;
 
 import java.io.Serializable;
+import java.util.Map;
 import java.util.Spliterator;
 import java.util.Spliterators;
 import java.util.stream.Stream;
@@ -88,6 +89,17 @@ public class InfinispanCache<K extends Serializable, V extends Object> implement
 		withFlags.put(key, value);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void putAll(Map<K, V> values) {
+		if (values.isEmpty()) {
+			return;
+		}
+		withFlags.putAll(values);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -4,6 +4,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
@@ -45,6 +46,13 @@ public class SolrQueryHelperTest {
 		}
 	}
 
+	@Test
+	public void testTermsQueryBuilding() {
+		String query = SolrQueryHelper.createTermsQuery(Arrays.asList("emf:1", "emf:2", "emf:3"), DefaultProperties.URI)
+				.toString();
+		assertEquals("{!terms f=id}emf:1,emf:2,emf:3", query);
+	}
+
 	@Test(expected = IllegalArgumentException.class)
 	public void buildDateRangeFilterQuery_emptyFieldName() {
 		SolrQueryHelper.buildDateRangeFilterQuery("", new DateRange(null, null));
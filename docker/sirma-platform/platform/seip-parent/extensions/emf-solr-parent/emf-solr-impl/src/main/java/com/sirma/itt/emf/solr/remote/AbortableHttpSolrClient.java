@@ -0,0 +1,187 @@
+package com.sirma.itt.emf.solr.remote;
+
+import java.io.IOException;
+
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.solr.client.solrj.ResponseParser;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.impl.BinaryResponseParser;
+import org.apache.solr.client.solrj.impl.HttpSolrClient;
+import org.apache.solr.client.solrj.impl.LBHttpSolrClient;
+import org.apache.solr.common.util.NamedList;
+
+/**
+ * {@link HttpSolrClient} that allows the HTTP request sent in a {@link RequestAttempt} to be aborted from another
+ * thread. Requests sent outside of an attempt are executed as usual.
+ *
+ * @author BBonev
+ */
+class AbortableHttpSolrClient extends HttpSolrClient {
+
+	private static final long serialVersionUID = 4625403478017655306L;
+
+	private static final ThreadLocal<RequestAttempt> CURRENT_ATTEMPT = new ThreadLocal<>();
+
+	/**
+	 * Instantiates a new abortable solr client.
+	 *
+	 * @param baseUrl
+	 *            the url of the Solr core
+	 * @param client
+	 *            the HTTP client to use
+	 */
+	AbortableHttpSolrClient(String baseUrl, HttpClient client) {
+		super(baseUrl, client);
+	}
+
+	AbortableHttpSolrClient(String baseUrl, HttpClient client, ResponseParser parser) {
+		super(baseUrl, client, parser);
+	}
+
+	/**
+	 * Gets the attempt executed by the current thread.
+	 *
+	 * @return the current attempt or <code>null</code> if the thread does not send a request in an attempt
+	 */
+	static RequestAttempt currentAttempt() {
+		return CURRENT_ATTEMPT.get();
+	}
+
+	@Override
+	protected NamedList<Object> executeMethod(HttpRequestBase method, ResponseParser processor)
+			throws SolrServerException {
+		RequestAttempt attempt = CURRENT_ATTEMPT.get();
+		if (attempt == null) {
+			return super.executeMethod(method, processor);
+		}
+		if (!attempt.start(method)) {
+			throw new RequestAbortedException(null);
+		}
+		try {
+			return super.executeMethod(method, processor);
+		} catch (SolrServerException e) {
+			if (attempt.isAborted()) {
+				// the load balanced client should not mark the server as dead because of the abort
+				throw new RequestAbortedException(e);
+			}
+			throw e;
+		} finally {
+			attempt.finish();
+		}
+	}
+
+	/**
+	 * {@link LBHttpSolrClient} that uses {@link AbortableHttpSolrClient}s for the load balanced servers.
+	 *
+	 * @author BBonev
+	 */
+	static class LoadBalanced extends LBHttpSolrClient {
+
+		private static final long serialVersionUID = -3419214566052457361L;
+
+		/**
+		 * Instantiates a new load balanced client.
+		 *
+		 * @param httpClient
+		 *            the HTTP client to use
+		 * @param solrServerUrls
+		 *            the urls of the Solr cores to balance between
+		 */
+		LoadBalanced(HttpClient httpClient, String... solrServerUrls) {
+			super(httpClient, solrServerUrls);
+		}
+
+		@Override
+		protected HttpSolrClient makeSolrClient(String server) {
+			return new AbortableHttpSolrClient(server, getHttpClient(), new BinaryResponseParser());
+		}
+	}
+
+	/**
+	 * Single sending of a Solr request that could be aborted by another thread.
+	 *
+	 * @author BBonev
+	 */
+	static class RequestAttempt {
+		private HttpRequestBase method;
+		private boolean aborted;
+
+		/**
+		 * Executes the given call in the current thread as part of this attempt.
+		 *
+		 * @param call
+		 *            the call that sends the request
+		 * @return the call result
+		 * @throws SolrServerException
+		 *             if the request fails
+		 * @throws IOException
+		 *             if the request fails
+		 * @throws RequestAbortedException
+		 *             if the attempt was aborted
+		 */
+		<T> T execute(SolrCall<T> call) throws SolrServerException, IOException {
+			if (isAborted()) {
+				throw new RequestAbortedException(null);
+			}
+			CURRENT_ATTEMPT.set(this);
+			try {
+				return call.call();
+			} finally {
+				CURRENT_ATTEMPT.remove();
+			}
+		}
+
+		synchronized boolean start(HttpRequestBase request) {
+			if (aborted) {
+				return false;
+			}
+			method = request;
+			return true;
+		}
+
+		synchronized void finish() {
+			method = null;
+		}
+
+		/**
+		 * Aborts the attempt. If its request is currently sent the connection is closed.
+		 */
+		synchronized void abort() {
+			aborted = true;
+			if (method != null) {
+				method.abort();
+			}
+		}
+
+		synchronized boolean isAborted() {
+			return aborted;
+		}
+	}
+
+	/**
+	 * Call that sends a Solr request.
+	 *
+	 * @param <T>
+	 *            the result type
+	 * @author BBonev
+	 */
+	@FunctionalInterface
+	interface SolrCall<T> {
+		T call() throws SolrServerException, IOException;
+	}
+
+	/**
+	 * Thrown when a request of aborted {@link RequestAttempt} is sent or when its response is interrupted.
+	 *
+	 * @author BBonev
+	 */
+	static class RequestAbortedException extends RuntimeException {
+
+		private static final long serialVersionUID = -7826385711839587071L;
+
+		RequestAbortedException(Throwable cause) {
+			super("Solr request aborted", cause);
+		}
+	}
+}
@@ -0,0 +1,199 @@
+package com.sirma.itt.emf.solr.remote;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrRequest;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.request.QueryRequest;
+import org.apache.solr.common.util.NamedList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sirma.itt.emf.solr.remote.AbortableHttpSolrClient.RequestAttempt;
+import com.sirma.itt.seip.Destroyable;
+import com.sirma.itt.seip.monitor.Metric;
+import com.sirma.itt.seip.monitor.Metric.Builder;
+import com.sirma.itt.seip.monitor.Statistics;
+
+/**
+ * {@link SolrClient} wrapper that tracks the request durations and the connection pool usage of the wrapped client.
+ * If hedging delay is configured the query requests that does not complete in that time are sent for a second time
+ * and the first received response is returned. The query is sent by the calling thread and only the second request is
+ * scheduled to the hedging executor. The request that completes second is aborted if the wrapped client is
+ * {@link AbortableHttpSolrClient}. When the client is destroyed the wrapped client, its connection pool and the hedging
+ * executor are closed.
+ *
+ * @author BBonev
+ */
+@SuppressWarnings("deprecation")
+class MonitoredSolrClient extends SolrClient implements Destroyable {
+
+	private static final long serialVersionUID = -2437604541318587012L;
+	private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+	private static final Metric SOLR_REQUEST_DURATION_SEC = Builder
+			.timer("solr_request_duration_seconds", "Solr request duration in seconds.")
+				.build();
+	private static final Metric SOLR_REQUESTS_IN_FLIGHT = Builder
+			.gauge("solr_requests_in_flight", "The number of the currently executed Solr requests.")
+				.build();
+	private static final Metric SOLR_LEASED_CONNECTIONS = Builder
+			.histogram("solr_leased_connections", "The number of the leased pool connections when a request is sent.")
+				.build();
+	private static final Metric SOLR_PENDING_CONNECTIONS = Builder
+			.histogram("solr_pending_connections",
+					"The number of the requests waiting for a pool connection when a request is sent.")
+				.build();
+	private static final Metric SOLR_HEDGED_REQUESTS = Builder
+			.counter("solr_hedged_requests_count", "The count of the slow Solr queries that were sent a second time.")
+				.build();
+
+	private final SolrClient delegate;
+	private final transient PoolingClientConnectionManager connectionManager;
+	private final int hedgeDelay;
+	private final transient ScheduledExecutorService hedgeExecutor;
+	private final transient Statistics statistics;
+
+	/**
+	 * Instantiates a new monitored solr client.
+	 *
+	 * @param delegate
+	 *            the actual client
+	 * @param connectionManager
+	 *            the connection pool used by the actual client
+	 * @param hedgeDelay
+	 *            the delay in milliseconds after which slow query is sent again. Negative values disable the hedging
+	 * @param hedgeExecutor
+	 *            the executor used to send the hedged requests. Could be <code>null</code> if the hedging is disabled
+	 * @param statistics
+	 *            the statistics to report to
+	 */
+	MonitoredSolrClient(SolrClient delegate, PoolingClientConnectionManager connectionManager, int hedgeDelay,
+			ScheduledExecutorService hedgeExecutor, Statistics statistics) {
+		this.delegate = delegate;
+		this.connectionManager = connectionManager;
+		this.hedgeDelay = hedgeDelay;
+		this.hedgeExecutor = hedgeExecutor;
+		this.statistics = statistics;
+	}
+
+	@Override
+	public NamedList<Object> request(SolrRequest request, String collection) throws SolrServerException, IOException {
+		trackPoolUsage();
+		statistics.track(SOLR_REQUESTS_IN_FLIGHT);
+		statistics.track(SOLR_REQUEST_DURATION_SEC);
+		try {
+			if (hedgeDelay >= 0 && hedgeExecutor != null && request instanceof QueryRequest) {
+				return requestWithHedging(request, collection);
+			}
+			return delegate.request(request, collection);
+		} finally {
+			statistics.end(SOLR_REQUEST_DURATION_SEC);
+			statistics.end(SOLR_REQUESTS_IN_FLIGHT);
+		}
+	}
+
+	private void trackPoolUsage() {
+		PoolStats stats = connectionManager.getTotalStats();
+		statistics.value(SOLR_LEASED_CONNECTIONS.name(), stats.getLeased());
+		statistics.end(SOLR_LEASED_CONNECTIONS);
+		statistics.value(SOLR_PENDING_CONNECTIONS.name(), stats.getPending());
+		statistics.end(SOLR_PENDING_CONNECTIONS);
+	}
+
+	private NamedList<Object> requestWithHedging(SolrRequest request, String collection)
+			throws SolrServerException, IOException {
+		RequestAttempt primary = new RequestAttempt();
+		RequestAttempt hedge = new RequestAttempt();
+		CompletableFuture<NamedList<Object>> hedgeResponse = new CompletableFuture<>();
+		Future<?> scheduledHedge = hedgeExecutor.schedule(
+				() -> sendHedge(request, collection, hedge, primary, hedgeResponse), hedgeDelay, TimeUnit.MILLISECONDS);
+		try {
+			return primary.execute(() -> delegate.request(request, collection));
+		} catch (SolrServerException | IOException | RuntimeException e) {
+			if (primary.isAborted()) {
+				// the hedged request completed first
+				return await(hedgeResponse);
+			}
+			throw e;
+		} finally {
+			scheduledHedge.cancel(false);
+			hedge.abort();
+		}
+	}
+
+	private void sendHedge(SolrRequest request, String collection, RequestAttempt hedge, RequestAttempt primary,
+			CompletableFuture<NamedList<Object>> response) {
+		LOGGER.trace("Solr query did not complete in {} ms. Sending it again", hedgeDelay);
+		statistics.track(SOLR_HEDGED_REQUESTS);
+		try {
+			response.complete(hedge.execute(() -> delegate.request(request, collection)));
+			primary.abort();
+		} catch (Exception e) {
+			// the primary request will be used
+			LOGGER.trace("Hedged Solr query failed", e);
+			response.completeExceptionally(e);
+		}
+	}
+
+	private static NamedList<Object> await(CompletableFuture<NamedList<Object>> future)
+			throws SolrServerException, IOException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SolrServerException("Interrupted while waiting for Solr response", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof SolrServerException) {
+				throw (SolrServerException) cause;
+			}
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new SolrServerException(cause);
+		}
+	}
+
+	@Override
+	public void shutdown() {
+		delegate.shutdown();
+		connectionManager.shutdown();
+		shutdownHedgeExecutor();
+	}
+
+	@Override
+	public void close() throws IOException {
+		delegate.close();
+		connectionManager.shutdown();
+		shutdownHedgeExecutor();
+	}
+
+	private void shutdownHedgeExecutor() {
+		if (hedgeExecutor != null) {
+			hedgeExecutor.shutdownNow();
+		}
+	}
+
+	@Override
+	public void destroy() {
+		try {
+			close();
+		} catch (IOException e) {
+			LOGGER.warn("Could not close Solr client", e);
+		}
+	}
+
+}
@@ -3,9 +3,18 @@ package com.sirma.itt.emf.solr.remote;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
 import org.apache.commons.lang3.StringUtils;
+import org.apache.http.client.HttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.impl.conn.SchemeRegistryFactory;
 import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.impl.HttpClientUtil;
 import org.apache.solr.client.solrj.impl.HttpSolrClient;
+import org.apache.solr.common.params.ModifiableSolrParams;
 
 import com.sirma.itt.emf.solr.configuration.SolrConfiguration;
 import com.sirma.itt.seip.configuration.ConfigurationException;
@@ -15,6 +24,7 @@ import com.sirma.itt.seip.configuration.annotation.ConfigurationConverter;
 import com.sirma.itt.seip.configuration.annotation.ConfigurationGroupDefinition;
 import com.sirma.itt.seip.configuration.annotation.ConfigurationPropertyDefinition;
 import com.sirma.itt.seip.configuration.convert.GroupConverterContext;
+import com.sirma.itt.seip.monitor.Statistics;
 
 /**
  * SolrConfiguration implementation that provides {@link SolrClient}s to access Solr server or Zookeeper.
@@ -36,9 +46,20 @@ public class SOLRConfigurations implements SolrConfiguration {
 	private static final String SOLR_SERVER_MASTER_URL = "solr.host.masterurl";
 	@ConfigurationPropertyDefinition(defaultValue = "5000", sensitive = true, type = Integer.class, label = "Solr socket timeout. If its set \"-1\" will disable setting the timeout.")
 	private static final String SOLR_SOCKET_TIMEOUT = "solr.socket.timeout";
+	@ConfigurationPropertyDefinition(defaultValue = "2000", sensitive = true, type = Integer.class, label = "Solr connection timeout in milliseconds. If its set \"-1\" will disable setting the timeout.")
+	private static final String SOLR_CONNECTION_TIMEOUT = "solr.connection.timeout";
+	@ConfigurationPropertyDefinition(defaultValue = "128", sensitive = true, type = Integer.class, label = "The maximum number of pooled connections used for searching in Solr.")
+	private static final String SOLR_MAX_CONNECTIONS = "solr.connection.maxTotal";
+	@ConfigurationPropertyDefinition(defaultValue = "64", sensitive = true, type = Integer.class, label = "The maximum number of pooled connections used for searching in a single Solr server.")
+	private static final String SOLR_MAX_CONNECTIONS_PER_HOST = "solr.connection.maxPerHost";
+	@ConfigurationPropertyDefinition(sensitive = true, label = "Comma separated full urls of replicas of the Solr core as 'http://replica:8983/solr/ftsearch'. If set the searches are load balanced between the configured core and the replicas.")
+	private static final String SOLR_REPLICA_URLS = "solr.host.replicas";
+	@ConfigurationPropertyDefinition(defaultValue = "-1", sensitive = true, type = Integer.class, label = "Time in milliseconds after which a not completed Solr search is sent for a second time and the first received response is used. If its set \"-1\" the searches are not repeated.")
+	private static final String SOLR_HEDGE_DELAY = "solr.search.hedgeDelay";
 
 	@ConfigurationGroupDefinition(properties = { SOLR_SERVER_PROTOCOL, SOLR_SERVER_HOST, SOLR_SERVER_PORT,
-			SOLR_SERVER_CORE, SOLR_SOCKET_TIMEOUT }, type = SolrClient.class)
+			SOLR_SERVER_CORE, SOLR_SOCKET_TIMEOUT, SOLR_CONNECTION_TIMEOUT, SOLR_MAX_CONNECTIONS,
+			SOLR_MAX_CONNECTIONS_PER_HOST, SOLR_REPLICA_URLS, SOLR_HEDGE_DELAY }, type = SolrClient.class)
 	private static final String SOLR_CLIENT = "solr.client";
 
 	@ConfigurationGroupDefinition(properties = { SOLR_SERVER_MASTER_URL, SOLR_SERVER_PROTOCOL, SOLR_SERVER_HOST,
@@ -63,24 +84,82 @@ public class SOLRConfigurations implements SolrConfiguration {
 	private ConfigurationProperty<String> solrAddress;
 
 	/**
-	 * Creates the client.
+	 * Creates the client used for searching. The client uses own connection pool and if replicas are configured the
+	 * requests are load balanced between them and the configured core.
 	 *
 	 * @param context
 	 *            the context
+	 * @param statistics
+	 *            the statistics to report the request and pool metrics to
 	 * @return the solr client
 	 * @throws ConfigurationException
 	 *             the configuration exception
 	 */
 	@ConfigurationConverter(SOLR_CLIENT)
-	static SolrClient createClient(GroupConverterContext context) {
-		HttpSolrClient client = createClientFromConfiguration(context);
-
+	@SuppressWarnings("deprecation")
+	static SolrClient createClient(GroupConverterContext context, Statistics statistics) {
+		PoolingClientConnectionManager connectionManager = new PoolingClientConnectionManager(
+				SchemeRegistryFactory.createSystemDefault());
+		ModifiableSolrParams params = new ModifiableSolrParams();
+		Integer maxConnections = context.get(SOLR_MAX_CONNECTIONS);
+		Integer maxConnectionsPerHost = context.get(SOLR_MAX_CONNECTIONS_PER_HOST);
+		params.set(HttpClientUtil.PROP_MAX_CONNECTIONS, maxConnections.intValue());
+		params.set(HttpClientUtil.PROP_MAX_CONNECTIONS_PER_HOST, maxConnectionsPerHost.intValue());
+		params.set(HttpClientUtil.PROP_FOLLOW_REDIRECTS, false);
+		setTimeout(params, HttpClientUtil.PROP_CONNECTION_TIMEOUT, context.getValue(SOLR_CONNECTION_TIMEOUT));
 		// for some reason if this is not set the average solr query takes 500+ milliseconds
-		ConfigurationProperty<Integer> timeout = context.getValue(SOLR_SOCKET_TIMEOUT);
+		setTimeout(params, HttpClientUtil.PROP_SO_TIMEOUT, context.getValue(SOLR_SOCKET_TIMEOUT));
+		HttpClient httpClient = HttpClientUtil.createClient(params, connectionManager);
+
+		String coreUrl = buildSolrAddress(context) + "/" + context.get(SOLR_SERVER_CORE);
+		List<String> replicas = getReplicaUrls(context);
+		SolrClient client;
+		if (replicas.isEmpty()) {
+			client = new AbortableHttpSolrClient(coreUrl, httpClient);
+		} else {
+			List<String> urls = new ArrayList<>(replicas.size() + 1);
+			urls.add(coreUrl);
+			urls.addAll(replicas);
+			client = new AbortableHttpSolrClient.LoadBalanced(httpClient, urls.toArray(new String[urls.size()]));
+		}
+		Integer hedgeDelay = context.get(SOLR_HEDGE_DELAY);
+		ScheduledThreadPoolExecutor hedgeExecutor = null;
+		if (hedgeDelay.intValue() >= 0) {
+			hedgeExecutor = createHedgeExecutor();
+		}
+		return new MonitoredSolrClient(client, connectionManager, hedgeDelay.intValue(), hedgeExecutor, statistics);
+	}
+
+	private static ScheduledThreadPoolExecutor createHedgeExecutor() {
+		ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(
+				Runtime.getRuntime().availableProcessors(), runnable -> {
+					Thread thread = new Thread(runnable, "SolrHedgedSearch");
+					thread.setDaemon(true);
+					return thread;
+				});
+		// most of the hedged requests are cancelled before they are sent
+		executor.setRemoveOnCancelPolicy(true);
+		return executor;
+	}
+
+	private static void setTimeout(ModifiableSolrParams params, String param, ConfigurationProperty<Integer> timeout) {
 		if (timeout.isSet() && timeout.get().intValue() != -1) {
-			client.setSoTimeout(timeout.get().intValue());
+			params.set(param, timeout.get().intValue());
 		}
-		return client;
+	}
+
+	private static List<String> getReplicaUrls(GroupConverterContext context) {
+		ConfigurationProperty<String> replicas = context.getValue(SOLR_REPLICA_URLS);
+		List<String> urls = new ArrayList<>();
+		if (replicas.isNotSet()) {
+			return urls;
+		}
+		for (String url : replicas.get().split(",")) {
+			if (StringUtils.isNotBlank(url)) {
+				urls.add(url.trim());
+			}
+		}
+		return urls;
 	}
 
 	/**
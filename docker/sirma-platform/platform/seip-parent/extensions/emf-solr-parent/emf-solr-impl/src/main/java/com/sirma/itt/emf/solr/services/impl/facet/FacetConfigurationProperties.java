@@ -40,6 +40,11 @@ public class FacetConfigurationProperties {
 	@ConfigurationPropertyDefinition(name = "faceting.objects.batchSize", defaultValue = "1000", label = "Defines the batch size when fetching the object facets' values from Solr.", type = Integer.class)
 	private ConfigurationProperty<Integer> batchSize;
 
+	@Inject
+	@Configuration
+	@ConfigurationPropertyDefinition(name = "faceting.uris.chunkSize", defaultValue = "20000", label = "Defines the maximum number of search result ids in a single facet request to Solr. Bigger results are split in chunks that are faceted in parallel and the counts are merged.", type = Integer.class)
+	private ConfigurationProperty<Integer> uriChunkSize;
+
 	/**
 	 * Getter method for dateGap.
 	 *
@@ -85,4 +90,13 @@ public class FacetConfigurationProperties {
 		return batchSize;
 	}
 
+	/**
+	 * Getter method for uriChunkSize.
+	 *
+	 * @return the uriChunkSize
+	 */
+	public ConfigurationProperty<Integer> getUriChunkSize() {
+		return uriChunkSize;
+	}
+
 }
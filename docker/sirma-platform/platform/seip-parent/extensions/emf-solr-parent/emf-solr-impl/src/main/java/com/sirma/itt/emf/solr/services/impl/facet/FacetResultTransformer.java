@@ -1,15 +1,19 @@
 package com.sirma.itt.emf.solr.services.impl.facet;
 
 import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.inject.Inject;
 
@@ -98,6 +102,51 @@ public class FacetResultTransformer {
 		extractFacets(solrFieldToFacet, queryResponse.getFacetDates());
 	}
 
+	/**
+	 * Merges the facet fields of the given responses by summing the counts of the same values and assigns them to the
+	 * facets in the provided {@link SearchArguments}. The responses should be for disjoint sets of documents.
+	 *
+	 * @param <E>
+	 *            the searched object type
+	 * @param <S>
+	 *            the build predefined filter arguments type
+	 * @param arguments
+	 *            the search arguments
+	 * @param queryResponses
+	 *            the Solr responses to merge
+	 */
+	public <E extends Instance, S extends SearchArguments<E>> void extractFacetsFromResponses(S arguments,
+			Collection<QueryResponse> queryResponses) {
+		Map<String, List<Facet>> solrFieldToFacet = arguments
+				.getFacets()
+					.values()
+					.stream()
+					.collect(Collectors.groupingBy(Facet::getSolrFieldName));
+
+		extractFacets(solrFieldToFacet,
+				mergeFacetFields(queryResponses.stream().map(QueryResponse::getFacetFields)));
+		extractFacets(solrFieldToFacet,
+				mergeFacetFields(queryResponses.stream().map(QueryResponse::getFacetDates)));
+	}
+
+	private static List<FacetField> mergeFacetFields(Stream<List<FacetField>> fields) {
+		Map<String, FacetField> mergedFields = new LinkedHashMap<>();
+		// the value name could be null for the missing values
+		Map<String, Map<String, Long>> mergedCounts = new HashMap<>();
+		fields.filter(CollectionUtils::isNotEmpty).flatMap(List::stream).forEach(field -> {
+			mergedFields.computeIfAbsent(field.getName(),
+					name -> new FacetField(name, field.getGap(), field.getEnd()));
+			Map<String, Long> counts = mergedCounts.computeIfAbsent(field.getName(), name -> new LinkedHashMap<>());
+			for (Count count : field.getValues()) {
+				counts.merge(count.getName(), count.getCount(), Long::sum);
+			}
+		});
+		mergedFields.forEach((name, field) -> mergedCounts
+				.get(name)
+					.forEach((value, count) -> field.add(value, count.longValue())));
+		return new ArrayList<>(mergedFields.values());
+	}
+
 	/**
 	 * Iterates the provided facet fields and finds the corresponding facet in the given map based on its id.
 	 *
@@ -8,6 +8,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -44,6 +45,7 @@ import com.sirma.itt.seip.domain.search.SearchableProperty;
 import com.sirma.itt.seip.domain.search.facet.Facet;
 import com.sirma.itt.seip.domain.search.facet.FacetQueryParameters;
 import com.sirma.itt.seip.domain.search.facet.FacetValue;
+import com.sirma.itt.seip.exception.EmfRuntimeException;
 import com.sirma.itt.seip.instance.InstanceTypeResolver;
 import com.sirma.itt.seip.search.SearchConfiguration;
 import com.sirma.itt.seip.search.SearchService;
@@ -160,21 +162,48 @@ public class FacetServiceImpl implements FacetService {
 		facetResultTransformer.formatDatesToUTC(arguments);
 	}
 
+	/**
+	 * Calculates the facets over the found instance ids. The ids are passed to Solr via terms query. If the ids are
+	 * more than the configured chunk size they are split and the chunks are faceted in parallel. The facet counts of
+	 * the chunks are summed as each id is present in only one chunk.
+	 */
 	private <E extends Instance, S extends SearchArguments<E>> void querySolr(S arguments) {
 		TimeTracker tracker = TimeTracker.createAndStart();
 
-		Collection<Serializable> uris = arguments.getUries();
-		StringBuilder filterQuery = SolrQueryHelper.createUriQuery(uris, DefaultProperties.URI);
+		List<Serializable> uris = new ArrayList<>(new LinkedHashSet<>(arguments.getUries()));
+		int chunkSize = Math.max(facetConfigurationProperties.getUriChunkSize().get().intValue(), 1);
 
-		// append the additional filters to the query
-		String additionalFilters = (String) arguments.getArguments().get(CommonParams.FQ);
-		if (StringUtils.isNotBlank(additionalFilters)) {
-			filterQuery.append(" AND ").append(additionalFilters);
+		try {
+			if (uris.size() <= chunkSize) {
+				QueryResponse queryResponse = solrConnector.query(buildFacetQuery(arguments, uris));
+				facetResultTransformer.extractFacetsFromResponse(arguments, queryResponse);
+			} else {
+				List<FacetChunkTask> tasks = new ArrayList<>(uris.size() / chunkSize + 1);
+				for (int from = 0; from < uris.size(); from += chunkSize) {
+					List<Serializable> chunk = uris.subList(from, Math.min(from + chunkSize, uris.size()));
+					tasks.add(new FacetChunkTask(buildFacetQuery(arguments, chunk)));
+				}
+				taskExecutor.execute(tasks);
+				facetResultTransformer.extractFacetsFromResponses(arguments,
+						tasks.stream().map(FacetChunkTask::getResponse).collect(Collectors.toList()));
+			}
+			LOGGER.debug("Calculating facets over {} results in {} ms.", uris.size(), tracker.stop());
+		} catch (SolrClientException | EmfRuntimeException e) {
+			// TODO: rethrow?
+			LOGGER.error("Error during calculation of facets in solr: " + e.getMessage(), e);
 		}
+	}
 
+	private <E extends Instance, S extends SearchArguments<E>> SolrQuery buildFacetQuery(S arguments,
+			Collection<Serializable> uris) {
 		SolrQuery parameters = new SolrQuery();
 		facetSolrHelper.addDefaultFacetParameters(parameters);
-		parameters.setFilterQueries(filterQuery.toString());
+		// the terms parser does not support other clauses so the additional filters are separate filter query
+		parameters.setFilterQueries(SolrQueryHelper.createTermsQuery(uris, DefaultProperties.URI).toString());
+		String additionalFilters = (String) arguments.getArguments().get(CommonParams.FQ);
+		if (StringUtils.isNotBlank(additionalFilters)) {
+			parameters.addFilterQuery(additionalFilters);
+		}
 		parameters.setParam(CommonParams.Q, SolrQueryConstants.QUERY_DEFAULT_ALL);
 		parameters.setRows(0);
 
@@ -191,16 +220,7 @@ public class FacetServiceImpl implements FacetService {
 		}
 
 		parameters.set(CommonParams.TZ, "UTC");
-		try {
-			QueryResponse queryResponse = solrConnector.query(parameters);
-
-			facetResultTransformer.extractFacetsFromResponse(arguments, queryResponse);
-
-			LOGGER.debug("Calculating facets in {} ms.", tracker.stop());
-		} catch (SolrClientException e) {
-			// TODO: rethrow?
-			LOGGER.error("Error during calculation of facets in solr: " + e.getMessage(), e);
-		}
+		return parameters;
 	}
 
 	@Override
@@ -474,6 +494,39 @@ public class FacetServiceImpl implements FacetService {
 		return true;
 	}
 
+	/**
+	 * Task for faceting a single chunk of the search results.
+	 *
+	 * @author BBonev
+	 */
+	private class FacetChunkTask extends GenericAsyncTask {
+
+		private static final long serialVersionUID = -2877652393017429306L;
+
+		private final transient SolrQuery query;
+		private transient QueryResponse response;
+
+		/**
+		 * Initialize the task with the facet query for a single chunk of the results.
+		 *
+		 * @param query
+		 *            the facet query
+		 */
+		protected FacetChunkTask(SolrQuery query) {
+			this.query = query;
+		}
+
+		@Override
+		protected boolean executeTask() throws Exception {
+			response = solrConnector.query(query);
+			return true;
+		}
+
+		QueryResponse getResponse() {
+			return response;
+		}
+	}
+
 	/**
 	 * Task for filtering object facets.
 	 *
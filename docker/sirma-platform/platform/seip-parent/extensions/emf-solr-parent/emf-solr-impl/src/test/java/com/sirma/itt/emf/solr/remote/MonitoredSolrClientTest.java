@@ -0,0 +1,161 @@
+package com.sirma.itt.emf.solr.remote;
+
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.request.QueryRequest;
+import org.apache.solr.client.solrj.request.UpdateRequest;
+import org.apache.solr.common.util.NamedList;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sirma.itt.emf.solr.remote.AbortableHttpSolrClient.RequestAttempt;
+import com.sirma.itt.seip.monitor.Metric;
+import com.sirma.itt.seip.monitor.Statistics;
+
+/**
+ * Tests for {@link MonitoredSolrClient}.
+ *
+ * @author BBonev
+ */
+@SuppressWarnings("deprecation")
+public class MonitoredSolrClientTest {
+
+	private SolrClient delegate;
+	private PoolingClientConnectionManager connectionManager;
+	private Statistics statistics;
+	private ScheduledExecutorService hedgeExecutor;
+	private NamedList<Object> response = new NamedList<>();
+
+	@Before
+	public void init() {
+		delegate = mock(SolrClient.class);
+		connectionManager = mock(PoolingClientConnectionManager.class);
+		when(connectionManager.getTotalStats()).thenReturn(new PoolStats(2, 1, 3, 10));
+		statistics = mock(Statistics.class);
+		hedgeExecutor = Executors.newScheduledThreadPool(1);
+	}
+
+	@After
+	public void cleanUp() {
+		hedgeExecutor.shutdownNow();
+	}
+
+	@Test
+	public void should_CallTheDelegate_WhenHedgingIsDisabled() throws Exception {
+		when(delegate.request(any(), eq("core"))).thenReturn(response);
+		MonitoredSolrClient client = new MonitoredSolrClient(delegate, connectionManager, -1, null, statistics);
+
+		assertSame(response, client.request(new QueryRequest(new SolrQuery()), "core"));
+
+		verify(statistics).value("solr_leased_connections", 2);
+		verify(statistics).value("solr_pending_connections", 1);
+		verify(statistics, times(4)).end(any(Metric.class));
+	}
+
+	@Test
+	public void should_SendTheQueryAgain_AndAbortTheFirstOne_WhenSlow() throws Exception {
+		Thread caller = Thread.currentThread();
+		when(delegate.request(any(), any())).then(a -> {
+			assertSame(caller, Thread.currentThread());
+			awaitAbort(AbortableHttpSolrClient.currentAttempt());
+			throw new SolrServerException("Aborted");
+		}).thenReturn(response);
+		MonitoredSolrClient client = new MonitoredSolrClient(delegate, connectionManager, 20, hedgeExecutor,
+				statistics);
+
+		assertSame(response, client.request(new QueryRequest(new SolrQuery()), null));
+
+		verify(delegate, times(2)).request(any(), any());
+	}
+
+	@Test
+	public void should_AbortTheHedgedQuery_WhenTheFirstOneCompletesFirst() throws Exception {
+		AtomicReference<RequestAttempt> hedge = new AtomicReference<>();
+		when(delegate.request(any(), any())).then(a -> {
+			TimeUnit.MILLISECONDS.sleep(200);
+			return response;
+		}).then(a -> {
+			hedge.set(AbortableHttpSolrClient.currentAttempt());
+			awaitAbort(hedge.get());
+			throw new SolrServerException("Aborted");
+		});
+		MonitoredSolrClient client = new MonitoredSolrClient(delegate, connectionManager, 20, hedgeExecutor,
+				statistics);
+
+		assertSame(response, client.request(new QueryRequest(new SolrQuery()), null));
+
+		assertTrue(hedge.get().isAborted());
+	}
+
+	@Test
+	public void should_NotSendTheQueryAgain_WhenFastEnough() throws Exception {
+		when(delegate.request(any(), any())).thenReturn(response);
+		MonitoredSolrClient client = new MonitoredSolrClient(delegate, connectionManager, 100, hedgeExecutor,
+				statistics);
+
+		assertSame(response, client.request(new QueryRequest(new SolrQuery()), null));
+		TimeUnit.MILLISECONDS.sleep(200);
+
+		verify(delegate).request(any(), any());
+	}
+
+	@Test(expected = SolrServerException.class)
+	public void should_FailWhenTheQueryFails() throws Exception {
+		when(delegate.request(any(), any())).thenThrow(new SolrServerException("Bad request"));
+		MonitoredSolrClient client = new MonitoredSolrClient(delegate, connectionManager, 5000, hedgeExecutor,
+				statistics);
+
+		client.request(new QueryRequest(new SolrQuery()), null);
+	}
+
+	@Test
+	public void should_NotHedgeUpdates() throws Exception {
+		UpdateRequest request = new UpdateRequest();
+		when(delegate.request(request, null)).thenReturn(response);
+		ScheduledExecutorService executor = mock(ScheduledExecutorService.class);
+		MonitoredSolrClient client = new MonitoredSolrClient(delegate, connectionManager, 0, executor, statistics);
+
+		assertSame(response, client.request(request, null));
+
+		verifyZeroInteractions(executor);
+	}
+
+	@Test
+	public void destroy_shouldCloseTheConnectionPool() throws IOException {
+		MonitoredSolrClient client = new MonitoredSolrClient(delegate, connectionManager, 20, hedgeExecutor,
+				statistics);
+
+		client.destroy();
+
+		verify(delegate).close();
+		verify(connectionManager).shutdown();
+		assertTrue(hedgeExecutor.isShutdown());
+	}
+
+	private static void awaitAbort(RequestAttempt attempt) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+		while (!attempt.isAborted() && System.currentTimeMillis() < deadline) {
+			TimeUnit.MILLISECONDS.sleep(5);
+		}
+	}
+}
@@ -104,6 +104,44 @@ public class FacetResultTransformerTest {
 		Assert.assertTrue(valueExist(values, FacetQueryParameters.NO_VALUE, 4));
 	}
 
+	/**
+	 * Tests that {@link FacetResultTransformer#extractFacetsFromResponses(SearchArguments, java.util.Collection)} sums
+	 * the counts of the same values from all responses.
+	 */
+	@Test
+	public void testFacetValuesMergingFromMultipleResponses() {
+		Facet facet = new Facet();
+		facet.setId("facet");
+		facet.setSolrFieldName("myFacet");
+
+		Map<String, Facet> facets = new HashMap<>();
+		facets.put(facet.getId(), facet);
+
+		FacetField first = new FacetField("myFacet");
+		first.add("a", 11);
+		first.add(null, 4);
+		FacetField second = new FacetField("myFacet");
+		second.add("a", 1);
+		second.add("b", 2);
+		second.add(null, 1);
+
+		SearchArguments<Instance> arguments = new SearchArguments<>();
+		arguments.setFacets(facets);
+
+		QueryResponse firstResponse = Mockito.mock(QueryResponse.class);
+		Mockito.when(firstResponse.getFacetFields()).thenReturn(Arrays.asList(first));
+		QueryResponse secondResponse = Mockito.mock(QueryResponse.class);
+		Mockito.when(secondResponse.getFacetFields()).thenReturn(Arrays.asList(second));
+
+		facetResultTransformer.extractFacetsFromResponses(arguments, Arrays.asList(firstResponse, secondResponse));
+
+		List<FacetValue> values = facet.getValues();
+		Assert.assertEquals(values.size(), 3);
+		Assert.assertTrue(valueExist(values, "a", 12));
+		Assert.assertTrue(valueExist(values, "b", 2));
+		Assert.assertTrue(valueExist(values, FacetQueryParameters.NO_VALUE, 5));
+	}
+
 	/**
 	 * Tests the logic inside {@link FacetResultTransformer#extractFacetsFromResponse(SearchArguments, QueryResponse)}
 	 * when there are results but no there is facet for them.
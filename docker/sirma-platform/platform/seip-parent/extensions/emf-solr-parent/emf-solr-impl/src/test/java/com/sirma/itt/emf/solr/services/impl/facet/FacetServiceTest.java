@@ -21,6 +21,7 @@ import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrDocumentList;
 import org.apache.solr.common.util.NamedList;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Matchers;
 import org.mockito.Mock;
@@ -60,6 +61,7 @@ import com.sirma.itt.seip.search.facet.FacetArgumentTransformer;
 import com.sirma.itt.seip.search.facet.FacetConfigurationProvider;
 import com.sirma.itt.seip.search.facet.FacetService;
 import com.sirma.itt.seip.search.facet.FacetSortService;
+import com.sirma.itt.seip.testutil.mocks.ConfigurationPropertyMock;
 import com.sirma.itt.seip.testutil.mocks.DataTypeDefinitionMock;
 import com.sirma.itt.semantic.NamespaceRegistryService;
 
@@ -116,6 +118,8 @@ public class FacetServiceTest {
 	@Mock
 	private SearchConfiguration searchConfiguration;
 
+	private ConfigurationPropertyMock<Integer> uriChunkSize = new ConfigurationPropertyMock<>(20000);
+
 	@Spy
 	FacetSolrHelper facetSolrHelper;
 	@Mock
@@ -129,6 +133,7 @@ public class FacetServiceTest {
 		MockitoAnnotations.initMocks(this);
 		when(searchConfiguration.getSearchFacetResultExceedDisable()).thenReturn(Boolean.TRUE);
 		when(searchConfiguration.getSearchResultMaxSize()).thenReturn(1000);
+		when(facetConfigurationProperties.getUriChunkSize()).thenReturn(uriChunkSize);
 	}
 
 	/**
@@ -187,6 +192,37 @@ public class FacetServiceTest {
 		Assert.assertEquals(arguments.getFacets().size(), 7);
 	}
 
+	/**
+	 * Test that the found instance ids are faceted in chunks when they are more than the configured chunk size.
+	 *
+	 * @throws SolrClientException
+	 *             the solr client exception
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testFacetInChunks() throws SolrClientException {
+		SearchArguments<Instance> arguments = mockSearchArguments(null);
+		mockSemanticDefinitionService();
+		mockSearchablePropertiesService();
+		mockDefinitionService();
+		mockSolrConnector(arguments, 2);
+		mockFacetConfigurationProvider("rdfType", "field_0", "field_1", "field_2", "field_3", "field_4");
+		mockTaskExecutor();
+		uriChunkSize.setValue(4);
+		try {
+			facetService.facet(arguments);
+
+			ArgumentCaptor<Collection<QueryResponse>> responses = ArgumentCaptor.forClass(Collection.class);
+			Mockito.verify(facetResultTransformer).extractFacetsFromResponses(Matchers.eq(arguments),
+					responses.capture());
+			Assert.assertEquals(responses.getValue().size(), 3);
+		} finally {
+			uriChunkSize.setValue(20000);
+			// the mocks are shared between the tests
+			Mockito.reset(taskExecutor);
+		}
+	}
+
 	/**
 	 * Test faceting when searching returns more than one rdf type. Common facets and selected facets used for filtering
 	 * should be returnes.
@@ -107,8 +107,47 @@ abstract class BaseSchedulerTrigger implements SchedulerTaskCallback {
 		// the time for check is 1x and the checked interval is 2x
 		// the time deviation is multiplied by two so that tasks that are at the boundary will be read before time
 		// and should prevent issues with passed time for cron jobs
-		dbDao.getTasksForExecution(getEntryTypes(), SchedulerUtil.ACTIVE_STASUS, getExecutorDelayMillis() * 2,
-				getScheduleTaskFilter(), scheduleTaskConsumer());
+		String leaseOwner = getLeaseOwner();
+		if (leaseOwner == null) {
+			dbDao.getTasksForExecution(getEntryTypes(), SchedulerUtil.ACTIVE_STASUS, getExecutorDelayMillis() * 2,
+					getScheduleTaskFilter(), scheduleTaskConsumer());
+		} else {
+			dbDao.claimTasksForExecution(getEntryTypes(), SchedulerUtil.ACTIVE_STASUS, getExecutorDelayMillis() * 2,
+					leaseOwner, getLeaseTime(), getScheduleTaskFilter(), scheduleTaskConsumer());
+		}
+	}
+
+	/**
+	 * Claims the scheduler entry with the given id for execution by the current node.
+	 *
+	 * @param id
+	 *            the entry database id
+	 * @return the claimed entry or <code>null</code> if not found or claimed by other node
+	 */
+	protected SchedulerEntry claimTask(Long id) {
+		return dbDao.claimTask(id, getLeaseOwner(), getLeaseTime());
+	}
+
+	/**
+	 * Gets the identifier of the current node used to claim the tasks for execution. If the method returns
+	 * <code>null</code> the loaded tasks are only activated without claiming them. Default implementation returns
+	 * <code>null</code>.
+	 *
+	 * @return the lease owner identifier
+	 */
+	@SuppressWarnings("static-method")
+	protected String getLeaseOwner() {
+		return null;
+	}
+
+	/**
+	 * Gets the time in milliseconds for which the claimed tasks are reserved for the current node. The claim is renewed
+	 * on each check for new tasks while the task is active so the time should be greater than the check interval.
+	 *
+	 * @return the lease time
+	 */
+	protected long getLeaseTime() {
+		return getExecutorDelayMillis() * 3;
 	}
 
 	private Consumer<SchedulerEntry> scheduleTaskConsumer() {
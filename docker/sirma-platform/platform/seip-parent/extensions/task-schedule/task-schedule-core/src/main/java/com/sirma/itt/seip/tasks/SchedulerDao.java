@@ -28,6 +28,8 @@ import static com.sirma.itt.seip.tasks.entity.SchedulerEntity.QUERY_SCHEDULER_EN
 import static com.sirma.itt.seip.tasks.entity.SchedulerEntity.QUERY_SCHEDULER_ENTRY_ID_BY_EVENT_TRIGGER_USER_OP_KEY;
 import static com.sirma.itt.seip.tasks.entity.SchedulerEntity.QUERY_SCHEDULER_TASKS_FOR_TIMED_EXECUTION_KEY;
 import static com.sirma.itt.seip.tasks.entity.SchedulerEntity.QUERY_SCHEDULER_ENTRY_ID_BY_EVENT_TRIGGER_OP_AND_USER_OP_KEY;
+import static com.sirma.itt.seip.tasks.entity.SchedulerEntity.QUERY_SCHEDULER_TASKS_BY_LEASE_OWNER_KEY;
+import static com.sirma.itt.seip.tasks.entity.SchedulerEntity.UPDATE_SCHEDULER_TASKS_LEASE_KEY;
 
 /**
  * Provides direct database access for scheduler entity operations.
@@ -134,6 +136,48 @@ class SchedulerDao {
 		return new LinkedHashSet<>(list);
 	}
 
+	/**
+	 * Claims the given tasks for execution by the given owner. Tasks are claimed with a single update and only if they
+	 * have one of the given statuses and are not claimed by other owner or the other owner lease has expired. The
+	 * claimed tasks are marked as {@link SchedulerEntryStatus#RUNNING}. The update is executed in new transaction so
+	 * the claim is visible to the other nodes right away.
+	 *
+	 * @param ids
+	 *            the ids of the tasks to claim
+	 * @param statuses
+	 *            the statuses the tasks should be in to be claimed
+	 * @param owner
+	 *            the identifier of the claiming node
+	 * @param leaseUntil
+	 *            the time until the claim is valid. After that other owners could claim the tasks
+	 * @return the ids of the tasks claimed by the given owner with the current call. Tasks that were already claimed by
+	 *         the same owner are returned only if they still have one of the given statuses
+	 */
+	Set<Long> claimTasks(Collection<Long> ids, Collection<SchedulerEntryStatus> statuses, String owner,
+			Date leaseUntil) {
+		if (isEmpty(ids) || isEmpty(statuses) || StringUtils.isBlank(owner) || leaseUntil == null) {
+			return Collections.emptySet();
+		}
+		List<Pair<String, Object>> args = new ArrayList<>(6);
+		args.add(new Pair<>("ids", ids));
+		args.add(new Pair<>("status", statuses));
+		args.add(new Pair<>("running", SchedulerEntryStatus.RUNNING));
+		args.add(new Pair<>("owner", owner));
+		args.add(new Triplet<>("until", leaseUntil, TemporalType.TIMESTAMP));
+		args.add(new Triplet<>("now", new Date(), TemporalType.TIMESTAMP));
+		DbDao dao = getDbDao();
+		if (dao.executeUpdateInNewTx(UPDATE_SCHEDULER_TASKS_LEASE_KEY, args) == 0) {
+			return Collections.emptySet();
+		}
+		List<Pair<String, Object>> claimedArgs = new ArrayList<>(4);
+		claimedArgs.add(new Pair<>("ids", ids));
+		claimedArgs.add(new Pair<>("owner", owner));
+		claimedArgs.add(new Triplet<>("until", leaseUntil, TemporalType.TIMESTAMP));
+		claimedArgs.add(new Pair<>("running", SchedulerEntryStatus.RUNNING));
+		List<Long> claimed = dao.fetchWithNamed(QUERY_SCHEDULER_TASKS_BY_LEASE_OWNER_KEY, claimedArgs);
+		return new LinkedHashSet<>(claimed);
+	}
+
 	private DbDao getDbDao() {
 		if (!securityContext.isActive()) {
 			throw new ContextNotActiveException();
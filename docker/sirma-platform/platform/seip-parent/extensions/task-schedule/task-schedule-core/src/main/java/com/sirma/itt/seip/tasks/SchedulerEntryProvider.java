@@ -2,10 +2,12 @@ package com.sirma.itt.seip.tasks;
 
 import java.lang.invoke.MethodHandles;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
@@ -25,6 +27,8 @@ class SchedulerEntryProvider {
 	private SchedulerDao dbDao;
 	@Inject
 	private SchedulerService schedulerService;
+	@Inject
+	private SchedulerEntryStore schedulerStore;
 
 	/**
 	 * Gets scheduler entries that need to be run in the time before the current date plus the given offset. The entries
@@ -69,6 +73,95 @@ class SchedulerEntryProvider {
 					.forEachOrdered(taskConsumer);
 	}
 
+	/**
+	 * Claims scheduler entries that need to be run in the time before the current date plus the given offset for the
+	 * given lease owner. The entries are loaded in a single batch and the ones that match the given filter are claimed
+	 * with a single update so that the same entry is not executed by multiple nodes at the same time. Entries already
+	 * claimed by the same owner are claimed again and this way their lease is extended. Only the claimed entries are
+	 * passed to the consumer.
+	 *
+	 * @param types
+	 *            the scheduler types to match
+	 * @param status
+	 *            the scheduler statuses to match
+	 * @param timeOffset
+	 *            the time offset to be added based on the current time for the entries
+	 * @param leaseOwner
+	 *            the identifier of the node that claims the entries
+	 * @param leaseTime
+	 *            the time in milliseconds the claim will be valid
+	 * @param taskFilter
+	 *            the task filter. Called before claiming and again before each entry is consumed
+	 * @param taskConsumer
+	 *            the task consumer
+	 */
+	@SuppressWarnings("boxing")
+	void claimTasksForExecution(Set<SchedulerEntryType> types, Set<SchedulerEntryStatus> status, long timeOffset,
+			String leaseOwner, long leaseTime, Predicate<SchedulerEntry> taskFilter,
+			Consumer<SchedulerEntry> taskConsumer) {
+		List<SchedulerEntry> tasksForExecution;
+		Set<Long> claimed;
+		try {
+			tasksForExecution = getTasksForExecution(types, status, timeOffset)
+					.stream()
+						.filter(taskFilter)
+						.collect(Collectors.toList());
+			claimed = claimTasks(
+					tasksForExecution.stream().map(SchedulerEntry::getId).collect(Collectors.toList()), status,
+					leaseOwner, leaseTime);
+			LOGGER.trace("Collected {} tasks for execution and claimed {} of them", tasksForExecution.size(),
+					claimed.size());
+		} catch (Exception e) {
+			if (LOGGER.isDebugEnabled()) {
+				LOGGER.debug("Error when collecting tasks for execution: {}", e.getMessage(), e);
+			} else {
+				LOGGER.warn("Error when collecting tasks for execution: {}", e.getMessage());
+			}
+			return;
+		}
+
+		// the filter is checked again as the restrictions may change by consuming the previous task
+		for (SchedulerEntry entry : tasksForExecution) {
+			if (claimed.contains(entry.getId()) && taskFilter.test(entry)) {
+				entry.setStatus(SchedulerEntryStatus.RUNNING);
+				taskConsumer.accept(entry);
+			}
+		}
+	}
+
+	/**
+	 * Claims single scheduler entry for the given lease owner and loads it.
+	 *
+	 * @param id
+	 *            the entry database id
+	 * @param leaseOwner
+	 *            the identifier of the node that claims the entry
+	 * @param leaseTime
+	 *            the time in milliseconds the claim will be valid
+	 * @return the claimed entry or <code>null</code> if the entry is not found or is claimed by other owner
+	 */
+	SchedulerEntry claimTask(Long id, String leaseOwner, long leaseTime) {
+		Set<Long> claimed = claimTasks(Collections.singletonList(id), SchedulerUtil.ACTIVE_STASUS, leaseOwner,
+				leaseTime);
+		if (claimed.isEmpty()) {
+			return null;
+		}
+		List<SchedulerEntry> entries = schedulerService.loadByDbId(new ArrayList<>(claimed));
+		return entries.isEmpty() ? null : entries.get(0);
+	}
+
+	private Set<Long> claimTasks(List<Long> ids, Set<SchedulerEntryStatus> status, String leaseOwner,
+			long leaseTime) {
+		if (ids.isEmpty()) {
+			return Collections.emptySet();
+		}
+		Set<Long> claimed = dbDao.claimTasks(ids, status, leaseOwner,
+				new Date(System.currentTimeMillis() + leaseTime));
+		// the entries are updated directly in the database so the cached copies are no longer valid
+		schedulerStore.evict(claimed);
+		return claimed;
+	}
+
 	private SchedulerEntry activateEntry(SchedulerEntry taskToActivate) {
 		try {
 			return schedulerService.activate(taskToActivate.getId());
@@ -3,6 +3,7 @@ package com.sirma.itt.seip.tasks;
 import java.io.Serializable;
 import java.lang.invoke.MethodHandles;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Set;
@@ -163,6 +164,18 @@ class SchedulerEntryStore {
 		getCache().deleteByKey(id);
 	}
 
+	/**
+	 * Removes the entities with the given ids from the cache. Should be called when the entities are modified directly
+	 * in the database.
+	 *
+	 * @param ids
+	 *            the ids of the entities to remove
+	 */
+	void evict(Collection<Long> ids) {
+		EntityLookupCache<Long, SchedulerEntity, String> cache = getCache();
+		ids.forEach(cache::removeByKey);
+	}
+
 	/**
 	 * Find entity by db id.
 	 *
@@ -1,14 +1,20 @@
 package com.sirma.itt.seip.tasks;
 
+import java.lang.invoke.MethodHandles;
 import java.util.Objects;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import com.sirma.itt.seip.security.context.SecurityContextManager;
 import com.sirma.itt.seip.security.context.ThreadFactories;
 
@@ -19,15 +25,25 @@ import com.sirma.itt.seip.security.context.ThreadFactories;
  * Tasks for for {@link SchedulerEntryType#EVENT} will run at most one time and the tasks for
  * {@link SchedulerEntryType#CRON} will run zero , one or unspecified number of times depending on the
  * {@link #setKeepAliveTime(long, TimeUnit)}
+ * <p>
+ * The {@link SchedulerEntryType#TIMED} tasks that should wait before execution are not submitted to the thread pool
+ * right away. They are kept in a {@link TimingWheel} advanced by a single thread and are submitted for execution when
+ * their time comes. This way the pool threads are used only for the actual execution and not for waiting.
  *
  * @author BBonev
  */
 class SchedulerTaskExecutor {
 
+	private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 	private static final int MIN_THREADS = Runtime.getRuntime().availableProcessors() * 5;
 	private static final long DEFAULT_KEEP_ALIVE = TimeUnit.SECONDS.toMillis(330);
+	private static final long TICK_DURATION = 100L;
+	/** With the tick duration of 100 ms single wheel rotation is about 51 seconds */
+	private static final int TICKS_PER_WHEEL = 512;
 
 	private ThreadPoolExecutor scheduledExecutor;
+	private ScheduledExecutorService wheelTicker;
+	private TimingWheel<TaskExecutor> timingWheel;
 	private final SecurityContextManager securityContextManager;
 
 	private long keepAliveTime = DEFAULT_KEEP_ALIVE;
@@ -50,7 +66,7 @@ class SchedulerTaskExecutor {
 		this.securityContextManager = securityContextManager;
 	}
 
-	private void initialize() {
+	private synchronized void initialize() {
 		if (scheduledExecutor != null) {
 			return;
 		}
@@ -61,6 +77,26 @@ class SchedulerTaskExecutor {
 		scheduledExecutor = new ThreadPoolExecutor(getMaxConcurrentTasks(), getMaxConcurrentTasks(), 1L, TimeUnit.MINUTES,
 				new LinkedBlockingQueue<>(), threadFactory);
 		scheduledExecutor.allowCoreThreadTimeOut(true);
+
+		timingWheel = new TimingWheel<>(TICK_DURATION, TimeUnit.MILLISECONDS, TICKS_PER_WHEEL,
+				System.currentTimeMillis());
+		wheelTicker = Executors.newSingleThreadScheduledExecutor(threadFactory);
+		wheelTicker.scheduleAtFixedRate(this::onTick, TICK_DURATION, TICK_DURATION, TimeUnit.MILLISECONDS);
+	}
+
+	private void onTick() {
+		for (TaskExecutor task : timingWheel.advance(System.currentTimeMillis())) {
+			if (task.isCanceled()) {
+				continue;
+			}
+			try {
+				execute(task);
+			} catch (RuntimeException e) {
+				// should not allow the exception to stop the ticker
+				LOGGER.warn("Could not submit task {} for execution due to: {}", task.getEntry().getIdentifier(),
+						e.getMessage());
+			}
+		}
 	}
 
 	/**
@@ -68,12 +104,16 @@ class SchedulerTaskExecutor {
 	 * This method should be called explicitly on to perform the shutdown
 	 */
 	void shutdown() {
+		if (wheelTicker != null) {
+			SchedulerUtil.supplySilently(wheelTicker::shutdownNow);
+		}
 		SchedulerUtil.supplySilently(scheduledExecutor::shutdownNow);
 	}
 
 	/**
 	 * Submit a entry for execution after the given optional delay. The created task will report back to the given
-	 * {@link SchedulerTaskCallback}.
+	 * {@link SchedulerTaskCallback}. Timed tasks that need to wait more than a single tick will not have a
+	 * {@link SchedulerTask#getFuture()} until submitted for execution.
 	 *
 	 * @param entry
 	 *            the entry to generate task for
@@ -83,17 +123,28 @@ class SchedulerTaskExecutor {
 	 *            the callback to be used for reporting the task operations
 	 * @return the created and scheduled task
 	 */
-	@SuppressWarnings("unchecked")
 	SchedulerTask submit(SchedulerEntry entry, long delay, SchedulerTaskCallback callback) {
 		initialize();
 		Objects.requireNonNull(entry, "ScheduleEntry cannot be null");
 		Objects.requireNonNull(callback, "Callback cannot be null");
 		// schedule the task for execution
 		TaskExecutor task = createTask(entry, delay, callback);
-		task.setFuture((Future<Object>) scheduledExecutor.submit(task));
+		long waitTime = task.getWaitTime();
+		if (entry.getConfiguration().getType() == SchedulerEntryType.TIMED
+				&& waitTime > timingWheel.getTickDuration()) {
+			// the task will be executed in the last tick before its time
+			timingWheel.schedule(task, System.currentTimeMillis() + waitTime - timingWheel.getTickDuration());
+		} else {
+			execute(task);
+		}
 		return task;
 	}
 
+	@SuppressWarnings("unchecked")
+	private void execute(TaskExecutor task) {
+		task.setFuture((Future<Object>) scheduledExecutor.submit(task));
+	}
+
 	private TaskExecutor createTask(SchedulerEntry entry, long delay, SchedulerTaskCallback callback) {
 		SchedulerEntryType schedulerType = entry.getConfiguration().getType();
 		if (schedulerType == SchedulerEntryType.CRON) {
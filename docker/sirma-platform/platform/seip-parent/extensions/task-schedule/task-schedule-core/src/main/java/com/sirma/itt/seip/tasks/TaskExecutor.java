@@ -162,22 +162,21 @@ class TaskExecutor extends SecureRunnable implements JsonRepresentable, Schedule
 
 	/**
 	 * Gets the wait time based on the expected execution time or fixed preferred delay. If fixedDelay is greater than
-	 * zero then it will be returned.
+	 * zero then the remaining time of the delay counted from the task creation will be returned.
 	 *
 	 * @return the wait time before executing the task or -1 it should be executed immediately
 	 */
 	protected long getWaitTime() {
+		long waitTime = -1L;
 		if (fixedDelay > 0L) {
-			return fixedDelay;
-		}
-		Date scheduleTime = entry.getExpectedExecutionTime();
-		if (scheduleTime != null) {
-			long waitTime = scheduleTime.getTime() - System.currentTimeMillis();
-			if (waitTime > 0L) {
-				return waitTime;
+			waitTime = expectedExecutionTime - System.currentTimeMillis();
+		} else {
+			Date scheduleTime = entry.getExpectedExecutionTime();
+			if (scheduleTime != null) {
+				waitTime = scheduleTime.getTime() - System.currentTimeMillis();
 			}
 		}
-		return -1L;
+		return waitTime > 0L ? waitTime : -1L;
 	}
 
 	/**
@@ -6,6 +6,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
@@ -24,7 +25,6 @@ import com.sirma.itt.seip.collections.ContextualConcurrentMap;
 import com.sirma.itt.seip.configuration.ConfigurationProperty;
 import com.sirma.itt.seip.configuration.annotation.Configuration;
 import com.sirma.itt.seip.configuration.annotation.ConfigurationPropertyDefinition;
-import com.sirma.itt.seip.exception.EmfConfigurationException;
 import com.sirma.itt.seip.runtime.boot.Startup;
 import com.sirma.itt.seip.runtime.boot.StartupPhase;
 import com.sirma.itt.seip.security.annotation.OnTenantAdd;
@@ -35,7 +35,8 @@ import com.sirma.itt.seip.time.ISO8601DateFormat;
 import com.sirmaenterprise.sep.jms.annotations.TopicListener;
 
 /**
- * Schedule executor that executes the timed scheduled actions using a {@link SchedulerTaskExecutor}
+ * Schedule executor that executes the timed scheduled actions using a {@link SchedulerTaskExecutor}. The entries are
+ * claimed for the current node before execution so that an entry is executed by only one node in a cluster.
  *
  * @author BBonev
  */
@@ -57,14 +58,14 @@ public class TimedScheduleTrigger extends BaseSchedulerTrigger {
 	@Inject
 	private ContextualConcurrentMap<String, AtomicInteger> activateGroups;
 
-	@Inject
-	private SchedulerService schedulerService;
-
 	/**
 	 * The maximum number of threads that should be active for all tenants per node. The default value is number of
-	 * cores times 20
+	 * cores times 10. The tasks waiting for their execution time does not occupy a thread.
 	 */
-	private int maxExecutionThreads = Runtime.getRuntime().availableProcessors() * 40;
+	private int maxExecutionThreads = Runtime.getRuntime().availableProcessors() * 10;
+
+	/** Identifies the current node when claiming entries for execution */
+	private final String leaseOwner = UUID.randomUUID().toString();
 
 	@RunAsAllTenantAdmins
 	@Startup(phase = StartupPhase.DEPLOYMENT)
@@ -115,6 +116,11 @@ public class TimedScheduleTrigger extends BaseSchedulerTrigger {
 		return ENTRY_TYPE;
 	}
 
+	@Override
+	protected String getLeaseOwner() {
+		return leaseOwner;
+	}
+
 	/**
 	 * On shutdown stops all tasks and executors.
 	 */
@@ -132,21 +138,17 @@ public class TimedScheduleTrigger extends BaseSchedulerTrigger {
 		String time = message.getStringProperty("time");
 		Date scheduleTime = ISO8601DateFormat.parse(time);
 		LOGGER.trace("Got new scheduler entry with id={} to be executed at {}", id, time);
-		try {
-			SchedulerEntry entry = schedulerService.activate(id);
-			if (entry == null) {
-				// this happens when multiple tasks are scheduled in a short period of time
-				// and the time for accepting all messages is greater than the scheduler API internal timer
-				// for picking tasks from database. The timer may schedule task for execution from the database before
-				// the message to be processed from the queue
-				LOGGER.trace("Could not load TIMED entry with id={}. Probably already processed", id);
-				return;
-			}
-			entry.getConfiguration().setScheduleTime(scheduleTime);
-			onEvent(entry);
-		} catch (EmfConfigurationException e) {
-			LOGGER.warn("Tried to activate scheduler entry {} with invalid action", id, e);
+		SchedulerEntry entry = claimTask(id);
+		if (entry == null) {
+			// this happens when multiple tasks are scheduled in a short period of time
+			// and the time for accepting all messages is greater than the scheduler API internal timer
+			// for picking tasks from database. The timer may schedule task for execution from the database before
+			// the message to be processed from the queue. Also happens when the entry is claimed by other node
+			LOGGER.trace("Could not claim TIMED entry with id={}. Probably already processed", id);
+			return;
 		}
+		entry.getConfiguration().setScheduleTime(scheduleTime);
+		onEvent(entry);
 	}
 
 	private void onEvent(SchedulerEntry entry) { // NOSONAR
@@ -270,7 +272,8 @@ public class TimedScheduleTrigger extends BaseSchedulerTrigger {
 
 	@Override
 	protected Predicate<SchedulerEntry> getScheduleTaskFilter() {
-		return this::isGroupAllowed;
+		// the running tasks are accepted so that their claim is renewed, they will not be scheduled again
+		return entry -> isTaskScheduledAndRunning(entry) || isGroupAllowed(entry);
 	}
 
 	private boolean isGroupAllowed(SchedulerEntry entry) {
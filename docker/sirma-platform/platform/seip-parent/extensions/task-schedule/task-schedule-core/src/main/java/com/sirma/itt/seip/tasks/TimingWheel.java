@@ -0,0 +1,142 @@
+package com.sirma.itt.seip.tasks;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hashed timing wheel that holds elements until their deadline passes. The wheel is divided in fixed number of slots
+ * each covering a single tick. Elements with deadline further than a full wheel rotation are placed in the slot of
+ * their deadline and wait the required number of rotations before being returned. Adding of an element is done in
+ * constant time no matter the number of waiting elements.
+ * <p>
+ * The wheel does not have its own thread. It should be advanced periodically, at least once per tick, by calling the
+ * {@link #advance(long)} method. Elements are returned with precision of a single tick.
+ *
+ * @param <E>
+ *            the element type
+ * @author BBonev
+ */
+class TimingWheel<E> {
+
+	private final long tickDuration;
+	private final Deque<Timeout<E>>[] slots;
+	private final long startTime;
+	/** The next tick to be processed */
+	private long tick;
+	private int size;
+
+	/**
+	 * Instantiates a new timing wheel that starts at the given time.
+	 *
+	 * @param tickDuration
+	 *            the duration of a single tick
+	 * @param unit
+	 *            the unit of the tick duration
+	 * @param ticksPerWheel
+	 *            the number of slots in the wheel
+	 * @param startTime
+	 *            the wheel start time in milliseconds
+	 */
+	@SuppressWarnings("unchecked")
+	TimingWheel(long tickDuration, TimeUnit unit, int ticksPerWheel, long startTime) {
+		if (tickDuration <= 0 || ticksPerWheel <= 0) {
+			throw new IllegalArgumentException("Tick duration and ticks per wheel should be positive numbers");
+		}
+		this.tickDuration = unit.toMillis(tickDuration);
+		this.startTime = startTime;
+		slots = new Deque[ticksPerWheel];
+		for (int i = 0; i < ticksPerWheel; i++) {
+			slots[i] = new ArrayDeque<>();
+		}
+	}
+
+	/**
+	 * Adds an element that should be returned when the given deadline passes. Elements with deadline in the past are
+	 * returned on the next tick.
+	 *
+	 * @param element
+	 *            the element to add
+	 * @param deadline
+	 *            the deadline in milliseconds
+	 */
+	synchronized void schedule(E element, long deadline) {
+		long targetTick = Math.max(tick, (deadline - startTime + tickDuration - 1) / tickDuration);
+		long rounds = (targetTick - tick) / slots.length;
+		slots[(int) (targetTick % slots.length)].add(new Timeout<>(element, rounds));
+		size++;
+	}
+
+	/**
+	 * Moves the wheel to the given time and returns all elements with passed deadlines.
+	 *
+	 * @param currentTime
+	 *            the current time in milliseconds
+	 * @return the expired elements ordered by the tick of their deadline
+	 */
+	synchronized List<E> advance(long currentTime) {
+		long lastTick = (currentTime - startTime) / tickDuration;
+		List<E> expired = new ArrayList<>();
+		while (tick <= lastTick) {
+			if (size == 0) {
+				// nothing is waiting, just move the wheel
+				tick = lastTick + 1;
+				break;
+			}
+			collectExpired(slots[(int) (tick % slots.length)], expired);
+			tick++;
+		}
+		return expired;
+	}
+
+	private void collectExpired(Deque<Timeout<E>> slot, List<E> expired) {
+		Iterator<Timeout<E>> it = slot.iterator();
+		while (it.hasNext()) {
+			Timeout<E> timeout = it.next();
+			if (timeout.rounds <= 0) {
+				it.remove();
+				size--;
+				expired.add(timeout.element);
+			} else {
+				timeout.rounds--;
+			}
+		}
+	}
+
+	/**
+	 * Gets the number of the elements waiting in the wheel.
+	 *
+	 * @return the size
+	 */
+	synchronized int size() {
+		return size;
+	}
+
+	/**
+	 * Gets the tick duration in milliseconds.
+	 *
+	 * @return the tick duration
+	 */
+	long getTickDuration() {
+		return tickDuration;
+	}
+
+	/**
+	 * Element wrapper that tracks the remaining wheel rotations before the element expires.
+	 *
+	 * @param <E>
+	 *            the element type
+	 */
+	private static class Timeout<E> {
+		final E element;
+		long rounds;
+
+		Timeout(E element, long rounds) {
+			this.element = element;
+			this.rounds = rounds;
+		}
+	}
+}
@@ -57,6 +57,8 @@ import com.sirma.itt.seip.tasks.SchedulerEntryType;
 		@NamedQuery(name = SchedulerEntity.QUERY_NEXT_EXECUTION_TIME_KEY, query = SchedulerEntity.QUERY_NEXT_EXECUTION_TIME),
 		@NamedQuery(name = SchedulerEntity.QUERY_SCHEDULER_TASKS_FOR_TIMED_EXECUTION_KEY, query = SchedulerEntity.QUERY_SCHEDULER_TASKS_FOR_TIMED_EXECUTION),
 		@NamedQuery(name = SchedulerEntity.QUERY_ALL_SCHEDULER_ENTRIES_BY_IDS_KEY, query = SchedulerEntity.QUERY_ALL_SCHEDULER_ENTRIES_BY_IDS),
+		@NamedQuery(name = SchedulerEntity.UPDATE_SCHEDULER_TASKS_LEASE_KEY, query = SchedulerEntity.UPDATE_SCHEDULER_TASKS_LEASE),
+		@NamedQuery(name = SchedulerEntity.QUERY_SCHEDULER_TASKS_BY_LEASE_OWNER_KEY, query = SchedulerEntity.QUERY_SCHEDULER_TASKS_BY_LEASE_OWNER),
 })
 public class SchedulerEntity extends BaseEntity {
 
@@ -107,6 +109,18 @@ public class SchedulerEntity extends BaseEntity {
 	/** The Constant QUERY_SCHEDULER_TASKS_FOR_TIMED_EXECUTION. */
 	static final String QUERY_NEXT_EXECUTION_TIME = "select e.nextScheduleTime from SchedulerEntity e where e.nextScheduleTime is not null AND e.nextScheduleTime > :next AND e.status in (:status) AND e.type in (:type) order by e.nextScheduleTime asc";
 
+	/** Claims the given active entries for the given owner if they are not claimed by other owner. */
+	public static final String UPDATE_SCHEDULER_TASKS_LEASE_KEY = "UPDATE_SCHEDULER_TASKS_LEASE";
+	static final String UPDATE_SCHEDULER_TASKS_LEASE = "update SchedulerEntity e set e.status = :running, e.leaseOwner = :owner, e.leaseUntil = :until where e.id in (:ids) AND e.status in (:status) AND (e.leaseOwner is null OR e.leaseOwner = :owner OR e.leaseUntil is null OR e.leaseUntil < :now)";
+
+	/**
+	 * Returns the ids of the given entries that are claimed by the given owner with the given lease end time. The lease
+	 * is not cleared when the entry completes so the lease end time and the status are matched to the values written
+	 * by the last {@link #UPDATE_SCHEDULER_TASKS_LEASE}.
+	 */
+	public static final String QUERY_SCHEDULER_TASKS_BY_LEASE_OWNER_KEY = "QUERY_SCHEDULER_TASKS_BY_LEASE_OWNER";
+	static final String QUERY_SCHEDULER_TASKS_BY_LEASE_OWNER = "select e.id from SchedulerEntity e where e.id in (:ids) AND e.leaseOwner = :owner AND e.leaseUntil = :until AND e.status = :running";
+
 	/** The Constant QUERY_SCHEDULER_ENTRY_ID_BY_STATUS_KEY. */
 	public static final String QUERY_SCHEDULER_ENTRY_ID_BY_STATUS_KEY = "QUERY_SCHEDULER_ENTRY_ID_BY_STATUS";
 	/** The Constant QUERY_SCHEDULER_ENTRY_ID_BY_STATUS. */
@@ -130,6 +144,18 @@ public class SchedulerEntity extends BaseEntity {
 	@Temporal(TemporalType.TIMESTAMP)
 	private Date nextScheduleTime;
 
+	/**
+	 * The identifier of the node that claimed the entry for execution. Modified only by the
+	 * {@link #UPDATE_SCHEDULER_TASKS_LEASE} query.
+	 */
+	@Column(name = "leaseOwner", length = 100, insertable = false, updatable = false)
+	private String leaseOwner;
+
+	/** The time until the claim of the {@link #leaseOwner} is valid. */
+	@Column(name = "leaseUntil", insertable = false, updatable = false)
+	@Temporal(TemporalType.TIMESTAMP)
+	private Date leaseUntil;
+
 	@Column(name = "actionClassId")
 	private Integer actionClassId;
 
@@ -235,6 +261,24 @@ public class SchedulerEntity extends BaseEntity {
 		this.nextScheduleTime = nextScheduleTime;
 	}
 
+	/**
+	 * Gets the identifier of the node that claimed the entry for execution.
+	 *
+	 * @return the lease owner or <code>null</code> if not claimed
+	 */
+	public String getLeaseOwner() {
+		return leaseOwner;
+	}
+
+	/**
+	 * Gets the time until the entry claim is valid.
+	 *
+	 * @return the lease end time or <code>null</code> if not claimed
+	 */
+	public Date getLeaseUntil() {
+		return leaseUntil;
+	}
+
 	/**
 	 * Getter method for retries.
 	 *
@@ -1,5 +1,6 @@
 package com.sirma.itt.seip.tasks;
 
+import com.sirma.itt.seip.Pair;
 import com.sirma.itt.seip.db.DbDao;
 import com.sirma.itt.seip.security.context.SecurityContext;
 import com.sirma.itt.seip.security.exception.ContextNotActiveException;
@@ -17,7 +18,10 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import static com.sirma.itt.seip.tasks.entity.SchedulerEntity.QUERY_ALL_SCHEDULER_ENTRIES_BY_IDS_KEY;
 import static com.sirma.itt.seip.tasks.entity.SchedulerEntity.QUERY_SCHEDULER_ENTRY_BY_UID_KEY;
@@ -25,13 +29,18 @@ import static com.sirma.itt.seip.tasks.entity.SchedulerEntity.QUERY_SCHEDULER_EN
 import static com.sirma.itt.seip.tasks.entity.SchedulerEntity.QUERY_SCHEDULER_ENTRY_ID_BY_EVENT_TRIGGER_OP_AND_USER_OP_KEY;
 import static com.sirma.itt.seip.tasks.entity.SchedulerEntity.QUERY_SCHEDULER_ENTRY_ID_BY_EVENT_TRIGGER_OP_KEY;
 import static com.sirma.itt.seip.tasks.entity.SchedulerEntity.QUERY_SCHEDULER_ENTRY_ID_BY_EVENT_TRIGGER_USER_OP_KEY;
+import static com.sirma.itt.seip.tasks.entity.SchedulerEntity.QUERY_SCHEDULER_TASKS_BY_LEASE_OWNER_KEY;
 import static com.sirma.itt.seip.tasks.entity.SchedulerEntity.QUERY_SCHEDULER_TASKS_FOR_TIMED_EXECUTION_KEY;
+import static com.sirma.itt.seip.tasks.entity.SchedulerEntity.UPDATE_SCHEDULER_TASKS_LEASE_KEY;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.anyList;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -140,6 +149,40 @@ public class SchedulerDaoTest {
 		assertFalse(list.isEmpty());
 	}
 
+	@Test
+	public void claimTasks_shouldReturnTheClaimedTasks() throws Exception {
+		mockLeaseStore(new LeasedEntry(1L, SchedulerEntryStatus.PENDING, "otherNode", inFuture()),
+				new LeasedEntry(2L, SchedulerEntryStatus.PENDING, null, null));
+
+		Set<Long> claimed = schedulerDao.claimTasks(Arrays.asList(1L, 2L), EnumSet.of(SchedulerEntryStatus.PENDING),
+				"node", inFuture());
+
+		assertEquals(Collections.singleton(2L), claimed);
+	}
+
+	@Test
+	public void claimTasks_shouldNotReturnCompletedTasks_PreviouslyClaimedByTheSameOwner() throws Exception {
+		mockLeaseStore(new LeasedEntry(1L, SchedulerEntryStatus.PENDING, null, null),
+				new LeasedEntry(2L, SchedulerEntryStatus.COMPLETED, "node", new Date()));
+
+		Set<Long> claimed = schedulerDao.claimTasks(Arrays.asList(1L, 2L), EnumSet.of(SchedulerEntryStatus.PENDING),
+				"node", inFuture());
+
+		assertEquals(Collections.singleton(1L), claimed);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void claimTasks_shouldNotQueryTheClaimedTasks_WhenNothingIsUpdated() throws Exception {
+		when(dbDao.executeUpdateInNewTx(eq(UPDATE_SCHEDULER_TASKS_LEASE_KEY), anyList())).thenReturn(0);
+
+		assertNonNullEmptyCollection(schedulerDao.claimTasks(Arrays.asList(1L, 2L),
+				EnumSet.of(SchedulerEntryStatus.PENDING), "node", new Date()));
+		assertNonNullEmptyCollection(schedulerDao.claimTasks(Collections.emptyList(),
+				EnumSet.of(SchedulerEntryStatus.PENDING), "node", new Date()));
+		verify(dbDao, never()).fetchWithNamed(eq(QUERY_SCHEDULER_TASKS_BY_LEASE_OWNER_KEY), anyList());
+	}
+
 	@Test
 	@SuppressWarnings("unchecked")
 	public void systemTenant() throws Exception {
@@ -162,6 +205,62 @@ public class SchedulerDaoTest {
 		schedulerDao.findEntitiesByPrimaryKey(Arrays.asList(1L));
 	}
 
+	/**
+	 * Simulates the lease update and the query for the claimed tasks over the given entries using the passed query
+	 * arguments.
+	 */
+	@SuppressWarnings("unchecked")
+	private void mockLeaseStore(LeasedEntry... entries) {
+		when(dbDao.executeUpdateInNewTx(eq(UPDATE_SCHEDULER_TASKS_LEASE_KEY), anyList())).then(a -> {
+			Map<String, Object> args = toArgsMap(a.getArgumentAt(1, List.class));
+			Date now = (Date) args.get("now");
+			List<LeasedEntry> toClaim = Arrays.stream(entries)
+					.filter(entry -> ((Collection<?>) args.get("ids")).contains(entry.id))
+					.filter(entry -> ((Collection<?>) args.get("status")).contains(entry.status))
+					.filter(entry -> entry.leaseOwner == null || entry.leaseOwner.equals(args.get("owner"))
+							|| entry.leaseUntil == null || entry.leaseUntil.before(now))
+					.collect(Collectors.toList());
+			toClaim.forEach(entry -> {
+				entry.status = (SchedulerEntryStatus) args.get("running");
+				entry.leaseOwner = (String) args.get("owner");
+				entry.leaseUntil = (Date) args.get("until");
+			});
+			return toClaim.size();
+		});
+		when(dbDao.fetchWithNamed(eq(QUERY_SCHEDULER_TASKS_BY_LEASE_OWNER_KEY), anyList())).then(a -> {
+			Map<String, Object> args = toArgsMap(a.getArgumentAt(1, List.class));
+			return Arrays.stream(entries)
+					.filter(entry -> ((Collection<?>) args.get("ids")).contains(entry.id))
+					.filter(entry -> Objects.equals(entry.leaseOwner, args.get("owner")))
+					.filter(entry -> Objects.equals(entry.leaseUntil, args.get("until")))
+					.filter(entry -> entry.status == args.get("running"))
+					.map(entry -> entry.id)
+					.collect(Collectors.toList());
+		});
+	}
+
+	private static Map<String, Object> toArgsMap(List<Pair<String, Object>> args) {
+		return args.stream().collect(Collectors.toMap(Pair::getFirst, Pair::getSecond));
+	}
+
+	private static Date inFuture() {
+		return new Date(System.currentTimeMillis() + 60000L);
+	}
+
+	private static class LeasedEntry {
+		final Long id;
+		SchedulerEntryStatus status;
+		String leaseOwner;
+		Date leaseUntil;
+
+		LeasedEntry(Long id, SchedulerEntryStatus status, String leaseOwner, Date leaseUntil) {
+			this.id = id;
+			this.status = status;
+			this.leaseOwner = leaseOwner;
+			this.leaseUntil = leaseUntil;
+		}
+	}
+
 	@SuppressWarnings("unchecked")
 	private void mockQueryResult(String query, List<?> result) {
 		when(dbDao.fetchWithNamed(eq(query), anyList())).thenReturn(result);
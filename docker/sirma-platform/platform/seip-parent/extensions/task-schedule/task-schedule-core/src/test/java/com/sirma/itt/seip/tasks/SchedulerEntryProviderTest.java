@@ -2,11 +2,13 @@ package com.sirma.itt.seip.tasks;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyCollection;
 import static org.mockito.Matchers.anyList;
 import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -39,6 +41,8 @@ public class SchedulerEntryProviderTest {
 	private SchedulerDao dbDao;
 	@Mock
 	private SchedulerService schedulerService;
+	@Mock
+	private SchedulerEntryStore schedulerStore;
 
 	@Before
 	public void beforeMethod() {
@@ -118,6 +122,44 @@ public class SchedulerEntryProviderTest {
 		verify(schedulerService, never()).activate(anyLong());
 	}
 
+	@Test
+	public void claimTasksForExecution_shouldConsumeOnlyTheClaimedTasks() throws Exception {
+		mockValidTasks();
+		when(dbDao.claimTasks(anyCollection(), anyCollection(), eq("node"), any()))
+				.thenReturn(new HashSet<>(Arrays.asList(1L, 3L)));
+
+		List<SchedulerEntry> tasksForExecution = new LinkedList<>();
+		entryProvider.claimTasksForExecution(EnumSet.of(SchedulerEntryType.TIMED),
+				EnumSet.of(SchedulerEntryStatus.NOT_RUN), 10, "node", 100, entry -> entry.getId() != 3L,
+				tasksForExecution::add);
+
+		assertEquals(1, tasksForExecution.size());
+		assertEquals(SchedulerEntryStatus.RUNNING, tasksForExecution.get(0).getStatus());
+		verify(dbDao).claimTasks(eq(Arrays.asList(1L, 2L)), anyCollection(), eq("node"), any());
+		verify(schedulerStore).evict(new HashSet<>(Arrays.asList(1L, 3L)));
+		verify(schedulerService, never()).activate(anyLong());
+	}
+
+	@Test
+	public void claimTask_shouldReturnNull_WhenClaimedByOtherNode() throws Exception {
+		when(dbDao.claimTasks(anyCollection(), anyCollection(), eq("node"), any())).thenReturn(new HashSet<>());
+
+		assertNull(entryProvider.claimTask(1L, "node", 100));
+		verify(schedulerService, never()).loadByDbId(anyList());
+	}
+
+	@Test
+	public void claimTask_shouldLoadTheClaimedEntry() throws Exception {
+		mockValidTasks();
+		when(dbDao.claimTasks(anyCollection(), anyCollection(), eq("node"), any()))
+				.thenReturn(new HashSet<>(Arrays.asList(1L)));
+
+		SchedulerEntry entry = entryProvider.claimTask(1L, "node", 100);
+
+		assertNotNull(entry);
+		assertEquals(Long.valueOf(1L), entry.getId());
+	}
+
 	@Test
 	public void failToActivateTasks() throws Exception {
 		mockValidTasks();
@@ -1,8 +1,12 @@
 package com.sirma.itt.seip.tasks;
 
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -60,6 +64,42 @@ public class SchedulerTaskExecutorTest {
 		verify(callback).onExecuteSuccess(task);
 	}
 
+	@Test
+	public void timedTask_shouldNotOccupyThread_WhileWaiting() throws Exception {
+		SchedulerEntry entry = new SchedulerEntry();
+		DefaultSchedulerConfiguration configuration = new DefaultSchedulerConfiguration();
+		configuration.setType(SchedulerEntryType.TIMED).setIdentifier("test");
+		entry.setConfiguration(configuration);
+		entry.setAction(mock(SchedulerAction.class));
+		entry.setExpectedExecutionTime(new Date(System.currentTimeMillis() + 500));
+
+		when(callback.onTimeout(any())).thenReturn(Boolean.TRUE);
+
+		SchedulerTask task = executor.submit(entry, 0, callback);
+		// the task is not yet submitted to the thread pool
+		assertNull(task.getFuture());
+
+		verify(callback, timeout(5000)).onExecuteSuccess(task);
+		assertTrue(System.currentTimeMillis() >= entry.getExpectedExecutionTime().getTime());
+	}
+
+	@Test
+	public void timedTask_shouldNotBeExecuted_WhenCanceledWhileWaiting() throws Exception {
+		SchedulerEntry entry = new SchedulerEntry();
+		DefaultSchedulerConfiguration configuration = new DefaultSchedulerConfiguration();
+		configuration.setType(SchedulerEntryType.TIMED).setIdentifier("test");
+		entry.setConfiguration(configuration);
+		entry.setAction(mock(SchedulerAction.class));
+		entry.setExpectedExecutionTime(new Date(System.currentTimeMillis() + 300));
+
+		SchedulerTask task = executor.submit(entry, 0, callback);
+		task.cancel();
+
+		Thread.sleep(600);
+		assertNull(task.getFuture());
+		verify(callback, never()).onTimeout(any());
+	}
+
 	@Test(expected = CancellationException.class)
 	public void testCronTask() throws Exception {
 		SchedulerEntry entry = new SchedulerEntry();
@@ -7,6 +7,7 @@ import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.anySet;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.argThat;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.atLeast;
@@ -81,8 +82,6 @@ public class TimedScheduleTriggerTest {
 	private ConfigurationProperty<Long> timedExecutorDelay = new ConfigurationPropertyMock<>(60L);
 	@Spy
 	private ContextualConcurrentMap<String, AtomicInteger> activateGroups = ContextualConcurrentMap.create();
-	@Mock
-	private SchedulerService schedulerService;
 
 	@Before
 	public void beforeMethod() {
@@ -97,12 +96,12 @@ public class TimedScheduleTriggerTest {
 		});
 
 		doAnswer(a -> {
-			Consumer<SchedulerEntry> consumer = a.getArgumentAt(4, Consumer.class);
+			Consumer<SchedulerEntry> consumer = a.getArgumentAt(6, Consumer.class);
 			consumer.accept(createEntry(1L));
 			consumer.accept(createEntry(2L));
 			consumer.accept(createEntry(3L));
 			return null;
-		}).when(dbDao).getTasksForExecution(anySet(), anySet(), anyLong(), any(), any());
+		}).when(dbDao).claimTasksForExecution(anySet(), anySet(), anyLong(), anyString(), anyLong(), any(), any());
 	}
 
 	@Test
@@ -110,7 +109,7 @@ public class TimedScheduleTriggerTest {
 		mockRunTaskSuccessfully();
 
 		timedTrigger.checkAndScheduleTimedTasks();
-		verify(dbDao).getTasksForExecution(anySet(), anySet(), anyLong(), any(), any());
+		verify(dbDao).claimTasksForExecution(anySet(), anySet(), anyLong(), anyString(), anyLong(), any(), any());
 		verify(schedulerStore, atLeast(3)).saveChanges(any());
 	}
 
@@ -119,7 +118,7 @@ public class TimedScheduleTriggerTest {
 		mockRunTaskCanceled();
 
 		timedTrigger.checkAndScheduleTenantTasks();
-		verify(dbDao, times(1)).getTasksForExecution(anySet(), anySet(), anyLong(), any(), any());
+		verify(dbDao, times(1)).claimTasksForExecution(anySet(), anySet(), anyLong(), anyString(), anyLong(), any(), any());
 		verify(schedulerStore, never()).saveChanges(any());
 	}
 
@@ -164,7 +163,7 @@ public class TimedScheduleTriggerTest {
 		mockRunTaskFailed();
 
 		timedTrigger.checkAndScheduleTimedTasks();
-		verify(dbDao, times(1)).getTasksForExecution(anySet(), anySet(), anyLong(), any(), any());
+		verify(dbDao, times(1)).claimTasksForExecution(anySet(), anySet(), anyLong(), anyString(), anyLong(), any(), any());
 	}
 
 	private static SchedulerEntry createEntry(Long id) {
@@ -185,7 +184,7 @@ public class TimedScheduleTriggerTest {
 		Message message = mock(Message.class);
 		when(message.getStringProperty("time")).thenReturn("2017-12-15T00:00:00.000Z");
 		when(message.getLongProperty("id")).thenReturn(entry.getId());
-		when(schedulerService.activate(entry.getId())).thenReturn(entry);
+		when(dbDao.claimTask(eq(entry.getId()), anyString(), anyLong())).thenReturn(entry);
 		return message;
 	}
 
@@ -325,16 +324,16 @@ public class TimedScheduleTriggerTest {
 			SchedulerEntry entry1 = createEntry(9L);
 			when(entry1.getConfiguration().getGroup()).thenReturn("testGroup");
 			when(entry1.getConfiguration().getMaxActivePerGroup()).thenReturn(1);
-			assertTrue(a.getArgumentAt(3, Predicate.class).test(entry1));
-			a.getArgumentAt(4, Consumer.class).accept(entry1);
+			assertTrue(a.getArgumentAt(5, Predicate.class).test(entry1));
+			a.getArgumentAt(6, Consumer.class).accept(entry1);
 
 			SchedulerEntry entry2 = createEntry(10L);
 			when(entry2.getConfiguration().getGroup()).thenReturn("testGroup");
 			when(entry2.getConfiguration().getMaxActivePerGroup()).thenReturn(1);
-			assertFalse(a.getArgumentAt(3, Predicate.class).test(entry2));
+			assertFalse(a.getArgumentAt(5, Predicate.class).test(entry2));
 
 			return null;
-		}).when(dbDao).getTasksForExecution(anySet(), anySet(), anyLong(), any(), any());
+		}).when(dbDao).claimTasksForExecution(anySet(), anySet(), anyLong(), anyString(), anyLong(), any(), any());
 
 		// the default mock will trigger double task scheduling
 		when(mainSchedulerTrigger.scheduleMainChecker(any(), anyLong(), any())).then(a -> {
@@ -0,0 +1,63 @@
+package com.sirma.itt.seip.tasks;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Test for {@link TimingWheel}
+ *
+ * @author BBonev
+ */
+public class TimingWheelTest {
+
+	private TimingWheel<String> wheel = new TimingWheel<>(10, TimeUnit.MILLISECONDS, 8, 0);
+
+	@Test
+	public void advance_shouldReturnOnlyExpiredElements() {
+		wheel.schedule("first", 25);
+		wheel.schedule("second", 45);
+
+		assertTrue(wheel.advance(20).isEmpty());
+		assertEquals(Collections.singletonList("first"), wheel.advance(30));
+		assertEquals(Collections.singletonList("second"), wheel.advance(50));
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	public void advance_shouldWaitFullRotations_ForDistantElements() {
+		// single rotation is 80 ms
+		wheel.schedule("distant", 250);
+		wheel.schedule("near", 15);
+
+		assertEquals(Collections.singletonList("near"), wheel.advance(90));
+		assertTrue(wheel.advance(170).isEmpty());
+		assertTrue(wheel.advance(240).isEmpty());
+		assertEquals(Collections.singletonList("distant"), wheel.advance(250));
+	}
+
+	@Test
+	public void advance_shouldReturnAllElements_WhenMovedManyTicks() {
+		wheel.schedule("first", 30);
+		wheel.schedule("second", 70);
+		wheel.schedule("third", 500);
+
+		assertEquals(Arrays.asList("first", "second"), wheel.advance(100));
+		assertEquals(Collections.singletonList("third"), wheel.advance(1000));
+	}
+
+	@Test
+	public void schedule_shouldReturnPassedElementsOnTheNextTick() {
+		wheel.advance(100);
+
+		wheel.schedule("late", 50);
+
+		assertEquals(1, wheel.size());
+		assertEquals(Collections.singletonList("late"), wheel.advance(110));
+	}
+}
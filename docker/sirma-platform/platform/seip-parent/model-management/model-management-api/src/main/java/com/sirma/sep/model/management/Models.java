@@ -6,20 +6,40 @@ import com.sirma.sep.model.ModelNode;
 import com.sirma.sep.model.management.hierarchy.ModelHierarchyClass;
 import com.sirma.sep.model.management.meta.ModelsMetaInfo;
 
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
 /**
  * Used to hold converted models - semantic class & property models, definition models and their hierarchy.
+ * <p>
+ * Models that have a {@link ModelsLinker} assigned support cheap snapshots via {@link #createSnapshot()}. The snapshot
+ * and the original instance share the model sections (classes, properties and definitions) until a section is
+ * accessed for modification via {@link #walk(Path)}. At that point only the accessed section is copied for the
+ * instance that modifies it. The models obtained via the section getters should be treated as read only.
+ * <p>
+ * Models that are modified in place while other threads create snapshots of them should be modified via
+ * {@link #update(Consumer)}. Snapshots are not created during such update so they never see partially applied changes.
  *
  * @author Mihail Radkov
  */
 public class Models implements Walkable, Copyable<Models> {
 
+	/**
+	 * The model sections that could be shared between {@link Models} snapshots
+	 */
+	private enum Section {
+		CLASSES, PROPERTIES, DEFINITIONS
+	}
+
 	private Map<String, ModelClass> classes;
 
 	private Map<String, ModelProperty> properties;
@@ -34,6 +54,14 @@ public class Models implements Walkable, Copyable<Models> {
 
 	private long version;
 
+	private ModelsLinker linker;
+
+	/** The sections that are shared with other snapshots and should be copied before modification */
+	private final Set<Section> sharedSections = EnumSet.noneOf(Section.class);
+
+	/** Snapshots are created under the read lock and in place updates are done under the write lock */
+	private final ReadWriteLock updateLock = new ReentrantReadWriteLock();
+
 	public Map<String, ModelClass> getClasses() {
 		return classes;
 	}
@@ -49,27 +77,34 @@ public class Models implements Walkable, Copyable<Models> {
 	public void setClasses(Map<String, ModelClass> classes) {
 		this.classes = classes;
 		this.classes.values().forEach(assignDetachedStore());
+		sharedSections.remove(Section.CLASSES);
 	}
 
 	public void setProperties(Map<String, ModelProperty> properties) {
 		this.properties = properties;
 		this.properties.values().forEach(assignDetachedStore());
+		sharedSections.remove(Section.PROPERTIES);
 	}
 
 	public void setDefinitions(Map<String, ModelDefinition> definitions) {
 		this.definitions = definitions;
 		this.definitions.values().forEach(assignDetachedStore());
+		sharedSections.remove(Section.DEFINITIONS);
 	}
 
 	private <M extends AbstractModelNode<M, ? extends ModelNode>> Consumer<M> assignDetachedStore() {
 		return node -> node.setDetachedModelNodesStore(detachedModelNodesStore);
 	}
 
-	public List<ModelHierarchyClass> getModelHierarchy() {
+	public synchronized List<ModelHierarchyClass> getModelHierarchy() {
+		if (modelHierarchy == null && linker != null) {
+			// the hierarchy was invalidated due to copied section and it should be rebuilt with the actual nodes
+			modelHierarchy = linker.buildHierarchy(classes, definitions);
+		}
 		return modelHierarchy;
 	}
 
-	public void setModelHierarchy(List<ModelHierarchyClass> modelHierarchy) {
+	public synchronized void setModelHierarchy(List<ModelHierarchyClass> modelHierarchy) {
 		this.modelHierarchy = modelHierarchy;
 	}
 
@@ -127,20 +162,60 @@ public class Models implements Walkable, Copyable<Models> {
 		return detachedModelNodesStore.getDetachedAttribute(path);
 	}
 
+	/**
+	 * Assign a linker that enables creating snapshots of the current models via {@link #createSnapshot()}.
+	 *
+	 * @param linker the linker to use when copying shared model sections
+	 */
+	public void setLinker(ModelsLinker linker) {
+		this.linker = linker;
+	}
+
+	public ModelsLinker getLinker() {
+		return linker;
+	}
+
 	@Override
 	public Object walk(Path step) {
 		switch (step.getName()) {
 			case ModelClass.MODEL_TYPE:
+				copySharedSection(Section.CLASSES);
 				return step.proceed(classes.computeIfAbsent(step.getValue(), this::createNewModelClass));
 			case ModelProperty.MODEL_TYPE:
+				copySharedSection(Section.PROPERTIES);
 				return step.proceed(properties.computeIfAbsent(step.getValue(), this::createModelProperty));
 			case ModelDefinition.MODEL_TYPE:
+				copySharedSection(Section.DEFINITIONS);
 				return step.proceed(definitions.computeIfAbsent(step.getValue(), this::createModelDefinition));
 			default:
 				throw new IllegalArgumentException("Invalid step " + step);
 		}
 	}
 
+	private synchronized void copySharedSection(Section section) {
+		if (!sharedSections.contains(section)) {
+			return;
+		}
+		switch (section) {
+			case CLASSES:
+				setClasses(copy(classes, ModelClass::getId));
+				linker.linkClasses(classes);
+				// the hierarchy references the shared nodes
+				modelHierarchy = null;
+				break;
+			case PROPERTIES:
+				setProperties(copy(properties, ModelProperty::getId));
+				break;
+			case DEFINITIONS:
+				setDefinitions(copy(definitions, ModelDefinition::getId));
+				linker.linkDefinitions(definitions);
+				modelHierarchy = null;
+				break;
+			default:
+				throw new IllegalArgumentException("Unsupported section " + section);
+		}
+	}
+
 	private ModelClass createNewModelClass(String id) {
 		return new ModelClass()
 				.setId(id)
@@ -174,6 +249,57 @@ public class Models implements Walkable, Copyable<Models> {
 		return copy;
 	}
 
+	/**
+	 * Creates a snapshot of the current models. The snapshot shares the model nodes with the current instance until
+	 * they are modified via {@link #walk(Path)} by any of them. Then only the modified section is copied. If no
+	 * {@link ModelsLinker} is assigned a full copy is returned as produced by {@link #createCopy()}.
+	 *
+	 * @return snapshot of the current models
+	 */
+	public Models createSnapshot() {
+		Lock lock = updateLock.readLock();
+		lock.lock();
+		try {
+			return createSnapshotInternal();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private synchronized Models createSnapshotInternal() {
+		if (linker == null) {
+			return createCopy();
+		}
+		Models snapshot = new Models();
+		// the nodes are not assigned to the detached store of the snapshot until their section is copied
+		snapshot.classes = classes;
+		snapshot.properties = properties;
+		snapshot.definitions = definitions;
+		snapshot.modelHierarchy = modelHierarchy;
+		snapshot.modelsMetaInfo = modelsMetaInfo;
+		snapshot.version = version;
+		snapshot.linker = linker;
+		snapshot.sharedSections.addAll(EnumSet.allOf(Section.class));
+		// the current instance should not modify the shared nodes as well
+		sharedSections.addAll(EnumSet.allOf(Section.class));
+		return snapshot;
+	}
+
+	/**
+	 * Applies in place modification of the current models. No snapshots are created while the modification is running.
+	 *
+	 * @param modification the modification to apply
+	 */
+	public void update(Consumer<Models> modification) {
+		Lock lock = updateLock.writeLock();
+		lock.lock();
+		try {
+			modification.accept(this);
+		} finally {
+			lock.unlock();
+		}
+	}
+
 	private <C extends Copyable<C>> Map<String, C> copy(Map<String, C> toCopy, Function<C, String> idResolver) {
 		return toCopy.values()
 				.stream()
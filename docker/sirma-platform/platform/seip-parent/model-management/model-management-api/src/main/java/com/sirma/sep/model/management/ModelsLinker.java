@@ -0,0 +1,39 @@
+package com.sirma.sep.model.management;
+
+import java.util.List;
+import java.util.Map;
+
+import com.sirma.sep.model.management.hierarchy.ModelHierarchyClass;
+
+/**
+ * Restores the references between copied model nodes. Used by {@link Models} when a section shared between snapshots
+ * is copied before modification.
+ *
+ * @author BBonev
+ * @see Models#createSnapshot()
+ */
+public interface ModelsLinker {
+
+	/**
+	 * Link the parent child relations between the given copied classes
+	 *
+	 * @param classes the classes mapping to process
+	 */
+	void linkClasses(Map<String, ModelClass> classes);
+
+	/**
+	 * Link the parent child relations between the given copied definitions and their fields, regions and so on
+	 *
+	 * @param definitions the definitions mapping to process
+	 */
+	void linkDefinitions(Map<String, ModelDefinition> definitions);
+
+	/**
+	 * Builds the models hierarchy from the given classes and definitions
+	 *
+	 * @param classes the available classes
+	 * @param definitions the available definitions
+	 * @return the built hierarchy
+	 */
+	List<ModelHierarchyClass> buildHierarchy(Map<String, ModelClass> classes, Map<String, ModelDefinition> definitions);
+}
@@ -0,0 +1,116 @@
+package com.sirma.sep.model.management;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyMapOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test for {@link Models} snapshots.
+ *
+ * @author BBonev
+ */
+public class ModelsTest {
+
+	private ModelsLinker linker;
+	private Models models;
+
+	@Before
+	public void init() {
+		linker = mock(ModelsLinker.class);
+		models = new Models();
+		models.setClasses(createMapping(new ModelClass().setId("emf:Case")));
+		models.setProperties(new HashMap<>());
+		models.setDefinitions(createMapping(new ModelDefinition().setId("CS0001")));
+		models.setVersion(3L);
+		models.setLinker(linker);
+	}
+
+	@Test
+	public void createSnapshot_shouldShareTheModelNodes() {
+		Models snapshot = models.createSnapshot();
+
+		assertSame(models.getClasses(), snapshot.getClasses());
+		assertSame(models.getDefinitions(), snapshot.getDefinitions());
+		assertEquals(3L, snapshot.getVersion());
+	}
+
+	@Test
+	public void walk_shouldCopyOnlyTheModifiedSection() {
+		Models snapshot = models.createSnapshot();
+
+		Object selected = snapshot.select("class=emf:Case");
+
+		assertNotSame(models.getClasses().get("emf:Case"), selected);
+		assertSame(snapshot.getClasses().get("emf:Case"), selected);
+		assertSame(models.getDefinitions(), snapshot.getDefinitions());
+		verify(linker).linkClasses(snapshot.getClasses());
+		verify(linker, never()).linkDefinitions(anyMapOf(String.class, ModelDefinition.class));
+	}
+
+	@Test
+	public void walk_shouldNotModifySnapshot_WhenTheOriginalIsModified() {
+		Models snapshot = models.createSnapshot();
+
+		models.select("definition=CS0002");
+
+		assertEquals(2, models.getDefinitions().size());
+		assertEquals(1, snapshot.getDefinitions().size());
+		verify(linker).linkDefinitions(models.getDefinitions());
+	}
+
+	@Test
+	public void createSnapshot_shouldCreateFullCopy_WhenNoLinkerIsSet() {
+		models.setLinker(null);
+
+		Models copy = models.createSnapshot();
+
+		assertNotSame(models.getClasses(), copy.getClasses());
+		assertEquals(models.getClasses().keySet(), copy.getClasses().keySet());
+	}
+
+	@Test
+	public void createSnapshot_shouldWaitForRunningUpdate() throws Exception {
+		CompletableFuture<Models> snapshot = new CompletableFuture<>();
+		models.update(toUpdate -> {
+			toUpdate.select("definition=CS0002");
+			CompletableFuture.runAsync(() -> snapshot.complete(models.createSnapshot()));
+			assertFalse(isCompleted(snapshot));
+			toUpdate.select("definition=CS0003");
+		});
+
+		assertTrue(isCompleted(snapshot));
+		assertEquals(3, snapshot.get().getDefinitions().size());
+	}
+
+	private static boolean isCompleted(CompletableFuture<?> future) {
+		try {
+			future.get(200, TimeUnit.MILLISECONDS);
+			return true;
+		} catch (TimeoutException e) {
+			return false;
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static <M extends AbstractModelNode<M, ?>> Map<String, M> createMapping(M node) {
+		Map<String, M> mapping = new HashMap<>();
+		mapping.put(node.getId(), node);
+		return mapping;
+	}
+}
@@ -1,6 +1,7 @@
 package com.sirma.sep.model.management;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -13,6 +14,7 @@ import com.sirma.itt.seip.domain.instance.PropertyInstance;
 import com.sirma.sep.model.management.definition.DefinitionModelConverter;
 import com.sirma.sep.model.management.definition.DefinitionsProvider;
 import com.sirma.sep.model.management.hierarchy.ModelHierarchyBuilder;
+import com.sirma.sep.model.management.hierarchy.ModelHierarchyClass;
 import com.sirma.sep.model.management.meta.ModelMetaInfoProvider;
 import com.sirma.sep.model.management.meta.ModelsMetaInfo;
 import com.sirma.sep.model.management.semantic.SemanticModelConverter;
@@ -23,11 +25,14 @@ import com.sirma.sep.model.management.semantic.SemanticModelConverter;
  * com.sirma.itt.seip.domain.definition.GenericDefinition} into {@link ModelDefinition}. Finally it constructs a hierarchy of the models
  * <p>
  * The produced {@link Models} up to date with the application's runtime semantic and definition models.
+ * <p>
+ * The builder is also the {@link ModelsLinker} of the produced models so copies of them could be created as snapshots
+ * that share the model nodes until modified.
  *
  * @author Mihail Radkov
  */
 @Singleton
-public final class ModelBuilder {
+public final class ModelBuilder implements ModelsLinker {
 
 	@Inject
 	private SemanticDefinitionService semanticDefinitionService;
@@ -51,6 +56,7 @@ public final class ModelBuilder {
 	 */
 	public Models buildModels() {
 		Models models = new Models();
+		models.setLinker(this);
 
 		ModelsMetaInfo modelsMetaInfo = modelMetaInfoProvider.getModelsMetaInfo();
 		models.setModelsMetaInfo(modelsMetaInfo);
@@ -75,15 +81,42 @@ public final class ModelBuilder {
 		return models;
 	}
 
+	/**
+	 * Creates a copy of the given {@link Models}. If the models were produced by this builder the copy is a snapshot that
+	 * shares the model nodes with the original until any of them is modified. Otherwise a full copy is created.
+	 *
+	 * @param models the models to copy
+	 * @return the models copy
+	 */
 	public Models copyModels(Models models) {
-		Models copy = models.createCopy();
-		semanticModelConverter.linkClasses(copy.getClasses());
-		definitionModelConverter.linkDefinitions(copy.getDefinitions());
+		Models copy = models.createSnapshot();
+		if (copy.getLinker() != null) {
+			// sections are linked when copied on modification
+			return copy;
+		}
+		linkClasses(copy.getClasses());
+		linkDefinitions(copy.getDefinitions());
 		// Hierarchy must be explicitly built to use actual model references
-		copy.setModelHierarchy(ModelHierarchyBuilder.buildHierarchy(copy.getClasses(), copy.getDefinitions()));
+		copy.setModelHierarchy(buildHierarchy(copy.getClasses(), copy.getDefinitions()));
 		return copy;
 	}
 
+	@Override
+	public void linkClasses(Map<String, ModelClass> classes) {
+		semanticModelConverter.linkClasses(classes);
+	}
+
+	@Override
+	public void linkDefinitions(Map<String, ModelDefinition> definitions) {
+		definitionModelConverter.linkDefinitions(definitions);
+	}
+
+	@Override
+	public List<ModelHierarchyClass> buildHierarchy(Map<String, ModelClass> classes,
+			Map<String, ModelDefinition> definitions) {
+		return ModelHierarchyBuilder.buildHierarchy(classes, definitions);
+	}
+
 	private List<ClassInstance> getFlatClassHierarchy(ClassInstance currentClass) {
 		return flattenClassHierarchy(currentClass).collect(Collectors.toList());
 	}
@@ -155,17 +155,18 @@ public class ModelUpdater {
 	void actualUpdate(Models models, ModelChanges modelChanges) {
 		LOGGER.info("Updating actual model with current version {} and initial changes version {}. Applying {} changes",
 				models.getVersion(), modelChanges.getModelVersion(), modelChanges.getChanges().size());
-		// TODO add locking of the model during model update to prevent parallel model clone and update
-		verifyModelVersion(models.getVersion(), modelChanges.getModelVersion());
-		applyChanges(models, modelChanges.getChanges(), (model, change) -> {
-			if (!change.isIntermediate()) {
-				change.markAsApplied(model.modelUpdated());
-				saveChange(change);
-			}
-			LOGGER.debug("Successfully applied change {} to {}. Model version updated to {}",
-					change.getChangeSet().getOperation(), change.getChangeSet().getPath(), model.getVersion());
+		// the model is locked during the update to prevent parallel model clone and update
+		models.update(toUpdate -> {
+			verifyModelVersion(toUpdate.getVersion(), modelChanges.getModelVersion());
+			applyChanges(toUpdate, modelChanges.getChanges(), (model, change) -> {
+				if (!change.isIntermediate()) {
+					change.markAsApplied(model.modelUpdated());
+					saveChange(change);
+				}
+				LOGGER.debug("Successfully applied change {} to {}. Model version updated to {}",
+						change.getChangeSet().getOperation(), change.getChangeSet().getPath(), model.getVersion());
+			});
+			validateModel(toUpdate);
 		});
-		validateModel(models);
-		// unlock model
 	}
 }
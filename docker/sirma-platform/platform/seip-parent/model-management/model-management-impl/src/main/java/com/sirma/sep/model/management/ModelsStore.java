@@ -73,11 +73,13 @@ public class ModelsStore {
 
 	/**
 	 * Returns a copy of the {@link Models} for the current system context. They will be calculated if not yet.
+	 * <p>
+	 * The copy is a snapshot that shares the model nodes with the current models until any of them is modified so it
+	 * is cheap to create.
 	 *
 	 * @return copy of the current context's {@link Models} instance
 	 */
 	public Models getModelsCopy() {
-		// TODO add model locking during cloning
 		return copy(modelsContext.getContextValue());
 	}
 
@@ -64,6 +64,14 @@ public class MemoryCache<K extends Serializable, V extends Object> implements Si
 		map.put(key, value);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void putAll(Map<K, V> values) {
+		map.putAll(values);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
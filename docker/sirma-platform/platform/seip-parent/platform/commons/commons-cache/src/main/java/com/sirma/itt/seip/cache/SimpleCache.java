@@ -1,6 +1,9 @@
 package com.sirma.itt.seip.cache;
 
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.stream.Stream;
 
 /**
@@ -67,6 +70,28 @@ public interface SimpleCache<K extends Serializable, V extends Object> {
 	 */
 	V get(K key);
 
+	/**
+	 * Gets the values for all of the given keys at once. Keys that do not have an entry in the cache or the entry value
+	 * is <tt>null</tt> are not present in the returned mapping.
+	 * <p>
+	 * The default implementation calls {@link #get(Serializable)} for each key. Implementations that could fetch
+	 * multiple entries with a single operation should override this method.
+	 *
+	 * @param keys
+	 *            the keys to look for
+	 * @return the found non <tt>null</tt> values mapped by their keys in the order of the given keys
+	 */
+	default Map<K, V> getAll(Collection<K> keys) {
+		Map<K, V> result = new LinkedHashMap<>((int) (keys.size() * 1.5));
+		for (K key : keys) {
+			V value = get(key);
+			if (value != null) {
+				result.put(key, value);
+			}
+		}
+		return result;
+	}
+
 	/**
 	 * Put.
 	 *
@@ -77,6 +102,19 @@ public interface SimpleCache<K extends Serializable, V extends Object> {
 	 */
 	void put(K key, V value);
 
+	/**
+	 * Stores all of the given entries in the cache.
+	 * <p>
+	 * The default implementation calls {@link #put(Serializable, Object)} for each entry. Implementations that could
+	 * store multiple entries with a single operation should override this method.
+	 *
+	 * @param values
+	 *            the entries to store. <tt>null</tt> values are allowed.
+	 */
+	default void putAll(Map<K, V> values) {
+		values.forEach(this::put);
+	}
+
 	/**
 	 * Removes the cache entry whether or not the value stored against it is <tt>null</tt>.
 	 *
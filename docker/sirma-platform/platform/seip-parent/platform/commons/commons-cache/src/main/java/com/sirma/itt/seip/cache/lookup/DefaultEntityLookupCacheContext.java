@@ -1,6 +1,7 @@
 package com.sirma.itt.seip.cache.lookup;
 
 import java.io.Serializable;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -299,11 +300,21 @@ public class DefaultEntityLookupCacheContext implements EntityLookupCacheContext
 			return getContextValue().get(key);
 		}
 
+		@Override
+		public Map<K, V> getAll(Collection<K> keys) {
+			return getContextValue().getAll(keys);
+		}
+
 		@Override
 		public void put(K key, V value) {
 			getContextValue().put(key, value);
 		}
 
+		@Override
+		public void putAll(Map<K, V> values) {
+			getContextValue().putAll(values);
+		}
+
 		@Override
 		public void remove(K key) {
 			getContextValue().remove(key);
@@ -1,8 +1,16 @@
 package com.sirma.itt.seip.cache.lookup;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -27,6 +35,9 @@ import com.sirma.itt.seip.cache.SimpleCache;
  * <li>VK: The a value-derived key that will be used as a cache key when caching K for lookups by V. This can be the
  * value itself if it is itself a good key.</li>
  * </ul>
+ * <p>
+ * The cache counts the hits and misses of the lookups by key for the cache region it uses. The counters could be read
+ * via {@link #getHitCount()} and {@link #getMissCount()}.
  *
  * @param <K>
  *            the key type
@@ -62,6 +73,10 @@ public class EntityLookupCache<K extends Serializable, V, S extends Serializable
 
 	private boolean secondaryKeyEnabled = false;
 
+	private final LongAdder hitCount = new LongAdder();
+
+	private final LongAdder missCount = new LongAdder();
+
 	/**
 	 * Construct the lookup cache <b>without any cache</b>. All calls are passed directly to the underlying DAO entity
 	 * lookup.
@@ -133,6 +148,7 @@ public class EntityLookupCache<K extends Serializable, V, S extends Serializable
 		// Look in the cache
 		V value = (V) cache.get(keyCacheKey);
 		if (value != null) {
+			hitCount.increment();
 			if (value.equals(VALUE_NOT_FOUND)) {
 				// We checked before
 				return null;
@@ -142,6 +158,7 @@ public class EntityLookupCache<K extends Serializable, V, S extends Serializable
 				return new Pair<>(key, value);
 			}
 		}
+		missCount.increment();
 		// Resolve it
 		Pair<K, V> entityPair = entityLookup.findByKey(key);
 		if (entityPair == null) {
@@ -170,6 +187,100 @@ public class EntityLookupCache<K extends Serializable, V, S extends Serializable
 		return entityPair;
 	}
 
+	/**
+	 * Find the entities associated with the given keys. This is the bulk variant of {@link #getByKey(Serializable)}.
+	 * All keys are looked up in the cache with a single operation and only the cache misses are resolved via
+	 * {@link EntityLookupCallbackDAO#findByKeys(Collection)}. The resolved entities, their secondary keys and the not
+	 * found markers are stored back in the cache with a single operation.
+	 *
+	 * @param keys
+	 *            The entity keys, which may be valid or invalid (<tt>null</tt> keys are not allowed)
+	 * @return the found key-value pairs mapped by the requested key in the order of the given keys. Keys that don't
+	 *         reference an entity are not present in the result.
+	 */
+	@SuppressWarnings("unchecked")
+	public Map<K, Pair<K, V>> getByKeys(Collection<K> keys) {
+		List<CacheRegionKey> cacheKeys = toCacheKeys(keys);
+		// Handle missing cache
+		if (cache == null) {
+			return entityLookup.findByKeys(keys);
+		}
+
+		Map<Serializable, Object> cached = cache.getAll((Collection<Serializable>) (Collection<?>) cacheKeys);
+		Map<K, Pair<K, V>> found = new HashMap<>((int) (keys.size() * 1.5));
+		Set<K> misses = new LinkedHashSet<>();
+		for (CacheRegionKey cacheKey : cacheKeys) {
+			K key = (K) cacheKey.getCacheKey();
+			Object value = cached.get(cacheKey);
+			if (value == null) {
+				misses.add(key);
+			} else if (value.equals(VALUE_NULL)) {
+				found.put(key, new Pair<>(key, null));
+			} else if (!value.equals(VALUE_NOT_FOUND)) {
+				found.put(key, new Pair<>(key, (V) value));
+			}
+		}
+		hitCount.add(cacheKeys.size() - (long) misses.size());
+		missCount.add(misses.size());
+
+		if (!misses.isEmpty()) {
+			// Resolve the misses
+			Map<K, Pair<K, V>> resolved = entityLookup.findByKeys(misses);
+			Map<Serializable, Object> toCache = new HashMap<>((int) (misses.size() * 2.5));
+			for (K key : misses) {
+				Pair<K, V> entityPair = resolved.get(key);
+				if (entityPair == null) {
+					// Cache "not found"
+					toCache.put(new CacheRegionKey(cacheRegion, key), VALUE_NOT_FOUND);
+				} else {
+					found.put(key, entityPair);
+					// BB: the callback could change the key
+					collectCacheEntries(entityPair.getFirst(), entityPair.getSecond(), toCache);
+				}
+			}
+			cache.putAll(toCache);
+		}
+
+		// keep the order of the requested keys
+		Map<K, Pair<K, V>> result = new LinkedHashMap<>((int) (found.size() * 1.5));
+		for (CacheRegionKey cacheKey : cacheKeys) {
+			K key = (K) cacheKey.getCacheKey();
+			Pair<K, V> entityPair = found.get(key);
+			if (entityPair != null) {
+				result.put(key, entityPair);
+			}
+		}
+		return result;
+	}
+
+	private List<CacheRegionKey> toCacheKeys(Collection<K> keys) {
+		List<CacheRegionKey> cacheKeys = new ArrayList<>(keys.size());
+		for (K key : keys) {
+			if (key == null) {
+				throw new IllegalArgumentException("An entity lookup key may not be null");
+			}
+			cacheKeys.add(new CacheRegionKey(cacheRegion, key));
+		}
+		return cacheKeys;
+	}
+
+	/**
+	 * Adds to the given mapping the cache entries needed to store the given key and value. If secondary keys are
+	 * enabled, the value key mapping is added as well.
+	 */
+	@SuppressWarnings("unchecked")
+	private void collectCacheEntries(K key, V value, Map<Serializable, Object> entries) {
+		if (secondaryKeyEnabled) {
+			// Get the value key
+			S valueKey = value == null ? (S) VALUE_NULL : entityLookup.getValueKey(value);
+			// Check if the value has a good key
+			if (valueKey != null) {
+				entries.put(new CacheRegionValueKey(cacheRegion, valueKey), key);
+			}
+		}
+		entries.put(new CacheRegionKey(cacheRegion, key), value == null ? VALUE_NULL : value);
+	}
+
 	/**
 	 * Check if cache contains value. If cache is not initialized value is checked using the {@link #entityLookup}
 	 * 
@@ -381,6 +492,37 @@ public class EntityLookupCache<K extends Serializable, V, S extends Serializable
 		return key;
 	}
 
+	/**
+	 * Cache-only operation: Get the keys for the given value keys with a single cache operation. This is the bulk
+	 * variant of {@link #getKey(Serializable)}.
+	 *
+	 * @param valueKeys
+	 *            the value keys
+	 * @return the found entity keys mapped by the value keys in the order of the given value keys. Value keys not found
+	 *         in the cache are not present in the result.
+	 */
+	@SuppressWarnings("unchecked")
+	public Map<S, K> getKeys(Collection<S> valueKeys) {
+		// handle missing cache
+		if (cache == null || !isSecondaryKeyEnabled()) {
+			return Collections.emptyMap();
+		}
+		List<Serializable> cacheKeys = new ArrayList<>(valueKeys.size());
+		for (S valueKey : valueKeys) {
+			cacheKeys.add(new CacheRegionValueKey(cacheRegion, valueKey));
+		}
+		Map<Serializable, Object> cached = cache.getAll(cacheKeys);
+		Map<S, K> result = new LinkedHashMap<>((int) (cached.size() * 1.5));
+		for (Serializable cacheKey : cacheKeys) {
+			Object key = cached.get(cacheKey);
+			// Check if we have looked this up already
+			if (key != null && !key.equals(VALUE_NOT_FOUND)) {
+				result.put((S) ((CacheRegionValueKey) cacheKey).getCacheValueKey(), (K) key);
+			}
+		}
+		return result;
+	}
+
 	/**
 	 * Cache-only operation: Update the cache's value.
 	 *
@@ -432,8 +574,11 @@ public class EntityLookupCache<K extends Serializable, V, S extends Serializable
 		// Look in the cache
 		V value = (V) cache.get(keyCacheKey);
 		if (value == null) {
+			missCount.increment();
 			return null;
-		} else if (value.equals(VALUE_NOT_FOUND)) {
+		}
+		hitCount.increment();
+		if (value.equals(VALUE_NOT_FOUND)) {
 			// We checked before
 			return null;
 		} else if (value.equals(VALUE_NULL)) {
@@ -443,6 +588,75 @@ public class EntityLookupCache<K extends Serializable, V, S extends Serializable
 		}
 	}
 
+	/**
+	 * Cache-only operation: Get the values for the given keys with a single cache operation. This is the bulk variant
+	 * of {@link #getValue(Serializable)}.
+	 *
+	 * @param keys
+	 *            The entity keys, which may be valid or invalid (<tt>null</tt> keys are not allowed)
+	 * @return the found non <tt>null</tt> values mapped by their keys in the order of the given keys. Keys not found in
+	 *         the cache or with <tt>null</tt> values are not present in the result.
+	 */
+	@SuppressWarnings("unchecked")
+	public Map<K, V> getValues(Collection<K> keys) {
+		if (cache == null) {
+			// no cache so we cannot fetch from there
+			return Collections.emptyMap();
+		}
+		List<CacheRegionKey> cacheKeys = toCacheKeys(keys);
+		Map<Serializable, Object> cached = cache.getAll((Collection<Serializable>) (Collection<?>) cacheKeys);
+		Map<K, V> result = new LinkedHashMap<>((int) (cached.size() * 1.5));
+		long misses = 0;
+		for (CacheRegionKey cacheKey : cacheKeys) {
+			Object value = cached.get(cacheKey);
+			if (value == null) {
+				misses++;
+			} else if (!value.equals(VALUE_NOT_FOUND) && !value.equals(VALUE_NULL)) {
+				result.put((K) cacheKey.getCacheKey(), (V) value);
+			}
+		}
+		hitCount.add(cacheKeys.size() - misses);
+		missCount.add(misses);
+		return result;
+	}
+
+	/**
+	 * Cache-only operation: Update the cache's values for all given keys with a single cache operation. This is the
+	 * bulk variant of {@link #setValue(Serializable, Object)}.
+	 *
+	 * @param values
+	 *            The new entity values mapped by their keys (<tt>null</tt> values are allowed)
+	 */
+	@SuppressWarnings("unchecked")
+	public void setValues(Map<K, V> values) {
+		// Handle missing cache
+		if (cache == null || values.isEmpty()) {
+			return;
+		}
+		if (isSecondaryKeyEnabled()) {
+			removeValueKeys(values.keySet());
+		}
+		Map<Serializable, Object> toCache = new HashMap<>((int) (values.size() * 2.5));
+		values.forEach((key, value) -> collectCacheEntries(key, value, toCache));
+		cache.putAll(toCache);
+	}
+
+	/**
+	 * Removes the value keys that point to the currently cached values of the given keys
+	 */
+	@SuppressWarnings("unchecked")
+	private void removeValueKeys(Collection<K> keys) {
+		Map<Serializable, Object> current = cache.getAll((Collection<Serializable>) (Collection<?>) toCacheKeys(keys));
+		for (Object value : current.values()) {
+			if (!value.equals(VALUE_NOT_FOUND) && !value.equals(VALUE_NULL)) {
+				S valueKey = entityLookup.getValueKey((V) value);
+				if (valueKey != null) {
+					cache.remove(new CacheRegionValueKey(cacheRegion, valueKey));
+				}
+			}
+		}
+	}
+
 	/**
 	 * Delete the entity associated with the given key. The {@link EntityLookupCallbackDAO#deleteByKey(Serializable)}
 	 * callback will be used if necessary.
@@ -605,6 +819,24 @@ public class EntityLookupCache<K extends Serializable, V, S extends Serializable
 		}
 	}
 
+	/**
+	 * Gets the number of the key lookups in the current cache region that were found in the cache.
+	 *
+	 * @return the cache hit count
+	 */
+	public long getHitCount() {
+		return hitCount.sum();
+	}
+
+	/**
+	 * Gets the number of the key lookups in the current cache region that were not found in the cache.
+	 *
+	 * @return the cache miss count
+	 */
+	public long getMissCount() {
+		return missCount.sum();
+	}
+
 	public boolean isSecondaryKeyEnabled() {
 		return secondaryKeyEnabled;
 	}
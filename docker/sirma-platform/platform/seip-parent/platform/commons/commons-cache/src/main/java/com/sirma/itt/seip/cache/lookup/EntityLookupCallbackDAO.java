@@ -1,6 +1,9 @@
 package com.sirma.itt.seip.cache.lookup;
 
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import com.sirma.itt.seip.Pair;
 
@@ -44,6 +47,25 @@ public interface EntityLookupCallbackDAO<K extends Serializable, V extends Objec
 	 */
 	Pair<K, V> findByKey(K key);
 
+	/**
+	 * Find the entities for all of the given keys. The default implementation calls {@link #findByKey(Serializable)}
+	 * for each key. Implementations that could load multiple entities with a single query should override this method.
+	 *
+	 * @param keys
+	 *            the keys (IDs) used to identify the entities (never <tt>null</tt>)
+	 * @return the found entities mapped by the requested key. Keys without entity are not present in the result.
+	 */
+	default Map<K, Pair<K, V>> findByKeys(Collection<K> keys) {
+		Map<K, Pair<K, V>> result = new LinkedHashMap<>((int) (keys.size() * 1.5));
+		for (K key : keys) {
+			Pair<K, V> pair = findByKey(key);
+			if (pair != null) {
+				result.put(key, pair);
+			}
+		}
+		return result;
+	}
+
 	/**
 	 * Find and entity using the given value key. The <code>equals</code> and <code>hashCode</code> methods of the value
 	 * object should respect case-sensitivity in the same way that this lookup treats case-sensitivity i.e. if the
@@ -47,27 +47,26 @@ public class CacheUtils {
 		if (cache == null) {
 			secondPass.addAll(ids);
 		} else {
-			ids.forEach(id -> {
-				// convert the cache entry to instance and schedule
-				// properties loading instead of one by one loading
-				E entity = cache.getValue(id);
-				if (entity != null) {
-					result.put(id, entity);
-				} else {
-					// no cache or not found in cache search later in DB
+			// fetch all cache entries at once
+			Map<P, E> cached = cache.getValues(ids);
+			result.putAll(cached);
+			for (P id : ids) {
+				if (!cached.containsKey(id)) {
+					// not found in cache search later in DB
 					secondPass.add(id);
 				}
-			});
+			}
 		}
 
 		// fetch everything else from DB and update cache
 		if (!secondPass.isEmpty()) {
 			List<E> list = callback.findEntitiesByPrimaryKey(secondPass);
+			Map<P, E> loaded = CollectionUtils.createLinkedHashMap(list.size());
 			for (E entity : list) {
-				P primaryKey = callback.getPrimaryKey(entity);
-				addToCache(cache, primaryKey, entity);
-				result.put(primaryKey, entity);
+				loaded.put(callback.getPrimaryKey(entity), entity);
 			}
+			addToCache(cache, loaded);
+			result.putAll(loaded);
 		}
 
 		// sort the results
@@ -104,12 +103,13 @@ public class CacheUtils {
 		if (cache == null) {
 			secondPass.addAll(ids);
 		} else {
+			// resolve all primary keys and then all values with a single cache operation each
+			Map<S, P> keys = cache.getKeys(ids);
+			Map<P, E> cached = cache.getValues(keys.values());
 			ids.forEach(id -> {
-				P key = cache.getKey(id);
-				// convert the cache entry to instance and schedule
-				// properties loading instead of one by one loading
+				P key = keys.get(id);
 				// for some reason sometimes the value returned is null
-				if (key != null && CollectionUtils.addNonNullValue(result, id, cache.getValue(key))) {
+				if (key != null && CollectionUtils.addNonNullValue(result, id, cached.get(key))) {
 					return;
 				}
 				// no cache or not found in cache search later in DB
@@ -120,11 +120,13 @@ public class CacheUtils {
 		// fetch everything else from DB and update cache
 		if (!secondPass.isEmpty()) {
 			List<E> list = callback.findEntitiesBySecondaryKey(secondPass);
+			Map<P, E> loaded = CollectionUtils.createLinkedHashMap(list.size());
 			for (E entity : list) {
-				// update cache
-				addToCache(cache, callback.getPrimaryKey(entity), entity);
+				loaded.put(callback.getPrimaryKey(entity), entity);
 				result.put(callback.getSecondaryKey(entity), entity);
 			}
+			// update cache
+			addToCache(cache, loaded);
 		}
 		// sort the results
 		List<E> sortedResult = new ArrayList<>(result.size());
@@ -133,10 +135,10 @@ public class CacheUtils {
 	}
 
 	private static <E extends Entity<?>, P extends Serializable> void addToCache(EntityLookupCache<P, E, ?> cache,
-			P primaryKey, E entity) {
+			Map<P, E> entities) {
 		if (cache != null) {
 			// update cache
-			cache.setValue(primaryKey, entity);
+			cache.setValues(entities);
 		}
 	}
 
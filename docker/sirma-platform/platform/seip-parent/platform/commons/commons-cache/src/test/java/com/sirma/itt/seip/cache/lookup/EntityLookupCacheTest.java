@@ -4,12 +4,19 @@ import static org.junit.Assert.*;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 
 import org.junit.Before;
@@ -52,6 +59,15 @@ public class EntityLookupCacheTest {
 		});
 		when(entityLookup.createValue(any())).then(a -> new Pair<>("key", a.getArguments()[0]));
 		when(entityLookup.updateValue(any(), any())).thenReturn(1);
+		when(entityLookup.findByKeys(any())).then(a -> {
+			Map<String, Pair<String, Object>> found = new LinkedHashMap<>();
+			for (Object key : a.getArgumentAt(0, Collection.class)) {
+				if (!key.toString().startsWith("invalid")) {
+					found.put(key.toString(), new Pair<>(key.toString(), "VALUE"));
+				}
+			}
+			return found;
+		});
 	}
 
 	@Test
@@ -69,6 +85,51 @@ public class EntityLookupCacheTest {
 		assertEquals(2L, cache.getKeys().count());
 	}
 
+	@Test
+	public void getByKeys_shouldResolveOnlyCacheMisses() throws Exception {
+		lookupCache.getByKey("key1");
+
+		Map<String, Pair<String, Object>> result = lookupCache.getByKeys(Arrays.asList("key2", "key1", "invalidKey"));
+		assertEquals(Arrays.asList("key2", "key1"), Arrays.asList(result.keySet().toArray()));
+		assertEquals("VALUE", result.get("key1").getSecond());
+		verify(entityLookup).findByKeys(new HashSet<>(Arrays.asList("key2", "invalidKey")));
+		// 3 primary keys including the not found marker
+		assertEquals(3L, cache.getKeys().count());
+		assertEquals(1L, lookupCache.getHitCount());
+		assertEquals(3L, lookupCache.getMissCount());
+	}
+
+	@Test
+	public void getByKeys_shouldNotResolveNotFoundKeysAgain() throws Exception {
+		lookupCache.getByKeys(Arrays.asList("key", "invalidKey"));
+		Map<String, Pair<String, Object>> result = lookupCache.getByKeys(Arrays.asList("key", "invalidKey"));
+
+		assertEquals(Collections.singleton("key"), result.keySet());
+		verify(entityLookup, times(1)).findByKeys(any());
+		assertEquals(2L, lookupCache.getHitCount());
+		assertEquals(2L, lookupCache.getMissCount());
+	}
+
+	@Test
+	public void getByKeys_shouldAddValueKeysIfEnabled() throws Exception {
+		enableSecondaryKey();
+		lookupCache.getByKeys(Arrays.asList("key"));
+		assertEquals(2L, cache.getKeys().count());
+		assertEquals("key", lookupCache.getKey("valueKey"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void getByKeys_shouldFailOnNullKey() throws Exception {
+		lookupCache.getByKeys(Arrays.asList("key", null));
+	}
+
+	@Test
+	public void getByKeys_withoutCache() throws Exception {
+		lookupCache = new EntityLookupCache<>(entityLookup);
+		Map<String, Pair<String, Object>> result = lookupCache.getByKeys(Arrays.asList("key", "invalidKey"));
+		assertEquals(Collections.singleton("key"), result.keySet());
+	}
+
 	@Test
 	public void containsKey() throws Exception {
 		lookupCache.getByKey("key");
@@ -178,6 +239,38 @@ public class EntityLookupCacheTest {
 		assertEquals(3, cache.getKeys().count());
 	}
 
+	@Test
+	public void getValues_setValues() throws Exception {
+		Map<String, Object> values = new HashMap<>();
+		values.put("key1", "value1");
+		values.put("key2", null);
+		lookupCache.setValues(values);
+
+		Map<String, Object> result = lookupCache.getValues(Arrays.asList("key1", "key2", "key3"));
+		assertEquals(Collections.singletonMap("key1", "value1"), result);
+		assertEquals(2L, lookupCache.getHitCount());
+		assertEquals(1L, lookupCache.getMissCount());
+		verify(entityLookup, never()).findByKey(any());
+	}
+
+	@Test
+	public void setValues_shouldUpdateSecondaryKeysIfEnabled() throws Exception {
+		enableSecondaryKey();
+		when(entityLookup.getValueKey(any())).then(a -> a.getArgumentAt(0, Object.class) + "Key");
+		lookupCache.setValues(Collections.singletonMap("key", "value1"));
+		lookupCache.setValues(Collections.singletonMap("key", "value2"));
+
+		assertEquals(Collections.singletonMap("value2Key", "key"),
+				lookupCache.getKeys(Arrays.asList("value1Key", "value2Key")));
+		assertEquals(2L, cache.getKeys().count());
+	}
+
+	@Test
+	public void getKeys_shouldDoNothingWhenSecondaryKeyIsNotEnabled() throws Exception {
+		lookupCache.setValue("key", "value");
+		assertTrue(lookupCache.getKeys(Arrays.asList("valueKey")).isEmpty());
+	}
+
 	@Test
 	public void deleteByKey() throws Exception {
 		lookupCache.getByKey("key");
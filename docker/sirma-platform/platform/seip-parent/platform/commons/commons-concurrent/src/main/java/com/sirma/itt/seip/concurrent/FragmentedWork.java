@@ -6,10 +6,15 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
 import com.sirma.itt.seip.collections.CollectionUtils;
+import com.sirma.itt.seip.exception.EmfRuntimeException;
 
 /**
  * Helper class to run data processing on fragments. Useful when executing queries to load huge amount of data. The
@@ -18,7 +23,9 @@ import com.sirma.itt.seip.collections.CollectionUtils;
  * The implementation is done with a class to that the user could pass any number of arguments to use in the actual
  * processing method.
  * <p>
- * For future implementation could provide option for parallel job execution.
+ * The methods with {@code InParallel} suffix process the fragments in parallel using the given {@link TaskExecutor}.
+ * The security context and the runtime configuration of the caller are transferred to the worker threads by the
+ * executor. The calling thread also processes fragments so the work progresses even if the executor pool is busy.
  *
  * @author BBonev
  */
@@ -163,4 +170,213 @@ public class FragmentedWork {
 		return Collections.singletonList(fragmentReducer.apply(data));
 	}
 
+	/**
+	 * Splits the data in chunks and calls the consumer with each chunk in parallel. The method blocks until all chunks
+	 * are processed. If processing of any chunk fails the remaining chunks will not be processed and the first error
+	 * will be thrown.
+	 *
+	 * @param <I>
+	 *            the generic type
+	 * @param executor
+	 *            the executor to use for the parallel processing
+	 * @param data
+	 *            the data
+	 * @param fragmentSize
+	 *            the fragment size
+	 * @param parallelism
+	 *            the maximum number of fragments that could be processed at the same time including the calling
+	 *            thread. Values less than 2 disable the parallel processing
+	 * @param fragmentConsumer
+	 *            the fragment consumer. Should be thread safe
+	 */
+	public static <I> void doWorkInParallel(TaskExecutor executor, Collection<I> data, int fragmentSize,
+			int parallelism, Consumer<Collection<I>> fragmentConsumer) {
+		if (!isParallelProcessingApplicable(executor, data, fragmentSize, parallelism)) {
+			doWork(data, fragmentSize, fragmentConsumer);
+			return;
+		}
+		executeInParallel(executor, splitData(data, fragmentSize), parallelism, false, fragment -> {
+			fragmentConsumer.accept(fragment);
+			return null;
+		});
+	}
+
+	/**
+	 * Splits the data in chunks and calls the transformer function with each chunk in parallel. The transformed
+	 * results are collected and returned when all chunks are processed. If processing of any chunk fails the remaining
+	 * chunks will not be processed and the first error will be thrown.
+	 *
+	 * @param <I>
+	 *            the input type
+	 * @param <R>
+	 *            the output type
+	 * @param executor
+	 *            the executor to use for the parallel processing
+	 * @param data
+	 *            the data to process
+	 * @param fragmentSize
+	 *            the fragment size
+	 * @param parallelism
+	 *            the maximum number of fragments that could be processed at the same time including the calling
+	 *            thread. Values less than 2 disable the parallel processing
+	 * @param keepOrder
+	 *            if <code>true</code> the results will be in the order of the fragments as if processed sequentially,
+	 *            otherwise the results will be in fragment completion order
+	 * @param fragmentTransformer
+	 *            the fragment consumer. It should not return <code>null</code> collections. Should be thread safe
+	 * @return result collection that contains the transformed data.
+	 */
+	public static <I, R> Collection<R> doWorkWithResultInParallel(TaskExecutor executor, Collection<I> data,
+			int fragmentSize, int parallelism, boolean keepOrder,
+			Function<Collection<I>, Collection<R>> fragmentTransformer) {
+		if (!isParallelProcessingApplicable(executor, data, fragmentSize, parallelism)) {
+			return doWorkWithResult(data, fragmentSize, fragmentTransformer);
+		}
+		List<Collection<R>> fragmentResults = executeInParallel(executor, splitData(data, fragmentSize), parallelism,
+				keepOrder, fragmentTransformer);
+		Collection<R> result = new ArrayList<>(data.size());
+		fragmentResults.forEach(result::addAll);
+		return result;
+	}
+
+	/**
+	 * Splits the data in chunks and calls the transformer function with each chunk in parallel to reduce the data to a
+	 * single element. The transformed results are collected and returned when all chunks are processed. If processing
+	 * of any chunk fails the remaining chunks will not be processed and the first error will be thrown.
+	 *
+	 * @param <I>
+	 *            the input collection elements type
+	 * @param <R>
+	 *            the output elements type
+	 * @param executor
+	 *            the executor to use for the parallel processing
+	 * @param data
+	 *            the data to process
+	 * @param fragmentSize
+	 *            the fragment size
+	 * @param parallelism
+	 *            the maximum number of fragments that could be processed at the same time including the calling
+	 *            thread. Values less than 2 disable the parallel processing
+	 * @param keepOrder
+	 *            if <code>true</code> the results will be in the order of the fragments as if processed sequentially,
+	 *            otherwise the results will be in fragment completion order
+	 * @param fragmentReducer
+	 *            the fragment reducer. Should be thread safe
+	 * @return the collection of reduced items
+	 */
+	public static <I, R> Collection<R> doWorkAndReduceInParallel(TaskExecutor executor, Collection<I> data,
+			int fragmentSize, int parallelism, boolean keepOrder, Function<Collection<I>, R> fragmentReducer) {
+		if (!isParallelProcessingApplicable(executor, data, fragmentSize, parallelism)) {
+			return doWorkAndReduce(data, fragmentSize, fragmentReducer);
+		}
+		return executeInParallel(executor, splitData(data, fragmentSize), parallelism, keepOrder, fragmentReducer);
+	}
+
+	private static boolean isParallelProcessingApplicable(TaskExecutor executor, Collection<?> data,
+			int fragmentSize, int parallelism) {
+		return executor != null && parallelism > 1 && data != null && data.size() > fragmentSize;
+	}
+
+	private static <I> List<List<I>> splitData(Collection<I> data, int fragmentSize) {
+		List<I> keys = new ArrayList<>(data);
+		List<List<I>> fragments = new ArrayList<>(data.size() / fragmentSize + 1);
+		int size = data.size();
+		int index = 0;
+		while (index < size) {
+			int step = Math.min(index + fragmentSize, size);
+			fragments.add(keys.subList(index, step));
+			index = step;
+		}
+		return fragments;
+	}
+
+	private static <I, R> List<R> executeInParallel(TaskExecutor executor, List<List<I>> fragments, int parallelism,
+			boolean keepOrder, Function<Collection<I>, R> fragmentProcessor) {
+		ParallelFragments<I, R> work = new ParallelFragments<>(fragments, fragmentProcessor);
+		int workers = Math.min(parallelism, fragments.size());
+		// the current thread is also a worker
+		List<Future<?>> futures = new ArrayList<>(workers - 1);
+		for (int i = 1; i < workers; i++) {
+			futures.add(executor.submit(work::process));
+		}
+		work.process();
+		try {
+			work.awaitCompletion();
+		} finally {
+			// all fragments are already processed, workers that are still not started are not needed
+			futures.forEach(future -> future.cancel(false));
+		}
+		return work.getResults(keepOrder);
+	}
+
+	/**
+	 * Shared state of the fragments processed in parallel. Each worker claims the next not processed fragment until
+	 * all fragments are claimed. After the first failure the remaining fragments are claimed but not processed.
+	 *
+	 * @param <I>
+	 *            the input elements type
+	 * @param <R>
+	 *            the fragment result type
+	 */
+	private static class ParallelFragments<I, R> {
+		private final List<List<I>> fragments;
+		private final Function<Collection<I>, R> processor;
+		private final Object[] results;
+		private final int[] completionOrder;
+		private final AtomicInteger nextFragment = new AtomicInteger();
+		private final AtomicInteger completedFragments = new AtomicInteger();
+		private final AtomicReference<Throwable> failure = new AtomicReference<>();
+		private final CountDownLatch pending;
+
+		ParallelFragments(List<List<I>> fragments, Function<Collection<I>, R> processor) {
+			this.fragments = fragments;
+			this.processor = processor;
+			results = new Object[fragments.size()];
+			completionOrder = new int[fragments.size()];
+			pending = new CountDownLatch(fragments.size());
+		}
+
+		void process() {
+			int index;
+			while ((index = nextFragment.getAndIncrement()) < fragments.size()) {
+				try {
+					if (failure.get() == null) {
+						results[index] = processor.apply(fragments.get(index));
+						completionOrder[completedFragments.getAndIncrement()] = index;
+					}
+				} catch (RuntimeException | Error e) {
+					failure.compareAndSet(null, e);
+				} finally {
+					pending.countDown();
+				}
+			}
+		}
+
+		void awaitCompletion() {
+			try {
+				pending.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				// stop processing of the not claimed fragments
+				failure.compareAndSet(null, e);
+			}
+			Throwable throwable = failure.get();
+			if (throwable instanceof RuntimeException) {
+				throw (RuntimeException) throwable;
+			} else if (throwable instanceof Error) {
+				throw (Error) throwable;
+			} else if (throwable != null) {
+				throw new EmfRuntimeException("Fragment processing was interrupted", throwable);
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		List<R> getResults(boolean keepOrder) {
+			List<R> list = new ArrayList<>(results.length);
+			for (int i = 0; i < results.length; i++) {
+				list.add((R) results[keepOrder ? i : completionOrder[i]]);
+			}
+			return list;
+		}
+	}
 }
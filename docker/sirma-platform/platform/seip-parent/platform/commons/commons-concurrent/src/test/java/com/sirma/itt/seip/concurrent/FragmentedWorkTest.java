@@ -1,16 +1,26 @@
 package com.sirma.itt.seip.concurrent;
 
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import com.sirma.itt.seip.Executable;
+
 /**
  * The Class FragmentedWorkTest.
  *
@@ -18,6 +28,22 @@ import org.testng.annotations.Test;
  */
 @Test
 public class FragmentedWorkTest {
+
+	private ExecutorService pool;
+	private TaskExecutor executor;
+
+	@BeforeClass
+	public void beforeClass() {
+		pool = Executors.newFixedThreadPool(4);
+		executor = mock(TaskExecutor.class);
+		when(executor.submit(any(Executable.class)))
+				.then(a -> pool.submit(() -> a.getArgumentAt(0, Executable.class).execute()));
+	}
+
+	@AfterClass
+	public void afterClass() {
+		pool.shutdownNow();
+	}
 	/**
 	 * Test work.
 	 *
@@ -68,6 +94,71 @@ public class FragmentedWorkTest {
 		assertEquals(result.size(), processed.get());
 	}
 
+	@Test(dataProvider = "dataProvider")
+	public void testWorkInParallel(int data, int fragments) {
+		AtomicInteger processed = new AtomicInteger();
+		FragmentedWork.doWorkInParallel(executor, createData(data), fragments, 3, f -> {
+			Assert.assertNotNull(f);
+			Assert.assertFalse(f.isEmpty());
+			Assert.assertTrue(f.size() <= fragments);
+			processed.getAndAdd(f.size());
+		});
+		Assert.assertEquals(processed.get(), data);
+	}
+
+	@Test(dataProvider = "dataProvider")
+	public void testWorkWithResultInParallel_ordered(int data, int fragments) {
+		Collection<Integer> createData = createData(data);
+		Collection<Integer> result = FragmentedWork.doWorkWithResultInParallel(executor, createData, fragments, 3,
+				true, f -> new ArrayList<>(f));
+		assertEquals(result, createData);
+	}
+
+	@Test(dataProvider = "dataProvider")
+	public void testWorkWithResultInParallel_unordered(int data, int fragments) {
+		Collection<Integer> createData = createData(data);
+		Collection<Integer> result = FragmentedWork.doWorkWithResultInParallel(executor, createData, fragments, 3,
+				false, f -> new ArrayList<>(f));
+		assertEquals(result.size(), data);
+		assertEquals(new HashSet<>(result), new HashSet<>(createData));
+	}
+
+	@Test(dataProvider = "dataProvider")
+	public void testWorkAndReduceInParallel(int data, int fragments) {
+		AtomicInteger processed = new AtomicInteger();
+		Collection<Integer> result = FragmentedWork.doWorkAndReduceInParallel(executor, createData(data), fragments,
+				3, true, f -> {
+					processed.getAndIncrement();
+					return f.size();
+				});
+		assertEquals(result.size(), processed.get());
+		assertEquals(result.stream().mapToInt(Integer::intValue).sum(), data);
+	}
+
+	@Test
+	public void testWorkInParallel_shouldStopOnFirstFailure() {
+		AtomicInteger processed = new AtomicInteger();
+		try {
+			FragmentedWork.doWorkInParallel(executor, createData(1000), 1, 2, f -> {
+				if (processed.incrementAndGet() == 5) {
+					throw new IllegalStateException("fail");
+				}
+			});
+			Assert.fail("Should have thrown exception");
+		} catch (IllegalStateException e) {
+			assertEquals(e.getMessage(), "fail");
+		}
+		// the processing should stop shortly after the failure
+		Assert.assertTrue(processed.get() < 1000);
+	}
+
+	@Test
+	public void testWorkInParallel_withoutExecutor() {
+		AtomicInteger processed = new AtomicInteger();
+		FragmentedWork.doWorkInParallel(null, createData(11), 2, 3, f -> processed.getAndAdd(f.size()));
+		Assert.assertEquals(processed.get(), 11);
+	}
+
 	@Test(expectedExceptions = IllegalArgumentException.class)
 	public void testComputeBatchSize_invalidFragmentNumber() {
 		FragmentedWork.computeBatchForNFragments(1, 0);
@@ -3,6 +3,9 @@ package com.sirma.itt.seip.rest;
 import static com.sirma.itt.seip.util.EqualsHelper.nullSafeEquals;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import org.apache.commons.lang.StringUtils;
 
@@ -10,7 +13,9 @@ import org.apache.commons.lang.StringUtils;
  * Class that represents HTTP Range header. Can be used as parameter type to inject the header from the request. <br>
  * Note that the range is 0 based.<br>
  * If the range has open end (till the end of the range) the {@link #getTo()} will return -1 and {@link #isToTheEnd()}
- * will return <code>true</code>.
+ * will return <code>true</code>.<br>
+ * If the header defines multiple ranges like {@code bytes=0-99,200-299} the range object represents the first of them
+ * and all ranges could be accessed via {@link #getRanges()}.
  *
  * @author BBonev
  */
@@ -40,6 +45,8 @@ public class Range implements Serializable {
 	private final long from;
 	private final long to;
 	private final String unit;
+	/** All ranges when multiple ranges are requested or <code>null</code> for single range. */
+	private final List<Range> ranges;
 
 	/**
 	 * Instantiates a new range.
@@ -55,6 +62,15 @@ public class Range implements Serializable {
 		this.unit = StringUtils.isBlank(unit) ? BYTES : unit;
 		this.from = from;
 		this.to = to;
+		ranges = null;
+	}
+
+	private Range(List<Range> ranges) {
+		Range first = ranges.get(0);
+		unit = first.unit;
+		from = first.from;
+		to = first.to;
+		this.ranges = Collections.unmodifiableList(ranges);
 	}
 
 	/**
@@ -64,6 +80,7 @@ public class Range implements Serializable {
 	 * <li>{@code unit=from-}
 	 * <li>{@code from-to} (with default units bytes)
 	 * <li>{@code from-} (with default units bytes)
+	 * <li>{@code unit=from-to,from-to,from-} (multiple ranges)
 	 * </ul>
 	 *
 	 * @param rangeToParse
@@ -81,6 +98,23 @@ public class Range implements Serializable {
 			unit = strings[0];
 			range = strings[1];
 		}
+		String[] parts = range.split(",");
+		if (parts.length == 1) {
+			return parseSingle(unit, parts[0].trim());
+		}
+		List<Range> ranges = new ArrayList<>(parts.length);
+		for (String part : parts) {
+			if (StringUtils.isNotBlank(part)) {
+				ranges.add(parseSingle(unit, part.trim()));
+			}
+		}
+		if (ranges.size() == 1) {
+			return ranges.get(0);
+		}
+		return new Range(ranges);
+	}
+
+	private static Range parseSingle(String unit, String range) {
 		String[] split = range.split("-");
 		long start = Long.parseLong(split[0]);
 		long end = -1L;
@@ -135,6 +169,28 @@ public class Range implements Serializable {
 		return to == -1L;
 	}
 
+	/**
+	 * Checks if the header defined more than one range. If so all ranges could be fetched via {@link #getRanges()}.
+	 *
+	 * @return true, if multiple ranges are requested
+	 */
+	public boolean isMultiRange() {
+		return ranges != null;
+	}
+
+	/**
+	 * Gets all requested ranges in the order they were defined. For single range this is a list with the current
+	 * range only.
+	 *
+	 * @return the requested ranges, never empty
+	 */
+	public List<Range> getRanges() {
+		if (ranges == null) {
+			return Collections.singletonList(this);
+		}
+		return ranges;
+	}
+
 	/**
 	 * Checks if all content is requested by this range object. The method checks if the current range object is the
 	 * same as {@link #ALL}.
@@ -152,6 +208,7 @@ public class Range implements Serializable {
 		result = prime * result + (int) (from ^ from >>> 32);
 		result = prime * result + (int) (to ^ to >>> 32);
 		result = prime * result + (unit == null ? 0 : unit.hashCode());
+		result = prime * result + (ranges == null ? 0 : ranges.hashCode());
 		return result;
 	}
 
@@ -164,7 +221,8 @@ public class Range implements Serializable {
 			return false;
 		}
 		Range other = (Range) obj;
-		return nullSafeEquals(unit, other.unit) && from == other.from && to == other.to;
+		return nullSafeEquals(unit, other.unit) && from == other.from && to == other.to
+				&& nullSafeEquals(ranges, other.ranges);
 	}
 
 	/**
@@ -63,6 +63,27 @@ public class RangeTest {
 		assertTrue(range.isInBytes());
 	}
 
+	@Test
+	public void parse_multipleRanges() throws Exception {
+		Range range = Range.fromString("bytes=0-99, 200-299,1000-");
+		assertTrue(range.isMultiRange());
+		assertEquals(0L, range.getFrom());
+		assertEquals(99L, range.getTo());
+		assertEquals(3, range.getRanges().size());
+		assertEquals(new Range(Range.BYTES, 200, 299), range.getRanges().get(1));
+		assertEquals(new Range(Range.BYTES, 1000, -1), range.getRanges().get(2));
+		assertFalse(range.isAllRequested());
+		assertNotEquals(new Range(Range.BYTES, 0, 99), range);
+	}
+
+	@Test
+	public void parse_singleRange_shouldNotBeMultiRange() throws Exception {
+		Range range = Range.fromString("bytes=0-99,");
+		assertFalse(range.isMultiRange());
+		assertEquals(1, range.getRanges().size());
+		assertEquals(range, range.getRanges().get(0));
+	}
+
 	@Test
 	public void parse_Invalid() throws Exception {
 		assertEquals(Range.ALL, Range.fromString(""));
@@ -177,6 +177,8 @@ public class SPARQLQueryHelper {
 	private static final Pattern OFFSET_PATTERN = Pattern.compile("\\b[Oo][fF][fF][sS][eE][tT]\\b");
 	private static final Pattern LIMIT_PATTERN = Pattern.compile("\\b[Ll][iI][Mm][iI][tT]\\b");
 	public static final Pattern PERMISSIONS_PATTERN = Pattern.compile(PERMISSIONS_BLOCK_REGULAR_EXPRESSION);
+	private static final Pattern PERMISSIONS_SUFFIX_PATTERN = Pattern
+			.compile("(\\?(?:group|permissionsRole|roleType))\\d+\\b");
 
 	static {
 		// TODO static map for mapping the sort fields from comments dashlet to
@@ -621,6 +623,47 @@ public class SPARQLQueryHelper {
 		return localQuery;
 	}
 
+	/**
+	 * Removes the random suffixes of the variables added by the permission filters (see
+	 * {@link #getPermissionsFilter(String, boolean, boolean)}). The same query built twice will produce the same
+	 * result. The returned query is not intended for execution but only as a cache key.
+	 *
+	 * @param query
+	 *            SPARQL Query
+	 * @return the query without random variable suffixes
+	 */
+	public static String removePermissionsSuffixes(String query) {
+		return PERMISSIONS_SUFFIX_PATTERN.matcher(query).replaceAll("$1");
+	}
+
+	/**
+	 * Checks if the given query already defines limit or offset clause. Such queries could not be paged additionally.
+	 *
+	 * @param query
+	 *            SPARQL Query
+	 * @return <code>true</code> if limit or offset clause is present in the query
+	 */
+	public static boolean hasLimitOrOffset(String query) {
+		return LIMIT_PATTERN.matcher(query).find() || OFFSET_PATTERN.matcher(query).find();
+	}
+
+	/**
+	 * Wraps the given select query as sub query of a query that returns only the number of the result rows. The count
+	 * is returned in a binding named {@link #COUNT}. The query should not contain any prefix declarations.
+	 *
+	 * @param query
+	 *            SPARQL select query to wrap
+	 * @return SPARQL query that counts the results of the given query
+	 */
+	public static String wrapQueryWithCount(String query) {
+		StringBuilder builder = new StringBuilder(query.length() + 64);
+		builder.append(SELECT).append("(").append(COUNT).append("(*) ").append(AS).append(" ").append(COUNT_VARIABLE)
+				.append(")").append(WHERE).append(BLOCK_START);
+		builder.append(BLOCK_START).append(query).append(LINE_SEPARATOR).append(BLOCK_END);
+		builder.append(BLOCK_END);
+		return builder.toString();
+	}
+
 	/**
 	 * Setter method for comma separated list of prefix:name properties that are considered to be case insensitive
 	 *
@@ -71,6 +71,16 @@ public interface CodelistService {
 	 */
 	String getDescription(Integer codelist, String value, String language);
 
+	/**
+	 * Gets the descriptions of all values of the given codelist based on the current user locale. The returned map is
+	 * shared and should not be modified.
+	 *
+	 * @param codelist
+	 *            the codelist
+	 * @return unmodifiable mapping of code value to its description. Never <code>null</code>
+	 */
+	Map<String, String> getDescriptions(Integer codelist);
+
 	/**
 	 * Gets the filtered code values.
 	 *
@@ -8,13 +8,10 @@ import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashSet;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
-import java.util.regex.Pattern;
 
 import javax.annotation.PostConstruct;
 import javax.enterprise.context.ApplicationScoped;
@@ -51,6 +48,10 @@ import com.sirma.itt.seip.security.annotation.SecureObserver;
 
 /**
  * Default codelist service implementation. The service uses a cache entry with name: <code>CODELIST_CACHE</code>
+ * <p>
+ * The cache holds an immutable {@link CodelistSnapshot} per codelist. The returned code values are shared between the
+ * callers and have unmodifiable properties, only the returned maps are new instances. The snapshots are replaced with
+ * new ones after {@link ResetCodelistEvent}, the callers that are using the old ones are not affected.
  *
  * @author BBonev
  */
@@ -65,8 +66,6 @@ public class CodelistServiceImpl implements CodelistService {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(CodelistServiceImpl.class);
 
-	private static final Pattern CODEVALUE_PROPERTY_SPLIT_PATTERN = Pattern.compile("[,\\s]+");
-
 	@Inject
 	private EntityLookupCacheContext cacheContext;
 	/**
@@ -115,11 +114,11 @@ public class CodelistServiceImpl implements CodelistService {
 
 	@Override
 	public CodeValue getCodeValue(Integer codelist, String value) {
-		Map<String, CodeValue> map = getCodeValuesInternal(codelist);
-		if (map.isEmpty()) {
+		CodelistSnapshot snapshot = getSnapshot(codelist);
+		if (snapshot == null) {
 			return null;
 		}
-		return map.get(value);
+		return snapshot.getValues().get(value);
 	}
 
 	@Override
@@ -141,21 +140,20 @@ public class CodelistServiceImpl implements CodelistService {
 		if (codelist == null) {
 			return null;
 		}
-		Pair<Integer, Map<String, CodeValue>> pair = getCache().getByKey(codelist);
-		if (pair == null) {
+		CodelistSnapshot snapshot = getSnapshot(codelist);
+		if (snapshot == null) {
 			return null;
 		}
-		CodeValue codeValue = pair.getSecond().get(value);
-		String result = null;
-		if (codeValue != null) {
-			Map<String, Serializable> properties = codeValue.getProperties();
-			if (properties != null) {
-				Serializable serializable = properties.get(language);
-
-				result = (String) serializable;
-			}
+		return snapshot.getDescriptions(language).get(value);
+	}
+
+	@Override
+	public Map<String, String> getDescriptions(Integer codelist) {
+		CodelistSnapshot snapshot = getSnapshot(codelist);
+		if (snapshot == null) {
+			return Collections.emptyMap();
 		}
-		return result;
+		return snapshot.getDescriptions(getCurrentLanguage());
 	}
 
 	@Override
@@ -166,7 +164,7 @@ public class CodelistServiceImpl implements CodelistService {
 	@Override
 	public Map<String, CodeValue> getFilteredCodeValues(Integer codelist, boolean sorted, String... filterId) {
 
-		Map<String, CodeValue> values = copy(getCodeValues(codelist));
+		Map<String, CodeValue> values = getCodeValues(codelist);
 
 		if (filterId == null || filterId.length == 0) {
 			return values;
@@ -208,18 +206,19 @@ public class CodelistServiceImpl implements CodelistService {
 
 	@Override
 	public Map<String, CodeValue> getCodeValues(Integer codelist, boolean sorted) {
-		Pair<Integer, Map<String, CodeValue>> pair = getCache().getByKey(codelist);
-		if (pair == null) {
+		CodelistSnapshot snapshot = getSnapshot(codelist);
+		if (snapshot == null) {
 			return CollectionUtils.emptyMap();
 		}
-		Map<String, CodeValue> map = pair.getSecond();
-		// if we need to sort the result then..
 		if (sorted) {
-			map = sort(map);
-		} else {
-			map = copy(map);
+			List<CodeValue> list = snapshot.getSorted(getCurrentLanguage());
+			Map<String, CodeValue> map = CollectionUtils.createLinkedHashMap(list.size());
+			for (CodeValue codeValue : list) {
+				map.put(codeValue.getValue(), codeValue);
+			}
+			return map;
 		}
-		return map;
+		return new LinkedHashMap<>(snapshot.getValues());
 	}
 
 	/**
@@ -267,26 +266,16 @@ public class CodelistServiceImpl implements CodelistService {
 		}
 	}
 
-	protected EntityLookupCache<Integer, Map<String, CodeValue>, Serializable> getCache() {
+	protected EntityLookupCache<Integer, CodelistSnapshot, Serializable> getCache() {
 		return cacheContext.getCache(CODELIST_CACHE);
 	}
 
-	/**
-	 * Copy the values from the source map to a new instance to protect the internal cache from modification
-	 *
-	 * @param values
-	 *            the values
-	 * @return the map
-	 */
-	private static Map<String, CodeValue> copy(Map<String, CodeValue> values) {
-		if (values == null || values.isEmpty()) {
-			return CollectionUtils.emptyMap();
-		}
-		Map<String, CodeValue> map = CollectionUtils.createLinkedHashMap(values.size());
-		for (Entry<String, CodeValue> entry : values.entrySet()) {
-			map.put(entry.getKey(), entry.getValue().createCopy());
+	private CodelistSnapshot getSnapshot(Integer codelist) {
+		Pair<Integer, CodelistSnapshot> pair = getCache().getByKey(codelist);
+		if (pair == null) {
+			return null;
 		}
-		return map;
+		return pair.getSecond();
 	}
 
 	@Override
@@ -363,13 +352,13 @@ public class CodelistServiceImpl implements CodelistService {
 	 * @author BBonev
 	 */
 	public class CodelistCacheLookup
-			extends EntityLookupCallbackDAOAdaptor<Integer, Map<String, CodeValue>, Serializable> {
+			extends EntityLookupCallbackDAOAdaptor<Integer, CodelistSnapshot, Serializable> {
 
 		/**
 		 * {@inheritDoc}
 		 */
 		@Override
-		public Pair<Integer, Map<String, CodeValue>> findByKey(Integer key) {
+		public Pair<Integer, CodelistSnapshot> findByKey(Integer key) {
 			if (key == null) {
 				return null;
 			}
@@ -383,22 +372,30 @@ public class CodelistServiceImpl implements CodelistService {
 			if (map == null || map.isEmpty()) {
 				return null;
 			}
-			return new Pair<>(key, map);
+			return new Pair<>(key, new CodelistSnapshot(key, map));
 		}
 
 		/**
 		 * {@inheritDoc}
 		 */
 		@Override
-		public Pair<Integer, Map<String, CodeValue>> createValue(Map<String, CodeValue> value) {
+		public Pair<Integer, CodelistSnapshot> createValue(CodelistSnapshot value) {
 			throw new UnsupportedOperationException("Codelists cannot be created");
 		}
 	}
 
 	@Override
 	public Map<String, CodeValue> filterCodeValues(Integer codelist, boolean inclusive, List<String> values) {
-		Map<String, CodeValue> codeValues = copy(getCodeValues(codelist));
-		codeValues.values().removeIf(value -> inclusive ^ values.contains(value.getValue()));
+		CodelistSnapshot snapshot = getSnapshot(codelist);
+		if (snapshot == null) {
+			return CollectionUtils.emptyMap();
+		}
+		Map<String, CodeValue> codeValues = new LinkedHashMap<>();
+		snapshot.getValues().forEach((key, value) -> {
+			if (inclusive == values.contains(value.getValue())) {
+				codeValues.put(key, value);
+			}
+		});
 		return codeValues;
 	}
 
@@ -408,38 +405,25 @@ public class CodelistServiceImpl implements CodelistService {
 	@Override
 	public Map<String, CodeValue> filterCodeValues(Integer codelist, boolean inclusive, String field,
 			String... filterValues) {
-		Map<String, CodeValue> codeValues = copy(getCodeValues(codelist));
-
+		CodelistSnapshot snapshot = getSnapshot(codelist);
+		if (snapshot == null) {
+			return CollectionUtils.emptyMap();
+		}
 		if (filterValues == null || filterValues.length == 0) {
-			return codeValues;
+			return new LinkedHashMap<>(snapshot.getValues());
 		}
 
 		List<String> filterValuesList = Arrays.asList(filterValues);
-
-		Iterator<Map.Entry<String, CodeValue>> entries = codeValues.entrySet().iterator();
-		while (entries.hasNext()) {
-			Map.Entry<String, CodeValue> entry = entries.next();
-
-			Map<String, Serializable> codeValueProperties = entry.getValue().getProperties();
-			String codeValueProperty = (String) codeValueProperties.get(field);
-			if (codeValueProperty != null) {
-				String[] splittedProperty = CODEVALUE_PROPERTY_SPLIT_PATTERN.split(codeValueProperty);
-
-				Set<String> splittedPropertyAsSet = new HashSet<>(Arrays.asList(splittedProperty));
-				filterInternal(inclusive, filterValuesList, entries, splittedPropertyAsSet);
-			} else {
-				entries.remove();
+		// the code values without the field are not returned
+		Map<String, Set<String>> fieldValues = snapshot.getFieldValues(field);
+		Map<String, CodeValue> codeValues = new LinkedHashMap<>();
+		snapshot.getValues().forEach((key, value) -> {
+			Set<String> splittedPropertyAsSet = fieldValues.get(key);
+			if (splittedPropertyAsSet != null && inclusive == splittedPropertyAsSet.containsAll(filterValuesList)) {
+				codeValues.put(key, value);
 			}
-		}
-
+		});
 		return codeValues;
 	}
 
-	private static void filterInternal(boolean inclusive, List<String> filterValuesList,
-			Iterator<Map.Entry<String, CodeValue>> entries, Set<String> splittedPropertyAsSet) {
-		if (inclusive ^ splittedPropertyAsSet.containsAll(filterValuesList)) {
-			entries.remove();
-		}
-	}
-
 }
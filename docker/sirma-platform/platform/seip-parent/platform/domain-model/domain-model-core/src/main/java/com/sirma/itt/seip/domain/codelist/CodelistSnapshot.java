@@ -0,0 +1,142 @@
+package com.sirma.itt.seip.domain.codelist;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import com.sirma.itt.seip.collections.CollectionUtils;
+import com.sirma.itt.seip.domain.codelist.model.CodeValue;
+import com.sirma.itt.seip.domain.instance.PropertyModelComparator;
+
+/**
+ * Immutable snapshot of the values of a single codelist. The snapshot holds copies of the loaded code values with
+ * unmodifiable properties so they could be shared between the callers without copying. The descriptions, the sorted
+ * order per language and the split values of the filter fields are computed on first access and reused while the
+ * snapshot is valid. New snapshot with new version is created each time the codelist is loaded.
+ *
+ * @author BBonev
+ */
+final class CodelistSnapshot {
+
+	private static final AtomicLong VERSIONS = new AtomicLong();
+	private static final Pattern CODEVALUE_PROPERTY_SPLIT_PATTERN = Pattern.compile("[,\\s]+");
+
+	private final Integer codelist;
+	private final long version;
+	private final Map<String, CodeValue> values;
+
+	private final ConcurrentMap<String, Map<String, String>> descriptions = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, List<CodeValue>> sorted = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, Map<String, Set<String>>> fieldValues = new ConcurrentHashMap<>();
+
+	/**
+	 * Instantiates a new snapshot from the given loaded values. The values are copied so the given map could be
+	 * modified afterwards.
+	 *
+	 * @param codelist
+	 *            the codelist number
+	 * @param loaded
+	 *            the loaded code values
+	 */
+	CodelistSnapshot(Integer codelist, Map<String, CodeValue> loaded) {
+		this.codelist = codelist;
+		version = VERSIONS.incrementAndGet();
+		Map<String, CodeValue> copy = CollectionUtils.createLinkedHashMap(loaded.size());
+		loaded.forEach((key, value) -> copy.put(key, value.createCopy()));
+		values = Collections.unmodifiableMap(copy);
+	}
+
+	Integer getCodelist() {
+		return codelist;
+	}
+
+	/**
+	 * The version of the snapshot. Snapshots created later have greater version.
+	 *
+	 * @return the version
+	 */
+	long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Gets the unmodifiable code values mapped by their value in the order they were loaded.
+	 *
+	 * @return the values
+	 */
+	Map<String, CodeValue> getValues() {
+		return values;
+	}
+
+	/**
+	 * Gets the unmodifiable mapping of code value key to its description in the given language.
+	 *
+	 * @param language
+	 *            the language
+	 * @return the descriptions
+	 */
+	Map<String, String> getDescriptions(String language) {
+		return descriptions.computeIfAbsent(String.valueOf(language), key -> buildDescriptions(language));
+	}
+
+	private Map<String, String> buildDescriptions(String language) {
+		Map<String, String> result = CollectionUtils.createHashMap(values.size());
+		for (Entry<String, CodeValue> entry : values.entrySet()) {
+			Map<String, Serializable> properties = entry.getValue().getProperties();
+			if (properties != null && properties.get(language) != null) {
+				result.put(entry.getKey(), (String) properties.get(language));
+			}
+		}
+		return Collections.unmodifiableMap(result);
+	}
+
+	/**
+	 * Gets the code values sorted by their description in the given language.
+	 *
+	 * @param language
+	 *            the language
+	 * @return unmodifiable sorted list of the code values
+	 */
+	List<CodeValue> getSorted(String language) {
+		return sorted.computeIfAbsent(String.valueOf(language), key -> {
+			List<CodeValue> list = new ArrayList<>(values.values());
+			list.sort(new PropertyModelComparator(true, language));
+			return Collections.unmodifiableList(list);
+		});
+	}
+
+	/**
+	 * Gets the values of the given code value field split by comma or white space. Code values without the field are
+	 * not present in the result.
+	 *
+	 * @param field
+	 *            the code value property
+	 * @return mapping of code value key to the split values of the field
+	 */
+	Map<String, Set<String>> getFieldValues(String field) {
+		return fieldValues.computeIfAbsent(field, this::buildFieldValues);
+	}
+
+	private Map<String, Set<String>> buildFieldValues(String field) {
+		Map<String, Set<String>> result = CollectionUtils.createHashMap(values.size());
+		for (Entry<String, CodeValue> entry : values.entrySet()) {
+			Map<String, Serializable> properties = entry.getValue().getProperties();
+			Serializable property = properties == null ? null : properties.get(field);
+			if (property != null) {
+				String[] split = CODEVALUE_PROPERTY_SPLIT_PATTERN.split(property.toString());
+				result.put(entry.getKey(), Collections.unmodifiableSet(new HashSet<>(Arrays.asList(split))));
+			}
+		}
+		return Collections.unmodifiableMap(result);
+	}
+}
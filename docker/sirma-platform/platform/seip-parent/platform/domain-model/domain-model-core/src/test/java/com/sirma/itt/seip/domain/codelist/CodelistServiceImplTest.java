@@ -1,10 +1,13 @@
 package com.sirma.itt.seip.domain.codelist;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.when;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
@@ -27,6 +30,7 @@ import com.sirma.itt.seip.domain.codelist.adapter.CodelistAdapter;
 import com.sirma.itt.seip.domain.codelist.event.CodelistFiltered;
 import com.sirma.itt.seip.domain.codelist.model.CodeValue;
 import com.sirma.itt.seip.domain.filter.FilterService;
+import com.sirma.itt.seip.security.UserPreferences;
 
 /**
  * Tests {@link CodelistServiceImpl} class.
@@ -47,6 +51,9 @@ public class CodelistServiceImplTest {
 	@Mock
 	private FilterService filterService;
 
+	@Mock
+	private UserPreferences userPreferences;
+
 	@InjectMocks
 	private CodelistServiceImpl codelistService;
 
@@ -106,7 +113,7 @@ public class CodelistServiceImplTest {
 		map.put("2", codeValue2);
 		map.put("3", codeValue3);
 
-		lookupCache.setValue(1, map);
+		lookupCache.setValue(1, new CodelistSnapshot(1, map));
 	}
 
 	/**
@@ -209,6 +216,46 @@ public class CodelistServiceImplTest {
 		assertEquals(2, codeValues.size());
 	}
 
+	@Test
+	public void getDescription_shouldReturnDescriptionInTheRequestedLanguage() {
+		assertEquals("bgDesc", codelistService.getDescription(1, "1", "descBg"));
+		assertEquals("enDesc", codelistService.getDescription(1, "1", "descEn"));
+		assertNull(codelistService.getDescription(1, "2", "descEn"));
+		assertNull(codelistService.getDescription(2, "1", "descEn"));
+	}
+
+	@Test
+	public void getDescriptions_shouldReturnDescriptionsForTheUserLanguage() {
+		when(userPreferences.getLanguage()).thenReturn("descEn");
+
+		Map<String, String> descriptions = codelistService.getDescriptions(1);
+
+		assertEquals(1, descriptions.size());
+		assertEquals("enDesc", descriptions.get("1"));
+		assertSame(descriptions, codelistService.getDescriptions(1));
+		assertTrue(codelistService.getDescriptions(2).isEmpty());
+	}
+
+	@Test
+	public void getCodeValues_shouldShareTheCodeValuesBetweenCalls() {
+		Map<String, CodeValue> first = codelistService.getCodeValues(1);
+		first.remove("1");
+
+		Map<String, CodeValue> second = codelistService.getCodeValues(1);
+		assertEquals(3, second.size());
+		assertSame(second.get("2"), first.get("2"));
+		assertSame(second.get("2"), codelistService.getCodeValue(1, "2"));
+	}
+
+	@Test
+	public void getCodeValues_shouldSortByTheUserLanguage() {
+		when(userPreferences.getLanguage()).thenReturn("extra1");
+
+		Map<String, CodeValue> sorted = codelistService.getCodeValues(1, true);
+
+		assertEquals(Arrays.asList("value2", "value1", "value3"), new ArrayList<>(sorted.keySet()));
+	}
+
 	@Test
 	public void testFilterCodeValuesWithCustomFilterExclusive() {
 		Map<String, CodeValue> codeValues = codelistService.filterCodeValues(1, false,
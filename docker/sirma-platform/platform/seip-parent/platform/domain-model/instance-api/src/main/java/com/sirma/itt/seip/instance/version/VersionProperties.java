@@ -145,6 +145,11 @@ public final class VersionProperties {
 		 */
 		public static final String VERSIONED_INSTANCES_CACHE_KEY = "versionedInstancesCache";
 
+		/**
+		 * Key for the {@link WidgetSearchCache} that is used to share the results of the widgets with equal searches.
+		 */
+		public static final String WIDGET_SEARCH_CACHE_KEY = "widgetSearchCache";
+
 		private WidgetsHandlerContextProperties() {
 		}
 	}
@@ -0,0 +1,72 @@
+package com.sirma.itt.seip.instance.version;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Primary used for optimization of the versioning process. The cache stores the results of the widget searches during
+ * single instance content processing so that widgets with the same search criteria share a single search execution.
+ * <br>
+ * The cache is safe to be used by widgets processed in parallel. If a search with the same key is currently executed
+ * by other thread the caller will wait for it to complete and will receive the same result.
+ *
+ * @author BBonev
+ * @see ScheduleVersionContentCreate
+ */
+public class WidgetSearchCache {
+
+	private final Map<Object, CompletableFuture<Object>> searches = new ConcurrentHashMap<>();
+
+	/**
+	 * Returns the result of the search identified by the given key. If such search is not executed, yet, it will be
+	 * executed by the given supplier in the current thread and its result will be shared with all consecutive calls
+	 * with equal key.
+	 *
+	 * @param <R> the search result type
+	 * @param key that identifies the search, two searches with equal keys should produce the same results
+	 * @param search executes the actual search
+	 * @return the search result
+	 */
+	@SuppressWarnings("unchecked")
+	public <R> R getOrSearch(Object key, Supplier<R> search) {
+		requireNonNull(search, "The search function is required!");
+		CompletableFuture<Object> future = new CompletableFuture<>();
+		CompletableFuture<Object> current = searches.putIfAbsent(requireNonNull(key, "Search key is required!"),
+				future);
+		if (current == null) {
+			try {
+				future.complete(search.get());
+			} catch (RuntimeException | Error e) {
+				// do not keep failed searches, the next call may succeed
+				searches.remove(key, future);
+				future.completeExceptionally(e);
+				throw e;
+			}
+			return (R) future.join();
+		}
+		try {
+			return (R) current.join();
+		} catch (CompletionException e) {
+			// the search failed in the thread that executed it
+			Throwable cause = e.getCause();
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw (RuntimeException) cause;
+		}
+	}
+
+	/**
+	 * Returns the number of the distinct searches currently stored in the cache.
+	 *
+	 * @return the number of searches
+	 */
+	public int size() {
+		return searches.size();
+	}
+}
@@ -0,0 +1,85 @@
+package com.sirma.itt.seip.instance.version;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Test for {@link WidgetSearchCache}.
+ *
+ * @author BBonev
+ */
+public class WidgetSearchCacheTest {
+
+	private WidgetSearchCache cache = new WidgetSearchCache();
+
+	@Test
+	public void getOrSearch_shouldExecuteEqualSearchesOnce() {
+		AtomicInteger executed = new AtomicInteger();
+
+		assertEquals("result-1", cache.getOrSearch("query-1", () -> "result-" + executed.incrementAndGet()));
+		assertEquals("result-1", cache.getOrSearch("query-1", () -> "result-" + executed.incrementAndGet()));
+		assertEquals("result-2", cache.getOrSearch("query-2", () -> "result-" + executed.incrementAndGet()));
+
+		assertEquals(2, executed.get());
+		assertEquals(2, cache.size());
+	}
+
+	@Test
+	public void getOrSearch_shouldWaitForSearchExecutedInOtherThread() throws Exception {
+		AtomicInteger executed = new AtomicInteger();
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<String>> results = new ArrayList<>();
+			results.add(executor.submit(() -> cache.getOrSearch("query", () -> {
+				started.countDown();
+				await(release);
+				return "result-" + executed.incrementAndGet();
+			})));
+			await(started);
+			for (int i = 0; i < 3; i++) {
+				results.add(executor.submit(() -> cache.getOrSearch("query", () -> "result-" + executed.incrementAndGet())));
+			}
+			release.countDown();
+
+			for (Future<String> result : results) {
+				assertEquals("result-1", result.get(10, TimeUnit.SECONDS));
+			}
+			assertEquals(1, executed.get());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void getOrSearch_shouldNotCacheFailedSearches() {
+		try {
+			cache.getOrSearch("query", () -> {
+				throw new IllegalStateException();
+			});
+		} catch (IllegalStateException e) {
+			// expected
+		}
+
+		assertEquals("result", cache.getOrSearch("query", () -> "result"));
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
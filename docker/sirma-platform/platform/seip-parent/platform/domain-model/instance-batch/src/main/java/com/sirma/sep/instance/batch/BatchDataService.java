@@ -2,6 +2,8 @@ package com.sirma.sep.instance.batch;
 
 import java.util.List;
 
+import com.sirma.itt.seip.Pair;
+
 /**
  * Service for managing the batch runtime data. Has methods for loading data for processing, updating processed data
  * and removing data after completion.
@@ -44,9 +46,33 @@ public interface BatchDataService {
 	 * should be {@code getBatchData(jobExecutionId, 10, 10)} that will return items from 10 to 19 including and so on
 	 * @param itemsToLoad the maximum items to load.
 	 * @return the loaded items
+	 * @deprecated the offset based loading gets slower with each next chunk for big jobs, use
+	 * {@link #getBatchDataAfter(long, long, int, int, int)}
 	 */
+	@Deprecated
 	List<String> getBatchData(long jobExecutionId, int offset, int itemsToLoad);
 
+	/**
+	 * Loads chunk of not processed data that is located after the given item id. The method does not use offset so
+	 * the cost of loading a chunk does not depend on the number of already processed items. The first call should be
+	 * done with {@code lastItemId = 0} and each next call should pass the id of the last item returned by the
+	 * previous call.<br>Note that if the items are not marked as processed using the method
+	 * {@link #markItemsAsProcessed(long, List)} they will be returned again if the reading is started from the
+	 * beginning.
+	 * <br>If the job is executed in partitions the items are distributed between the partitions by their item ids so
+	 * each partition could load its data independently of the other partitions.
+	 *
+	 * @param jobExecutionId the job instance id that is currently executing, obtained from
+	 * {@link javax.batch.runtime.context.JobContext#getExecutionId()}
+	 * @param lastItemId the id of the last item returned by the previous call or 0 to load the first chunk
+	 * @param itemsToLoad the maximum items to load
+	 * @param partition the zero based index of the partition to load data for
+	 * @param partitionsCount the total number of the job partitions or 1 if the job is not partitioned
+	 * @return the loaded items as pairs of item id and the item data ordered by the item id
+	 */
+	List<Pair<Long, String>> getBatchDataAfter(long jobExecutionId, long lastItemId, int itemsToLoad, int partition,
+			int partitionsCount);
+
 	/**
 	 * Marks the given data assigned to the given job id as successfully processed. If not marked as process
 	 *
@@ -57,6 +83,16 @@ public interface BatchDataService {
 	 */
 	void markJobDataAsProcessed(long jobExecutionId, List<String> processedIds);
 
+	/**
+	 * Marks the given items of the given job as successfully processed. The items are identified by the item ids
+	 * returned from the method {@link #getBatchDataAfter(long, long, int, int, int)}.
+	 *
+	 * @param jobExecutionId the job instance id that is currently executing, obtained from
+	 * {@link javax.batch.runtime.context.JobContext#getExecutionId()}
+	 * @param itemIds the ids of the processed items
+	 */
+	void markItemsAsProcessed(long jobExecutionId, List<Long> itemIds);
+
 	/**
 	 * Clears all job data identified by the job instance id fetched from {@link BatchProperties#getJobId(long)}
 	 *
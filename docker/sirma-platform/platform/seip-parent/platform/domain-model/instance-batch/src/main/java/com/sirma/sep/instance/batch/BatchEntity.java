@@ -24,6 +24,9 @@ import com.sirma.itt.seip.model.BaseEntity;
 @Table(name = "sep_batch_entity")
 @NamedQueries({ @NamedQuery(name = BatchEntity.DELETE_DATA_BY_JOB_ID_KEY, query = BatchEntity.DELETE_DATA_BY_JOB_ID),
 		@NamedQuery(name = BatchEntity.QUERY_JOB_DATA_KEY, query = BatchEntity.QUERY_JOB_DATA),
+		@NamedQuery(name = BatchEntity.QUERY_JOB_DATA_AFTER_KEY, query = BatchEntity.QUERY_JOB_DATA_AFTER),
+		@NamedQuery(name = BatchEntity.QUERY_JOB_PARTITION_DATA_AFTER_KEY, query = BatchEntity.QUERY_JOB_PARTITION_DATA_AFTER),
+		@NamedQuery(name = BatchEntity.UPDATE_ITEMS_AS_PROCESSED_KEY, query = BatchEntity.UPDATE_ITEMS_AS_PROCESSED),
 		@NamedQuery(name = BatchEntity.UPDATE_AS_PROCESSED_KEY, query = BatchEntity.UPDATE_AS_PROCESSED),
 		@NamedQuery(name = BatchEntity.QUERY_JOBS_INFO_KEY, query = BatchEntity.QUERY_JOBS_INFO),
 		@NamedQuery(name = BatchEntity.QUERY_JOB_INFO_KEY, query = BatchEntity.QUERY_JOB_INFO)})
@@ -41,6 +44,29 @@ public class BatchEntity extends BaseEntity {
 	public static final String QUERY_JOB_DATA_KEY = "QUERY_JOB_DATA";
 	static final String QUERY_JOB_DATA = "select instanceId from BatchEntity where jobInstanceId=:jobId order by id";
 
+	/**
+	 * Query the not processed job data (item id and instance id) for the given job id that is after the given item id
+	 */
+	public static final String QUERY_JOB_DATA_AFTER_KEY = "QUERY_JOB_DATA_AFTER";
+	static final String QUERY_JOB_DATA_AFTER = "select id, instanceId from BatchEntity where jobInstanceId=:jobId"
+			+ " and id > :lastId and processed = :processed order by id";
+
+	/**
+	 * Query the not processed job data (item id and instance id) for the given job id that is after the given item id
+	 * and belongs to the given job partition
+	 */
+	public static final String QUERY_JOB_PARTITION_DATA_AFTER_KEY = "QUERY_JOB_PARTITION_DATA_AFTER";
+	static final String QUERY_JOB_PARTITION_DATA_AFTER = "select id, instanceId from BatchEntity where jobInstanceId=:jobId"
+			+ " and id > :lastId and processed = :processed and mod(id, :partitions) = :partition order by id";
+
+	/**
+	 * Update a given set of item ids for a given job id as processed. The marked items will not be returned again by
+	 * the {@link #QUERY_JOB_DATA_AFTER_KEY} and {@link #QUERY_JOB_PARTITION_DATA_AFTER_KEY} queries.
+	 */
+	public static final String UPDATE_ITEMS_AS_PROCESSED_KEY = "UPDATE_ITEMS_AS_PROCESSED";
+	static final String UPDATE_ITEMS_AS_PROCESSED =
+			"update BatchEntity set processed = 1 where jobInstanceId=:jobId AND id in (:ids)";
+
 	/**
 	 * Update a given set of instances ids for a given job id as processed. The marked identifiers will not be
 	 * returned again for the given job instance id.
@@ -0,0 +1,67 @@
+package com.sirma.sep.instance.batch;
+
+import java.util.Properties;
+
+import javax.batch.api.partition.PartitionMapper;
+import javax.batch.api.partition.PartitionPlan;
+import javax.batch.api.partition.PartitionPlanImpl;
+import javax.batch.runtime.context.JobContext;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.apache.commons.lang3.math.NumberUtils;
+
+/**
+ * {@link PartitionMapper} that splits a step in the number of partitions specified by the job parameter
+ * {@link BatchProperties#PARTITIONS_COUNT}. Each partition receives the properties {@link BatchProperties#PARTITION}
+ * and {@link BatchProperties#PARTITIONS_COUNT} that are used by the
+ * {@link com.sirma.sep.instance.batch.reader.BaseItemReader} to read only the data assigned to the partition.
+ * In order to be used the job step should be defined as:
+ * <pre>
+ * <code>&lt;step id="process"&gt;
+ *     &lt;properties&gt;
+ *         &lt;property name="partition" value="#{partitionPlan['partition']}" /&gt;
+ *         &lt;property name="partitions" value="#{partitionPlan['partitions']}" /&gt;
+ *     &lt;/properties&gt;
+ *     &lt;listeners&gt;
+ *         &lt;listener ref="partitionSecurityListener" /&gt;
+ *     &lt;/listeners&gt;
+ *     &lt;chunk&gt;...&lt;/chunk&gt;
+ *     &lt;partition&gt;
+ *         &lt;mapper ref="batchPartitionMapper" /&gt;
+ *     &lt;/partition&gt;
+ * &lt;/step&gt;
+ * </code>
+ * </pre>
+ *
+ * @author BBonev
+ * @see PartitionSecurityListener
+ */
+@Named
+public class BatchPartitionMapper implements PartitionMapper {
+
+	@Inject
+	private JobContext context;
+	@Inject
+	private BatchProperties batchProperties;
+
+	@Override
+	public PartitionPlan mapPartitions() throws Exception {
+		String count = batchProperties.getJobProperty(context.getExecutionId(), BatchProperties.PARTITIONS_COUNT);
+		int partitions = Math.max(1, NumberUtils.toInt(count, 1));
+
+		Properties[] partitionProperties = new Properties[partitions];
+		for (int i = 0; i < partitions; i++) {
+			Properties properties = new Properties();
+			properties.setProperty(BatchProperties.PARTITION, String.valueOf(i));
+			properties.setProperty(BatchProperties.PARTITIONS_COUNT, String.valueOf(partitions));
+			partitionProperties[i] = properties;
+		}
+
+		PartitionPlan plan = new PartitionPlanImpl();
+		plan.setPartitions(partitions);
+		plan.setThreads(partitions);
+		plan.setPartitionProperties(partitionProperties);
+		return plan;
+	}
+}
@@ -41,6 +41,11 @@ public class BatchProperties {
 	 * Property passed on job scheduling to specify the partitions count to use when processing job data.
 	 */
 	public static final String PARTITIONS_COUNT = "partitions";
+	/**
+	 * Step property set by the {@link BatchPartitionMapper} to specify the zero based index of the partition that
+	 * should be processed by the current step execution.
+	 */
+	public static final String PARTITION = "partition";
 	/**
 	 * The default chunk size if nothing is specified
 	 */
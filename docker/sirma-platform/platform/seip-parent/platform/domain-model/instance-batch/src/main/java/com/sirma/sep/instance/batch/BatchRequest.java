@@ -78,15 +78,8 @@ public class BatchRequest {
 
 	/**
 	 * Sets the number of partitions that the current job should run one. The default value is 1 if not set.<br>
-	 * Note that in order to use this parameter the requested job should have the following fragment in it's job
-	 * definition:
-	 * <pre>
-	 * <code>&lt;partition&gt;
-	 *     &lt;reducer ref="partitionSecurity" /&gt;
-	 *     &lt;plan partitions="#{jobParameters['partitions']}" /&gt;
-	 * &lt;/partition&gt;
-	 * </code>
-	 * </pre>
+	 * Note that in order to use this parameter the requested job step should be partitioned using the
+	 * {@link BatchPartitionMapper} as described in its documentation.
 	 * @param partitionsCount the partition count to set
 	 */
 	public void setPartitionsCount(int partitionsCount) {
@@ -52,12 +52,35 @@ class DatabaseBatchDataService implements BatchDataService {
 	}
 
 	@Override
+	@SuppressWarnings("deprecation")
 	public List<String> getBatchData(long jobExecutionId, int offset, int itemsToLoad) {
 		String jobId = batchProperties.getJobId(jobExecutionId);
 		return dbDao.fetchWithNamed(BatchEntity.QUERY_JOB_DATA_KEY,
 				Collections.singletonList(new Pair<>(BatchProperties.JOB_ID, jobId)), offset, itemsToLoad);
 	}
 
+	@Override
+	public List<Pair<Long, String>> getBatchDataAfter(long jobExecutionId, long lastItemId, int itemsToLoad,
+			int partition, int partitionsCount) {
+		String jobId = batchProperties.getJobId(jobExecutionId);
+		List<Pair<String, Object>> args = new ArrayList<>(5);
+		args.add(new Pair<>(BatchProperties.JOB_ID, jobId));
+		args.add(new Pair<>("lastId", Long.valueOf(lastItemId)));
+		args.add(new Pair<>("processed", Boolean.FALSE));
+		String query = BatchEntity.QUERY_JOB_DATA_AFTER_KEY;
+		if (partitionsCount > 1) {
+			query = BatchEntity.QUERY_JOB_PARTITION_DATA_AFTER_KEY;
+			args.add(new Pair<>("partitions", Long.valueOf(partitionsCount)));
+			args.add(new Pair<>("partition", Long.valueOf(partition)));
+		}
+		List<Object[]> rows = dbDao.fetchWithNamed(query, args, 0, itemsToLoad);
+		List<Pair<Long, String>> result = new ArrayList<>(rows.size());
+		for (Object[] row : rows) {
+			result.add(new Pair<>(Long.valueOf(((Number) row[0]).longValue()), (String) row[1]));
+		}
+		return result;
+	}
+
 	@Override
 	@Transactional(Transactional.TxType.REQUIRES_NEW)
 	public void markJobDataAsProcessed(long jobExecutionId, List<String> processedIds) {
@@ -70,6 +93,18 @@ class DatabaseBatchDataService implements BatchDataService {
 		LOGGER.debug("Processed {} items by job {}", updated, jobId);
 	}
 
+	@Override
+	@Transactional(Transactional.TxType.REQUIRES_NEW)
+	public void markItemsAsProcessed(long jobExecutionId, List<Long> itemIds) {
+		if (isEmpty(itemIds)) {
+			return;
+		}
+		String jobId = batchProperties.getJobId(jobExecutionId);
+		int updated = dbDao.executeUpdate(BatchEntity.UPDATE_ITEMS_AS_PROCESSED_KEY,
+				Arrays.asList(new Pair<>(BatchProperties.JOB_ID, jobId), new Pair<>("ids", itemIds)));
+		LOGGER.debug("Processed {} items by job {}", updated, jobId);
+	}
+
 	@Override
 	@Transactional
 	public void clearJobData(String jobExecutionId) {
@@ -0,0 +1,58 @@
+package com.sirma.sep.instance.batch;
+
+import javax.batch.api.chunk.listener.AbstractChunkListener;
+import javax.batch.runtime.context.JobContext;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import com.sirma.itt.seip.security.context.SecurityContextManager;
+
+/**
+ * Chunk listener that initializes security context for the threads that process the partitions of a partitioned
+ * step. The {@link SecurityJobListener} initializes the security context only for the job thread. The context is
+ * initialized before each chunk and cleared after it, only if there is no active context already. Data loading in
+ * the partition item readers should not be done before the first chunk.
+ *
+ * @author BBonev
+ * @see BatchPartitionMapper
+ */
+@Named
+public class PartitionSecurityListener extends AbstractChunkListener {
+
+	@Inject
+	private SecurityContextManager securityContextManager;
+	@Inject
+	private JobContext context;
+	@Inject
+	private BatchProperties batchProperties;
+
+	private boolean initialized;
+
+	@Override
+	public void beforeChunk() throws Exception {
+		if (securityContextManager.getCurrentContext().isActive()) {
+			return;
+		}
+		String tenantId = batchProperties.getTenantId(context.getExecutionId());
+		String requestId = batchProperties.getRequestId(context.getExecutionId());
+		securityContextManager.initializeTenantContext(tenantId, requestId);
+		initialized = true;
+	}
+
+	@Override
+	public void onError(Exception ex) throws Exception {
+		endExecution();
+	}
+
+	@Override
+	public void afterChunk() throws Exception {
+		endExecution();
+	}
+
+	private void endExecution() {
+		if (initialized) {
+			initialized = false;
+			securityContextManager.endExecution();
+		}
+	}
+}
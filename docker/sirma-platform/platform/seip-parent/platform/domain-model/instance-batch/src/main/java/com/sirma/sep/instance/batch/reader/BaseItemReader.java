@@ -1,25 +1,36 @@
 package com.sirma.sep.instance.batch.reader;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
+import java.util.Properties;
 import java.util.Queue;
 import java.util.Set;
 import java.util.function.BiConsumer;
-import java.util.stream.Collectors;
 
 import javax.batch.api.chunk.AbstractItemReader;
 import javax.batch.runtime.context.JobContext;
+import javax.batch.runtime.context.StepContext;
 import javax.inject.Inject;
 
+import org.apache.commons.lang3.math.NumberUtils;
+
+import com.sirma.itt.seip.Pair;
 import com.sirma.sep.instance.batch.BatchDataService;
 import com.sirma.sep.instance.batch.BatchProperties;
 
 /**
  * Reads the current chunk of data from the database.
+ * <p>
+ * The data is read in chunks after the id of the last read item so reading of each chunk costs the same no matter
+ * how many items are already processed. The checkpoint of the reader is the id of the last read item. If the step is
+ * executed in partitions via {@link com.sirma.sep.instance.batch.BatchPartitionMapper} each partition reads only the
+ * items assigned to it.
  *
  * @param <T> type of the objects fetched by the reader.
  * @author Adrian Mitev
@@ -32,75 +43,116 @@ public abstract class BaseItemReader<T> extends AbstractItemReader {
 	@Inject
 	private JobContext jobContext;
 
+	@Inject
+	private StepContext stepContext;
+
 	@Inject
 	private BatchProperties batchProperties;
 
 	private Queue<Item<T>> loaded;
 	private List<Item<T>> processed = new LinkedList<>();
-	private Integer checkpointIndex;
+	/** The id of the last item fetched from the database */
+	private long lastLoadedId;
+	/** The id of the last item returned by the reader */
+	private long lastReadId;
+	private int partition;
+	private int partitionsCount;
 
 	@Override
 	public void open(Serializable checkpoint) throws Exception {
-		if (checkpoint == null) {
-			// in case of new job the initial value will be 0
-			// in case of job restart the index will be the number of already processed data entries
-			checkpointIndex = batchDataService.getJobProgress(batchProperties.getJobId(jobContext.getExecutionId()));
-		} else {
-			checkpointIndex = (Integer) checkpoint;
+		// in case of new job the reading starts from the beginning and the already processed items are skipped
+		// in case of job restart the checkpoint is the id of the last read item
+		// checkpoints created by offset based readers are ignored as the processed items are not returned anyway
+		if (checkpoint instanceof Long) {
+			lastLoadedId = (Long) checkpoint;
 		}
+		lastReadId = lastLoadedId;
+		resolvePartition();
+	}
 
-		loadMoreData();
+	private void resolvePartition() {
+		Properties properties = stepContext == null ? null : stepContext.getProperties();
+		if (properties == null) {
+			partitionsCount = 1;
+			return;
+		}
+		partitionsCount = Math.max(1, NumberUtils.toInt(properties.getProperty(BatchProperties.PARTITIONS_COUNT), 1));
+		partition = NumberUtils.toInt(properties.getProperty(BatchProperties.PARTITION), 0);
 	}
 
 	@Override
 	public Object readItem() throws Exception {
-		if (loaded.isEmpty() && !loadMoreData()) {
+		// the data is loaded on first read and not on open as the partitions may not have a security context at that time
+		if ((loaded == null || loaded.isEmpty()) && !loadMoreData()) {
 			// end of the data is reached
 			return null;
 		}
 		Item<T> item = loaded.poll();
 		processed.add(item);
+		if (item.getItemId() != null) {
+			lastReadId = item.getItemId();
+		}
 		return item.getValue();
 	}
 
 	private boolean loadMoreData() {
-		int chunkSize = getChunkSize();
-		// if the loaded/returned items are less then the chunk size
-		// we may come here before the batch api calls the checkpointInfo method to update checkpointIndex
-		// so we add to the index the currently processed items not to read them again
-		int offset = checkpointIndex + processed.size();
-		List<String> batchData = batchDataService.getBatchData(jobContext.getExecutionId(), offset, chunkSize);
 		loaded = new LinkedList<>();
+		// chunks where all items are skipped do not produce anything to read so continue with the next chunk
+		while (loaded.isEmpty()) {
+			List<Pair<Long, String>> batchData = batchDataService.getBatchDataAfter(jobContext.getExecutionId(),
+					lastLoadedId, getChunkSize(), partition, partitionsCount);
+			if (batchData.isEmpty()) {
+				return false;
+			}
+			lastLoadedId = batchData.get(batchData.size() - 1).getFirst();
+
+			Map<String, Long> itemIds = new LinkedHashMap<>((int) (batchData.size() * 1.5));
+			List<String> instanceIds = new ArrayList<>(batchData.size());
+			for (Pair<Long, String> item : batchData) {
+				itemIds.put(item.getSecond(), item.getFirst());
+				instanceIds.add(item.getSecond());
+			}
+			loadBatchData(instanceIds, (id, value) -> loaded.add(new Item<>(itemIds.get(id), value)));
+			markSkippedAsProcessed(batchData);
+		}
+		return true;
+	}
 
-		loadBatchData(batchData, (id, value) -> loaded.add(new Item<>(id, value)));
-		// we have skipped items, if we do not add them as processed these items will not be marked in the database as such
-		// also this will cause the checkpointIndex to grow less than the actually read data and cause same item
-		// to be read more than once
-		if (batchData.size() != loaded.size()) {
-			Set<String> data = new HashSet<>(batchData);
-			loaded.forEach(item -> data.remove(item.getId()));
-			data.forEach(id -> processed.add(new Item<>(id, null)));
+	/**
+	 * We have skipped items, if we do not mark them in the database as processed they will be read again on job
+	 * restart. They are marked as soon as the chunk is read so they do not pile up until the next checkpoint.
+	 */
+	private void markSkippedAsProcessed(List<Pair<Long, String>> batchData) {
+		if (batchData.size() == loaded.size()) {
+			return;
 		}
-		return !loaded.isEmpty();
+		Set<Long> loadedIds = new HashSet<>((int) (loaded.size() * 1.5));
+		loaded.forEach(item -> loadedIds.add(item.getItemId()));
+		List<Long> skippedIds = new ArrayList<>(batchData.size() - loaded.size());
+		for (Pair<Long, String> item : batchData) {
+			if (!loadedIds.contains(item.getFirst())) {
+				skippedIds.add(item.getFirst());
+			}
+		}
+		batchDataService.markItemsAsProcessed(jobContext.getExecutionId(), skippedIds);
 	}
 
 	@Override
 	public Serializable checkpointInfo() throws Exception {
 		// collect the identifiers for the processed items only, the non processed (loaded) items will be left as such
 		// for future investigation
-		List<String> processedIds = processed.stream()
-				.filter(Objects::nonNull)
-				.map(Item::getId)
-				.collect(Collectors.toList());
-		batchDataService.markJobDataAsProcessed(jobContext.getExecutionId(), processedIds);
-
-		// update the checkpoint when we process the whole chunk
-		checkpointIndex += processed.size();
+		List<Long> processedIds = new ArrayList<>(processed.size());
+		for (Item<T> item : processed) {
+			if (item.getItemId() != null) {
+				processedIds.add(item.getItemId());
+			}
+		}
+		batchDataService.markItemsAsProcessed(jobContext.getExecutionId(), processedIds);
 
 		processed.clear();
 
-		// no need to return any checkpoints, the next read will begin from where we are leaving
-		return checkpointIndex;
+		// the next read after restart will begin after the last read item
+		return lastReadId;
 	}
 
 	@Override
@@ -127,21 +179,21 @@ public abstract class BaseItemReader<T> extends AbstractItemReader {
 	}
 
 	/**
-	 * Represents an item for processing that wraps the original identifier and the loaded resource for that identifier.
+	 * Represents an item for processing that wraps the item identifier and the loaded resource for that item.
 	 *
 	 * @param <I> item type
 	 */
 	private class Item<I> {
-		private final String id;
+		private final Long itemId;
 		private final I value;
 
-		Item(String id, I value) {
-			this.id = id;
+		Item(Long itemId, I value) {
+			this.itemId = itemId;
 			this.value = value;
 		}
 
-		String getId() {
-			return id;
+		Long getItemId() {
+			return itemId;
 		}
 
 		I getValue() {
@@ -0,0 +1,54 @@
+package com.sirma.sep.instance.batch;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.when;
+
+import javax.batch.api.partition.PartitionPlan;
+import javax.batch.runtime.context.JobContext;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+/**
+ * Test for {@link BatchPartitionMapper}
+ *
+ * @author BBonev
+ */
+public class BatchPartitionMapperTest {
+
+	@InjectMocks
+	private BatchPartitionMapper partitionMapper;
+	@Mock
+	private JobContext context;
+	@Mock
+	private BatchProperties batchProperties;
+
+	@Before
+	public void setUp() throws Exception {
+		MockitoAnnotations.initMocks(this);
+		when(context.getExecutionId()).thenReturn(1L);
+	}
+
+	@Test
+	public void mapPartitions_shouldCreateThePartitionsFromTheJobProperties() throws Exception {
+		when(batchProperties.getJobProperty(1L, BatchProperties.PARTITIONS_COUNT)).thenReturn("3");
+
+		PartitionPlan plan = partitionMapper.mapPartitions();
+
+		assertEquals(3, plan.getPartitions());
+		assertEquals(3, plan.getThreads());
+		assertEquals("2", plan.getPartitionProperties()[2].getProperty(BatchProperties.PARTITION));
+		assertEquals("3", plan.getPartitionProperties()[2].getProperty(BatchProperties.PARTITIONS_COUNT));
+	}
+
+	@Test
+	public void mapPartitions_shouldCreateSinglePartition_WhenNotConfigured() throws Exception {
+		PartitionPlan plan = partitionMapper.mapPartitions();
+
+		assertEquals(1, plan.getPartitions());
+		assertEquals("0", plan.getPartitionProperties()[0].getProperty(BatchProperties.PARTITION));
+	}
+}
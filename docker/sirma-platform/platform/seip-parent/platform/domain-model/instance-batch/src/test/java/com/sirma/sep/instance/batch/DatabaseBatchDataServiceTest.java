@@ -61,6 +61,44 @@ public class DatabaseBatchDataServiceTest {
 		assertEquals(Arrays.asList("item1", "item2"), batchData);
 	}
 
+	@Test
+	public void getBatchDataAfter_shouldLoadDataAfterTheGivenItem() throws Exception {
+		when(dbDao.fetchWithNamed(BatchEntity.QUERY_JOB_DATA_AFTER_KEY,
+				Arrays.asList(new Pair<>(BatchProperties.JOB_ID, "jobId"), new Pair<>("lastId", 20L),
+						new Pair<>("processed", Boolean.FALSE)), 0, 10)).thenReturn(
+				Arrays.asList(new Object[] { 21L, "item1" }, new Object[] { 23L, "item2" }));
+
+		List<Pair<Long, String>> batchData = batchRuntimeService.getBatchDataAfter(1L, 20L, 10, 0, 1);
+		assertEquals(Arrays.asList(new Pair<>(21L, "item1"), new Pair<>(23L, "item2")), batchData);
+	}
+
+	@Test
+	public void getBatchDataAfter_shouldLoadOnlyThePartitionData() throws Exception {
+		when(dbDao.fetchWithNamed(BatchEntity.QUERY_JOB_PARTITION_DATA_AFTER_KEY,
+				Arrays.asList(new Pair<>(BatchProperties.JOB_ID, "jobId"), new Pair<>("lastId", 0L),
+						new Pair<>("processed", Boolean.FALSE), new Pair<>("partitions", 3L),
+						new Pair<>("partition", 2L)), 0, 10)).thenReturn(
+				Collections.singletonList(new Object[] { 2L, "item1" }));
+
+		List<Pair<Long, String>> batchData = batchRuntimeService.getBatchDataAfter(1L, 0L, 10, 2, 3);
+		assertEquals(Collections.singletonList(new Pair<>(2L, "item1")), batchData);
+	}
+
+	@Test
+	public void markItemsAsProcessed_shouldUpdateTheGivenItems() throws Exception {
+		batchRuntimeService.markItemsAsProcessed(1L, Arrays.asList(1L, 2L));
+
+		verify(dbDao).executeUpdate(BatchEntity.UPDATE_ITEMS_AS_PROCESSED_KEY, Arrays.asList(new Pair<>(BatchProperties
+				.JOB_ID, "jobId"), new Pair<>("ids", Arrays.asList(1L, 2L))));
+	}
+
+	@Test
+	public void markItemsAsProcessed_shouldDoNothingOnEmptyData() throws Exception {
+		batchRuntimeService.markItemsAsProcessed(1L, Collections.emptyList());
+
+		verify(dbDao, never()).executeUpdate(anyString(), anyList());
+	}
+
 	@Test
 	public void markJobDataAsProcessed_shouldDoNothingOnEmptyData() throws Exception {
 		batchRuntimeService.markJobDataAsProcessed(1L, Collections.emptyList());
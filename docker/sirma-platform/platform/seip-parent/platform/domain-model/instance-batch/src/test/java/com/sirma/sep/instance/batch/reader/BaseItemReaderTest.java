@@ -13,15 +13,18 @@ import static org.mockito.Mockito.when;
 
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
+import java.util.Properties;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import javax.batch.runtime.context.JobContext;
+import javax.batch.runtime.context.StepContext;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -30,6 +33,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import com.sirma.itt.seip.Pair;
 import com.sirma.itt.seip.util.ReflectionUtils;
 import com.sirma.sep.instance.batch.BatchDataService;
 import com.sirma.sep.instance.batch.BatchProperties;
@@ -45,6 +49,9 @@ public class BaseItemReaderTest {
 	@Mock
 	private JobContext jobContext;
 
+	@Mock
+	private StepContext stepContext;
+
 	@Mock
 	private BatchProperties batchProperties;
 
@@ -78,25 +85,31 @@ public class BaseItemReaderTest {
 
 		MockitoAnnotations.initMocks(this);
 
-		when(batchDataService.getBatchData(eq(JOB_EXECUTION_ID), anyInt(), eq(CHUNK_SIZE))).then(a -> {
-			int offset = a.getArgumentAt(1, Integer.class);
+		// the item ids are the positions of the items in the data list starting from 1
+		when(batchDataService.getBatchDataAfter(eq(JOB_EXECUTION_ID), anyLong(), eq(CHUNK_SIZE), anyInt(),
+				anyInt())).then(a -> {
+			long lastId = a.getArgumentAt(1, Long.class);
 			int requestedCount = a.getArgumentAt(2, Integer.class);
-			if (requestedCount + offset > data.size()) {
-				requestedCount = data.size();
+			int partition = a.getArgumentAt(3, Integer.class);
+			int partitions = a.getArgumentAt(4, Integer.class);
+			List<Pair<Long, String>> result = new ArrayList<>();
+			for (int i = (int) lastId; i < data.size() && result.size() < requestedCount; i++) {
+				if (data.get(i) != null && (i + 1) % partitions == partition) {
+					result.add(new Pair<>(Long.valueOf(i + 1L), data.get(i)));
+				}
 			}
-			return new ArrayList<>(data.subList(offset, requestedCount));
+			return result;
 		});
 
 		doAnswer(a -> {
 			@SuppressWarnings("unchecked")
-			List<String> processedIds = (List<String>) a.getArgumentAt(1, List.class);
-			data.replaceAll(s -> processedIds.contains(s) ? null : s);
+			List<Long> processedIds = (List<Long>) a.getArgumentAt(1, List.class);
+			processedIds.forEach(id -> data.set(id.intValue() - 1, null));
 			return null;
-		}).when(batchDataService).markJobDataAsProcessed(eq(JOB_EXECUTION_ID), any());
+		}).when(batchDataService).markItemsAsProcessed(eq(JOB_EXECUTION_ID), any());
 
 		when(jobContext.getExecutionId()).thenReturn(JOB_EXECUTION_ID);
 		when(batchProperties.getJobId(JOB_EXECUTION_ID)).thenReturn(JOB_ID);
-		when(batchDataService.getJobProgress(JOB_ID)).thenReturn(0);
 	}
 
 	private void withDataOfSize(int size) throws Exception {
@@ -211,12 +224,69 @@ public class BaseItemReaderTest {
 			baseItemReader.checkpointInfo();
 		} while (item != null);
 
-		ArgumentCaptor<List<String>> captor = ArgumentCaptor.forClass(List.class);
-		verify(batchDataService, times(2)).markJobDataAsProcessed(anyLong(), captor.capture());
+		ArgumentCaptor<List<Long>> captor = ArgumentCaptor.forClass(List.class);
+		// the skipped items of each chunk and the read items on each checkpoint
+		verify(batchDataService, times(4)).markItemsAsProcessed(anyLong(), captor.capture());
 		long processed = captor.getAllValues().stream().mapToLong(List::size).sum();
 		assertEquals("should have skipped", (int) (CHUNK_SIZE * 1.5), processed);
 
-		verify(batchDataService, times(3)).getBatchData(anyLong(), anyInt(), anyInt());
+		verify(batchDataService, times(3)).getBatchDataAfter(anyLong(), anyLong(), anyInt(), anyInt(), anyInt());
+	}
+
+	@Test
+	public void should_MarkSkippedChunksAsProcessed_WhenReadingTheNextChunk() throws Exception {
+		// skip the first 3 chunks
+		dataLoader = (id, consumer) -> {
+			if (Integer.parseInt(id) > CHUNK_SIZE * 3) {
+				consumer.accept(id, id);
+			}
+		};
+		withDataOfSize(CHUNK_SIZE * 3 + 5);
+
+		assertEquals(Integer.toString(CHUNK_SIZE * 3 + 1), baseItemReader.readItem());
+
+		ArgumentCaptor<List<Long>> captor = ArgumentCaptor.forClass(List.class);
+		verify(batchDataService, times(3)).markItemsAsProcessed(anyLong(), captor.capture());
+		captor.getAllValues().forEach(skipped -> assertEquals(CHUNK_SIZE, skipped.size()));
+		assertEquals(5, data.stream().filter(Objects::nonNull).count());
+	}
+
+	@Test
+	public void should_ContinueAfterTheCheckpoint_OnRestart() throws Exception {
+		data = IntStream.range(1, 51).boxed().map(Object::toString).collect(Collectors.toList());
+
+		baseItemReader.open(Long.valueOf(40L));
+
+		assertEquals("41", baseItemReader.readItem());
+		verify(batchDataService).getBatchDataAfter(JOB_EXECUTION_ID, 40L, CHUNK_SIZE, 0, 1);
+	}
+
+	@Test
+	public void should_ReturnTheLastReadItemAsCheckpoint() throws Exception {
+		withDataOfSize(100);
+
+		for (int i = 1; i <= 5; i++) {
+			baseItemReader.readItem();
+		}
+
+		assertEquals(Long.valueOf(5L), baseItemReader.checkpointInfo());
+	}
+
+	@Test
+	public void should_ReadOnlyTheDataOfTheCurrentPartition() throws Exception {
+		Properties properties = new Properties();
+		properties.setProperty(BatchProperties.PARTITION, "1");
+		properties.setProperty(BatchProperties.PARTITIONS_COUNT, "2");
+		when(stepContext.getProperties()).thenReturn(properties);
+		withDataOfSize(10);
+
+		List<Object> items = new ArrayList<>();
+		Object item;
+		while ((item = baseItemReader.readItem()) != null) {
+			items.add(item);
+		}
+
+		assertEquals(Arrays.asList("1", "3", "5", "7", "9"), items);
 	}
 
 }
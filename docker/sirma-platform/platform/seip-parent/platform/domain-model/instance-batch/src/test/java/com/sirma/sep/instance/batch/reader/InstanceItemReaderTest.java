@@ -1,12 +1,13 @@
 package com.sirma.sep.instance.batch.reader;
 
 import static org.junit.Assert.*;
+import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyList;
 import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.when;
 
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -21,6 +22,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import com.sirma.itt.seip.Pair;
 import com.sirma.itt.seip.domain.instance.EmfInstance;
 import com.sirma.itt.seip.domain.instance.Instance;
 import com.sirma.itt.seip.instance.dao.InstanceService;
@@ -50,9 +52,13 @@ public class InstanceItemReaderTest {
 	public void setUp() throws Exception {
 		MockitoAnnotations.initMocks(this);
 		when(batchProperties.getChunkSize(anyLong())).thenReturn(Optional.of(5));
-		when(batchDataService.getBatchData(anyLong(), eq(0), eq(5))).thenReturn(
-				Arrays.asList("emf:instance1", "emf:instance2", "emf:instance3", "emf:instance4", "emf:instance5"));
-		when(batchDataService.getBatchData(anyLong(), eq(5), eq(5))).thenReturn(Collections.emptyList());
+		List<Pair<Long, String>> data = new ArrayList<>();
+		for (long i = 1; i <= 5; i++) {
+			data.add(new Pair<>(i, "emf:instance" + i));
+		}
+		when(batchDataService.getBatchDataAfter(anyLong(), eq(0L), eq(5), anyInt(), anyInt())).thenReturn(data);
+		when(batchDataService.getBatchDataAfter(anyLong(), eq(5L), eq(5), anyInt(), anyInt())).thenReturn(
+				Collections.emptyList());
 		when(jobContext.getExecutionId()).thenReturn(1L);
 		when(instanceService.loadByDbId(anyList())).then(a -> a.getArgumentAt(0, List.class)
 						.stream()
@@ -3,6 +3,7 @@ package com.sirma.itt.seip.expressions;
 import java.io.Serializable;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -18,7 +19,6 @@ import org.slf4j.LoggerFactory;
 
 import com.sirma.itt.seip.collections.FixedSizeMap;
 import com.sirma.itt.seip.convert.TypeConverter;
-import com.sirma.itt.seip.util.DigestUtils;
 
 /**
  * Expression evaluator that parses and evaluates multiple expressions.
@@ -49,8 +49,8 @@ public class EvalEvaluator extends BaseEvaluator {
 			Pattern.DOTALL);
 
 	/**
-	 * The expression cache for compiled expressions mapped by digest of the string content. The cache has overflow
-	 * policy not to store more than configured size.
+	 * The expression cache for compiled expressions mapped by the expression string. The cache has overflow policy not
+	 * to store more than configured size.
 	 */
 	private transient Map<String, ElExpression> expressionCache;
 
@@ -76,13 +76,12 @@ public class EvalEvaluator extends BaseEvaluator {
 	}
 
 	private ElExpression getParsedExpression(String expression, char mode) {
-		String digest = DigestUtils.calculateDigest(expression);
 		ElExpression elExpression = getCache().get(expression);
 		if (elExpression == null) {
 			elExpression = ElExpressionParser.parse(expression, mode);
 			// we cache parsed only default expression not dynamic ones
 			if (mode == ElExpressionParser.DEFAULT_EXPRESSION_ID) {
-				getCache().put(digest, elExpression);
+				getCache().put(expression, elExpression);
 			}
 		}
 		return elExpression;
@@ -90,7 +89,7 @@ public class EvalEvaluator extends BaseEvaluator {
 
 	private synchronized Map<String, ElExpression> getCache() {
 		if (expressionCache == null) {
-			expressionCache = new FixedSizeMap<>(1024);
+			expressionCache = Collections.synchronizedMap(new FixedSizeMap<>(1024));
 		}
 		return expressionCache;
 	}
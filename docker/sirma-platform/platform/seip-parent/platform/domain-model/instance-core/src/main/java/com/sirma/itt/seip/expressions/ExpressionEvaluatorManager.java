@@ -10,6 +10,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 
 import javax.enterprise.context.ApplicationScoped;
@@ -27,11 +28,18 @@ import com.sirma.itt.seip.domain.definition.PropertyDefinition;
 import com.sirma.itt.seip.expressions.ElExpressionParser;
 import com.sirma.itt.seip.expressions.ExpressionContext;
 import com.sirma.itt.seip.expressions.ExpressionEvaluator;
+import com.sirma.itt.seip.monitor.Metric;
+import com.sirma.itt.seip.monitor.Metric.Builder;
+import com.sirma.itt.seip.monitor.Statistics;
 import com.sirma.itt.seip.security.User;
 import com.sirma.itt.seip.security.context.SecurityContext;
 
 /**
  * Provides easy access to all evaluators.
+ * <p>
+ * The evaluator resolved for each expression is cached so that the repeated evaluations of the same expression, like
+ * the definition default values and headers, does not check the patterns of all evaluators every time. The cache hits
+ * and misses are reported as application metrics.
  *
  * @author BBonev
  */
@@ -46,6 +54,16 @@ public class ExpressionEvaluatorManager implements ExpressionsManager {
 	 * in the expression string
 	 */
 	public static final String EXPRESSION_PREFIX = "$";
+	/**
+	 * The maximum number of compiled expressions to keep. The definition expressions are limited number so when the
+	 * limit is reached the cache is cleared.
+	 */
+	private static final int MAX_COMPILED_EXPRESSIONS = 8192;
+	private static final char KEY_SEPARATOR = '\u0000';
+	private static final Metric EXPRESSION_CACHE_HITS_COUNT = Builder.counter("expression_cache_hits_count",
+			"The count of the expressions served by the compiled expressions cache.").build();
+	private static final Metric EXPRESSION_CACHE_MISSES_COUNT = Builder.counter("expression_cache_misses_count",
+			"The count of the expressions not found in the compiled expressions cache.").build();
 
 	@Inject
 	@Any
@@ -62,26 +80,40 @@ public class ExpressionEvaluatorManager implements ExpressionsManager {
 	@Inject
 	private SecurityContext securityContext;
 
+	@Inject
+	private Statistics statistics;
+
+	private final Map<String, CompiledExpression> compiledExpressions = new ConcurrentHashMap<>(1024);
+
 	@Override
 	public ExpressionEvaluator getEvaluator(String expressionId, String expression) {
 		if (StringUtils.isBlank(expression)) {
 			LOGGER.trace("getEvaluator(String, String) - Requested evaluator for null expression");
 			return null;
 		}
-		if (getEvaluatorMapping().isEmpty()) {
-			LOGGER.trace("Evaluators mapping is empty");
-			return null;
-		}
 		String id = expressionId;
 		if (StringUtils.isBlank(id)) {
 			id = DEFAULT_EVAL_ID;
 		}
+		String key = id;
+		return compile(new StringBuilder(id.length() + expression.length() + 1)
+				.append(id)
+				.append(KEY_SEPARATOR)
+				.append(expression)
+				.toString(), () -> resolveEvaluator(key, expression)).getEvaluator();
+	}
+
+	private ExpressionEvaluator resolveEvaluator(String id, String expression) {
+		if (getEvaluatorMapping().isEmpty()) {
+			LOGGER.trace("Evaluators mapping is empty");
+			return null;
+		}
 
 		List<ExpressionEvaluator> list = getEvaluatorMapping().get(id);
 		if (list != null && !list.isEmpty()) {
 			return getEvaluatorThatCanHandle(list, expression, () -> getEvaluator(expression));
 		}
-		LOGGER.trace("getEvaluator(String, String) - No evaluator found for id [{}] and expression [{}]", expressionId,
+		LOGGER.trace("getEvaluator(String, String) - No evaluator found for id [{}] and expression [{}]", id,
 				expression);
 		// not found by id try all of them to be sure
 		return getEvaluator(expression);
@@ -151,6 +183,10 @@ public class ExpressionEvaluatorManager implements ExpressionsManager {
 			LOGGER.trace("getEvaluator(String) - Requested evaluator for null expression");
 			return null;
 		}
+		return compile(expression, () -> resolveEvaluator(expression)).getEvaluator();
+	}
+
+	private ExpressionEvaluator resolveEvaluator(String expression) {
 		if (getEvaluators().isEmpty()) {
 			LOGGER.trace("getEvaluator() - No evaluator found!");
 			return null;
@@ -179,6 +215,53 @@ public class ExpressionEvaluatorManager implements ExpressionsManager {
 		return ifNotFound.get();
 	}
 
+	/**
+	 * Gets the compiled expression for the given key or resolves the evaluator that can handle it and stores it for
+	 * the next calls. Expressions without evaluator are also cached.
+	 *
+	 * @param key
+	 *            the cache key of the expression
+	 * @param resolver
+	 *            the resolver that finds the evaluator for the expression if not compiled, yet
+	 * @return the compiled expression, never null
+	 */
+	private CompiledExpression compile(String key, Supplier<ExpressionEvaluator> resolver) {
+		CompiledExpression compiled = compiledExpressions.get(key);
+		if (compiled != null) {
+			statistics.track(EXPRESSION_CACHE_HITS_COUNT);
+			return compiled;
+		}
+		statistics.track(EXPRESSION_CACHE_MISSES_COUNT);
+		compiled = new CompiledExpression(resolver.get());
+		if (compiledExpressions.size() >= MAX_COMPILED_EXPRESSIONS) {
+			LOGGER.debug("Compiled expressions limit of {} reached. Clearing the cache", MAX_COMPILED_EXPRESSIONS);
+			compiledExpressions.clear();
+		}
+		compiledExpressions.put(key, compiled);
+		return compiled;
+	}
+
+	/**
+	 * Evaluates the given expression using the given evaluator.
+	 *
+	 * @param evaluator
+	 *            the evaluator to call
+	 * @param expression
+	 *            the expression to evaluate
+	 * @param context
+	 *            the context to pass or null if the evaluator should be called without context
+	 * @param values
+	 *            the values to pass to the evaluator
+	 * @return the evaluation result
+	 */
+	private static Serializable evaluate(ExpressionEvaluator evaluator, String expression, ExpressionContext context,
+			Serializable... values) {
+		if (context == null) {
+			return evaluator.evaluate(expression, values);
+		}
+		return evaluator.evaluate(expression, context, values);
+	}
+
 	@Override
 	public Serializable evaluate(PropertyDefinition definition) {
 		return evaluate(definition, createDefaultContext(null, definition, null));
@@ -196,7 +279,7 @@ public class ExpressionEvaluatorManager implements ExpressionsManager {
 		ExpressionEvaluator evaluator = getEvaluator(definition.getDefaultValue());
 		if (evaluator != null) {
 			return (Serializable) typeConverter.convert(definition.getDataType().getJavaClass(),
-					evaluator.evaluate(definition.getDefaultValue(), context));
+					evaluate(evaluator, definition.getDefaultValue(), context));
 		}
 		return (Serializable) typeConverter.convert(definition.getDataType().getJavaClass(),
 				definition.getDefaultValue());
@@ -232,7 +315,7 @@ public class ExpressionEvaluatorManager implements ExpressionsManager {
 			context.put(ExpressionContextProperties.TARGET_FIELD, (Serializable) propertyDefinition);
 			ExpressionEvaluator evaluator = getEvaluator(propertyDefinition.getRnc());
 			if (evaluator != null) {
-				Serializable serializable = evaluator.evaluate(propertyDefinition.getRnc(), context, target);
+				Serializable serializable = evaluate(evaluator, propertyDefinition.getRnc(), context, target);
 				Serializable convert = (Serializable) typeConverter
 						.convert(propertyDefinition.getDataType().getJavaClass(), serializable);
 				// does not save null fields
@@ -253,7 +336,7 @@ public class ExpressionEvaluatorManager implements ExpressionsManager {
 		}
 		ExpressionEvaluator evaluator = getEvaluator(rnc);
 		if (evaluator != null) {
-			Serializable serializable = evaluator.evaluate(propertyDefinition.getRnc(), context, target);
+			Serializable serializable = evaluate(evaluator, propertyDefinition.getRnc(), context, target);
 			return (Serializable) typeConverter.convert(propertyDefinition.getDataType().getJavaClass(), serializable);
 		}
 		return null;
@@ -269,7 +352,7 @@ public class ExpressionEvaluatorManager implements ExpressionsManager {
 			Serializable... target) {
 		ExpressionEvaluator evaluator = getEvaluator(expression);
 		if (evaluator != null) {
-			Serializable serializable = evaluator.evaluate(expression, context, target);
+			Serializable serializable = evaluate(evaluator, expression, context, target);
 			return typeConverter.convert(returnType, serializable);
 		}
 		// if the expected type is the same as the input there is no reason to return null
@@ -286,7 +369,7 @@ public class ExpressionEvaluatorManager implements ExpressionsManager {
 		}
 		ExpressionEvaluator evaluator = getEvaluator(expression);
 		if (evaluator != null) {
-			return typeConverter.convert(target, evaluator.evaluate(expression));
+			return typeConverter.convert(target, evaluate(evaluator, expression, null));
 		}
 		return typeConverter.convert(target, expression);
 	}
@@ -338,7 +421,7 @@ public class ExpressionEvaluatorManager implements ExpressionsManager {
 			return value;
 		}
 
-		return evaluator.evaluate(rule, value);
+		return evaluate(evaluator, rule, null, value);
 	}
 
 	@Override
@@ -367,4 +450,23 @@ public class ExpressionEvaluatorManager implements ExpressionsManager {
 	public boolean isExpression(String value) {
 		return ElExpressionParser.isExpression(value);
 	}
+
+	/**
+	 * Compiled form of an expression. Holds the evaluator resolved for the expression or null if no evaluator could
+	 * handle it.
+	 *
+	 * @author BBonev
+	 */
+	private static final class CompiledExpression {
+
+		private final ExpressionEvaluator evaluator;
+
+		CompiledExpression(ExpressionEvaluator evaluator) {
+			this.evaluator = evaluator;
+		}
+
+		ExpressionEvaluator getEvaluator() {
+			return evaluator;
+		}
+	}
 }
@@ -4,6 +4,7 @@ import static com.sirma.itt.seip.collections.CollectionUtils.isEmpty;
 
 import java.io.Serializable;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -15,6 +16,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import javax.annotation.PostConstruct;
+import javax.enterprise.context.ContextNotActiveException;
 import javax.inject.Inject;
 
 import org.slf4j.Logger;
@@ -149,6 +151,23 @@ public abstract class BaseSemanticInstanceDaoImpl<T extends Instance, P extends
 		for (Serializable instanceId : referencedInstances) {
 			cache.removeByKey(instanceId);
 		}
+		removeLoaded(referencedInstances);
+	}
+
+	@Override
+	public <S extends Serializable> void delete(Entity<S> entity) {
+		super.delete(entity);
+		if (entity.getId() != null) {
+			removeLoaded(Collections.singleton(entity.getId()));
+		}
+	}
+
+	private void removeLoaded(Collection<Serializable> ids) {
+		try {
+			changedInstancesBuffer.removeLoaded(ids);
+		} catch (ContextNotActiveException e) {
+			LOGGER.trace("No active transaction to invalidate the loaded instances", e);
+		}
 	}
 
 	private Stream<Serializable> getInstanceIds(Object object) {
@@ -208,6 +227,8 @@ public abstract class BaseSemanticInstanceDaoImpl<T extends Instance, P extends
 		referencedIds.removeIf(id -> id.equals(entity.getId()));
 
 		changedInstancesBuffer.addAll(referencedIds);
+		// the current instance is updated in the cache but the copy loaded in the transaction is no longer valid
+		changedInstancesBuffer.removeLoaded(Collections.singleton(entity.getId()));
 		// the clear should happen in the before transaction, because it causes problems with instance save
 		// the cache is cleared before computing the diff for the instance save in the semantic database that causes the
 		// new values not the be written in the database, but only in the cache and the next save will save them
@@ -3,12 +3,21 @@ package com.sirma.itt.seip.instance.dao;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 
 import javax.transaction.TransactionScoped;
 
+import com.sirma.itt.seip.Copyable;
+import com.sirma.itt.seip.domain.instance.Instance;
+
 /**
- * Transactional buffer that stores instance ids of changed instances in the current transaction.
+ * Transactional buffer that stores instance ids of changed instances in the current transaction. <br>
+ * The buffer also keeps copies of the instances loaded in the current transaction so that repeated loads of the same
+ * instance could be served without hitting the caches and the databases again. The loaded instances are invalidated
+ * when they are changed or when they are referenced by a changed instance.
  *
  * @author <a href="mailto:borislav.bonev@sirma.bg">Borislav Bonev</a>
  * @since 16/07/2018
@@ -18,13 +27,77 @@ class ChangedInstancesBuffer implements Serializable {
 
 	private Collection<Serializable> buffer = new HashSet<>();
 
+	private Map<Serializable, Instance> loaded = new HashMap<>();
+
+	/**
+	 * All ids under which a loaded instance is stored, mapped by the instance id.
+	 */
+	private Map<Serializable, Set<Serializable>> loadedAliases = new HashMap<>();
+
 	/**
-	 * Adds the given ids to the biffer
+	 * Adds the given ids to the buffer. The loaded instances with the given ids are invalidated.
 	 *
 	 * @param ids the ids to add
 	 */
-	void addAll(Collection<? extends Serializable> ids) {
+	synchronized void addAll(Collection<? extends Serializable> ids) {
 		buffer.addAll(ids);
+		invalidate(ids);
+	}
+
+	/**
+	 * Gets a copy of an instance loaded in the current transaction. Each call returns new copy so the callers could
+	 * modify it freely.
+	 *
+	 * @param id the id used to load the instance
+	 * @return copy of the loaded instance or <code>null</code> if not loaded in the current transaction or invalidated
+	 */
+	synchronized Instance getLoaded(Serializable id) {
+		Instance instance = loaded.get(id);
+		if (instance == null) {
+			return null;
+		}
+		return Copyable.copy(instance).orElse(null);
+	}
+
+	/**
+	 * Stores a copy of the loaded instance so it could be returned by {@link #getLoaded(Serializable)} for the rest
+	 * of the transaction. The instance is mapped by the given id and by it's own id and both are
+	 * invalidated together. Instances that could not be copied are not stored.
+	 *
+	 * @param id the id used to load the instance
+	 * @param instance the loaded instance
+	 */
+	synchronized void addLoaded(Serializable id, Instance instance) {
+		Copyable.copy(instance).ifPresent(copy -> {
+			Serializable instanceId = copy.getId() == null ? id : copy.getId();
+			Set<Serializable> aliases = loadedAliases.computeIfAbsent(instanceId, k -> new HashSet<>());
+			aliases.add(id);
+			aliases.add(instanceId);
+			aliases.forEach(alias -> loaded.put(alias, copy));
+		});
+	}
+
+	/**
+	 * Invalidates the loaded instances with the given ids without scheduling them for cache removal.
+	 *
+	 * @param ids the ids of the changed instances
+	 */
+	synchronized void removeLoaded(Collection<? extends Serializable> ids) {
+		invalidate(ids);
+	}
+
+	/**
+	 * Removes the loaded instances with the given ids together with all other ids they are stored under.
+	 */
+	private void invalidate(Collection<? extends Serializable> ids) {
+		for (Serializable id : ids) {
+			Instance instance = loaded.remove(id);
+			Serializable instanceId = instance == null || instance.getId() == null ? id : instance.getId();
+			Set<Serializable> aliases = loadedAliases.remove(instanceId);
+			if (aliases != null) {
+				loaded.keySet().removeAll(aliases);
+			}
+		}
 	}
 
 	/**
@@ -16,10 +16,14 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
+import javax.transaction.Status;
+import javax.transaction.SystemException;
+import javax.transaction.TransactionManager;
 import javax.transaction.Transactional;
 
 import org.slf4j.Logger;
@@ -113,6 +117,12 @@ public class InstanceServiceImpl implements InstanceService {
 	@Inject
 	private InstancePropertyNameResolver fieldConverter;
 
+	@Inject
+	private ChangedInstancesBuffer changedInstancesBuffer;
+
+	@Inject
+	private TransactionManager transactionManager;
+
 	/**
 	 * Save instance.
 	 *
@@ -274,14 +284,58 @@ public class InstanceServiceImpl implements InstanceService {
 
 	@Override
 	public Instance loadByDbId(Serializable id) {
-		Instance instance = instanceDao.loadInstance(id, null, true);
-		instanceLoadDecorator.decorateInstance(instance);
-		return instance;
+		return loadInTransaction(id, () -> instanceDao.loadInstance(id, null, true));
 	}
 
 	@Override
 	public Instance load(Serializable instanceId) {
-		Instance instance = instanceDao.loadInstance(null, instanceId, true);
+		return loadInTransaction(instanceId, () -> instanceDao.loadInstance(null, instanceId, true));
+	}
+
+	/**
+	 * Loads and decorates an instance. If the same instance is already loaded in the current transaction and not
+	 * changed since then a copy of it is decorated and returned instead of loading it again. The instance is stored
+	 * before decoration because the decorators add data that is not tracked by the buffer, like the lock info, and
+	 * data for the current user, like the favourites and downloads marks.
+	 *
+	 * @param id the requested instance id
+	 * @param loader the actual instance loading
+	 * @return the loaded instance or <code>null</code> if not found
+	 */
+	private Instance loadInTransaction(Serializable id, Supplier<Instance> loader) {
+		if (id == null || Options.ALLOW_LOADING_OF_DELETED_INSTANCES.isEnabled() || !isTransactionActive()) {
+			return loadAndDecorate(loader);
+		}
+		Instance instance = changedInstancesBuffer.getLoaded(id);
+		if (instance != null) {
+			Trackable.enableTracking(instance);
+		} else {
+			instance = loader.get();
+			if (instance != null && !instance.isDeleted()) {
+				changedInstancesBuffer.addLoaded(id, instance);
+			}
+		}
+		instanceLoadDecorator.decorateInstance(instance);
+		return instance;
+	}
+
+	/**
+	 * Checks if there is a transaction that could be used by the transaction scoped {@link ChangedInstancesBuffer}.
+	 */
+	private boolean isTransactionActive() {
+		try {
+			int status = transactionManager.getStatus();
+			return status == Status.STATUS_ACTIVE || status == Status.STATUS_MARKED_ROLLBACK;
+		} catch (SystemException e) {
+			LOGGER.warn("Could not check the transaction status. Will not reuse loaded instances: {}",
+					e.getMessage());
+			LOGGER.trace("Could not check the transaction status", e);
+			return false;
+		}
+	}
+
+	private Instance loadAndDecorate(Supplier<Instance> loader) {
+		Instance instance = loader.get();
 		instanceLoadDecorator.decorateInstance(instance);
 		return instance;
 	}
@@ -3,6 +3,7 @@ package com.sirma.itt.seip.instance.properties;
 import static java.util.stream.Collectors.toSet;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
@@ -16,6 +17,9 @@ import java.util.Set;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import javax.transaction.Status;
+import javax.transaction.SystemException;
+import javax.transaction.TransactionManager;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,6 +28,11 @@ import com.sirma.itt.seip.Entity;
 import com.sirma.itt.seip.Pair;
 import com.sirma.itt.seip.cache.lookup.EntityLookupCache;
 import com.sirma.itt.seip.collections.CollectionUtils;
+import com.sirma.itt.seip.concurrent.FragmentedWork;
+import com.sirma.itt.seip.concurrent.TaskExecutor;
+import com.sirma.itt.seip.configuration.ConfigurationProperty;
+import com.sirma.itt.seip.configuration.annotation.Configuration;
+import com.sirma.itt.seip.configuration.annotation.ConfigurationPropertyDefinition;
 import com.sirma.itt.seip.domain.PathElement;
 import com.sirma.itt.seip.domain.instance.PropertyModel;
 import com.sirma.itt.seip.domain.util.PropertiesUtil;
@@ -50,6 +59,22 @@ public class PropertiesDaoImpl implements PropertiesDao {
 	@Inject
 	private NodePropertyHelper nodePropertyHelper;
 
+	@Inject
+	private TaskExecutor taskExecutor;
+
+	@Inject
+	private TransactionManager transactionManager;
+
+	@Inject
+	@Configuration
+	@ConfigurationPropertyDefinition(name = "properties.load.batchSize", defaultValue = "250", sensitive = true, type = Integer.class, system = true, label = "The maximum number of instances of the same type for which the properties are loaded with a single database query")
+	private ConfigurationProperty<Integer> loadBatchSize;
+
+	@Inject
+	@Configuration
+	@ConfigurationPropertyDefinition(name = "properties.load.parallelism", defaultValue = "4", sensitive = true, type = Integer.class, system = true, label = "The maximum number of database queries executed in parallel when loading properties for multiple instances. Values less than 2 disable the parallel loading")
+	private ConfigurationProperty<Integer> loadParallelism;
+
 	@Override
 	public <E extends PropertyModel> void saveProperties(E model, PropertyModelCallback<E> callback,
 			PropertiesStorageAccess access) {
@@ -425,7 +450,10 @@ public class PropertiesDaoImpl implements PropertiesDao {
 	}
 
 	/**
-	 * Load properties for all given entity IDs in one query.
+	 * Load properties for all given entity IDs. The entities not found in the cache are loaded with a query per entity
+	 * type and batch of identifiers. When more than one query is needed and there is no active transaction they are
+	 * executed in parallel. The queries of a transaction are executed on the calling thread so that they see the
+	 * changes made by the transaction.
 	 *
 	 * @param entityIds
 	 *            the entity ids
@@ -452,23 +480,25 @@ public class PropertiesDaoImpl implements PropertiesDao {
 			return result;
 		}
 
-		// accumulate the DB result here
-		List<PropertyModelEntity> results = new LinkedList<>();
+		// split the arguments by type and by batch size so that the queries could be executed in parallel
+		List<Pair<Integer, Collection<String>>> batches = splitToBatches(argsMapping,
+				Math.max(loadBatchSize.get().intValue(), 1));
 
-		// REVIEW:BB NOTE: probably we can add parallel loading of properties
-		// will fetch multiple results for particular type
-		for (Entry<Integer, Set<String>> entry : argsMapping.entrySet()) {
-			List<PropertyModelEntity> list = access.batchLoadProperties(entry.getKey(), entry.getValue());
-			results.addAll(list);
-		}
+		// the pool threads do not participate in the current transaction and will not see the not committed changes
+		int parallelism = isInTransaction() ? 1 : loadParallelism.get().intValue();
+		// each batch organizes the rows it fetched, the batches are for different entities so no merging is needed
+		Collection<Map<PropertyModelKey, Map<PropertyEntryKey, PropertyModelValue>>> loaded = FragmentedWork
+				.doWorkAndReduceInParallel(taskExecutor, batches, 1, parallelism, true,
+						fragment -> loadBatches(fragment, mapping, access));
+
+		Map<PropertyModelKey, Map<PropertyEntryKey, PropertyModelValue>> map = CollectionUtils
+				.createLinkedHashMap(entityIds.size());
+		loaded.forEach(map::putAll);
 
 		// nothing is fetched from the DB return the current result
-		if (results.isEmpty()) {
+		if (map.isEmpty()) {
 			return result;
 		}
-		// organize results
-		Map<PropertyModelKey, Map<PropertyEntryKey, PropertyModelValue>> map = organizeLoadedEntries(entityIds, mapping,
-				results);
 
 		// convert the results and update the cache
 		convertAndUpdateCache(access, result, map);
@@ -478,6 +508,17 @@ public class PropertiesDaoImpl implements PropertiesDao {
 		return result;
 	}
 
+	private boolean isInTransaction() {
+		try {
+			return transactionManager.getStatus() != Status.STATUS_NO_TRANSACTION;
+		} catch (SystemException e) {
+			LOGGER.warn("Could not check the transaction status. Will load properties sequentially: {}",
+					e.getMessage());
+			LOGGER.trace("Could not check the transaction status", e);
+			return true;
+		}
+	}
+
 	private static void processNotFoundInstanceProperties(Set<PropertyModelKey> entityIds,
 			Map<PropertyModelKey, Map<String, Serializable>> result) {
 		Set<PropertyModelKey> foundEntities = new LinkedHashSet<>(entityIds);
@@ -504,11 +545,29 @@ public class PropertiesDaoImpl implements PropertiesDao {
 		}
 	}
 
-	private static Map<PropertyModelKey, Map<PropertyEntryKey, PropertyModelValue>> organizeLoadedEntries(
-			Set<PropertyModelKey> entityIds, Map<PropertyModelKey, PropertyModelKey> mapping,
-			List<PropertyModelEntity> results) {
-		Map<PropertyModelKey, Map<PropertyEntryKey, PropertyModelValue>> map = CollectionUtils
-				.createLinkedHashMap(entityIds.size());
+	private static List<Pair<Integer, Collection<String>>> splitToBatches(Map<Integer, Set<String>> argsMapping,
+			int batchSize) {
+		List<Pair<Integer, Collection<String>>> batches = new ArrayList<>(argsMapping.size());
+		for (Entry<Integer, Set<String>> entry : argsMapping.entrySet()) {
+			FragmentedWork.doWork(entry.getValue(), batchSize,
+					ids -> batches.add(new Pair<>(entry.getKey(), new ArrayList<>(ids))));
+		}
+		return batches;
+	}
+
+	private static Map<PropertyModelKey, Map<PropertyEntryKey, PropertyModelValue>> loadBatches(
+			Collection<Pair<Integer, Collection<String>>> batches, Map<PropertyModelKey, PropertyModelKey> mapping,
+			PropertiesStorageAccess access) {
+		Map<PropertyModelKey, Map<PropertyEntryKey, PropertyModelValue>> map = new LinkedHashMap<>();
+		for (Pair<Integer, Collection<String>> batch : batches) {
+			List<PropertyModelEntity> results = access.batchLoadProperties(batch.getFirst(), batch.getSecond());
+			organizeLoadedEntries(mapping, results, map);
+		}
+		return map;
+	}
+
+	private static void organizeLoadedEntries(Map<PropertyModelKey, PropertyModelKey> mapping,
+			List<PropertyModelEntity> results, Map<PropertyModelKey, Map<PropertyEntryKey, PropertyModelValue>> map) {
 		for (PropertyModelEntity propertyEntity : results) {
 			// convert from DB entityId to fully populated entity ID
 			PropertyModelKey dbEntity = propertyEntity.getEntityId();
@@ -524,7 +583,6 @@ public class PropertiesDaoImpl implements PropertiesDao {
 			map.computeIfAbsent(localEntity, key -> new LinkedHashMap<>()).put(propertyEntity.getKey(),
 					propertyEntity.getValue());
 		}
-		return map;
 	}
 
 	private static void groupEntitiesByType(Set<PropertyModelKey> entityIds, Map<Integer, Set<String>> argsMapping,
@@ -2,13 +2,21 @@ package com.sirma.itt.seip.instance.properties.entity;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import javax.persistence.AttributeConverter;
 import javax.persistence.Converter;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.type.MapType;
 import com.sirma.itt.seip.exception.EmfRuntimeException;
 
 /**
@@ -17,8 +25,15 @@ import com.sirma.itt.seip.exception.EmfRuntimeException;
  * attributes are persisted/loaded. <br>
  * This particular implementation uses {@link ObjectMapper} to perform the serialization/deserialization of the
  * registered attributes. The attributes should be of type {@link Map}. <br>
+ * The mapper is created once and the conversion is done by shared {@link ObjectReader} and {@link ObjectWriter}
+ * instances, which are immutable and thread safe, so the Jackson serializers are resolved only once instead of for
+ * every converted row. <br>
  * Note that {@link AttributeConverter} does not work with parametric types so the types of the {@link Map} elements
- * could not be defined.
+ * could not be defined in the converter signature. The stored data is decoded directly in the type declared by the
+ * entities, {@code LinkedHashMap<String, Serializable>}, with the order of the stored properties preserved. The values
+ * are decoded as strings, numbers, booleans and, for nested JSON, as {@link java.util.ArrayList} and
+ * {@link LinkedHashMap} which are all {@link Serializable}. The definition types of the properties are not known at
+ * this level so values are not converted further.
  * <p>
  * The converter will throw {@link EmfRuntimeException} when there is an error while serialization/deserialization
  * process is executed.
@@ -30,10 +45,17 @@ import com.sirma.itt.seip.exception.EmfRuntimeException;
 @SuppressWarnings("rawtypes")
 public class JsonPropertiesConverter implements AttributeConverter<Map, String> {
 
+	private static final ObjectMapper MAPPER = new ObjectMapper()
+			.registerModule(new SimpleModule().addDeserializer(Serializable.class, new SerializableDeserializer()));
+	private static final MapType PROPERTIES_TYPE = MAPPER.getTypeFactory().constructMapType(LinkedHashMap.class,
+			String.class, Serializable.class);
+	private static final ObjectWriter WRITER = MAPPER.writerFor(Map.class);
+	private static final ObjectReader READER = MAPPER.readerFor(PROPERTIES_TYPE);
+
 	@Override
 	public String convertToDatabaseColumn(Map attribute) {
 		try {
-			return new ObjectMapper().writeValueAsString(attribute);
+			return WRITER.writeValueAsString(attribute);
 		} catch (JsonProcessingException e) {
 			throw new EmfRuntimeException("Error while serializing properties map to Json." + e.getMessage(), e);
 		}
@@ -42,9 +64,29 @@ public class JsonPropertiesConverter implements AttributeConverter<Map, String>
 	@Override
 	public Map<String, Serializable> convertToEntityAttribute(String dbData) {
 		try {
-			return new ObjectMapper().readValue(dbData, Map.class);
+			return READER.readValue(dbData);
 		} catch (IOException e) {
 			throw new EmfRuntimeException("Error while deserializing properties to Map." + e.getMessage(), e);
 		}
 	}
+
+	/**
+	 * Decodes the values declared as {@link Serializable} with the default deserializer for untyped values. Jackson
+	 * does not resolve deserializer for the {@link Serializable} interface on its own.
+	 *
+	 * @author BBonev
+	 */
+	private static class SerializableDeserializer extends StdDeserializer<Serializable> {
+
+		private static final long serialVersionUID = 2894813396212571520L;
+
+		SerializableDeserializer() {
+			super(Serializable.class);
+		}
+
+		@Override
+		public Serializable deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+			return (Serializable) context.readValue(parser, Object.class);
+		}
+	}
 }
\ No newline at end of file
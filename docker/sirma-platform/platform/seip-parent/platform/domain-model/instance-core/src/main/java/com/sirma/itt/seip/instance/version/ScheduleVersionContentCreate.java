@@ -4,11 +4,19 @@ import java.io.IOException;
 import java.io.Serializable;
 import java.lang.invoke.MethodHandles;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.event.Observes;
@@ -21,6 +29,7 @@ import org.slf4j.LoggerFactory;
 
 import com.sirma.itt.seip.Executable;
 import com.sirma.itt.seip.Pair;
+import com.sirma.itt.seip.concurrent.TaskExecutor;
 import com.sirma.itt.seip.domain.instance.EmfInstance;
 import com.sirma.itt.seip.exception.EmfRuntimeException;
 import com.sirma.itt.seip.instance.version.VersionProperties.WidgetsHandlerContextProperties;
@@ -36,7 +45,11 @@ import com.sirma.itt.seip.tx.TransactionSupport;
 import com.sirma.sep.content.Content;
 import com.sirma.sep.content.ContentInfo;
 import com.sirma.sep.content.InstanceContentService;
+import com.sirma.sep.content.descriptor.DocumentFileDescriptor;
 import com.sirma.sep.content.idoc.Idoc;
+import com.sirma.sep.content.idoc.Widget;
+import com.sirma.sep.content.idoc.WidgetConfiguration;
+import com.sirma.sep.content.idoc.WidgetSelectionMode;
 import com.sirma.sep.content.idoc.handler.ContentNodeHandler.HandlerContext;
 import com.sirma.sep.content.idoc.handler.SearchContentNodeHandler;
 import com.sirma.sep.content.idoc.handler.VersionContentNodeHandler;
@@ -72,6 +85,11 @@ public class ScheduleVersionContentCreate extends SchedulerActionAdapter {
 
 	private static final int MAX_RETRIES = 5;
 
+	/**
+	 * The maximum number of widget search tasks executed in parallel for single version content.
+	 */
+	private static final int MAX_PARALLEL_SEARCHES = 8;
+
 	@Inject
 	private SchedulerService schedulerService;
 
@@ -81,6 +99,9 @@ public class ScheduleVersionContentCreate extends SchedulerActionAdapter {
 	@Inject
 	private VersionDao versionDao;
 
+	@Inject
+	private TaskExecutor taskExecutor;
+
 	@Override
 	protected List<Pair<String, Class<?>>> validateInput() {
 		return ARGUMENTS_VALIDATION;
@@ -161,17 +182,20 @@ public class ScheduleVersionContentCreate extends SchedulerActionAdapter {
 						Content.PRIMARY_VIEW, originalInstanceId);
 				return;
 			}
-			String contentAsString;
+			Boolean isVersionModeUpdate = context.getIfSameType(IS_VERSION_MODE_UPDATE, Boolean.class);
+			Content versionViewContent = buildVersionViewContent(isVersionModeUpdate);
 			if (context.getIfSameType(PROCESS_WIDGETS, Boolean.class)) {
-				contentAsString = processContent(content, originalInstanceId,
-						context.getIfSameType(VERSION_CREATED_ON_DATE, Date.class)).asHtml();
+				Idoc idoc = processContent(content, originalInstanceId,
+						context.getIfSameType(VERSION_CREATED_ON_DATE, Date.class));
+				// the processed view is serialized once when it is written to the store
+				versionViewContent
+						.setContent(new DocumentFileDescriptor(versionViewContent.getName(), null, idoc.getContent()));
 			} else {
-				contentAsString = content.asString();
+				versionViewContent.setContent(content.asString(), StandardCharsets.UTF_8);
 			}
 
-			Boolean isVersionModeUpdate = context.getIfSameType(IS_VERSION_MODE_UPDATE, Boolean.class);
 			ContentInfo versionContent = instanceContentService.saveContent(new EmfInstance(versionId),
-					buildVersionViewContent(contentAsString, isVersionModeUpdate));
+					versionViewContent);
 			if (!versionContent.exists()) {
 				throw new EmfRuntimeException("Failed to store view content for version instance - " + versionId);
 			}
@@ -189,7 +213,8 @@ public class ScheduleVersionContentCreate extends SchedulerActionAdapter {
 			VersionIdsCache cache = new VersionIdsCache(versionCreatedOn, versionDao::findVersionIdsByTargetIdAndDate);
 			context.put(WidgetsHandlerContextProperties.VERSIONED_INSTANCES_CACHE_KEY, cache);
 			context.put(WidgetsHandlerContextProperties.VERSION_DATE_KEY, versionCreatedOn);
-			SearchContentNodeHandler.handle(idoc.widgets(), context);
+			context.put(WidgetsHandlerContextProperties.WIDGET_SEARCH_CACHE_KEY, new WidgetSearchCache());
+			handleWidgetSearches(idoc, context);
 			// search results are stored in the WidgetConfiguration from where the version handlers will retrieve them
 			VersionContentNodeHandler.handle(idoc.widgets(), context);
 			return idoc;
@@ -198,10 +223,76 @@ public class ScheduleVersionContentCreate extends SchedulerActionAdapter {
 		}
 	}
 
-	private static Content buildVersionViewContent(String contentAsString, boolean isVersionModeUpdate) {
+	/**
+	 * Executes the widget searches in parallel. The widgets with equal search criteria are processed by a single task
+	 * so they share the results of a single search via the {@link WidgetSearchCache} stored in the context. The number
+	 * of the parallel tasks is limited to {@link #MAX_PARALLEL_SEARCHES}. The widgets without search criteria do not
+	 * execute widget searches and are processed in the current thread.
+	 */
+	private void handleWidgetSearches(Idoc idoc, HandlerContext context) {
+		Map<String, List<Widget>> searchGroups = new LinkedHashMap<>();
+		List<Widget> withoutSearch = new LinkedList<>();
+		idoc.widgets().forEach(widget -> {
+			Optional<String> searchKey = getSearchKey(widget);
+			if (searchKey.isPresent()) {
+				searchGroups.computeIfAbsent(searchKey.get(), key -> new LinkedList<>()).add(widget);
+			} else {
+				withoutSearch.add(widget);
+			}
+		});
+
+		if (searchGroups.size() <= 1) {
+			// nothing to run in parallel
+			searchGroups.values().forEach(withoutSearch::addAll);
+			SearchContentNodeHandler.handle(withoutSearch.stream(), context);
+			return;
+		}
+
+		List<List<Widget>> tasks = new ArrayList<>(Math.min(searchGroups.size(), MAX_PARALLEL_SEARCHES));
+		int group = 0;
+		for (List<Widget> widgets : searchGroups.values()) {
+			int task = group++ % MAX_PARALLEL_SEARCHES;
+			if (task == tasks.size()) {
+				tasks.add(new LinkedList<>());
+			}
+			tasks.get(task).addAll(widgets);
+		}
+
+		List<Future<?>> futures = tasks
+				.stream()
+					.map(widgets -> taskExecutor.submit(() -> {
+						SearchContentNodeHandler.handle(widgets.stream(), context);
+					}))
+					.collect(Collectors.toList());
+		SearchContentNodeHandler.handle(withoutSearch.stream(), context);
+		taskExecutor.waitForAll(futures);
+		for (Future<?> future : futures) {
+			try {
+				future.get();
+			} catch (ExecutionException e) {
+				throw new EmfRuntimeException("Widget search failed during version content processing.", e.getCause());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new EmfRuntimeException("Interrupted while waiting for the widget searches.", e);
+			}
+		}
+	}
+
+	/**
+	 * Widgets execute searches only when their objects are selected automatically by search criteria. The widgets with
+	 * equal criteria will build the same search.
+	 */
+	private static Optional<String> getSearchKey(Widget widget) {
+		WidgetConfiguration configuration = widget.getConfiguration();
+		if (!WidgetSelectionMode.AUTOMATICALLY.equals(configuration.getSelectionMode())) {
+			return Optional.empty();
+		}
+		return configuration.getSearchCriteria().map(Object::toString);
+	}
+
+	private static Content buildVersionViewContent(boolean isVersionModeUpdate) {
 		return Content
 				.createEmpty()
-					.setContent(contentAsString, StandardCharsets.UTF_8)
 					.setName(UUID.randomUUID() + "-instanceView.html")
 					.setMimeType(MediaType.TEXT_HTML)
 					.setPurpose(Content.PRIMARY_VIEW)
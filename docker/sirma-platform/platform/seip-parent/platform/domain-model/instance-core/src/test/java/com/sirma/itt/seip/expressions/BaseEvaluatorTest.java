@@ -6,6 +6,7 @@ import java.util.List;
 
 import com.sirma.itt.seip.convert.TypeConverter;
 import com.sirma.itt.seip.expressions.ExpressionEvaluator;
+import com.sirma.itt.seip.monitor.NoOpStatistics;
 import com.sirma.itt.seip.testutil.EmfTest;
 import com.sirma.itt.seip.testutil.mocks.InstanceProxyMock;
 import com.sirma.itt.seip.util.ReflectionUtils;
@@ -33,6 +34,7 @@ public abstract class BaseEvaluatorTest extends EmfTest {
 
 		ReflectionUtils.setFieldValue(manager, "evaluators", evaluators);
 		ReflectionUtils.setFieldValue(manager, "securityContext", securityContext);
+		ReflectionUtils.setFieldValue(manager, "statistics", NoOpStatistics.INSTANCE);
 		return manager;
 	}
 
@@ -1,11 +1,13 @@
 package com.sirma.itt.seip.expressions;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertNull;
 
 import java.io.Serializable;
 import java.util.HashMap;
+import java.util.Map;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -79,6 +81,25 @@ public class EvalEvaluatorTest extends BaseEvaluatorTest {
 		assertNull(result);
 	}
 
+	@Test
+	public void should_ParseTheSameExpressionOnlyOnce() {
+		Instance target = new EmfInstance();
+		target.setProperties(new HashMap<String, Serializable>());
+		target.getProperties().put("test", "testValue");
+
+		Serializable result = evalEvaluator.evaluate("${eval(Value: ${get([test])})}",
+				expressionManager.createDefaultContext(target, null, null));
+		assertEquals("Value: testValue", result);
+		Map<String, ElExpression> cache = ReflectionUtils.getFieldValue(evalEvaluator, "expressionCache");
+		ElExpression parsed = cache.get("Value: ${get([test])}");
+
+		result = evalEvaluator.evaluate("${eval(Value: ${get([test])})}",
+				expressionManager.createDefaultContext(target, null, null));
+		assertEquals("Value: testValue", result);
+		assertEquals(1, cache.size());
+		assertSame(parsed, cache.get("Value: ${get([test])}"));
+	}
+
 	@Override
 	public TypeConverter createTypeConverter() {
 		TypeConverter converter = super.createTypeConverter();
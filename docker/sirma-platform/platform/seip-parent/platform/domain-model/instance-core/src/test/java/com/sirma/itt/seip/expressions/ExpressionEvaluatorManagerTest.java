@@ -0,0 +1,90 @@
+package com.sirma.itt.seip.expressions;
+
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.testng.annotations.Test;
+
+import com.sirma.itt.seip.monitor.Metric;
+import com.sirma.itt.seip.monitor.Statistics;
+import com.sirma.itt.seip.util.ReflectionUtils;
+
+/**
+ * Tests the compiled expressions cache and the cache metrics of {@link ExpressionEvaluatorManager}.
+ *
+ * @author BBonev
+ */
+@Test
+public class ExpressionEvaluatorManagerTest extends BaseEvaluatorTest {
+
+	@Mock
+	private Statistics statistics;
+
+	/**
+	 * Test that the evaluator is resolved only once for the same expression.
+	 */
+	public void shouldResolveEvaluatorOnlyOnceForTheSameExpression() {
+		ExpressionEvaluatorManager manager = createMonitoredManager();
+
+		ExpressionEvaluator evaluator = manager.getEvaluator("${get([key])}");
+		assertTrue(evaluator instanceof PropertyExpressionEvaluator);
+		assertEquals(getCacheMisses(), 1L);
+		assertEquals(getCacheHits(), 0L);
+
+		assertSame(manager.getEvaluator("${get([key])}"), evaluator);
+		assertSame(manager.getEvaluator("${get([key])}"), evaluator);
+		assertEquals(getCacheMisses(), 1L);
+		assertEquals(getCacheHits(), 2L);
+	}
+
+	/**
+	 * Test that the expressions without evaluator are also cached.
+	 */
+	public void shouldCacheExpressionsWithoutEvaluator() {
+		ExpressionEvaluatorManager manager = createMonitoredManager();
+
+		assertNull(manager.getEvaluator("${notSupported()}"));
+		assertNull(manager.getEvaluator("${notSupported()}"));
+		assertEquals(getCacheMisses(), 1L);
+		assertEquals(getCacheHits(), 1L);
+	}
+
+	/**
+	 * Test that the expression id is part of the cache key.
+	 */
+	public void shouldCacheEvaluatorsByExpressionId() {
+		ExpressionEvaluatorManager manager = createMonitoredManager();
+
+		ExpressionEvaluator evaluator = manager.getEvaluator("get", "${get([key])}");
+		assertTrue(evaluator instanceof PropertyExpressionEvaluator);
+		assertSame(manager.getEvaluator("get", "${get([key])}"), evaluator);
+		assertNull(manager.getEvaluator("get", "${notSupported()}"));
+		assertEquals(getCacheHits(), 1L);
+	}
+
+	private ExpressionEvaluatorManager createMonitoredManager() {
+		ExpressionEvaluatorManager manager = (ExpressionEvaluatorManager) createManager();
+		ReflectionUtils.setFieldValue(manager, "statistics", statistics);
+		return manager;
+	}
+
+	private long getCount(String metric) {
+		ArgumentCaptor<Metric> captor = ArgumentCaptor.forClass(Metric.class);
+		verify(statistics, atLeast(0)).track(captor.capture());
+		return captor.getAllValues().stream().filter(tracked -> tracked.name().equals(metric)).count();
+	}
+
+	private long getCacheHits() {
+		return getCount("expression_cache_hits_count");
+	}
+
+	private long getCacheMisses() {
+		return getCount("expression_cache_misses_count");
+	}
+}
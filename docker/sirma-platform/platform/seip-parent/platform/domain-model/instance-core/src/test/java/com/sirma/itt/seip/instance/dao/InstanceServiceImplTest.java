@@ -14,6 +14,9 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
@@ -27,6 +30,9 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
+import javax.transaction.Status;
+import javax.transaction.TransactionManager;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.InjectMocks;
@@ -92,6 +98,10 @@ public class InstanceServiceImplTest {
 	private StateService stateService;
 	@Spy
 	private InstancePropertyNameResolver nameResolver = InstancePropertyNameResolver.NO_OP_INSTANCE;
+	@Spy
+	private ChangedInstancesBuffer changedInstancesBuffer = new ChangedInstancesBuffer();
+	@Mock
+	private TransactionManager transactionManager;
 
 	@Before
 	public void setup() {
@@ -165,6 +175,97 @@ public class InstanceServiceImplTest {
 		verify(instanceLoadDecorator).decorateInstance(any());
 	}
 
+	@Test
+	public void load_shouldReturnCopyOfInstanceLoadedInTheSameTransaction() {
+		EmfInstance loaded = new EmfInstance("emf:instance");
+		loaded.add(TITLE, "title");
+		when(instanceDao.loadInstance(null, "emf:instance", true)).thenReturn(loaded);
+
+		Instance first = service.load("emf:instance");
+		Instance second = service.load("emf:instance");
+
+		verify(instanceDao).loadInstance(null, "emf:instance", true);
+		// the stored instance is not decorated, the decoration depends on the current user and the lock state
+		verify(instanceLoadDecorator, times(2)).decorateInstance(any());
+		assertTrue(first != second);
+		assertEquals("title", second.getString(TITLE));
+		second.add(TITLE, "changed");
+		assertEquals("title", service.load("emf:instance").getString(TITLE));
+	}
+
+	@Test
+	public void load_shouldNotStoreTheDecoratedData() {
+		when(instanceDao.loadInstance(null, "emf:instance", true)).then(a -> {
+			EmfInstance instance = new EmfInstance("emf:instance");
+			instance.add(TITLE, "title");
+			return instance;
+		});
+		doAnswer(a -> a.getArgumentAt(0, Instance.class).add("lockedBy", "emf:user")).when(instanceLoadDecorator)
+				.decorateInstance(any(Instance.class));
+
+		service.load("emf:instance");
+		doNothing().when(instanceLoadDecorator).decorateInstance(any(Instance.class));
+		Instance second = service.load("emf:instance");
+
+		assertFalse(second.isValueNotNull("lockedBy"));
+		assertEquals("title", second.getString(TITLE));
+	}
+
+	@Test
+	public void load_shouldLoadAgain_WhenInstanceIsChanged() {
+		when(instanceDao.loadInstance(null, "emf:instance", true)).then(a -> {
+			EmfInstance instance = new EmfInstance("emf:instance");
+			instance.add(TITLE, "title");
+			return instance;
+		});
+
+		service.load("emf:instance");
+		changedInstancesBuffer.addAll(Collections.singleton("emf:instance"));
+		service.load("emf:instance");
+
+		verify(instanceDao, times(2)).loadInstance(null, "emf:instance", true);
+	}
+
+	@Test
+	public void load_shouldLoadAgain_WhenInstanceLoadedByOtherIdIsChanged() {
+		when(instanceDao.loadInstance("dbId", null, true)).then(a -> {
+			EmfInstance instance = new EmfInstance("emf:instance");
+			instance.add(TITLE, "title");
+			return instance;
+		});
+
+		service.loadByDbId("dbId");
+		changedInstancesBuffer.addAll(Collections.singleton("emf:instance"));
+		service.loadByDbId("dbId");
+
+		verify(instanceDao, times(2)).loadInstance("dbId", null, true);
+	}
+
+	@Test
+	public void load_shouldNotStoreInstances_WhenNotInTransaction() throws Exception {
+		when(transactionManager.getStatus()).thenReturn(Status.STATUS_NO_TRANSACTION);
+		when(instanceDao.loadInstance(null, "emf:instance", true)).then(a -> new EmfInstance("emf:instance"));
+
+		service.load("emf:instance");
+		service.load("emf:instance");
+
+		verify(instanceDao, times(2)).loadInstance(null, "emf:instance", true);
+		verify(changedInstancesBuffer, never()).getLoaded(any());
+		verify(changedInstancesBuffer, never()).addLoaded(any(), any());
+	}
+
+	@Test
+	public void load_shouldNotStoreDeletedInstances() {
+		EmfInstance deleted = new EmfInstance("emf:instance");
+		deleted.markAsDeleted();
+		when(instanceDao.loadInstance(null, "emf:instance", true)).thenReturn(deleted);
+
+		service.load("emf:instance");
+		service.load("emf:instance");
+
+		verify(instanceDao, times(2)).loadInstance(null, "emf:instance", true);
+	}
+
 	@Test(expected = NullPointerException.class)
 	public void clone_nullInstanceToClone_NPE() {
 		service.clone(null, new Operation());
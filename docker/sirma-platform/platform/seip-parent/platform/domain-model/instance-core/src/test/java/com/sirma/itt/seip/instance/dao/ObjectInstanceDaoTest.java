@@ -1,5 +1,6 @@
 package com.sirma.itt.seip.instance.dao;
 
+import static org.junit.Assert.assertNull;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
@@ -189,6 +190,19 @@ public class ObjectInstanceDaoTest {
 		return property;
 	}
 
+	@Test
+	public void delete_shouldInvalidateInstancesLoadedInTheTransaction() {
+		ObjectInstance instance = new ObjectInstance();
+		instance.setId("emf:instanceId");
+		changedInstancesBuffer.addLoaded("dbId", instance);
+
+		instanceDao.delete(instance);
+
+		verify(cache).deleteByKey("emf:instanceId");
+		assertNull(changedInstancesBuffer.getLoaded("emf:instanceId"));
+		assertNull(changedInstancesBuffer.getLoaded("dbId"));
+	}
+
 	@Test
 	public void testTouchInstance() throws Exception {
 		instanceDao.touchInstance(new Object());
@@ -0,0 +1,168 @@
+package com.sirma.itt.seip.instance.properties;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.anyMap;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.transaction.Status;
+import javax.transaction.SystemException;
+import javax.transaction.TransactionManager;
+
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.sirma.itt.seip.Executable;
+import com.sirma.itt.seip.cache.lookup.EntityLookupCache;
+import com.sirma.itt.seip.concurrent.TaskExecutor;
+import com.sirma.itt.seip.configuration.ConfigurationProperty;
+import com.sirma.itt.seip.domain.instance.EmfInstance;
+import com.sirma.itt.seip.domain.instance.PropertyModel;
+import com.sirma.itt.seip.instance.properties.entity.EntityId;
+import com.sirma.itt.seip.instance.properties.entity.NodePropertyHelper;
+import com.sirma.itt.seip.testutil.fakes.TaskExecutorFake;
+import com.sirma.itt.seip.testutil.mocks.ConfigurationPropertyMock;
+
+/**
+ * Tests for {@link PropertiesDaoImpl}.
+ *
+ * @author BBonev
+ */
+public class PropertiesDaoImplTest {
+
+	@InjectMocks
+	private PropertiesDaoImpl propertiesDao;
+
+	@Mock
+	private NodePropertyHelper nodePropertyHelper;
+	@Spy
+	private TaskExecutor taskExecutor = new TaskExecutorFake();
+	@Spy
+	private ConfigurationProperty<Integer> loadBatchSize = new ConfigurationPropertyMock<>(2);
+	@Spy
+	private ConfigurationPropertyMock<Integer> loadParallelism = new ConfigurationPropertyMock<>(4);
+	@Mock
+	private TransactionManager transactionManager;
+
+	@Mock
+	private PropertiesStorageAccess access;
+	@Mock
+	private EntityLookupCache<PropertyModelKey, Map<String, Serializable>, Serializable> cache;
+	@Mock
+	private PropertyModelCallback<PropertyModel> callback;
+
+	private AtomicReference<Map<PropertyModelKey, Map<String, Serializable>>> loaded = new AtomicReference<>();
+
+	@BeforeMethod
+	@SuppressWarnings("unchecked")
+	public void beforeMethod() throws SystemException {
+		MockitoAnnotations.initMocks(this);
+		when(transactionManager.getStatus()).thenReturn(Status.STATUS_NO_TRANSACTION);
+		when(access.getCache()).thenReturn(cache);
+		when(callback.getModel(any(PropertyModel.class))).then(a -> {
+			EmfInstance instance = a.getArgumentAt(0, EmfInstance.class);
+			return Collections.singletonMap(new EntityId(instance.getId().toString(), 1), instance);
+		});
+		when(access.batchLoadProperties(any(Integer.class), anyCollectionOf(String.class))).then(a -> {
+			List<PropertyModelEntity> result = new ArrayList<>();
+			for (String id : (Collection<String>) a.getArgumentAt(1, Collection.class)) {
+				result.add(createEntity(id, a.getArgumentAt(0, Integer.class)));
+			}
+			return result;
+		});
+		when(nodePropertyHelper.convertToPublicProperties(anyMap())).then(a -> {
+			Map<String, Serializable> properties = new HashMap<>();
+			properties.put("count", Integer.valueOf(a.getArgumentAt(0, Map.class).size()));
+			return properties;
+		});
+		doAnswer(a -> {
+			loaded.set(a.getArgumentAt(1, Map.class));
+			return null;
+		}).when(callback).updateModel(anyMap(), anyMap());
+	}
+
+	@Test
+	public void loadProperties_shouldLoadInBatches() {
+		propertiesDao.loadProperties(createInstances(5), callback, access);
+
+		verify(access, times(3)).batchLoadProperties(eq(Integer.valueOf(1)), anyCollectionOf(String.class));
+		assertEquals(loaded.get().size(), 5);
+		assertEquals(loaded.get().get(new EntityId("emf:4", 1)).get("count"), Integer.valueOf(1));
+		verify(cache, times(5)).setValue(any(PropertyModelKey.class), anyObject());
+	}
+
+	@Test
+	public void loadProperties_shouldLoadSequentially_WhenParallelismIsDisabled() {
+		loadParallelism.setValue(1);
+
+		propertiesDao.loadProperties(createInstances(5), callback, access);
+
+		verify(taskExecutor, never()).submit(any(Executable.class));
+		verify(access, times(3)).batchLoadProperties(eq(Integer.valueOf(1)), anyCollectionOf(String.class));
+		assertEquals(loaded.get().size(), 5);
+	}
+
+	@Test
+	public void loadProperties_shouldLoadSequentially_WhenInTransaction() throws SystemException {
+		when(transactionManager.getStatus()).thenReturn(Status.STATUS_ACTIVE);
+
+		propertiesDao.loadProperties(createInstances(5), callback, access);
+
+		verify(taskExecutor, never()).submit(any(Executable.class));
+		verify(access, times(3)).batchLoadProperties(eq(Integer.valueOf(1)), anyCollectionOf(String.class));
+		assertEquals(loaded.get().size(), 5);
+	}
+
+	@Test
+	public void loadProperties_shouldNotQueryCachedProperties() {
+		Map<String, Serializable> cached = new HashMap<>();
+		cached.put("cached", Boolean.TRUE);
+		when(cache.getValue(new EntityId("emf:0", 1))).thenReturn(cached);
+
+		propertiesDao.loadProperties(createInstances(2), callback, access);
+
+		verify(access).batchLoadProperties(Integer.valueOf(1), Collections.singletonList("emf:1"));
+		assertTrue(loaded.get().get(new EntityId("emf:0", 1)).containsKey("cached"));
+		assertEquals(loaded.get().size(), 2);
+	}
+
+	private static List<PropertyModel> createInstances(int count) {
+		List<PropertyModel> instances = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			EmfInstance instance = new EmfInstance();
+			instance.setId("emf:" + i);
+			instances.add(instance);
+		}
+		return instances;
+	}
+
+	private static PropertyModelEntity createEntity(String id, Integer type) {
+		PropertyModelEntity entity = mock(PropertyModelEntity.class);
+		when(entity.getEntityId()).thenReturn(new EntityId(id, type));
+		when(entity.getKey()).thenReturn(mock(PropertyEntryKey.class));
+		when(entity.getValue()).thenReturn(mock(PropertyModelValue.class));
+		return entity;
+	}
+}
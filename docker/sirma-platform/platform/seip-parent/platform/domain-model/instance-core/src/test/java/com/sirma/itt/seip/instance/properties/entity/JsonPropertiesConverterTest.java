@@ -2,10 +2,15 @@ package com.sirma.itt.seip.instance.properties.entity;
 
 import static com.sirma.itt.seip.collections.CollectionUtils.createHashMap;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.junit.Test;
@@ -48,4 +53,30 @@ public class JsonPropertiesConverterTest {
 		String dbData = buildDBData();
 		assertEquals(buildAttributes(), converter.convertToEntityAttribute(dbData));
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void convertToEntityAttribute_shouldReturnSerializableNestedValues() {
+		String dbData = "{\"list\":[1,\"value\",{\"key\":true}],\"map\":{\"nested\":[2.5]}}";
+		Map<String, Serializable> converted = converter.convertToEntityAttribute(dbData);
+
+		List<?> list = (List<?>) converted.get("list");
+		assertEquals(3, list.size());
+		list.forEach(value -> assertTrue(value instanceof Serializable));
+		assertTrue(converted.get("map") instanceof Serializable);
+		assertEquals(dbData, converter.convertToDatabaseColumn(converted));
+	}
+
+	@Test
+	public void convertToEntityAttribute_shouldDecodeInDeclaredPropertiesType() {
+		String dbData = "{\"title\":\"<b>Title</b>\",\"count\":3,\"big\":12345678901,\"flag\":false,\"empty\":null}";
+		Map<String, Serializable> converted = converter.convertToEntityAttribute(dbData);
+
+		assertTrue(converted instanceof LinkedHashMap);
+		assertEquals(Arrays.asList("title", "count", "big", "flag", "empty"), new ArrayList<>(converted.keySet()));
+		assertEquals("<b>Title</b>", converted.get("title"));
+		assertEquals(Integer.valueOf(3), converted.get("count"));
+		assertEquals(Long.valueOf(12345678901L), converted.get("big"));
+		assertEquals(Boolean.FALSE, converted.get("flag"));
+		assertNull(converted.get("empty"));
+	}
+}
@@ -5,6 +5,7 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollection;
 import static org.mockito.Matchers.argThat;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
@@ -15,17 +16,23 @@ import static org.mockito.Mockito.when;
 
 import java.io.InputStream;
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.Date;
 import java.util.List;
 
 import org.apache.commons.io.IOUtils;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 
+import com.sirma.itt.seip.Executable;
 import com.sirma.itt.seip.Pair;
+import com.sirma.itt.seip.concurrent.TaskExecutor;
 import com.sirma.itt.seip.domain.instance.EmfInstance;
 import com.sirma.itt.seip.domain.instance.Instance;
 import com.sirma.itt.seip.exception.EmfConfigurationException;
@@ -35,9 +42,11 @@ import com.sirma.itt.seip.tasks.SchedulerContext;
 import com.sirma.itt.seip.tasks.SchedulerService;
 import com.sirma.itt.seip.tasks.TransactionMode;
 import com.sirma.itt.seip.testutil.CustomMatcher;
+import com.sirma.itt.seip.testutil.fakes.TaskExecutorFake;
 import com.sirma.sep.content.Content;
 import com.sirma.sep.content.ContentInfo;
 import com.sirma.sep.content.InstanceContentService;
+import com.sirma.sep.content.descriptor.DocumentFileDescriptor;
 
 /**
  * Test for {@link ScheduleVersionContentCreate}.
@@ -58,6 +67,9 @@ public class ScheduleVersionContentCreateTest {
 	@Mock
 	private VersionDao versionDao;
 
+	@Spy
+	private TaskExecutor taskExecutor = new TaskExecutorFake();
+
 	@Before
 	public void setup() {
 		schedule = new ScheduleVersionContentCreate();
@@ -158,7 +170,11 @@ public class ScheduleVersionContentCreateTest {
 		schedule.execute(context);
 		verify(info).getInputStream();
 		verify(info, never()).asString();
-		verify(instanceContentService, times(1)).saveContent(any(Instance.class), any(Content.class));
+		ArgumentCaptor<Content> captor = ArgumentCaptor.forClass(Content.class);
+		verify(instanceContentService, times(1)).saveContent(any(Instance.class), captor.capture());
+		// the processed document is passed to the store without serializing it to string first
+		assertTrue(captor.getValue().getContent() instanceof DocumentFileDescriptor);
+		assertTrue(captor.getValue().getContent().asString().contains("<body"));
 	}
 
 	@Test
@@ -190,6 +206,35 @@ public class ScheduleVersionContentCreateTest {
 		schedule.execute(context);
 	}
 
+	@Test
+	public void execute_withWidgetProcessing_shouldSubmitSingleTaskPerDistinctSearchCriteria() throws Exception {
+		String content = "<div data-tabs-counter=\"1\"><section data-id=\"tab\" data-title=\"Tab\">"
+				+ buildWidget("widget-1", "automatically", "{\"condition\":\"AND\",\"rules\":[{\"id\":\"1\"}]}")
+				+ buildWidget("widget-2", "automatically", "{\"condition\":\"AND\",\"rules\":[{\"id\":\"1\"}]}")
+				+ buildWidget("widget-3", "automatically", "{\"condition\":\"OR\",\"rules\":[{\"id\":\"2\"}]}")
+				+ buildWidget("widget-4", "current", "{\"condition\":\"OR\",\"rules\":[{\"id\":\"3\"}]}")
+				+ buildWidget("widget-5", "automatically", null) + "</section></div>";
+		ContentInfo info = mock(ContentInfo.class);
+		when(info.exists()).thenReturn(true);
+		when(info.getInputStream()).thenReturn(IOUtils.toInputStream(content, StandardCharsets.UTF_8));
+		when(instanceContentService.getContent(any(Serializable.class), eq(Content.PRIMARY_VIEW))).thenReturn(info);
+		ContentInfo versionInfo = mock(ContentInfo.class);
+		when(versionInfo.exists()).thenReturn(true);
+		when(instanceContentService.saveContent(any(Serializable.class), any(Content.class))).thenReturn(versionInfo);
+
+		schedule.execute(buildTestContext(Boolean.TRUE));
+
+		verify(taskExecutor, times(2)).submit(any(Executable.class));
+		verify(taskExecutor).waitForAll(anyCollection());
+	}
+
+	private static String buildWidget(String id, String selectionMode, String criteria) {
+		String config = "{\"selectObjectMode\":\"" + selectionMode + "\""
+				+ (criteria == null ? "" : ",\"criteria\":" + criteria) + "}";
+		return "<div widget=\"datatable-widget\" class=\"widget\" id=\"" + id + "\" config=\""
+				+ Base64.getEncoder().encodeToString(config.getBytes(StandardCharsets.UTF_8)) + "\"></div>";
+	}
+
 	private static SchedulerContext buildTestContext(Boolean processWidgets) {
 		SchedulerContext context = new SchedulerContext(6);
 		context.put("contentId", "content-id");
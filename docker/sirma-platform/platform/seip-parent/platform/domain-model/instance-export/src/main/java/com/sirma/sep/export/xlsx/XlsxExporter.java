@@ -91,7 +91,10 @@ import com.sirma.sep.export.xlsx.components.SXSSExportExcelDocument;
  * minimal batch size is 256 and the maximal 1024. The exact batch size is configurable, but it is bound to that range,
  * otherwise we risk to request for loading to much data at once, which may slow the performance of our data bases.<br>
  * For additional performance the headers of the objects will be stored in local cache and reused, where they are
- * required, until the export process is done.
+ * required, until the export process is done.<br>
+ * When the streaming export is enabled the search is executed page by page with page size equal to the batch size.
+ * Each page is loaded and written to a streaming workbook and the cached headers are released before the next page
+ * so the memory used does not depend on the number of the exported rows.
  *
  * Annotation {@link RequestScoped} is needed to ensure that {@link XlsxExporter#objectHeadersInfoCache} will be
  * initialized every time when {@link XlsxExporter#export} method is called.
@@ -112,6 +115,11 @@ public class XlsxExporter implements FileExporter<XlsxExportRequest> {
 	@ConfigurationPropertyDefinition(name = "export.excel.batch.size", system = true, type = Integer.class, defaultValue = "500", label = "Export to excel processing batch size.")
 	private ConfigurationProperty<Integer> exportExcelBatchSize;
 
+	@Inject
+	@Configuration
+	@ConfigurationPropertyDefinition(name = "export.excel.streaming", system = true, type = Boolean.class, defaultValue = "false", label = "If enabled the automatically selected objects for export to excel will be written page by page using the processing batch size and always exported as xlsx. Rich text values are exported as plain text in this mode.")
+	private ConfigurationProperty<Boolean> streamingExport;
+
 	@Inject
 	private CodelistService codelistService;
 
@@ -189,9 +197,15 @@ public class XlsxExporter implements FileExporter<XlsxExportRequest> {
 		if (request.getTableConfiguration().showInstanceId()) {
 			headersInfo.put(PROPERTY_IDENTIFIER_SYSTEM_ID, labelProvider.getLabel(HEADER_KEY_SYSTEM_ID));
 		}
-		List<String> instanceIds = getDisplayedObjects(request);
-		ExportExcelDocument excelDocument = initDocumentExporter(instanceIds, headersInfo);
-		populateInstancePropertiesToExcelDocument(instanceIds, excelDocument, request);
+		ExportExcelDocument excelDocument;
+		if (isStreamingExport(request)) {
+			excelDocument = new SXSSExportExcelDocument(headersInfo, batchSize);
+			populateSearchResultsPageByPage(request, excelDocument);
+		} else {
+			List<String> instanceIds = getDisplayedObjects(request);
+			excelDocument = initDocumentExporter(instanceIds, headersInfo);
+			populateInstancePropertiesToExcelDocument(instanceIds, excelDocument, request);
+		}
 		File exportDir = tempFileProvider.createLongLifeTempDir(EXPORT);
 		String fileName = EqualsHelper.getOrDefault(request.getFileName(), UUID.randomUUID().toString());
 		File exportedFile = new File(exportDir, fileName + excelDocument.getFileExtension());
@@ -221,18 +235,53 @@ public class XlsxExporter implements FileExporter<XlsxExportRequest> {
 		return new HSSFExportExcelDocument(headersInfo);
 	}
 
+	private boolean isStreamingExport(XlsxExportRequest request) {
+		return Boolean.TRUE.equals(streamingExport.get()) && !request.getTableConfiguration().isManuallySelected();
+	}
+
+	/**
+	 * Searches for the automatically selected objects page by page and writes each found page before the next one is
+	 * searched. The number of the exported rows is limited by the search max size as in the non paged export.
+	 */
+	private void populateSearchResultsPageByPage(XlsxExportRequest request, ExportExcelDocument excelDocument) {
+		SearchArguments<Instance> searchArgs = createSearchArguments(request.getSearchData());
+		int maxSize = searchArgs.getMaxSize();
+		searchArgs.setPageSize(batchSize);
+		int exported = 0;
+		List<String> pageIds;
+		do {
+			// clear the old result and allow for gc
+			searchArgs.setResult(null);
+			searchArgs.setSkipCount(exported);
+			searchArgs.setPageNumber(exported / batchSize + 1);
+			pageIds = searchForIds(searchArgs);
+			if (exported + pageIds.size() > maxSize) {
+				pageIds = pageIds.subList(0, maxSize - exported);
+			}
+			// the headers are resolved per page so the cache does not grow with the exported rows
+			objectHeadersInfoCache.clear();
+			populatePage(pageIds, excelDocument, request);
+			exported += pageIds.size();
+		} while (pageIds.size() == batchSize && exported < maxSize);
+	}
+
 	/**
 	 * Execute search to fetch selected instance.
 	 *
 	 * @return list with ids of instances returned from the search
 	 */
 	private List<String> getAutomaticallySelected(SearchData searchData) {
+		SearchArguments<Instance> searchArgs = createSearchArguments(searchData);
+		searchArgs.setPageSize(searchArgs.getMaxSize());
+		searchArgs.setPageNumber(1);
+		return searchForIds(searchArgs);
+	}
+
+	private SearchArguments<Instance> createSearchArguments(SearchData searchData) {
 		Condition tree = jsonToConditionConverter.parseCondition(searchData.getSearchCriteria());
 		SearchRequest searchRequest = new SearchRequest(CollectionUtils.createHashMap(0));
 		searchRequest.setSearchTree(tree);
 		SearchArguments<Instance> searchArgs = searchService.parseRequest(searchRequest);
-		searchArgs.setPageSize(searchArgs.getMaxSize());
-		searchArgs.setPageNumber(1);
 		String orderBy = searchData.getOrderBy();
 		String orderDirection = searchData.getOrderDirection();
 		if (!orderBy.isEmpty() && !orderDirection.isEmpty()) {
@@ -240,7 +289,10 @@ public class XlsxExporter implements FileExporter<XlsxExportRequest> {
 			searchArgs.getSorters().clear();
 			searchArgs.addSorter(new Sorter(orderBy, orderDirection));
 		}
+		return searchArgs;
+	}
 
+	private List<String> searchForIds(SearchArguments<Instance> searchArgs) {
 		searchService.search(Instance.class, searchArgs);
 		return searchArgs
 				.getResult()
@@ -254,15 +306,25 @@ public class XlsxExporter implements FileExporter<XlsxExportRequest> {
 	 */
 	private void populateInstancePropertiesToExcelDocument(Collection<String> instances,
 			ExportExcelDocument excelDocument, XlsxExportRequest request) {
-		FragmentedWork.doWork(instances, batchSize, batchedInstances -> {
-			Collection<Instance> loadedInstance = resolveInstances(batchedInstances, true);
-			updateObjectHeadersCache(loadedInstance, request.getObjectsData().getInstanceHeaderType());
-			loadHeaderOfObjectProperties(loadedInstance, request);
-			loadedInstance
-					.stream()
-						.map(instance -> processInstance(instance, request))
-						.forEach(excelDocument::populateRow);
-		});
+		FragmentedWork.doWork(instances, batchSize,
+				batchedInstances -> populatePage(batchedInstances, excelDocument, request));
+	}
+
+	/**
+	 * Loads the given instances at once and populates their rows in <code>excelDocument</code>.
+	 */
+	private void populatePage(Collection<String> instanceIds, ExportExcelDocument excelDocument,
+			XlsxExportRequest request) {
+		if (instanceIds.isEmpty()) {
+			return;
+		}
+		Collection<Instance> loadedInstance = resolveInstances(instanceIds, true);
+		updateObjectHeadersCache(loadedInstance, request.getObjectsData().getInstanceHeaderType());
+		loadHeaderOfObjectProperties(loadedInstance, request);
+		loadedInstance
+				.stream()
+					.map(instance -> processInstance(instance, request))
+					.forEach(excelDocument::populateRow);
 	}
 
 	/**
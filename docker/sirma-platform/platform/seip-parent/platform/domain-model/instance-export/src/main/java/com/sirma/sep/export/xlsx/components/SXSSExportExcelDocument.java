@@ -1,13 +1,18 @@
 package com.sirma.sep.export.xlsx.components;
 
 import java.io.File;
+import java.io.Serializable;
 import java.util.Map;
 
+import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.xssf.streaming.SXSSFSheet;
 import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.jsoup.Jsoup;
 
 /**
- * Excel document. This class contains implementation for generation of excel document using SXSSFWorkbook
+ * Excel document. This class contains implementation for generation of excel document using SXSSFWorkbook. Only the
+ * last rows are kept in memory and the rest are flushed to compressed temporary files that are removed after the
+ * document is written. The rich text values are written as plain text.
  *
  * @author S.Djulgerova
  */
@@ -23,14 +28,35 @@ public class SXSSExportExcelDocument extends ExportExcelDocument {
 	 *            we add row 10 all rows will be flushed to hard disk and RAM will be released.
 	 */
 	public SXSSExportExcelDocument(Map<String, String> headersInfo, int rowsInMemory) {
-		super(new SXSSFWorkbook(rowsInMemory), headersInfo);
+		super(createWorkbook(rowsInMemory), headersInfo);
 		((SXSSFSheet) sheet).trackAllColumnsForAutoSizing();
+		addCellBuilder(ExportExcelCell.Type.RICHTEXT, createRichtextCellBuilder());
+	}
+
+	private static SXSSFWorkbook createWorkbook(int rowsInMemory) {
+		SXSSFWorkbook workbook = new SXSSFWorkbook(rowsInMemory);
+		workbook.setCompressTempFiles(true);
+		return workbook;
+	}
+
+	/**
+	 * Create richtext builder that writes the text content of the value without the html tags and styles.
+	 *
+	 * @return created richtext builder.
+	 */
+	private static CellBuilder<Cell, Serializable> createRichtextCellBuilder() {
+		return (cell, value) -> cell.setCellValue(value == null ? "" : Jsoup.parse(value.toString()).text());
 	}
 
 	@Override
 	public void writeToFile(File file) {
 		((SXSSFSheet) sheet).trackAllColumnsForAutoSizing();
-		super.writeToFile(file);
+		try {
+			super.writeToFile(file);
+		} finally {
+			// remove the temporary files that hold the flushed rows
+			((SXSSFWorkbook) workbook).dispose();
+		}
 	}
 
 	@Override
@@ -7,7 +7,10 @@ import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyList;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.File;
@@ -25,6 +28,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import javax.json.Json;
 import javax.json.JsonReader;
@@ -33,6 +37,7 @@ import org.apache.poi.ss.usermodel.Sheet;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
@@ -61,6 +66,7 @@ import com.sirma.itt.seip.instance.lock.LockInfo;
 import com.sirma.itt.seip.instance.lock.LockService;
 import com.sirma.itt.seip.instance.properties.RichtextPropertiesDao;
 import com.sirma.itt.seip.io.TempFileProvider;
+import com.sirma.itt.seip.search.NamedQueries;
 import com.sirma.itt.seip.search.SearchService;
 import com.sirma.itt.seip.search.converters.JsonToConditionConverter;
 import com.sirma.itt.seip.time.FormattedDate;
@@ -143,6 +149,9 @@ public class XlsxExporterTest {
 	@Mock
 	private ConfigurationProperty<Integer> exportExcelBatchSize;
 
+	@Mock
+	private ConfigurationProperty<Boolean> streamingExport;
+
 	@Mock
 	private SystemConfiguration systemConfiguration;
 
@@ -524,6 +533,56 @@ public class XlsxExporterTest {
 		}
 	}
 
+	@Test
+	@SuppressWarnings("unchecked")
+	public void should_ExportSearchResultsPageByPage_When_StreamingIsEnabled()
+			throws URISyntaxException, IOException, ContentExportException {
+		File testFile = null;
+		try {
+			setupPagedSearch(300, 1000);
+
+			testFile = xlsxExporter
+					.export(initExportXlsxBuilder(PATH_TO_TEST_RESOURCE + TEST_FILE_AUTOMATICALLY_WITH_ENTITY_COLUMN))
+						.get();
+
+			// the search is executed and the found objects are written in pages of 256
+			verify(searchService, times(2)).search(eq(Instance.class), any(SearchArguments.class));
+			ArgumentCaptor<List> params = ArgumentCaptor.forClass(List.class);
+			verify(dbDao, times(2)).fetchWithNamed(eq(NamedQueries.SELECT_BY_IDS), params.capture());
+			assertEquals(256, getUris(params.getAllValues().get(0)).size());
+			assertEquals(44, getUris(params.getAllValues().get(1)).size());
+			assertTrue(testFile.getName().endsWith(".xlsx"));
+			Sheet sheet = TestExportExcelUtil.getSheet(testFile, 0);
+			assertEquals(300, sheet.getLastRowNum());
+			TestExportExcelUtil.assertLinkValue(sheet, 1, 0, "Instance 0", UI_2_URL + "/emf:instance-0");
+			TestExportExcelUtil.assertStringValue(sheet, 300, 2, "Title 299");
+		} finally {
+			TestExportExcelUtil.deleteFile(testFile);
+		}
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void should_LimitTheStreamedRows_ToTheSearchMaxSize()
+			throws URISyntaxException, IOException, ContentExportException {
+		File testFile = null;
+		try {
+			setupPagedSearch(300, 280);
+
+			testFile = xlsxExporter
+					.export(initExportXlsxBuilder(PATH_TO_TEST_RESOURCE + TEST_FILE_AUTOMATICALLY_WITH_ENTITY_COLUMN))
+						.get();
+
+			ArgumentCaptor<List> params = ArgumentCaptor.forClass(List.class);
+			verify(dbDao, times(2)).fetchWithNamed(eq(NamedQueries.SELECT_BY_IDS), params.capture());
+			assertEquals(256, getUris(params.getAllValues().get(0)).size());
+			assertEquals(24, getUris(params.getAllValues().get(1)).size());
+			assertEquals(280, TestExportExcelUtil.getSheet(testFile, 0).getLastRowNum());
+		} finally {
+			TestExportExcelUtil.deleteFile(testFile);
+		}
+	}
+
 	@Test
 	public void should_GenerateExcelFile_When_ASelectedPropertyIsCodeListMultiValue()
 			throws URISyntaxException, IOException, ContentExportException {
@@ -915,6 +974,36 @@ public class XlsxExporterTest {
 		}
 	}
 
+	@SuppressWarnings("unchecked")
+	private void setupPagedSearch(int count, int maxSize) {
+		when(streamingExport.get()).thenReturn(Boolean.TRUE);
+		List<InstanceMockBuilder> builders = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			builders.add(new InstanceMockBuilder("emf:instance-" + i)
+					.setInstanceHeader(DefaultProperties.HEADER_COMPACT,
+							"<a href=\"/emf:instance-" + i + "\">Instance " + i + "</a>")
+						.setIdentifier("unknownIdentifier")
+						.setTextValue(PROPERTY_TITLE_NAME, "Title " + i)
+						.setTypeId("http://ittruse.ittbg.com/ontology/enterpriseManagementFramework#Document")
+						.setOptionalEmptyProperty("emf:version"));
+		}
+		setupDbDao(builders);
+		SearchArguments<Instance> searchArgs = setupSearchService();
+		searchArgs.setMaxSize(maxSize);
+		List<Instance> found = builders.stream().map(InstanceMockBuilder::getInstance).collect(Collectors.toList());
+		doAnswer(invocation -> {
+			SearchArguments<Instance> arguments = invocation.getArgumentAt(1, SearchArguments.class);
+			int from = (arguments.getPageNumber() - 1) * arguments.getPageSize();
+			arguments.setResult(found.subList(from, Math.min(found.size(), from + arguments.getPageSize())));
+			return null;
+		}).when(searchService).search(eq(Instance.class), any(SearchArguments.class));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Collection<String> getUris(List<?> params) {
+		return (Collection<String>) ((Pair<String, Object>) params.get(0)).getSecond();
+	}
+
 	private SearchArguments<Instance> setupSearchService() {
 		SearchArguments<Instance> searchArgs = new SearchArguments<>();
 		searchArgs.setResult(Collections.emptyList());
@@ -0,0 +1,75 @@
+package com.sirma.itt.seip.permissions.role;
+
+import java.io.Serializable;
+
+import com.sirma.itt.seip.permissions.PermissionModelType;
+
+/**
+ * Serializable snapshot of a resolved {@link ResourceRole} for a single authority. Used for caching the effective
+ * permission assignments of an instance. The {@link ResourceRole} and the {@link RoleAssignments} are mutable so new
+ * instances are build from the snapshot on each cache read.
+ *
+ * @author BBonev
+ */
+class EffectiveRoleAssignment implements Serializable {
+
+	private static final long serialVersionUID = -3315546862925768377L;
+
+	private final String authority;
+	private final String special;
+	private final String inherited;
+	private final String library;
+	private final String inheritedFrom;
+
+	private EffectiveRoleAssignment(String authority, String special, String inherited, String library,
+			String inheritedFrom) {
+		this.authority = authority;
+		this.special = special;
+		this.inherited = inherited;
+		this.library = library;
+		this.inheritedFrom = inheritedFrom;
+	}
+
+	/**
+	 * Creates a snapshot of the given resolved role.
+	 *
+	 * @param resourceRole
+	 *            the role to copy
+	 * @return the snapshot
+	 */
+	static EffectiveRoleAssignment from(ResourceRole resourceRole) {
+		RoleAssignments assignments = resourceRole.getRoleAssignments();
+		return new EffectiveRoleAssignment(resourceRole.getAuthorityId(), assignments.getSpecial(),
+				assignments.getInherited(), assignments.getLibrary(), resourceRole.getInheritedFromReference());
+	}
+
+	/**
+	 * Builds new {@link ResourceRole} from the snapshot. The active role identifier is not set.
+	 *
+	 * @param managerRole
+	 *            the identifier of the manager role
+	 * @return the new resource role
+	 */
+	ResourceRole toResourceRole(String managerRole) {
+		RoleAssignments assignments = new RoleAssignments(managerRole);
+		addAssignment(assignments, library, PermissionModelType.LIBRARY);
+		addAssignment(assignments, inherited, PermissionModelType.INHERITED);
+		addAssignment(assignments, special, PermissionModelType.SPECIAL);
+
+		ResourceRole resourceRole = new ResourceRole();
+		resourceRole.setAuthorityId(authority);
+		resourceRole.setInheritedFromReference(inheritedFrom);
+		resourceRole.setRoleAssignments(assignments);
+		return resourceRole;
+	}
+
+	private static void addAssignment(RoleAssignments assignments, String role, PermissionModelType type) {
+		if (role != null) {
+			assignments.addAssignment(role, type);
+		}
+	}
+
+	String getAuthority() {
+		return authority;
+	}
+}
@@ -9,6 +9,7 @@ import static com.sirma.itt.seip.util.EqualsHelper.nullSafeEquals;
 
 import java.io.Serializable;
 import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -24,12 +25,23 @@ import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import javax.annotation.PostConstruct;
 import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
 import javax.inject.Inject;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.sirma.itt.seip.Executable;
+import com.sirma.itt.seip.Pair;
+import com.sirma.itt.seip.annotation.Documentation;
+import com.sirma.itt.seip.cache.CacheConfiguration;
+import com.sirma.itt.seip.cache.Eviction;
+import com.sirma.itt.seip.cache.Expiration;
+import com.sirma.itt.seip.cache.lookup.EntityLookupCache;
+import com.sirma.itt.seip.cache.lookup.EntityLookupCacheContext;
+import com.sirma.itt.seip.cache.lookup.ReadOnlyEntityLookupCallbackDAOAdaptor;
 import com.sirma.itt.seip.domain.ObjectTypes;
 import com.sirma.itt.seip.domain.instance.InstanceReference;
 import com.sirma.itt.seip.domain.instance.InstanceType;
@@ -53,6 +65,7 @@ import com.sirma.itt.seip.permissions.role.PermissionsChange.ParentChange;
 import com.sirma.itt.seip.permissions.role.PermissionsChange.RemoveRoleAssignmentChange;
 import com.sirma.itt.seip.permissions.role.PermissionsChange.SetLibraryIndicatorChange;
 import com.sirma.itt.seip.resources.ResourceService;
+import com.sirma.itt.seip.tx.TransactionSupport;
 
 /**
  * The PermissionServiceImpl is implementation of {@link PermissionService} including caching.
@@ -65,6 +78,17 @@ public class RolePermissionServiceImpl implements PermissionService {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
+	@CacheConfiguration(eviction = @Eviction(maxEntries = 20000), expiration = @Expiration(maxIdle = 1800000, interval = 60000), doc = @Documentation(""
+			+ "Cache used to store the resolved effective permission assignments (including the inherited parent and library assignments) per instance id. "
+			+ "The entries for an instance and all of its descendants are removed when the instance permissions change. "
+			+ "<br>Minimal value expression: the count of instances that are actively accessed by the users"))
+	static final String EFFECTIVE_PERMISSIONS_CACHE = "EFFECTIVE_PERMISSIONS_CACHE";
+	/**
+	 * The maximum number of instances which effective permissions are removed one by one on permissions change. If the
+	 * changed hierarchy is bigger the whole cache is cleared as this is cheaper than removing the entries one by one.
+	 */
+	static final int MAX_EVICTED_INSTANCES = 1000;
+
 	@Inject
 	private RoleService roleService;
 
@@ -83,6 +107,20 @@ public class RolePermissionServiceImpl implements PermissionService {
 	@Inject
 	private InstanceTypeResolver instanceTypeResolver;
 
+	@Inject
+	private EntityLookupCacheContext cacheContext;
+
+	@Inject
+	private TransactionSupport transactionSupport;
+
+	/**
+	 * Initialize the effective permissions cache
+	 */
+	@PostConstruct
+	void initialize() {
+		cacheContext.createCacheIfAbsent(EFFECTIVE_PERMISSIONS_CACHE, true, new EffectivePermissionsLookup());
+	}
+
 	@Override
 	public Map<String, ResourceRole> getPermissionAssignments(Serializable id, Boolean includeParentPermissions,
 			Boolean includeLibraryPermissions) {
@@ -90,6 +128,10 @@ public class RolePermissionServiceImpl implements PermissionService {
 			return emptyMap();
 		}
 
+		if (includeParentPermissions == null && includeLibraryPermissions == null) {
+			return getEffectiveAssignments(Collections.singleton(id)).getOrDefault(id, emptyMap());
+		}
+
 		EntityPermission entityPermission = loadEntitiesPermissions(Collections.singleton(id)).get(id);
 		return retrieveAssigments(entityPermission, includeParentPermissions, includeLibraryPermissions);
 	}
@@ -100,7 +142,10 @@ public class RolePermissionServiceImpl implements PermissionService {
 		if (isNotEmpty(permissionEntities)) {
 			return permissionEntities;
 		}
+		return loadLibraryPermissions(ids);
+	}
 
+	private Map<String, EntityPermission> loadLibraryPermissions(Collection<Serializable> ids) {
 		// WORKAROUND:
 		// this is done to provide permissions for imported instances
 		// when migrating to microservices the approach should be changed
@@ -255,7 +300,15 @@ public class RolePermissionServiceImpl implements PermissionService {
 			return emptyMap();
 		}
 
-		Map<String, EntityPermission> entitiesPermissions = loadEntitiesPermissions(ids);
+		if (includeParent == null && includeLibrary == null) {
+			return getEffectiveAssignments(ids);
+		}
+
+		return retrieveAssigments(ids, loadEntitiesPermissions(ids), includeParent, includeLibrary);
+	}
+
+	private Map<Serializable, Map<String, ResourceRole>> retrieveAssigments(Collection<Serializable> ids,
+			Map<String, EntityPermission> entitiesPermissions, Boolean includeParent, Boolean includeLibrary) {
 		Map<Serializable, Map<String, ResourceRole>> results = new HashMap<>(entitiesPermissions.size());
 		for (Serializable id : ids) {
 			EntityPermission entityPermission = entitiesPermissions.get(id);
@@ -266,6 +319,88 @@ public class RolePermissionServiceImpl implements PermissionService {
 		return results;
 	}
 
+	/**
+	 * Resolves the effective permission assignments for the given instances using the
+	 * {@link #EFFECTIVE_PERMISSIONS_CACHE}. Only the permission hierarchies of the instances that are not in the cache
+	 * are fetched from the database.
+	 */
+	private Map<Serializable, Map<String, ResourceRole>> getEffectiveAssignments(Collection<Serializable> ids) {
+		Map<Serializable, Pair<Serializable, ArrayList<EffectiveRoleAssignment>>> cached = getEffectivePermissionsCache()
+				.getByKeys(ids);
+		if (cached.isEmpty()) {
+			// the library permissions are built only for instances without permission entries (imported instances)
+			// so they are not cached
+			return retrieveAssigments(ids, loadLibraryPermissions(ids), null, null);
+		}
+
+		String managerRole = roleService.getManagerRole().getIdentifier();
+		Map<Serializable, Map<String, ResourceRole>> results = new HashMap<>(cached.size());
+		for (Serializable id : ids) {
+			Pair<Serializable, ArrayList<EffectiveRoleAssignment>> entry = cached.get(id);
+			if (entry == null) {
+				results.put(id, emptyMap());
+			} else {
+				results.put(id, toResourceRoles(entry.getSecond(), managerRole));
+			}
+		}
+
+		return results;
+	}
+
+	private Map<String, ResourceRole> toResourceRoles(Collection<EffectiveRoleAssignment> effectiveAssignments,
+			String managerRole) {
+		Map<String, ResourceRole> assignments = new HashMap<>();
+		for (EffectiveRoleAssignment effectiveAssignment : effectiveAssignments) {
+			ResourceRole resourceRole = effectiveAssignment.toResourceRole(managerRole);
+			resourceRole.setRole(roleService.getRoleIdentifier(resourceRole.getRoleAssignments().getActive()));
+			assignments.put(effectiveAssignment.getAuthority(), resourceRole);
+		}
+		return assignments;
+	}
+
+	private EntityLookupCache<Serializable, ArrayList<EffectiveRoleAssignment>, Serializable> getEffectivePermissionsCache() {
+		return cacheContext.getCache(EFFECTIVE_PERMISSIONS_CACHE);
+	}
+
+	/**
+	 * Removes the cached effective permissions of the changed instance and all of its descendants as they inherit the
+	 * changed assignments. If the changed instance is a library the whole cache is cleared as the library assignments
+	 * are inherited by all instances of that library. The whole cache is also cleared if the changed hierarchy has more
+	 * than {@link #MAX_EVICTED_INSTANCES} instances. The same entries are removed again after the transaction
+	 * completion as they could be loaded with the uncommitted or the old data in the meantime.
+	 *
+	 * @param event
+	 *            the permissions change event
+	 */
+	void onPermissionModelChanged(@Observes PermissionModelChangedEvent event) {
+		InstanceReference reference = event.getInstance();
+		if (reference == null || reference.getId() == null) {
+			return;
+		}
+
+		String id = reference.getId();
+		Executable invalidation;
+		if (entityPermissionDao.load(id).map(EntityPermission::isLibrary).orElse(Boolean.FALSE).booleanValue()) {
+			LOGGER.debug("Library permissions for {} changed. Clearing all effective permissions", id);
+			invalidation = () -> getEffectivePermissionsCache().clear();
+		} else {
+			Set<Serializable> affected = new HashSet<>(entityPermissionDao.getDescendants(id));
+			affected.add(id);
+			if (affected.size() > MAX_EVICTED_INSTANCES) {
+				LOGGER.debug("Permissions for {} changed for {} instances. Clearing all effective permissions", id,
+						affected.size());
+				invalidation = () -> getEffectivePermissionsCache().clear();
+			} else {
+				LOGGER.trace("Permissions for {} changed. Removing effective permissions for {} instances", id,
+						affected.size());
+				invalidation = () -> affected.forEach(getEffectivePermissionsCache()::removeByKey);
+			}
+		}
+
+		invalidation.execute();
+		transactionSupport.invokeAfterTransactionCompletion(invalidation);
+	}
+
 	@Override
 	public ResourceRole getPermissionAssignment(Serializable id, Serializable authorityId) {
 		String authority = Objects.toString(authorityId, "");
@@ -717,4 +852,44 @@ public class RolePermissionServiceImpl implements PermissionService {
 
 		return hierarchyResolver.isInstanceRoot(instanceId);
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Cache lookup that resolves the effective permission assignments for instances by fetching their permission
+	 * hierarchies.
+	 *
+	 * @author BBonev
+	 */
+	private class EffectivePermissionsLookup
+			extends ReadOnlyEntityLookupCallbackDAOAdaptor<Serializable, ArrayList<EffectiveRoleAssignment>> {
+
+		@Override
+		public Pair<Serializable, ArrayList<EffectiveRoleAssignment>> findByKey(Serializable key) {
+			return findByKeys(Collections.singleton(key)).get(key);
+		}
+
+		@Override
+		public Map<Serializable, Pair<Serializable, ArrayList<EffectiveRoleAssignment>>> findByKeys(
+				Collection<Serializable> keys) {
+			Map<String, EntityPermission> permissionEntities = entityPermissionDao
+					.fetchHierarchyWithAssignmentsForInstances(keys);
+			if (isEmpty(permissionEntities)) {
+				return emptyMap();
+			}
+			Map<Serializable, Pair<Serializable, ArrayList<EffectiveRoleAssignment>>> result = new HashMap<>(
+					permissionEntities.size());
+			for (Serializable key : keys) {
+				EntityPermission entityPermission = permissionEntities.get(key);
+				if (entityPermission != null) {
+					ArrayList<EffectiveRoleAssignment> assignments = getAssignmentsForInstance(new HashMap<>(),
+							entityPermission, null, null)
+									.values()
+										.stream()
+										.map(EffectiveRoleAssignment::from)
+										.collect(Collectors.toCollection(ArrayList::new));
+					result.put(key, new Pair<>(key, assignments));
+				}
+			}
+			return result;
+		}
+	}
+}
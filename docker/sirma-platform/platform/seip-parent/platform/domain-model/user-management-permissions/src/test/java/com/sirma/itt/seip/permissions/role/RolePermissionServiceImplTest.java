@@ -41,7 +41,9 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 
+import com.sirma.itt.seip.cache.lookup.EntityLookupCacheContext;
 import com.sirma.itt.seip.domain.ObjectTypes;
 import com.sirma.itt.seip.domain.instance.ClassInstance;
 import com.sirma.itt.seip.domain.instance.DefaultProperties;
@@ -66,8 +68,11 @@ import com.sirma.itt.seip.resources.EmfGroup;
 import com.sirma.itt.seip.resources.EmfResource;
 import com.sirma.itt.seip.resources.EmfUser;
 import com.sirma.itt.seip.resources.ResourceService;
+import com.sirma.itt.seip.testutil.fakes.EntityLookupCacheContextFake;
+import com.sirma.itt.seip.testutil.fakes.TransactionSupportFake;
 import com.sirma.itt.seip.testutil.mocks.DataTypeDefinitionMock;
 import com.sirma.itt.seip.testutil.mocks.InstanceReferenceMock;
+import com.sirma.itt.seip.tx.TransactionSupport;
 
 /**
  * Test for {@link RolePermissionServiceImpl}.
@@ -96,6 +101,12 @@ public class RolePermissionServiceImplTest {
 	@Mock
 	private InstanceTypeResolver instanceTypeResolver;
 
+	@Spy
+	private EntityLookupCacheContext cacheContext = EntityLookupCacheContextFake.createInMemory();
+
+	@Spy
+	private TransactionSupport transactionSupport = new TransactionSupportFake();
+
 	@Captor
 	private ArgumentCaptor<PermissionModelChangedEvent> eventCaptor;
 
@@ -115,6 +126,7 @@ public class RolePermissionServiceImplTest {
 		cachedEntityPermissions = new HashMap<>();
 
 		MockitoAnnotations.initMocks(this);
+		permissionService.initialize();
 
 		when(resourceService.loadByDbId(anyString())).then(invocation -> {
 			EmfResource resource = new EmfResource();
@@ -567,6 +579,102 @@ public class RolePermissionServiceImplTest {
 		return assignment;
 	}
 
+	@Test
+	public void getPermissionAssignmentsShouldReuseResolvedEffectivePermissions() {
+		InstanceReference instance = InstanceReferenceMock.createGeneric("o1");
+		withInstance(instance).havingSpecialPermissions(new String[][] { { "Admin", MANAGER } }).build();
+
+		Map<String, ResourceRole> assignments = permissionService.getPermissionAssignments(instance);
+		verifyAssignments(assignments, new Object[][] { { "Admin", MANAGER } });
+		// modifications of the returned assignments should not affect the cached data
+		assignments.get("Admin").setRole(SecurityModel.BaseRoles.CONSUMER);
+		assignments.put("user", new ResourceRole());
+
+		Map<Serializable, Map<String, ResourceRole>> bulkAssignments = permissionService
+				.getPermissionAssignments(Collections.singleton("o1"), null, null);
+		verifyAssignments(bulkAssignments.get("o1"), new Object[][] { { "Admin", MANAGER } });
+
+		verify(entityPermissionDao).fetchHierarchyWithAssignmentsForInstances(anyCollectionOf(Serializable.class));
+	}
+
+	@Test
+	public void getPermissionAssignmentsShouldNotUseCachedPermissionsWhenInheritanceIsForced() {
+		InstanceReference instance = InstanceReferenceMock.createGeneric("o1");
+		withInstance(instance).havingSpecialPermissions(new String[][] { { "Admin", MANAGER } }).build();
+
+		permissionService.getPermissionAssignments(instance);
+		permissionService.getPermissionAssignments(instance, Boolean.TRUE, Boolean.TRUE);
+
+		verify(entityPermissionDao, times(2))
+				.fetchHierarchyWithAssignmentsForInstances(anyCollectionOf(Serializable.class));
+	}
+
+	@Test
+	public void onPermissionModelChangedShouldRemoveEffectivePermissionsForTheInstanceHierarchy() {
+		InstanceReference parent = InstanceReferenceMock.createGeneric("parent");
+		withInstance(parent).havingSpecialPermissions(new String[][] { { "Admin", MANAGER } }).build();
+		permissionService.getPermissionAssignments(parent);
+
+		InstanceReference child = InstanceReferenceMock.createGeneric("child");
+		withInstance(child).inheritingFromParent().havingParent(parent).build();
+		permissionService.getPermissionAssignments(child);
+
+		InstanceReference other = InstanceReferenceMock.createGeneric("other");
+		withInstance(other).havingSpecialPermissions(new String[][] { { "Admin", MANAGER } }).build();
+		permissionService.getPermissionAssignments(other);
+
+		when(entityPermissionDao.getDescendants("parent")).thenReturn(new ArrayList<>(asList("parent", "child")));
+		permissionService.onPermissionModelChanged(new PermissionModelChangedEvent(parent, emptyList()));
+
+		// updated parent permissions should be visible in the child
+		withInstance(parent).havingSpecialPermissions(new String[][] { { "Admin", CONSUMER } }).build();
+		withInstance(child).inheritingFromParent().havingParent(parent).build();
+		verifyAssignments(permissionService.getPermissionAssignments(child), new Object[][] { { "Admin", CONSUMER } });
+		permissionService.getPermissionAssignments(other);
+
+		verify(entityPermissionDao, times(4))
+				.fetchHierarchyWithAssignmentsForInstances(anyCollectionOf(Serializable.class));
+	}
+
+	@Test
+	public void onPermissionModelChangedShouldRemoveAllEffectivePermissionsOnLibraryChange() {
+		InstanceReference library = InstanceReferenceMock.createGeneric("library");
+		withInstance(library).havingSpecialPermissions(new String[][] { { "Admin", MANAGER } }).build();
+		cachedEntityPermissions.get("library").setIsLibrary(true);
+
+		InstanceReference instance = InstanceReferenceMock.createGeneric("o1");
+		withInstance(instance).inheritingFromLibrary().havingLibrary(library).build();
+		permissionService.getPermissionAssignments(instance);
+
+		permissionService.onPermissionModelChanged(new PermissionModelChangedEvent(library, emptyList()));
+		permissionService.getPermissionAssignments(instance);
+
+		verify(entityPermissionDao, never()).getDescendants(anyString());
+		verify(entityPermissionDao, times(2))
+				.fetchHierarchyWithAssignmentsForInstances(anyCollectionOf(Serializable.class));
+	}
+
+	@Test
+	public void onPermissionModelChangedShouldRemoveAllEffectivePermissionsOnBigHierarchyChange() {
+		InstanceReference parent = InstanceReferenceMock.createGeneric("parent");
+		withInstance(parent).havingSpecialPermissions(new String[][] { { "Admin", MANAGER } }).build();
+
+		InstanceReference other = InstanceReferenceMock.createGeneric("other");
+		withInstance(other).havingSpecialPermissions(new String[][] { { "Admin", MANAGER } }).build();
+		permissionService.getPermissionAssignments(other);
+
+		List<String> descendants = new ArrayList<>();
+		for (int i = 0; i < RolePermissionServiceImpl.MAX_EVICTED_INSTANCES; i++) {
+			descendants.add("child" + i);
+		}
+		when(entityPermissionDao.getDescendants("parent")).thenReturn(descendants);
+		permissionService.onPermissionModelChanged(new PermissionModelChangedEvent(parent, emptyList()));
+		permissionService.getPermissionAssignments(other);
+
+		verify(entityPermissionDao, times(2))
+				.fetchHierarchyWithAssignmentsForInstances(anyCollectionOf(Serializable.class));
+	}
+
 	private InstanceWithPermissionsBuilder withInstance(InstanceReference reference) {
 		return new InstanceWithPermissionsBuilder(reference);
 	}
@@ -33,6 +33,11 @@ public class SemanticSearchConfigurations {
 	@ConfigurationPropertyDefinition(name = "search.parallel.process.of.results", defaultValue = "false", type = Boolean.class, label = "Boolean flag that allows the processing of the query results to be executed in parallel")
 	private ConfigurationProperty<Boolean> processResultsInParallel;
 
+	@Inject
+	@Configuration
+	@ConfigurationPropertyDefinition(name = "search.paged.results.in.gdb", defaultValue = "false", type = Boolean.class, label = "Boolean flag that enables fetching only the requested result page from the semantic database. The total count is resolved with a separate count query. If the results are not sorted by the database only the best items for the requested page are kept in memory while iterating the results.")
+	private ConfigurationProperty<Boolean> pageResultsInGdb;
+
 	@Inject
 	@Configuration
 	@ConfigurationPropertyDefinition(name = "semantic.search.ignore.instance.types", defaultValue = "sectioninstance, classinstance, commoninstance, topicinstance, commentinstance, annotation", label = "Comma separated list of instance types that to be ignored when executing search in the semantic repository")
@@ -69,6 +74,13 @@ public class SemanticSearchConfigurations {
 		return processResultsInParallel;
 	}
 
+	/**
+	 * @return the pageResultsInGdb
+	 */
+	public ConfigurationProperty<Boolean> getPageResultsInGdb() {
+		return pageResultsInGdb;
+	}
+
 	/**
 	 * @return the ignoreInstanceTypes
 	 */
@@ -2,18 +2,21 @@ package com.sirma.itt.emf.semantic.persistence;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
-import java.util.LinkedList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
+import java.util.Map.Entry;
 import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.function.BiConsumer;
 
 import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.ContextNotActiveException;
 import javax.inject.Inject;
 
 import org.apache.commons.lang3.StringUtils;
@@ -61,6 +64,7 @@ import com.sirma.itt.seip.monitor.annotations.MetricDefinition.Type;
 import com.sirma.itt.seip.monitor.Statistics;
 import com.sirma.itt.seip.search.NamedQueries;
 import com.sirma.itt.seip.security.context.SecurityContext;
+import com.sirma.itt.seip.tx.TransactionSupport;
 import com.sirma.itt.seip.util.EqualsHelper;
 import com.sirma.itt.seip.util.ReflectionUtils;
 import com.sirma.itt.semantic.NamespaceRegistryService;
@@ -86,6 +90,25 @@ public class SemanticDbDaoImpl extends AbstractDbDao {
 			.timer("semantic_delete_duration_seconds", "Instance delete in semantic duration in seconds.")
 			.build();
 
+	private static final Metric SEMANTIC_BATCH_WRITE_DURATION_SEC = Builder
+			.timer("semantic_batch_write_duration_seconds", "Buffered semantic changes write duration in seconds.")
+			.build();
+
+	private static final Metric SEMANTIC_BATCH_WRITE_STATEMENTS = Builder
+			.histogram("semantic_batch_write_statements", "Number of statements written with a single batch write.")
+			.build();
+
+	private static final Metric SEMANTIC_BATCH_WRITE_INSTANCES = Builder
+			.histogram("semantic_batch_write_instances", "Number of instances written with a single batch write.")
+			.build();
+
+	/**
+	 * The named queries that return results ordered by instance IRI. Their results are converted while reading them
+	 * without grouping all of them first.
+	 */
+	private static final Set<String> QUERIES_ORDERED_BY_INSTANCE = Collections.unmodifiableSet(
+			new HashSet<>(Arrays.asList(NamedQueries.SELECT_BY_IDS, NamedQueries.SELECT_DATA_PROPERTIES_BY_IDS)));
+
 	@Inject
 	private DefinitionService definitionService;
 
@@ -119,6 +142,12 @@ public class SemanticDbDaoImpl extends AbstractDbDao {
 	@Inject
 	private Statistics statistics;
 
+	@Inject
+	private SemanticWriteBuffer writeBuffer;
+
+	@Inject
+	private TransactionSupport transactionSupport;
+
 	@Override
 	@SuppressWarnings("unchecked")
 	public <E extends Entity<? extends Serializable>> E saveOrUpdate(E entity) {
@@ -168,6 +197,11 @@ public class SemanticDbDaoImpl extends AbstractDbDao {
 
 		IRI dataGraph = namespaceRegistryService.getDataGraph();
 
+		if (Options.BATCH_SEMANTIC_WRITES.isEnabled() && bufferChanges(entity, oldEntity, subject, addModel, removeModel)) {
+			idManager.persisted(entity);
+			return entity;
+		}
+
 		try {
 			statistics.track(SEMANTIC_SAVE_DURATION_SEC);
 			// if there is no old entity we should not remove anything
@@ -203,6 +237,83 @@ public class SemanticDbDaoImpl extends AbstractDbDao {
 		}
 	}
 
+	/**
+	 * Adds the instance changes to the transaction write buffer. The buffer is written to the repository before the
+	 * transaction completion.
+	 *
+	 * @return true, if the changes were buffered and false if the transaction context is not active and the changes
+	 *         should be written immediately
+	 */
+	private boolean bufferChanges(Instance entity, Instance oldEntity, Resource subject, Model addModel,
+			Model removeModel) {
+		if (oldEntity == null) {
+			// ensure the is deleted is set to false
+			addModel.add(subject, EMF.IS_DELETED, valueFactory.createLiteral(false),
+					namespaceRegistryService.getDataGraph());
+		}
+		try {
+			if (writeBuffer.addChanges(entity.getId(), addModel, removeModel)) {
+				transactionSupport.invokeBeforeTransactionCompletion(this::flushWriteBuffer);
+			}
+			LOGGER.trace("Buffered semantic changes for instance {}", entity.getId());
+			return true;
+		} catch (ContextNotActiveException e) {
+			LOGGER.debug("Transaction context not active. Writing the changes for instance {} directly",
+					entity.getId());
+			LOGGER.trace("Transaction context not active", e);
+			return false;
+		}
+	}
+
+	/**
+	 * Writes all changes collected in the transaction write buffer to the repository and resets the buffer.
+	 *
+	 * @throws SemanticPersistenceException
+	 *             if the transaction context is no longer active and the buffered changes could not be written
+	 */
+	private void flushWriteBuffer() {
+		try {
+			if (writeBuffer.isEmpty()) {
+				writeBuffer.reset();
+				return;
+			}
+			statistics.track(SEMANTIC_BATCH_WRITE_DURATION_SEC);
+			try {
+				Model removeModel = writeBuffer.getRemoveModel();
+				Model addModel = writeBuffer.getAddModel();
+				int instances = writeBuffer.getInstanceCount();
+				writeBuffer.reset();
+
+				// the removed statements should be processed first as the pending additions already override them
+				SemanticPersistenceHelper.removeModel(repositoryConnection, removeModel);
+				SemanticPersistenceHelper.saveModel(repositoryConnection, addModel,
+						namespaceRegistryService.getDataGraph());
+
+				statistics.value(SEMANTIC_BATCH_WRITE_STATEMENTS.name(), addModel.size() + removeModel.size());
+				statistics.end(SEMANTIC_BATCH_WRITE_STATEMENTS);
+				statistics.value(SEMANTIC_BATCH_WRITE_INSTANCES.name(), instances);
+				statistics.end(SEMANTIC_BATCH_WRITE_INSTANCES);
+				LOGGER.debug("Written {} added and {} removed statements for {} instances", addModel.size(),
+						removeModel.size(), instances);
+			} finally {
+				statistics.end(SEMANTIC_BATCH_WRITE_DURATION_SEC);
+			}
+		} catch (ContextNotActiveException e) {
+			// the changes are already reported as saved so they should not be lost silently
+			throw new SemanticPersistenceException("Could not write the buffered semantic changes", e);
+		}
+	}
+
+	private void flushPendingChanges() {
+		try {
+			if (!writeBuffer.isEmpty()) {
+				flushWriteBuffer();
+			}
+		} catch (ContextNotActiveException e) {
+			LOGGER.trace("No transaction context. Nothing to flush", e);
+		}
+	}
+
 	/**
 	 * Builds IRI object from the given short IRI in string representation.
 	 *
@@ -257,7 +368,7 @@ public class SemanticDbDaoImpl extends AbstractDbDao {
 			TupleQuery tupleQuery = SPARQLQueryHelper.prepareTupleQuery(repositoryConnection, query, Collections.emptyMap(),
 					false);
 			try (TupleQueryResultIterator queryResult = new TupleQueryResultIterator(tupleQuery.evaluate())) {
-				return (List<R>) convertQueryResults(queryResult);
+				return (List<R>) convertQueryResults(queryResult, QUERIES_ORDERED_BY_INSTANCE.contains(namedQuery));
 			}
 
 		} catch (QueryEvaluationException | RepositoryException e) {
@@ -265,25 +376,44 @@ public class SemanticDbDaoImpl extends AbstractDbDao {
 		}
 	}
 
-	private List<Instance> convertQueryResults(TupleQueryResult queryResult) {
+	private List<Instance> convertQueryResults(TupleQueryResult queryResult, boolean orderedByInstance) {
 		if (!queryResult.hasNext()) {
 			LOGGER.debug("No instances found");
 			return Collections.emptyList();
 		}
 
-		return readConverter
-				.buildQueryResultModel(queryResult)
-					.entrySet()
-					.stream()
-					.map(entry -> convertToInstance(entry.getKey(), entry.getValue()))
-					.filter(Objects::nonNull)
-					.collect(Collectors.toCollection(LinkedList::new));
+		List<Instance> instances = new ArrayList<>();
+		ConversionContext context = new ConversionContext();
+		BiConsumer<String, Map<Value, Set<Value>>> converter = (uri, instanceProperties) -> {
+			Instance instance = convertToInstance(uri, instanceProperties, context);
+			if (instance != null) {
+				instances.add(instance);
+			}
+		};
+
+		if (orderedByInstance) {
+			// the rows of each instance come one after another so each instance is converted when its rows are read
+			readConverter.readOrderedQueryResultModel(queryResult, converter);
+			return instances;
+		}
+
+		// the query result is not ordered by instance so it should be grouped before conversion
+		Map<String, Map<Value, Set<Value>>> resultModel = readConverter.buildQueryResultModel(queryResult);
+		Iterator<Entry<String, Map<Value, Set<Value>>>> it = resultModel.entrySet().iterator();
+		while (it.hasNext()) {
+			Entry<String, Map<Value, Set<Value>>> entry = it.next();
+			// release the raw properties of each converted instance so they could be collected early
+			it.remove();
+			converter.accept(entry.getKey(), entry.getValue());
+		}
+		return instances;
 	}
 
-	private Instance convertToInstance(String uri, Map<Value, Set<Value>> instanceProperties) {
+	private Instance convertToInstance(String uri, Map<Value, Set<Value>> instanceProperties,
+			ConversionContext context) {
 		Set<Value> rdfTypes = instanceProperties.remove(RDF.TYPE);
 		Set<Value> types = instanceProperties.remove(EMF.INSTANCE_TYPE);
-		DataTypeDefinition dataTypeDefinition = resolveDataType(types);
+		DataTypeDefinition dataTypeDefinition = resolveDataType(types, context);
 
 		if (dataTypeDefinition == null) {
 			LOGGER.error("Invalid entity {} -> {} = {}", uri, EMF.INSTANCE_TYPE, types);
@@ -306,49 +436,64 @@ public class SemanticDbDaoImpl extends AbstractDbDao {
 			CMInstance.setContentManagementId(instance, value.stringValue());
 		}
 
-		DefinitionModel definition = resolveInstanceDefinition(instance, instanceProperties);
+		DefinitionModel definition = resolveInstanceDefinition(instance, instanceProperties, context);
 
 		Map<String, Set<Value>> convertedKeys = readConverter.convertPropertiesNames(instanceProperties);
 
 		readConverter.convertPropertiesFromSemanticToInternalModel(definition, convertedKeys,
 				instance.getOrCreateProperties());
 
-		instance.addIfNotNullOrEmpty(DefaultProperties.SEMANTIC_TYPE, resolveRdfType(uri, rdfTypes));
+		instance.addIfNotNullOrEmpty(DefaultProperties.SEMANTIC_TYPE, resolveRdfType(uri, rdfTypes, context));
 		instanceTypes.from(instance);
 		return instance;
 	}
 
-	private DefinitionModel resolveInstanceDefinition(Instance instance, Map<Value, Set<Value>> instanceProperties) {
+	private DefinitionModel resolveInstanceDefinition(Instance instance, Map<Value, Set<Value>> instanceProperties,
+			ConversionContext context) {
+		Set<Value> definitionIds = instanceProperties.getOrDefault(EMF.DEFINITION_ID, Collections.emptySet());
+		Set<Value> types = instanceProperties.getOrDefault(EMF.TYPE, Collections.emptySet());
 		// pre fetch and check the type if present not to continue
-		Stream<Value> types = getInstanceTypes(instanceProperties);
-		DefinitionModel definition = resolveInstanceDefinition(types, instance);
+		DefinitionModel definition = resolveDefinitionById(definitionIds, instance, context);
 		if (definition == null) {
-			List<Value> collect = getInstanceTypes(instanceProperties).collect(Collectors.toList());
-			LOGGER.warn("No definition found for Instance with IRI = {}, definition type={}", instance.getId(),
-					collect);
+			definition = resolveDefinitionById(types, instance, context);
 		}
-		return definition;
-	}
-
-	private DefinitionModel resolveInstanceDefinition(Stream<Value> definitionIds, Instance instance) {
-		DefinitionModel definition = definitionIds.filter(Objects::nonNull).map(defId -> {
-			instance.setIdentifier(defId.stringValue());
-			return definitionService.getInstanceDefinition(instance);
-		}).filter(Objects::nonNull).findFirst().map(DefinitionModel.class::cast).orElseGet(() -> {
+		if (definition == null) {
 			instance.setIdentifier(null);
-			return definitionService.getInstanceDefinition(instance);
-		});
+			definition = definitionService.getInstanceDefinition(instance);
+		}
 
 		// this case is when we have an instance that uses some generic definition that is not persisted in the
 		// database and is resolved only by type (like topic)
 		if (definition != null) {
 			instance.setIdentifier(definition.getIdentifier());
 			instance.setRevision(definition.getRevision());
+		} else {
+			List<Value> definitionTypes = new ArrayList<>(definitionIds);
+			definitionTypes.addAll(types);
+			LOGGER.warn("No definition found for Instance with IRI = {}, definition type={}", instance.getId(),
+					definitionTypes);
 		}
 		return definition;
 	}
 
-	private String resolveRdfType(String uri, Set<Value> rdfTypes) {
+	private DefinitionModel resolveDefinitionById(Set<Value> definitionIds, Instance instance,
+			ConversionContext context) {
+		for (Value definitionId : definitionIds) {
+			if (definitionId == null) {
+				continue;
+			}
+			instance.setIdentifier(definitionId.stringValue());
+			DefinitionModel definition = context.definitions.computeIfAbsent(
+					new Pair<>(instance.getClass(), definitionId.stringValue()),
+					key -> definitionService.getInstanceDefinition(instance));
+			if (definition != null) {
+				return definition;
+			}
+		}
+		return null;
+	}
+
+	private String resolveRdfType(String uri, Set<Value> rdfTypes, ConversionContext context) {
 		if (CollectionUtils.isEmpty(rdfTypes)) {
 			// when the loaded class is library the types currently are empty
 			// we will try to resolve their type by calling the definition service by instance uri
@@ -359,27 +504,26 @@ public class SemanticDbDaoImpl extends AbstractDbDao {
 			return null;
 		}
 
-		Set<String> types = rdfTypes.stream().map(Value::stringValue).collect(Collectors.toSet());
-		return semanticDefinitionService.getMostConcreteClass(types);
+		Set<String> types = CollectionUtils.createHashSet(rdfTypes.size());
+		for (Value rdfType : rdfTypes) {
+			types.add(rdfType.stringValue());
+		}
+		return context.semanticTypes.computeIfAbsent(types, semanticDefinitionService::getMostConcreteClass);
 	}
 
-	private DataTypeDefinition resolveDataType(Set<Value> types) {
+	private DataTypeDefinition resolveDataType(Set<Value> types, ConversionContext context) {
 		if (CollectionUtils.isEmpty(types)) {
 			return null;
 		}
 
-		return types
-				.stream()
-					.map(value -> definitionService.getDataTypeDefinition(value.stringValue()))
-					.filter(Objects::nonNull)
-					.findFirst()
-					.orElse(null);
-	}
-
-	private static Stream<Value> getInstanceTypes(Map<Value, Set<Value>> instanceProperties) {
-		Set<Value> definitionIds = instanceProperties.getOrDefault(EMF.DEFINITION_ID, Collections.emptySet());
-		Set<Value> types = instanceProperties.getOrDefault(EMF.TYPE, Collections.emptySet());
-		return Stream.concat(definitionIds.stream(), types.stream());
+		for (Value type : types) {
+			DataTypeDefinition dataType = context.dataTypes.computeIfAbsent(type.stringValue(),
+					definitionService::getDataTypeDefinition);
+			if (dataType != null) {
+				return dataType;
+			}
+		}
+		return null;
 	}
 
 	/**
@@ -425,6 +569,8 @@ public class SemanticDbDaoImpl extends AbstractDbDao {
 			return 0;
 		}
 		LOGGER.debug("Deleting resource/s [{}]", entityId);
+		// write any buffered changes first so they are not applied after the delete
+		flushPendingChanges();
 		try {
 			statistics.track(SEMANTIC_DEL_DURATION_SEC);
 			if (softDelete) {
@@ -531,4 +677,16 @@ public class SemanticDbDaoImpl extends AbstractDbDao {
 	private IRI getDeletedBy() {
 		return namespaceRegistryService.buildUri((String) securityContext.getAuthenticated().getSystemId());
 	}
+
+	/**
+	 * Caches the resolved types and definitions while converting the results of a single query. Most of the returned
+	 * instances are of the same few types so they are resolved only once.
+	 *
+	 * @author BBonev
+	 */
+	private static class ConversionContext {
+		final Map<String, DataTypeDefinition> dataTypes = new HashMap<>();
+		final Map<Pair<Class<?>, String>, DefinitionModel> definitions = new HashMap<>();
+		final Map<Set<String>, String> semanticTypes = new HashMap<>();
+	}
 }
@@ -11,6 +11,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
 import javax.enterprise.context.ApplicationScoped;
@@ -137,25 +138,69 @@ public class SemanticPropertiesReadConverter extends BasePropertiesConverter {
 
 		while (tupleQueryResult.hasNext()) {
 			BindingSet row = tupleQueryResult.next();
-			Value value = row.getValue(IRI);
-			String instanceUri = null;
-			if (value instanceof IRI) {
-				instanceUri = namespaceRegistryService.getShortUri((IRI) value);
-			} else {
-				instanceUri = value.stringValue();
-			}
-			Map<Value, Set<Value>> instanceMap = instances.computeIfAbsent(instanceUri, uri -> new LinkedHashMap<>(25));
+			Map<Value, Set<Value>> instanceMap = instances.computeIfAbsent(getInstanceUri(row.getValue(IRI)),
+					uri -> new LinkedHashMap<>(25));
+			addRowProperties(row, instanceMap);
+		}
+		return instances;
+	}
 
-			value = row.getValue(PROPERTY_NAME);
-			CollectionUtils.addValueToSetMap(instanceMap, value, ValueProxy.of(row.getValue(PROPERTY_VALUE)));
+	/**
+	 * Reads the given tuple result that is ordered by the {@link #IRI} binding and passes the properties of each
+	 * returned IRI to the given consumer as soon as all of its rows are read. The expected projection keys are the same
+	 * as for {@link #buildQueryResultModel(TupleQueryResult)}, but the results for all IRIs are not kept in memory at
+	 * once.
+	 * <p>
+	 * Note that if the result is not ordered by the {@link #IRI} binding the consumer will be called more than once for
+	 * the same IRI, each time with part of its properties.
+	 *
+	 * @param tupleQueryResult
+	 *            the tuple query result to parse, ordered by the {@link #IRI} binding
+	 * @param instanceConsumer
+	 *            consumer that will receive the IRI and all properties information for that IRI
+	 * @throws QueryEvaluationException
+	 *             the query evaluation exception
+	 */
+	public void readOrderedQueryResultModel(TupleQueryResult tupleQueryResult,
+			BiConsumer<String, Map<Value, Set<Value>>> instanceConsumer) throws QueryEvaluationException {
+		Value currentId = null;
+		String instanceUri = null;
+		Map<Value, Set<Value>> instanceMap = null;
 
-			value = row.getValue(PARENT);
-			CollectionUtils.addValueToSetMap(instanceMap, EMF.PARENT, value);
+		while (tupleQueryResult.hasNext()) {
+			BindingSet row = tupleQueryResult.next();
+			Value id = row.getValue(IRI);
+			if (!id.equals(currentId)) {
+				if (instanceMap != null) {
+					instanceConsumer.accept(instanceUri, instanceMap);
+				}
+				currentId = id;
+				instanceUri = getInstanceUri(id);
+				instanceMap = new LinkedHashMap<>(25);
+			}
+			addRowProperties(row, instanceMap);
+		}
+		if (instanceMap != null) {
+			instanceConsumer.accept(instanceUri, instanceMap);
+		}
+	}
 
-			value = row.getValue(PARENT_TYPE);
-			CollectionUtils.addValueToSetMap(instanceMap, EMF.PARENT_TYPE, value);
+	private String getInstanceUri(Value value) {
+		if (value instanceof IRI) {
+			return namespaceRegistryService.getShortUri((IRI) value);
 		}
-		return instances;
+		return value.stringValue();
+	}
+
+	private static void addRowProperties(BindingSet row, Map<Value, Set<Value>> instanceMap) {
+		Value value = row.getValue(PROPERTY_NAME);
+		CollectionUtils.addValueToSetMap(instanceMap, value, ValueProxy.of(row.getValue(PROPERTY_VALUE)));
+
+		value = row.getValue(PARENT);
+		CollectionUtils.addValueToSetMap(instanceMap, EMF.PARENT, value);
+
+		value = row.getValue(PARENT_TYPE);
+		CollectionUtils.addValueToSetMap(instanceMap, EMF.PARENT_TYPE, value);
 	}
 
 	/**
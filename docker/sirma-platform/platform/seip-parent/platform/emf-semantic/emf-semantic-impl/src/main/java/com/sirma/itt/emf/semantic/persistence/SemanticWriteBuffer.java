@@ -0,0 +1,110 @@
+package com.sirma.itt.emf.semantic.persistence;
+
+import java.io.Serializable;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.transaction.TransactionScoped;
+
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+
+import com.sirma.itt.seip.configuration.Options;
+
+/**
+ * Transactional scope buffer for semantic instance changes. The buffer collects the statements that should be added
+ * and removed for all instances saved in the current transaction and merges them so that they could be written to the
+ * repository at once before the transaction completion. Used when {@link Options#BATCH_SEMANTIC_WRITES} is enabled.
+ * <p>
+ * When the buffered changes are written the removed statements should be processed before the added ones.
+ *
+ * @author BBonev
+ */
+@TransactionScoped
+public class SemanticWriteBuffer implements Serializable {
+
+	private static final long serialVersionUID = -2402366404718183651L;
+
+	private final Model addModel = new LinkedHashModel();
+	private final Model removeModel = new LinkedHashModel();
+	private final Set<Serializable> instances = new HashSet<>();
+	private boolean flushScheduled;
+
+	/**
+	 * Adds the changes for a single instance to the buffer. A statement that is removed cancels the same statement if
+	 * it was added earlier in the transaction and a statement that is added cancels the same statement if it was
+	 * scheduled for removal earlier.
+	 *
+	 * @param instanceId
+	 *            the id of the instance that is changed
+	 * @param toAdd
+	 *            the statements to add
+	 * @param toRemove
+	 *            the statements to remove
+	 * @return <code>true</code> if this is the first change after the last {@link #reset()} and a flush should be
+	 *         scheduled by the caller
+	 */
+	public synchronized boolean addChanges(Serializable instanceId, Model toAdd, Model toRemove) {
+		for (Statement statement : toRemove) {
+			addModel.remove(statement.getSubject(), statement.getPredicate(), statement.getObject());
+			removeModel.add(statement);
+		}
+		for (Statement statement : toAdd) {
+			removeModel.remove(statement.getSubject(), statement.getPredicate(), statement.getObject());
+			addModel.add(statement);
+		}
+		if (instanceId != null) {
+			instances.add(instanceId);
+		}
+		boolean shouldSchedule = !flushScheduled;
+		flushScheduled = true;
+		return shouldSchedule;
+	}
+
+	/**
+	 * Checks if there are any buffered changes.
+	 *
+	 * @return true, if there is nothing to write
+	 */
+	public synchronized boolean isEmpty() {
+		return addModel.isEmpty() && removeModel.isEmpty();
+	}
+
+	/**
+	 * Gets the merged statements that should be added to the repository.
+	 *
+	 * @return the add model
+	 */
+	public synchronized Model getAddModel() {
+		return new LinkedHashModel(addModel);
+	}
+
+	/**
+	 * Gets the merged statements that should be removed from the repository.
+	 *
+	 * @return the remove model
+	 */
+	public synchronized Model getRemoveModel() {
+		return new LinkedHashModel(removeModel);
+	}
+
+	/**
+	 * Gets the number of distinct instances that have buffered changes.
+	 *
+	 * @return the instance count
+	 */
+	public synchronized int getInstanceCount() {
+		return instances.size();
+	}
+
+	/**
+	 * Clears all buffered changes. Any changes added after this call will require new flush to be scheduled.
+	 */
+	public synchronized void reset() {
+		addModel.clear();
+		removeModel.clear();
+		instances.clear();
+		flushScheduled = false;
+	}
+}
@@ -31,7 +31,10 @@ public abstract class AbstractSelectInstanceQueryCallback implements QueryBuilde
     protected static final Set<String> PARAM_NAMES = Collections.unmodifiableSet(
             new HashSet<>(Arrays.asList(Params.URIS)));
 
-    protected static final String SELECT_MULTIPLE_END = ").}\n";
+    /**
+     * The results are ordered by instance so that they could be converted instance by instance while reading them.
+     */
+    protected static final String SELECT_MULTIPLE_END = ").}\nORDER BY" + URI + "\n";
 
     @Override
     public String singleValue(Serializable object, Map<String, Object> params, List<Function<String, String>> filters) {
@@ -241,6 +241,8 @@ public class SeipToSemanticResourceSynchronizationConfig
 		}
 
 		Options.DISABLE_AUDIT_LOG.enable();
+		// all resources are saved in a single transaction so their semantic changes are written at once at the end
+		Options.BATCH_SEMANTIC_WRITES.enable();
 		try {
 			// save changes
 			for (Entry<Serializable, Instance> entry : result.getModified().entrySet()) {
@@ -272,6 +274,7 @@ public class SeipToSemanticResourceSynchronizationConfig
 				instanceService.touchInstance(keySet);
 			}
 		} finally {
+			Options.BATCH_SEMANTIC_WRITES.disable();
 			Options.DISABLE_AUDIT_LOG.disable();
 		}
 	}
@@ -69,11 +69,18 @@ import org.slf4j.LoggerFactory;
 import com.sirma.itt.emf.semantic.SemanticSearchConfigurations;
 import com.sirma.itt.emf.semantic.persistence.ValueConverter;
 import com.sirma.itt.emf.semantic.queries.SPARQLQueryHelper;
+import com.sirma.itt.seip.Pair;
+import com.sirma.itt.seip.annotation.Documentation;
+import com.sirma.itt.seip.cache.CacheConfiguration;
+import com.sirma.itt.seip.cache.Eviction;
+import com.sirma.itt.seip.cache.Expiration;
+import com.sirma.itt.seip.cache.lookup.EntityLookupCache;
+import com.sirma.itt.seip.cache.lookup.EntityLookupCacheContext;
+import com.sirma.itt.seip.cache.lookup.NoEntityLookup;
 import com.sirma.itt.seip.collections.CollectionUtils;
 import com.sirma.itt.seip.definition.DefinitionService;
 import com.sirma.itt.seip.definition.SemanticDefinitionService;
 import com.sirma.itt.seip.domain.codelist.CodelistService;
-import com.sirma.itt.seip.domain.codelist.model.CodeValue;
 import com.sirma.itt.seip.domain.definition.DataTypeDefinition;
 import com.sirma.itt.seip.domain.instance.ClassInstance;
 import com.sirma.itt.seip.domain.instance.DefaultProperties;
@@ -137,6 +144,12 @@ public class SemanticSearchEngine implements SearchEngine {
 	private static final String ARGUMENT_FQ = "fq";
 	private static final String ARGUMENT_RELATIONS = "relations";
 
+	@CacheConfiguration(eviction = @Eviction(maxEntries = 1000), expiration = @Expiration(maxIdle = 60000, interval = 30000, lifespan = 60000), doc = @Documentation(""
+			+ "Cache used to store the total results count of the semantic searches when the results are paged in the database. "
+			+ "The entries are keyed by the executed count query and are short lived because the data may change at any time."
+			+ "<br>Minimal value expression: activeUsers * 5"))
+	static final String SEMANTIC_SEARCH_COUNT_CACHE = "SEMANTIC_SEARCH_COUNT_CACHE";
+
 	@Inject
 	private DefinitionService definitionService;
 
@@ -182,6 +195,9 @@ public class SemanticSearchEngine implements SearchEngine {
 	@Inject
 	private CodelistService codelistService;
 
+	@Inject
+	private EntityLookupCacheContext cacheContext;
+
 	/**
 	 * Initializes typeMapping for OWL classes that aren't part of the EMF project
 	 */
@@ -194,6 +210,7 @@ public class SemanticSearchEngine implements SearchEngine {
 		typeMapping.put(Security.ROLE.stringValue(), CommonInstance.class);
 		typeMapping.put(SKOS.CONCEPT.stringValue(), CommonInstance.class);
 		SPARQLQueryHelper.setCaseInsenitiveOrderByList(configurations.getListOfCaseInsensitiveProperties().get());
+		cacheContext.createCacheIfAbsent(SEMANTIC_SEARCH_COUNT_CACHE, true, new NoEntityLookup());
 
 		configurations.getListOfCaseInsensitiveProperties()
 				.addConfigurationChangeListener(c -> SPARQLQueryHelper.setCaseInsenitiveOrderByList(c.get()));
@@ -213,7 +230,13 @@ public class SemanticSearchEngine implements SearchEngine {
 		Map<String, Serializable> bindings = new HashMap<>();
 		final int maxSize = arguments.getMaxSize();
 
-		String query = prepareQuery(arguments, bindings, calculateOffset(arguments), maxSize);
+		String filterQuery = prepareFilterQuery(arguments, bindings);
+		if (shouldPageInDatabase(arguments, filterQuery)) {
+			pagedSearch(arguments, bindings, filterQuery);
+			return;
+		}
+
+		String query = finishQuery(arguments, filterQuery, calculateOffset(arguments), maxSize);
 
 		if (arguments.shouldGroupBy()) {
 			aggregatedSearch(arguments, bindings, query);
@@ -282,6 +305,166 @@ public class SemanticSearchEngine implements SearchEngine {
 		}
 	}
 
+	/**
+	 * Checks if only the requested page could be fetched from the database. This is possible only if the search
+	 * arguments are for a single page of instances and all the results are not needed for something else like faceting.
+	 */
+	private <S extends SearchArguments<? extends Instance>> boolean shouldPageInDatabase(S arguments,
+			String filterQuery) {
+		return configurations.getPageResultsInGdb().get().booleanValue() && arguments.getMaxSize() > 0
+				&& arguments.getPageSize() > 0 && !arguments.shouldGroupBy() && !arguments.isCountOnly()
+				&& !arguments.isFaceted() && !arguments.shouldReturnAllUries()
+				// queries with own paging or prefix declarations could not be wrapped for counting
+				&& !SPARQLQueryHelper.hasLimitOrOffset(filterQuery)
+				&& !filterQuery.trim().toUpperCase().startsWith("PREFIX");
+	}
+
+	/**
+	 * Executes search that converts only the instances of the requested page. When the results are sorted in the
+	 * database the page is fetched using offset and limit and the total count is resolved with a separate (cached)
+	 * count query. Otherwise the results are iterated once and only the best items for the requested page are kept in
+	 * memory.
+	 */
+	private <E extends Instance, S extends SearchArguments<E>> void pagedSearch(S arguments,
+			Map<String, Serializable> bindings, String filterQuery) {
+		int windowOffset = calculateOffset(arguments);
+		int skipCount = arguments.getSkipCount();
+		int maxSize = arguments.getMaxSize();
+		int limit = Math.min(arguments.getPageSize(), maxSize - skipCount);
+		boolean includeInferred = getIncludeInferredParameter(arguments);
+
+		Sorter sorter = arguments.getFirstSorter();
+		String sortedQuery = appendSorting(arguments, filterQuery);
+		if (configurations.getSortResultsInGdb().get().booleanValue() || sorter == null) {
+			int count = countResults(arguments, filterQuery, bindings, includeInferred) - windowOffset;
+			arguments.setTotalItems(Math.max(0, Math.min(count, maxSize)));
+			if (limit <= 0 || count <= skipCount) {
+				arguments.setResult(new ArrayList<>(0));
+				return;
+			}
+			String pageQuery = SPARQLQueryHelper.appendOffsetToQuery(sortedQuery, windowOffset + skipCount);
+			pageQuery = SPARQLQueryHelper.appendLimitToQuery(pageQuery, limit);
+			LOGGER.trace("Query for execution: {}", pageQuery);
+			arguments.setResult(evaluateTupleQuery(arguments, pageQuery, bindings, includeInferred,
+					this::parsePage, new ArrayList<>(0)));
+			return;
+		}
+
+		String windowQuery = SPARQLQueryHelper.appendOffsetToQuery(sortedQuery, windowOffset);
+		windowQuery = SPARQLQueryHelper.appendLimitToQuery(windowQuery, maxSize);
+		LOGGER.trace("Query for execution: {}", windowQuery);
+		if (limit <= 0) {
+			arguments.setResult(new ArrayList<>(0));
+			return;
+		}
+		arguments.setResult(evaluateTupleQuery(arguments, windowQuery, bindings, includeInferred,
+				result -> collectPage(result, arguments, sorter, skipCount, limit), new ArrayList<>(0)));
+	}
+
+	private <S extends SearchArguments<? extends Instance>> int countResults(S arguments, String filterQuery,
+			Map<String, Serializable> bindings, boolean includeInferred) {
+		String countQuery = SPARQLQueryHelper.wrapQueryWithCount(filterQuery);
+		// the permission filters use random variable names that should not affect the key
+		String cacheKey = SPARQLQueryHelper.removePermissionsSuffixes(countQuery) + bindings + includeInferred;
+		EntityLookupCache<Serializable, Object, Serializable> countCache = getCountCache();
+		Object cached = countCache.getValue(cacheKey);
+		if (cached instanceof Integer) {
+			return ((Integer) cached).intValue();
+		}
+		LOGGER.trace("Count query for execution: {}", countQuery);
+		Integer count = evaluateTupleQuery(arguments, countQuery, bindings, includeInferred, result -> {
+			if (!result.hasNext()) {
+				return Integer.valueOf(0);
+			}
+			Serializable value = convertValue(result.next().getValue(COUNT));
+			if (value instanceof Number) {
+				return Integer.valueOf(((Number) value).intValue());
+			}
+			return Integer.valueOf(0);
+		}, null);
+		if (count == null) {
+			// failed query, do not cache anything
+			return 0;
+		}
+		countCache.setValue(cacheKey, count);
+		return count.intValue();
+	}
+
+	private EntityLookupCache<Serializable, Object, Serializable> getCountCache() {
+		return cacheContext.getCache(SEMANTIC_SEARCH_COUNT_CACHE);
+	}
+
+	private <E extends Instance> List<E> parsePage(TupleQueryResultIterator result) {
+		List<E> page = new ArrayList<>();
+		while (result.hasNext()) {
+			CollectionUtils.addNonNullValue(page, this.<E> processResult(result.next()));
+		}
+		return page;
+	}
+
+	/**
+	 * Iterates all results and keeps only the bindings needed for the requested page sorted by the given sorter. Only
+	 * the collected bindings are converted to instances. The total items count is set to the number of iterated
+	 * results.
+	 */
+	private <E extends Instance, S extends SearchArguments<E>> List<E> collectPage(TupleQueryResultIterator result,
+			S arguments, Sorter sorter, int skipCount, int limit) {
+		Map<String, String> codeValues = Collections.emptyMap();
+		if (sorter.isCodeListValue()) {
+			codeValues = getCodelistDescriptions(sorter);
+		}
+		Map<String, String> sortValueDescriptions = codeValues;
+
+		Comparator<Pair<Serializable, BindingSet>> comparator = (m1, m2) -> 0;
+		if (StringUtils.isNotBlank(sorter.getSortField())) {
+			comparator = createComparator(sorter.isAscendingOrder(), Pair::getFirst);
+		}
+		TopResultsCollector<Pair<Serializable, BindingSet>> collector = new TopResultsCollector<>(skipCount + limit,
+				comparator);
+
+		String sortBinding = null;
+		while (result.hasNext()) {
+			BindingSet tuple = result.next();
+			if (sortBinding == null) {
+				sortBinding = findSortBinding(tuple);
+			}
+			Serializable sortValue = convertValue(tuple.getValue(sortBinding));
+			if (sortValue != null && sortValueDescriptions.containsKey(sortValue.toString())) {
+				sortValue = sortValueDescriptions.get(sortValue.toString());
+			}
+			collector.add(new Pair<>(sortValue, tuple));
+		}
+		arguments.setTotalItems(collector.getCount());
+
+		List<Pair<Serializable, BindingSet>> sorted = collector.getSorted();
+		List<E> page = new ArrayList<>(limit);
+		for (int i = skipCount; i < sorted.size(); i++) {
+			CollectionUtils.addNonNullValue(page, this.<E> processResult(sorted.get(i).getSecond()));
+		}
+		return page;
+	}
+
+	private static String findSortBinding(BindingSet tuple) {
+		return tuple.getBindingNames()
+				.stream()
+				.filter(name -> name.contains(SORT_VARIABLE_SUFFIX))
+				.findFirst()
+				.orElse(SORT_VARIABLE_SUFFIX);
+	}
+
+	private Map<String, String> getCodelistDescriptions(Sorter sorter) {
+		Collection<Integer> codelists = sorter.getCodelistNumbers();
+		if (codelists.size() == 1) {
+			// the shared descriptions could be used directly
+			return codelistService.getDescriptions(codelists.iterator().next());
+		}
+		Map<String, String> codeValues = CollectionUtils.createHashMap(30);
+		for (Integer codeListId : codelists) {
+			codeValues.putAll(codelistService.getDescriptions(codeListId));
+		}
+		return codeValues;
+	}
+
 	private <S extends SearchArguments<E>, E extends Instance> void collectAllInstanceIds(S arguments,
 			List<E> queryResult) {
 		if (arguments.shouldReturnAllUries()) {
@@ -329,6 +512,24 @@ public class SemanticSearchEngine implements SearchEngine {
 	 */
 	private <S extends SearchArguments<? extends Instance>> String prepareQuery(S arguments,
 			Map<String, Serializable> bindings, int offset, int limit) {
+		return finishQuery(arguments, prepareFilterQuery(arguments, bindings), offset, limit);
+	}
+
+	/**
+	 * @return the given filter query with appended sorting, offset and limit
+	 */
+	private <S extends SearchArguments<? extends Instance>> String finishQuery(S arguments, String filterQuery,
+			int offset, int limit) {
+		String query = appendSorting(arguments, filterQuery);
+		query = SPARQLQueryHelper.appendOffsetToQuery(query, offset);
+		return SPARQLQueryHelper.appendLimitToQuery(query, limit);
+	}
+
+	/**
+	 * @return built SPARQL query with applied permissions but without sorting, offset and limit
+	 */
+	private <S extends SearchArguments<? extends Instance>> String prepareFilterQuery(S arguments,
+			Map<String, Serializable> bindings) {
 		String query = arguments.getStringQuery();
 		Map<String, Serializable> argumentsMap = arguments.getArguments();
 		boolean skipVisitingArguments = false;
@@ -364,10 +565,7 @@ public class SemanticSearchEngine implements SearchEngine {
 		}
 
 		query = setSolrConnectorName(query);
-		query = appendPermissionsToQuery(arguments, query);
-		query = appendSorting(arguments, query);
-		query = SPARQLQueryHelper.appendOffsetToQuery(query, offset);
-		return SPARQLQueryHelper.appendLimitToQuery(query, limit);
+		return appendPermissionsToQuery(arguments, query);
 	}
 
 	private <S extends SearchArguments<? extends Instance>> String appendSorting(S arguments, String query) {
@@ -507,27 +705,51 @@ public class SemanticSearchEngine implements SearchEngine {
 		return executeTupleQuery(arguments, queryString, bindings, null);
 	}
 
-	@SuppressWarnings("boxing")
 	private <E extends Instance, S extends SearchArguments<E>> List<E> executeTupleQuery(S arguments,
 			String queryString,
 			Map<String, Serializable> bindings, String groupBy) {
 		boolean includeInferred = getIncludeInferredParameter(arguments);
+		return evaluateTupleQuery(arguments, queryString, bindings, includeInferred,
+				result -> parseTupleQueryResult(result, arguments, groupBy), Collections.emptyList());
+	}
+
+	/**
+	 * Evaluates the given query and passes the result to the given handler.
+	 *
+	 * @param arguments
+	 *            The search arguments
+	 * @param queryString
+	 *            The SPARQL Query as String
+	 * @param bindings
+	 *            Query variables values to be replaced in the Query
+	 * @param includeInferred
+	 *            if inferred statements should be included in the result
+	 * @param resultHandler
+	 *            the handler that processes the query result
+	 * @param onFailure
+	 *            the value to return if the query evaluation fails or times out
+	 * @return the value returned from the result handler or the failure value
+	 */
+	@SuppressWarnings("boxing")
+	private <R, S extends SearchArguments<? extends Instance>> R evaluateTupleQuery(S arguments, String queryString,
+			Map<String, Serializable> bindings, boolean includeInferred,
+			Function<TupleQueryResultIterator, R> resultHandler, R onFailure) {
 		try {
 			TupleQuery tupleQuery = SPARQLQueryHelper.prepareTupleQuery(connection, queryString, bindings,
 					includeInferred, arguments.getQueryTimeout(TimeUnit.SECONDS));
 
 			// evaluate query
 			try (TupleQueryResultIterator resultIterator = new TupleQueryResultIterator(tupleQuery.evaluate())) {
-				return parseTupleQueryResult(resultIterator, arguments, groupBy);
+				return resultHandler.apply(resultIterator);
 			}
 		} catch (QueryInterruptedException e) {
 			LOGGER.error("Semantic query execution exceeded the allowed execution time of {} s. The error is: {}",
 					arguments.getQueryTimeout(TimeUnit.SECONDS), e.getMessage(), e);
-			return Collections.emptyList();
+			return onFailure;
 		} catch (QueryEvaluationException e) {
 			LOGGER.warn("Error while executing query: {}\n{}\nParameters: {}", e.getMessage(), queryString, bindings,
 					e);
-			return Collections.emptyList();
+			return onFailure;
 		} catch (RDF4JException e) {
 			LOGGER.error("Invalid search query:\n{}\nParameters: {}", queryString, bindings, e);
 			throw new EmfRuntimeException(e);
@@ -629,13 +851,7 @@ public class SemanticSearchEngine implements SearchEngine {
 
 			if (sorter != null) {
 				if (sorter.isCodeListValue()) {
-					Map<String, String> codeValues = CollectionUtils.createHashMap(30);
-
-					for (Integer codeListId : sorter.getCodelistNumbers()) {
-						for (CodeValue codeValue : codelistService.getCodeValues(codeListId).values()) {
-							codeValues.put(codeValue.getIdentifier(), codelistService.getDescription(codeValue));
-						}
-					}
+					Map<String, String> codeValues = getCodelistDescriptions(sorter);
 
 					if(!codeValues.isEmpty()) {
 						processingStream = processingStream.map(item -> resolveCodelistValue(item, codeValues));
@@ -0,0 +1,99 @@
+package com.sirma.itt.emf.semantic.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Collectors;
+
+/**
+ * Collector that keeps only the first N elements of a sequence ordered by a given comparator. The collector does not
+ * store the whole sequence in memory but only a bounded heap with the best elements seen so far. Elements that are
+ * equal according to the comparator keep their encounter order so the result is the same as sorting the whole
+ * sequence with a stable sort and taking the first N elements.
+ * <p>
+ * The collector is not thread safe.
+ *
+ * @param <T>
+ *            the collected element type
+ * @author BBonev
+ */
+class TopResultsCollector<T> {
+
+	private final int limit;
+	private final Comparator<Entry<T>> order;
+	/** Heap in reversed order so that the worst of the collected elements is always at the top. */
+	private final PriorityQueue<Entry<T>> heap;
+	private int count;
+
+	/**
+	 * Instantiates a new collector.
+	 *
+	 * @param limit
+	 *            the maximum number of elements to keep. Should be positive number.
+	 * @param comparator
+	 *            the comparator that defines the elements order
+	 */
+	TopResultsCollector(int limit, Comparator<? super T> comparator) {
+		if (limit <= 0) {
+			throw new IllegalArgumentException("Collector limit should be positive number");
+		}
+		this.limit = limit;
+		Comparator<Entry<T>> byValue = (e1, e2) -> comparator.compare(e1.value, e2.value);
+		order = byValue.thenComparingInt(entry -> entry.index);
+		heap = new PriorityQueue<>(limit + 1, order.reversed());
+	}
+
+	/**
+	 * Offer an element to the collector. The element will be kept only if it's among the best {@code limit} elements
+	 * seen so far.
+	 *
+	 * @param value
+	 *            the value to add
+	 */
+	void add(T value) {
+		Entry<T> entry = new Entry<>(value, count++);
+		if (heap.size() < limit) {
+			heap.add(entry);
+		} else if (order.compare(entry, heap.peek()) < 0) {
+			heap.poll();
+			heap.add(entry);
+		}
+	}
+
+	/**
+	 * Gets the number of all elements passed to the collector.
+	 *
+	 * @return the processed elements count
+	 */
+	int getCount() {
+		return count;
+	}
+
+	/**
+	 * Gets the collected elements sorted by the collector comparator.
+	 *
+	 * @return the sorted best elements
+	 */
+	List<T> getSorted() {
+		List<Entry<T>> entries = new ArrayList<>(heap);
+		entries.sort(order);
+		return entries.stream().map(entry -> entry.value).collect(Collectors.toList());
+	}
+
+	/**
+	 * Collected value with its position in the original sequence
+	 *
+	 * @param <T>
+	 *            the value type
+	 */
+	private static class Entry<T> {
+		final T value;
+		final int index;
+
+		Entry(T value, int index) {
+			this.value = value;
+			this.index = index;
+		}
+	}
+}
@@ -12,9 +12,11 @@ import com.sirma.itt.emf.mocks.NamespaceRegistryMock;
 import com.sirma.itt.emf.semantic.persistence.SemanticDbDaoImpl;
 import com.sirma.itt.emf.semantic.persistence.SemanticPropertiesReadConverter;
 import com.sirma.itt.emf.semantic.persistence.SemanticPropertiesWriteConverter;
+import com.sirma.itt.emf.semantic.persistence.SemanticWriteBuffer;
 import com.sirma.itt.seip.monitor.NoOpStatistics;
 import com.sirma.itt.seip.resources.EmfUser;
 import com.sirma.itt.seip.security.context.SecurityContext;
+import com.sirma.itt.seip.testutil.fakes.TransactionSupportFake;
 import com.sirma.itt.seip.util.ReflectionUtils;
 
 /**
@@ -56,5 +58,7 @@ public class SemanticDaoMock extends SemanticDbDaoImpl {
 		when(securityCtx.getAuthenticated()).thenReturn(user);
 		ReflectionUtils.setFieldValue(this, "securityContext", securityCtx);
 		ReflectionUtils.setFieldValue(this, "statistics", new NoOpStatistics());
+		ReflectionUtils.setFieldValue(this, "writeBuffer", new SemanticWriteBuffer());
+		ReflectionUtils.setFieldValue(this, "transactionSupport", new TransactionSupportFake());
 	}
 }
\ No newline at end of file
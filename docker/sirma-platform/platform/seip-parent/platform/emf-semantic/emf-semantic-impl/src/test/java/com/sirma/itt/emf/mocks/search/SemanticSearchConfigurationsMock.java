@@ -19,6 +19,7 @@ public class SemanticSearchConfigurationsMock extends SemanticSearchConfiguratio
 				new ConfigurationPropertyMock<>("dcterms:title"));
 		ReflectionUtils.setFieldValue(this, "sortResultsInGdb", new ConfigurationPropertyMock<>(Boolean.TRUE));
 		ReflectionUtils.setFieldValue(this, "processResultsInParallel", new ConfigurationPropertyMock<>(Boolean.FALSE));
+		ReflectionUtils.setFieldValue(this, "pageResultsInGdb", new ConfigurationPropertyMock<>(Boolean.FALSE));
 		ReflectionUtils.setFieldValue(this, "forbiddenRoleUri", new ConfigurationPropertyMock<>("conc:SecurityRoleTypes-Forbidden"));
 		ReflectionUtils.setFieldValue(this, "writeRoleUri", new ConfigurationPropertyMock<>("conc:SecurityRoleTypes-Read-Write "));
 		ReflectionUtils.setFieldValue(this, "ignoreInstanceTypes", new ConfigurationPropertyMock<>(
@@ -22,6 +22,7 @@ import com.sirma.itt.seip.resources.User;
 import com.sirma.itt.seip.security.UserPreferences;
 import com.sirma.itt.seip.security.context.SecurityContext;
 import com.sirma.itt.seip.security.context.SecurityContextManager;
+import com.sirma.itt.seip.testutil.fakes.EntityLookupCacheContextFake;
 import com.sirma.itt.seip.util.ReflectionUtils;
 import com.sirma.itt.semantic.ConnectionFactory;
 import com.sirma.itt.semantic.search.FTSQueryParser;
@@ -83,6 +84,7 @@ public class SemanticSearchEngineMock extends SemanticSearchEngine {
 
 		CodelistService codelistService = Mockito.mock(CodelistService.class);
 		ReflectionUtils.setFieldValue(this, "codelistService", codelistService);
+		ReflectionUtils.setFieldValue(this, "cacheContext", EntityLookupCacheContextFake.createInMemory());
 
 		init();
 	}
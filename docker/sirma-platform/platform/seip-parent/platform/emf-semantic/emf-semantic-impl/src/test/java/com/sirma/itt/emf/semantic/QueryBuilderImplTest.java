@@ -99,7 +99,7 @@ public class QueryBuilderImplTest {
 				+ " WHERE { { ?uri ?propertyName ?propertyValue . ?uri emf:isDeleted \"false\"^^xsd:boolean . "
 				+ "FILTER EXISTS { ?propertyName a emf:DefinitionObjectProperty. ?propertyValue emf:isDeleted \"false\"^^xsd:boolean . } } "
 				+ "UNION { ?uri ?propertyName ?propertyValue . ?uri emf:isDeleted \"false\"^^xsd:boolean . "
-				+ "FILTER EXISTS { ?propertyName a emf:DefinitionDataProperty. } } FILTER( ?uri = emf:testInstance || ?uri = <http://testInstance2> ).} ";
+				+ "FILTER EXISTS { ?propertyName a emf:DefinitionDataProperty. } } FILTER( ?uri = emf:testInstance || ?uri = <http://testInstance2> ).} ORDER BY ?uri ";
 		String query = service.buildQueryByName(NamedQueries.SELECT_BY_IDS, Arrays.asList(
 				new Pair<>(NamedQueries.Params.URIS, Arrays.asList("emf:testInstance", "http://testInstance2"))));
 
@@ -133,7 +133,7 @@ public class QueryBuilderImplTest {
 			String expectedQuery = "SELECT DISTINCT ?uri ?propertyName ?propertyValue WHERE { { ?uri ?propertyName ?propertyValue . "
 					+ "FILTER EXISTS { ?propertyName a emf:DefinitionObjectProperty. ?propertyValue emf:isDeleted \"false\"^^xsd:boolean . } } "
 					+ "UNION { ?uri ?propertyName ?propertyValue . FILTER EXISTS { ?propertyName a emf:DefinitionDataProperty. } } "
-					+ "FILTER( ?uri = emf:testInstance || ?uri = <http://testInstance2> ).} ";
+					+ "FILTER( ?uri = emf:testInstance || ?uri = <http://testInstance2> ).} ORDER BY ?uri ";
 			String query = service.buildQueryByName(NamedQueries.SELECT_BY_IDS, Arrays.asList(
 					new Pair<>(NamedQueries.Params.URIS, Arrays.asList("emf:testInstance", "http://testInstance2"))));
 
@@ -9,6 +9,7 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
@@ -20,6 +21,7 @@ import java.util.Optional;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.ejb.EJBException;
+import javax.enterprise.context.ContextNotActiveException;
 
 import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
 import org.eclipse.rdf4j.query.BooleanQuery;
@@ -28,6 +30,7 @@ import org.eclipse.rdf4j.query.QueryEvaluationException;
 import org.eclipse.rdf4j.query.QueryLanguage;
 import org.eclipse.rdf4j.repository.RepositoryConnection;
 import org.eclipse.rdf4j.repository.RepositoryException;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.testng.Assert;
 import org.testng.annotations.BeforeClass;
@@ -35,11 +38,14 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import com.sirma.itt.emf.GeneralSemanticTest;
+import com.sirma.itt.emf.semantic.exception.SemanticPersistenceException;
 import com.sirma.itt.emf.mocks.DefinitionServiceMock;
 import com.sirma.itt.emf.mocks.NamespaceRegistryMock;
 import com.sirma.itt.emf.mocks.SemanticDefinitionServiceMock;
 import com.sirma.itt.emf.mocks.search.QueryBuilderMock;
 import com.sirma.itt.emf.mocks.search.SemanticPropertiesWriteConverterMock;
+import com.sirma.itt.seip.Executable;
+import com.sirma.itt.seip.configuration.Options;
 import com.sirma.itt.seip.convert.TypeConverter;
 import com.sirma.itt.seip.db.DbDao;
 import com.sirma.itt.seip.domain.instance.EmfInstance;
@@ -53,6 +59,8 @@ import com.sirma.itt.seip.monitor.NoOpStatistics;
 import com.sirma.itt.seip.resources.EmfUser;
 import com.sirma.itt.seip.security.context.SecurityContext;
 import com.sirma.itt.seip.testutil.fakes.InstanceTypeFake;
+import com.sirma.itt.seip.testutil.fakes.TransactionSupportFake;
+import com.sirma.itt.seip.tx.TransactionSupport;
 import com.sirma.itt.seip.testutil.mocks.InstanceReferenceMock;
 import com.sirma.itt.seip.util.ReflectionUtils;
 import com.sirma.itt.semantic.NamespaceRegistryService;
@@ -131,6 +139,7 @@ public class SemanticDaoTest extends GeneralSemanticTest<DbDao> {
 		when(securityCtx.getAuthenticated()).thenReturn(user);
 		ReflectionUtils.setFieldValue(cut, "securityContext", securityCtx);
 		ReflectionUtils.setFieldValue(cut, "statistics", new NoOpStatistics());
+		ReflectionUtils.setFieldValue(cut, "transactionSupport", new TransactionSupportFake());
 	}
 
 	@Override
@@ -140,6 +149,7 @@ public class SemanticDaoTest extends GeneralSemanticTest<DbDao> {
 		repositoryConnection = connectionFactory.produceManagedConnection();
 
 		ReflectionUtils.setFieldValue(cut, "repositoryConnection", repositoryConnection);
+		ReflectionUtils.setFieldValue(cut, "writeBuffer", new SemanticWriteBuffer());
 		reset(eventService);
 	}
 
@@ -210,6 +220,62 @@ public class SemanticDaoTest extends GeneralSemanticTest<DbDao> {
 		Assert.assertTrue(booleanQuery.evaluate());
 	}
 
+	@Test
+	public void testSavingNewInstances_batchWrites() throws Exception {
+		TransactionSupport transactionSupport = mock(TransactionSupport.class);
+		ReflectionUtils.setFieldValue(cut, "transactionSupport", transactionSupport);
+		Instance first = createInstance(expectedStringPropertyValue, expectedBooleanPropertyValue);
+		Instance second = createInstance(expectedStringPropertyValue, expectedBooleanPropertyValue);
+		second.setId(first.getId() + "-2");
+
+		Options.BATCH_SEMANTIC_WRITES.enable();
+		try {
+			cut.saveOrUpdate(first);
+			cut.saveOrUpdate(second);
+		} finally {
+			Options.BATCH_SEMANTIC_WRITES.disable();
+			ReflectionUtils.setFieldValue(cut, "transactionSupport", new TransactionSupportFake());
+		}
+
+		// the flush should be scheduled only once for the transaction and nothing written before that
+		ArgumentCaptor<Executable> flush = ArgumentCaptor.forClass(Executable.class);
+		verify(transactionSupport).invokeBeforeTransactionCompletion(flush.capture());
+		assertFalse(isPartOfOwningInstance(first));
+
+		flush.getValue().execute();
+		commitTransaction();
+
+		assertTrue(isPartOfOwningInstance(first));
+		assertTrue(isPartOfOwningInstance(second));
+	}
+
+	@Test(expectedExceptions = SemanticPersistenceException.class)
+	public void testBatchWrites_shouldFailIfTheBufferIsNotAvailableOnFlush() throws Exception {
+		TransactionSupport transactionSupport = mock(TransactionSupport.class);
+		ReflectionUtils.setFieldValue(cut, "transactionSupport", transactionSupport);
+		Options.BATCH_SEMANTIC_WRITES.enable();
+		try {
+			cut.saveOrUpdate(createInstance(expectedStringPropertyValue, expectedBooleanPropertyValue));
+		} finally {
+			Options.BATCH_SEMANTIC_WRITES.disable();
+			ReflectionUtils.setFieldValue(cut, "transactionSupport", new TransactionSupportFake());
+		}
+		ArgumentCaptor<Executable> flush = ArgumentCaptor.forClass(Executable.class);
+		verify(transactionSupport).invokeBeforeTransactionCompletion(flush.capture());
+
+		SemanticWriteBuffer writeBuffer = mock(SemanticWriteBuffer.class);
+		when(writeBuffer.isEmpty()).thenThrow(new ContextNotActiveException());
+		ReflectionUtils.setFieldValue(cut, "writeBuffer", writeBuffer);
+
+		flush.getValue().execute();
+	}
+
+	private boolean isPartOfOwningInstance(Instance instance) {
+		String query = namespaceRegistryService.getNamespaces() + "ask {" + instance.getId() + " " + Proton.PREFIX
+				+ ":partOf " + expectedOwningInstanceId + "}";
+		return repositoryConnection.prepareBooleanQuery(QueryLanguage.SPARQL, query).evaluate();
+	}
+
 	private Instance createInstance(Serializable property1Value, Serializable property2Value) {
 		// create a new case instance
 		Instance caseInstance = new EmfInstance("emf:" + System.currentTimeMillis());
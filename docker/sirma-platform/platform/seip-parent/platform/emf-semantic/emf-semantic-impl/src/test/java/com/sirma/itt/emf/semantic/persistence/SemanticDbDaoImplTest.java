@@ -0,0 +1,224 @@
+package com.sirma.itt.emf.semantic.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anySetOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.QueryLanguage;
+import org.eclipse.rdf4j.query.TupleQuery;
+import org.eclipse.rdf4j.query.impl.IteratingTupleQueryResult;
+import org.eclipse.rdf4j.query.impl.ListBindingSet;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+
+import com.sirma.itt.seip.Pair;
+import com.sirma.itt.seip.definition.DefinitionService;
+import com.sirma.itt.seip.definition.SemanticDefinitionService;
+import com.sirma.itt.seip.domain.definition.DataTypeDefinition;
+import com.sirma.itt.seip.domain.instance.DefaultProperties;
+import com.sirma.itt.seip.domain.instance.EmfInstance;
+import com.sirma.itt.seip.domain.instance.Instance;
+import com.sirma.itt.seip.instance.InstanceTypes;
+import com.sirma.itt.seip.instance.ObjectInstance;
+import com.sirma.itt.seip.search.NamedQueries;
+import com.sirma.itt.seip.testutil.mocks.DefinitionMock;
+import com.sirma.itt.seip.util.ReflectionUtils;
+import com.sirma.itt.semantic.NamespaceRegistryService;
+import com.sirma.itt.semantic.model.vocabulary.EMF;
+import com.sirma.itt.semantic.queries.QueryBuilder;
+
+/**
+ * Tests the query results conversion in {@link SemanticDbDaoImpl}.
+ *
+ * @author BBonev
+ */
+public class SemanticDbDaoImplTest {
+
+	private static final ValueFactory VALUE_FACTORY = SimpleValueFactory.getInstance();
+	private static final List<String> BINDINGS = Arrays.asList(SemanticPropertiesReadConverter.IRI,
+			SemanticPropertiesReadConverter.PROPERTY_NAME, SemanticPropertiesReadConverter.PROPERTY_VALUE);
+	private static final IRI TITLE = VALUE_FACTORY.createIRI(EMF.NAMESPACE, "title");
+
+	@InjectMocks
+	private SemanticDbDaoImpl dbDao;
+
+	@Mock
+	private RepositoryConnection repositoryConnection;
+	@Mock
+	private QueryBuilder queryBuilder;
+	@Mock
+	private NamespaceRegistryService namespaceRegistryService;
+	@Mock
+	private DefinitionService definitionService;
+	@Mock
+	private SemanticDefinitionService semanticDefinitionService;
+	@Mock
+	private InstanceTypes instanceTypes;
+	@Spy
+	private SemanticPropertiesReadConverter readConverter = new SemanticPropertiesReadConverter();
+
+	private List<BindingSet> rows = new ArrayList<>();
+	private AtomicInteger readRows = new AtomicInteger();
+
+	@Before
+	public void beforeMethod() throws Exception {
+		MockitoAnnotations.initMocks(this);
+		ReflectionUtils.setFieldValue(readConverter, "namespaceRegistryService", namespaceRegistryService);
+
+		when(queryBuilder.buildQueryByName(anyString(), any())).thenReturn("SELECT ?uri WHERE { }");
+		TupleQuery tupleQuery = mock(TupleQuery.class);
+		when(repositoryConnection.prepareTupleQuery(eq(QueryLanguage.SPARQL), anyString())).thenReturn(tupleQuery);
+		when(tupleQuery.evaluate()).then(a -> new IteratingTupleQueryResult(BINDINGS, countReads(rows.iterator())));
+
+		when(namespaceRegistryService.getShortUri(any(IRI.class)))
+				.then(a -> "emf:" + a.getArgumentAt(0, IRI.class).getLocalName());
+		when(namespaceRegistryService.getShortUri(anyString())).then(a -> a.getArgumentAt(0, String.class));
+		when(semanticDefinitionService.getMostConcreteClass(anySetOf(String.class))).thenReturn(EMF.CASE.toString());
+
+		mockDataType("objectinstance", ObjectInstance.class);
+		mockDataType("emfinstance", EmfInstance.class);
+		when(definitionService.getInstanceDefinition(any(Instance.class))).then(a -> {
+			Instance instance = a.getArgumentAt(0, Instance.class);
+			DefinitionMock definition = new DefinitionMock();
+			definition.setIdentifier(instance.getIdentifier() + "-" + instance.getClass().getSimpleName());
+			return definition;
+		});
+	}
+
+	@Test
+	public void fetchWithNamed_shouldConvertOrderedResults_InstanceByInstance() {
+		List<Integer> readBeforeConversion = new ArrayList<>();
+		when(instanceTypes.from(any(Instance.class))).then(a -> {
+			readBeforeConversion.add(Integer.valueOf(readRows.get()));
+			return null;
+		});
+		addInstance("instance1", "objectinstance", "definition");
+		addInstance("instance2", "objectinstance", "definition");
+
+		List<Instance> instances = fetch(NamedQueries.SELECT_BY_IDS);
+
+		assertEquals(2, instances.size());
+		assertEquals("emf:instance1", instances.get(0).getId());
+		assertEquals("emf:instance2", instances.get(1).getId());
+		// the first instance is converted after reading the first row of the second instance
+		assertEquals(Arrays.asList(5, 8), readBeforeConversion);
+	}
+
+	@Test
+	public void fetchWithNamed_shouldResolveTypesOnce_ForInstancesWithTheSameDefinition() {
+		addInstance("instance1", "objectinstance", "definition");
+		addInstance("instance2", "objectinstance", "definition");
+		addInstance("instance3", "objectinstance", "definition");
+
+		List<Instance> instances = fetch(NamedQueries.SELECT_BY_IDS);
+
+		assertEquals(3, instances.size());
+		for (Instance instance : instances) {
+			assertTrue(instance instanceof ObjectInstance);
+			assertEquals("definition-ObjectInstance", instance.getIdentifier());
+			assertEquals(EMF.CASE.toString(), instance.get(DefaultProperties.SEMANTIC_TYPE));
+		}
+		verify(definitionService).getDataTypeDefinition("objectinstance");
+		verify(definitionService).getInstanceDefinition(any(Instance.class));
+		verify(semanticDefinitionService).getMostConcreteClass(anySetOf(String.class));
+	}
+
+	@Test
+	public void fetchWithNamed_shouldResolveDefinitionPerClass_ForSharedDefinitionId() {
+		addInstance("instance1", "objectinstance", "definition");
+		addInstance("instance2", "emfinstance", "definition");
+		addInstance("instance3", "objectinstance", "definition");
+
+		List<Instance> instances = fetch(NamedQueries.SELECT_BY_IDS);
+
+		assertEquals(3, instances.size());
+		assertEquals("definition-ObjectInstance", instances.get(0).getIdentifier());
+		assertEquals(EmfInstance.class, instances.get(1).getClass());
+		assertEquals("definition-EmfInstance", instances.get(1).getIdentifier());
+		assertEquals("definition-ObjectInstance", instances.get(2).getIdentifier());
+		verify(definitionService, times(2)).getInstanceDefinition(any(Instance.class));
+	}
+
+	@Test
+	public void fetchWithNamed_shouldGroupNotOrderedResults_BeforeConversion() {
+		addInstance("instance1", "objectinstance", "definition");
+		addInstance("instance2", "emfinstance", "definition");
+		// mix the rows of the two instances
+		Collections.swap(rows, 1, 4);
+		Collections.swap(rows, 2, 6);
+
+		List<Instance> instances = fetch(NamedQueries.SELECT_BY_CUSTOM_ID);
+
+		assertEquals(2, instances.size());
+		assertEquals("emf:instance1", instances.get(0).getId());
+		assertEquals("Title of instance1", instances.get(0).get("emf:title"));
+		assertEquals("definition-ObjectInstance", instances.get(0).getIdentifier());
+		assertEquals("emf:instance2", instances.get(1).getId());
+		assertEquals("Title of instance2", instances.get(1).get("emf:title"));
+		assertEquals("definition-EmfInstance", instances.get(1).getIdentifier());
+	}
+
+	private List<Instance> fetch(String queryName) {
+		List<Pair<String, Object>> params = Collections
+				.singletonList(new Pair<>(NamedQueries.Params.URIS, Collections.emptyList()));
+		return dbDao.fetchWithNamed(queryName, params);
+	}
+
+	private void mockDataType(String name, Class<?> javaClass) {
+		DataTypeDefinition dataType = mock(DataTypeDefinition.class);
+		when(dataType.getJavaClass()).then(a -> javaClass);
+		when(definitionService.getDataTypeDefinition(name)).thenReturn(dataType);
+	}
+
+	private void addInstance(String name, String instanceType, String definitionId) {
+		IRI uri = VALUE_FACTORY.createIRI(EMF.NAMESPACE, name);
+		addRow(uri, RDF.TYPE, EMF.CASE);
+		addRow(uri, EMF.INSTANCE_TYPE, VALUE_FACTORY.createLiteral(instanceType));
+		addRow(uri, EMF.DEFINITION_ID, VALUE_FACTORY.createLiteral(definitionId));
+		addRow(uri, TITLE, VALUE_FACTORY.createLiteral("Title of " + name));
+	}
+
+	private void addRow(IRI uri, IRI property, Value value) {
+		rows.add(new ListBindingSet(BINDINGS, uri, property, value));
+	}
+
+	private Iterator<BindingSet> countReads(Iterator<BindingSet> iterator) {
+		return new Iterator<BindingSet>() {
+			@Override
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+
+			@Override
+			public BindingSet next() {
+				readRows.incrementAndGet();
+				return iterator.next();
+			}
+		};
+	}
+}
@@ -0,0 +1,72 @@
+package com.sirma.itt.emf.semantic.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.junit.Test;
+
+/**
+ * Test for {@link SemanticWriteBuffer}
+ *
+ * @author BBonev
+ */
+public class SemanticWriteBufferTest {
+
+	private static final ValueFactory FACTORY = SimpleValueFactory.getInstance();
+	private static final IRI GRAPH = FACTORY.createIRI("http://test/graph");
+	private static final IRI INSTANCE = FACTORY.createIRI("http://test/instance");
+	private static final IRI TITLE = FACTORY.createIRI("http://test/title");
+
+	@Test
+	public void addChanges_shouldRequestFlushOnlyOncePerReset() throws Exception {
+		SemanticWriteBuffer buffer = new SemanticWriteBuffer();
+
+		assertTrue(buffer.addChanges("emf:instance", model("title1"), new LinkedHashModel()));
+		assertFalse(buffer.addChanges("emf:instance", model("title2"), new LinkedHashModel()));
+
+		buffer.reset();
+		assertTrue(buffer.isEmpty());
+		assertTrue(buffer.addChanges("emf:instance", model("title3"), new LinkedHashModel()));
+	}
+
+	@Test
+	public void addChanges_shouldMergeChangesOfTheSameInstance() throws Exception {
+		SemanticWriteBuffer buffer = new SemanticWriteBuffer();
+
+		buffer.addChanges("emf:instance", model("title1"), model("title0"));
+		buffer.addChanges("emf:instance", model("title2"), model("title1"));
+
+		Model add = buffer.getAddModel();
+		Model remove = buffer.getRemoveModel();
+		assertEquals(1, add.size());
+		assertTrue(add.contains(INSTANCE, TITLE, FACTORY.createLiteral("title2")));
+		assertEquals(2, remove.size());
+		assertTrue(remove.contains(INSTANCE, TITLE, FACTORY.createLiteral("title0")));
+		assertTrue(remove.contains(INSTANCE, TITLE, FACTORY.createLiteral("title1")));
+		assertEquals(1, buffer.getInstanceCount());
+	}
+
+	@Test
+	public void addChanges_addedStatementShouldCancelPendingRemove() throws Exception {
+		SemanticWriteBuffer buffer = new SemanticWriteBuffer();
+
+		buffer.addChanges("emf:instance", new LinkedHashModel(), model("title1"));
+		buffer.addChanges("emf:other", model("title1"), new LinkedHashModel());
+
+		assertTrue(buffer.getRemoveModel().isEmpty());
+		assertEquals(1, buffer.getAddModel().size());
+		assertEquals(2, buffer.getInstanceCount());
+	}
+
+	private static Model model(String title) {
+		Model model = new LinkedHashModel();
+		model.add(INSTANCE, TITLE, FACTORY.createLiteral(title), GRAPH);
+		return model;
+	}
+}
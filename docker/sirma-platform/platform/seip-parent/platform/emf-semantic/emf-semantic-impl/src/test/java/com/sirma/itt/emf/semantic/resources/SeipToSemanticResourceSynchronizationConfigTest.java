@@ -22,6 +22,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -36,6 +37,7 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.Spy;
 
+import com.sirma.itt.seip.configuration.Options;
 import com.sirma.itt.seip.convert.TypeConverter;
 import com.sirma.itt.seip.convert.TypeConverterUtil;
 import com.sirma.itt.seip.db.DbDao;
@@ -198,6 +200,24 @@ public class SeipToSemanticResourceSynchronizationConfigTest {
 		verify(domainInstanceService).save(argThat(buildInstanceSaveContextMatcher("emf:user")));
 	}
 
+	@Test
+	public void testSave_shouldBatchTheSemanticWrites() {
+		Map<Serializable, Instance> toAdd = new HashMap<>();
+		toAdd.put("emf:user", buildUser("user"));
+		SynchronizationResult<Serializable, Instance> synchronizationResult = new SynchronizationResult<>(toAdd,
+				new HashMap<>(), new HashMap<>());
+		AtomicBoolean batchWrites = new AtomicBoolean();
+		doAnswer(a -> {
+			batchWrites.set(Options.BATCH_SEMANTIC_WRITES.isEnabled());
+			return a.getArgumentAt(0, InstanceSaveContext.class).getInstance();
+		}).when(domainInstanceService).save(any(InstanceSaveContext.class));
+
+		config.save(synchronizationResult, new SyncRuntimeConfiguration());
+
+		assertTrue(batchWrites.get());
+		assertFalse(Options.BATCH_SEMANTIC_WRITES.isEnabled());
+	}
+
 	private static CustomMatcher<InstanceSaveContext> buildInstanceSaveContextMatcher(String userId) {
 		return CustomMatcher.of((InstanceSaveContext context) -> {
 			assertNotNull(context.getInstance());
@@ -18,6 +18,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -50,6 +51,7 @@ import org.testng.annotations.Test;
 
 import com.sirma.itt.emf.semantic.SemanticSearchConfigurations;
 import com.sirma.itt.emf.semantic.queries.SPARQLQueryHelper;
+import com.sirma.itt.seip.cache.lookup.EntityLookupCacheContext;
 import com.sirma.itt.seip.collections.CollectionUtils;
 import com.sirma.itt.seip.convert.TypeConverter;
 import com.sirma.itt.seip.convert.TypeConverterUtil;
@@ -68,6 +70,7 @@ import com.sirma.itt.seip.permissions.action.AuthorityService;
 import com.sirma.itt.seip.resources.EmfUser;
 import com.sirma.itt.seip.security.context.SecurityContext;
 import com.sirma.itt.seip.security.context.SecurityContextManager;
+import com.sirma.itt.seip.testutil.fakes.EntityLookupCacheContextFake;
 import com.sirma.itt.seip.testutil.fakes.SecurityContextManagerFake;
 import com.sirma.itt.seip.testutil.mocks.ConfigurationPropertyMock;
 import com.sirma.itt.semantic.NamespaceRegistryService;
@@ -81,6 +84,7 @@ import com.sirma.itt.semantic.configuration.SemanticConfiguration;
 public class SemanticSearchEngineTest {
 
 	private static final Random RANDOM = new SecureRandom();
+	private static final String COUNT_QUERY_MARKER = "(count(*)";
 
 	@InjectMocks
 	private SemanticSearchEngine searchEngine;
@@ -109,6 +113,8 @@ public class SemanticSearchEngineTest {
 	private SemanticDefinitionService semanticDefinitionService;
 	@Mock
 	private CodelistService codelistService;
+	@Spy
+	private EntityLookupCacheContext cacheContext = EntityLookupCacheContextFake.createInMemory();
 
 	private Map<String, Function<String, Value>> valueProducers = new HashMap<>();
 
@@ -141,6 +147,7 @@ public class SemanticSearchEngineTest {
 		when(securityContext.getEffectiveAuthentication()).thenReturn(user);
 		SPARQLQueryHelper.setNamespaceRegistryService(namespaceRegistryService);
 		SPARQLQueryHelper.setCaseInsenitiveOrderByList("");
+		when(configurations.getPageResultsInGdb()).thenReturn(new ConfigurationPropertyMock<>(Boolean.FALSE));
 		valueProducers.clear();
 		searchEngine.init();
 	}
@@ -173,6 +180,68 @@ public class SemanticSearchEngineTest {
 		assertEquals(result.get(result.size() - 1).getId(), buildUri(aPageSize * aPage));
 	}
 
+	@Test(dataProvider = "testPaginationProvider")
+	public void test_paginationInDatabase(Integer page, Integer pageSize, Integer total, Boolean inParallel,
+			Boolean sortInDb) {
+		int aPage = page.intValue();
+		int aPageSize = pageSize.intValue();
+
+		SearchArguments<Instance> arguments = createArgs(aPage, aPageSize);
+
+		valueProducers.put("prop1", name -> SimpleValueFactory.getInstance().createLiteral(name + RANDOM.nextInt()));
+		valueProducers.put("prop2", name -> generateDate());
+
+		List<String> executedQueries = new ArrayList<>();
+		when(repositoryConnection.prepareTupleQuery(eq(QueryLanguage.SPARQL), anyString())).then(a -> {
+			executedQueries.add(a.getArgumentAt(1, String.class));
+			return new TupleQueryStub(a.getArgumentAt(1, String.class), Arrays.asList("prop1", "prop2"));
+		});
+
+		setSearchInParallel(inParallel.booleanValue());
+		setSortInDb(sortInDb.booleanValue());
+		setPageInDb(true);
+
+		searchEngine.search(Instance.class, arguments);
+
+		List<Instance> result = arguments.getResult();
+		assertNotNull(result);
+		assertEquals(result.size(), aPageSize);
+		assertEquals(arguments.getTotalItems(), total.intValue());
+		assertEquals(result.get(0).getId(), buildUri(1 + (aPage - 1) * aPageSize));
+		assertEquals(result.get(result.size() - 1).getId(), buildUri(aPageSize * aPage));
+
+		// executing the same search again should use the cached count
+		executedQueries.clear();
+		searchEngine.search(Instance.class, createArgs(aPage, aPageSize));
+		assertFalse(executedQueries.stream().anyMatch(query -> query.contains(COUNT_QUERY_MARKER)));
+	}
+
+	@Test
+	public void test_paginationInDatabase_shouldSortOnlyRequestedPageInMemory() {
+		SearchArguments<Instance> arguments = createArgs(2, 10);
+		arguments.getSorters().clear();
+		arguments.addSorter(Sorter.ascendingSorter("emf:title"));
+
+		AtomicInteger sortValue = new AtomicInteger(1001);
+		valueProducers.put("sort", name -> SimpleValueFactory.getInstance().createLiteral(sortValue.decrementAndGet()));
+
+		when(repositoryConnection.prepareTupleQuery(eq(QueryLanguage.SPARQL), anyString()))
+				.then(a -> new TupleQueryStub(a.getArgumentAt(1, String.class), Arrays.asList("sort")));
+
+		setSearchInParallel(false);
+		setSortInDb(false);
+		setPageInDb(true);
+
+		searchEngine.search(Instance.class, arguments);
+
+		List<Instance> result = arguments.getResult();
+		assertEquals(result.size(), 10);
+		assertEquals(arguments.getTotalItems(), 1000);
+		// the last returned instance has the lowest sort value
+		assertEquals(result.get(0).getId(), buildUri(990));
+		assertEquals(result.get(9).getId(), buildUri(981));
+	}
+
 	@Test
 	public void testSorting() {
 		Sorter sorter = new Sorter("emf:modifiedBy", false);
@@ -313,10 +382,9 @@ public class SemanticSearchEngineTest {
 		when(repositoryConnection.prepareTupleQuery(eq(QueryLanguage.SPARQL), anyString()))
 				.then(a -> new TupleQueryStub(a.getArgumentAt(1, String.class), Arrays.asList("sort")));
 
-		when(codelistService.getCodeValues(Matchers.eq(2))).then(a -> statuses);
-
-		when(codelistService.getDescription(any()))
-				.then(a -> a.getArgumentAt(0, CodeValue.class).getProperties().get("description"));
+		Map<String, String> descriptions = CollectionUtils.createHashMap(4);
+		statuses.forEach((key, value) -> descriptions.put(key, (String) value.getProperties().get("description")));
+		when(codelistService.getDescriptions(Matchers.eq(2))).thenReturn(descriptions);
 
 		setSearchInParallel(false);
 		setSortInDb(false);
@@ -366,6 +434,10 @@ public class SemanticSearchEngineTest {
 		when(configurations.getProcessResultsInParallel()).thenReturn(new ConfigurationPropertyMock<>(searchParalell));
 	}
 
+	void setPageInDb(boolean pageInDb) {
+		when(configurations.getPageResultsInGdb()).thenReturn(new ConfigurationPropertyMock<>(pageInDb));
+	}
+
 	void setSortInDb(boolean sortInDb) {
 		when(configurations.getSortResultsInGdb()).thenReturn(new ConfigurationPropertyMock<>(sortInDb));
 	}
@@ -410,6 +482,10 @@ public class SemanticSearchEngineTest {
 
 		@Override
 		public TupleQueryResult evaluate() throws QueryEvaluationException {
+			if (query.contains(COUNT_QUERY_MARKER)) {
+				// more than the max search size
+				return new CountQueryResultStub(5000);
+			}
 			return new TupleQueryResultStub(calculateElements(query), calculateStart(query), bindingNames);
 		}
 
@@ -438,6 +514,47 @@ public class SemanticSearchEngineTest {
 		}
 	}
 
+	/**
+	 * Result stub that returns single count binding.
+	 */
+	private static class CountQueryResultStub implements TupleQueryResult {
+
+		private final int count;
+		private boolean consumed;
+
+		CountQueryResultStub(int count) {
+			this.count = count;
+		}
+
+		@Override
+		public void close() throws QueryEvaluationException {
+			// empty
+		}
+
+		@Override
+		public boolean hasNext() throws QueryEvaluationException {
+			return !consumed;
+		}
+
+		@Override
+		public BindingSet next() throws QueryEvaluationException {
+			consumed = true;
+			MapBindingSet bindingSet = new MapBindingSet();
+			bindingSet.addBinding(SPARQLQueryHelper.COUNT, SimpleValueFactory.getInstance().createLiteral(count));
+			return bindingSet;
+		}
+
+		@Override
+		public void remove() throws QueryEvaluationException {
+			Assert.fail("Remove should not be called!");
+		}
+
+		@Override
+		public List<String> getBindingNames() throws QueryEvaluationException {
+			return Collections.singletonList(SPARQLQueryHelper.COUNT);
+		}
+	}
+
 	/**
 	 * The Class TupleQueryResultStub.
 	 */
@@ -0,0 +1,48 @@
+package com.sirma.itt.emf.semantic.search;
+
+import static org.testng.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import org.testng.annotations.Test;
+
+/**
+ * Test for {@link TopResultsCollector}
+ *
+ * @author BBonev
+ */
+public class TopResultsCollectorTest {
+
+	@Test
+	public void shouldKeepOnlyTheBestElements() {
+		TopResultsCollector<Integer> collector = new TopResultsCollector<>(3, Comparator.naturalOrder());
+		Arrays.asList(5, 9, 1, 7, 3, 8, 2).forEach(collector::add);
+
+		assertEquals(collector.getSorted(), Arrays.asList(1, 2, 3));
+		assertEquals(collector.getCount(), 7);
+	}
+
+	@Test
+	public void shouldKeepEncounterOrderOfEqualElements() {
+		TopResultsCollector<String> collector = new TopResultsCollector<>(3,
+				Comparator.comparing(value -> value.charAt(0)));
+		Arrays.asList("b1", "a1", "b2", "a2", "a3", "a4").forEach(collector::add);
+
+		assertEquals(collector.getSorted(), Arrays.asList("a1", "a2", "a3"));
+	}
+
+	@Test
+	public void shouldReturnAllElementsIfLessThanTheLimit() {
+		TopResultsCollector<Integer> collector = new TopResultsCollector<>(10, Comparator.reverseOrder());
+		Arrays.asList(1, 3, 2).forEach(collector::add);
+
+		assertEquals(collector.getSorted(), Arrays.asList(3, 2, 1));
+		assertEquals(collector.getCount(), 3);
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void shouldFailOnInvalidLimit() {
+		new TopResultsCollector<>(0, Comparator.naturalOrder());
+	}
+}
@@ -193,6 +193,15 @@ public class Options {
 	public static final Option PREVENT_SAVE_AFTER_ATTACH = RuntimeContext
 			.createOption(RuntimeConfigurationProperties.PREVENT_SAVE_AFTER_ATTACH);
 
+	/**
+	 * When enabled the semantic changes of the saved instances are not written to the semantic database immediately but
+	 * are collected and merged for the whole transaction and written at once before the transaction completion. This is
+	 * intended for bulk imports and batch jobs that save many instances in a single transaction. Note that the written
+	 * data will not be visible for the semantic queries in the same transaction until the end of the transaction.
+	 */
+	public static final Option BATCH_SEMANTIC_WRITES = RuntimeContext
+			.createOption(RuntimeConfigurationProperties.BATCH_SEMANTIC_WRITES);
+
 	/* CONFIGURATIONS */
 
 	/**
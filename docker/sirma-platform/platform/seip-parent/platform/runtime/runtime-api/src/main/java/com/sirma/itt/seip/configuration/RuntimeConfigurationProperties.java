@@ -163,4 +163,10 @@ public interface RuntimeConfigurationProperties {
 	 * avoid second save.
 	 */
 	String PREVENT_SAVE_AFTER_ATTACH = "PREVENT_SAVE_AFTER_ATTACH";
+
+	/**
+	 * Collects the semantic changes of all instances saved in the current transaction and writes them at once at the
+	 * end of the transaction.
+	 */
+	String BATCH_SEMANTIC_WRITES = "BATCH_SEMANTIC_WRITES";
 }
@@ -0,0 +1,421 @@
+package com.sirma.itt.emf.audit.db;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sirma.itt.emf.audit.activity.AuditActivity;
+import com.sirma.itt.emf.audit.processor.RecentActivitiesPushIndexer;
+import com.sirma.itt.seip.collections.CollectionUtils;
+import com.sirma.itt.seip.configuration.ConfigurationProperty;
+import com.sirma.itt.seip.configuration.annotation.Configuration;
+import com.sirma.itt.seip.configuration.annotation.ConfigurationPropertyDefinition;
+import com.sirma.itt.seip.io.TempFileProvider;
+import com.sirma.itt.seip.runtime.boot.Startup;
+import com.sirma.itt.seip.security.context.SecurityContextManager;
+import com.sirma.itt.seip.security.context.ThreadFactories;
+
+/**
+ * Asynchronous sink for {@link AuditActivity} entries. The activities are added to a bounded queue and are written by
+ * a single background thread using JDBC batch inserts via {@link AuditActivityBatchWriter}. The batch is written when
+ * it reaches the configured size or when the configured linger time passes after the first activity in the batch.
+ * <p>
+ * When the queue is full the caller waits for free space for the configured enqueue timeout. If the activity still
+ * could not be queued or the audit database could not accept a batch, the activities are written to a spill file in
+ * the configured spill directory. The spill files are written again to the database by the background thread when
+ * it's idle and are deleted only after successful write. This guarantees at least once delivery of the activities.
+ * Spill files that could not be read are renamed with {@value #CORRUPT_FILE_EXTENSION} extension and are not replayed.
+ * After the sink is stopped the activities are written directly by the calling thread.
+ * The written activities are passed to the {@link RecentActivitiesPushIndexer}.
+ *
+ * @author BBonev
+ */
+@Singleton
+public class AsyncAuditSink {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(AsyncAuditSink.class);
+
+	static final String SPILL_FILE_EXTENSION = ".spill";
+	static final String CORRUPT_FILE_EXTENSION = ".corrupt";
+	private static final String SPILL_DIR_NAME = "audit-spill";
+	private static final long IDLE_POLL_MILLIS = 1000L;
+
+	@Inject
+	@Configuration
+	@ConfigurationPropertyDefinition(name = "audit.db.async.enabled", system = true, type = Boolean.class, defaultValue = "false", sensitive = true, label = "If enabled the audit activities are written to the audit database asynchronously after the transaction that generated them completes successfully. The activities are written in batches by a background thread.")
+	private ConfigurationProperty<Boolean> asyncEnabled;
+
+	@Inject
+	@Configuration
+	@ConfigurationPropertyDefinition(name = "audit.db.async.batchSize", system = true, type = Integer.class, defaultValue = "200", sensitive = true, label = "The maximum number of audit activities to write in a single JDBC batch when the asynchronous audit is enabled.")
+	private ConfigurationProperty<Integer> batchSize;
+
+	@Inject
+	@Configuration
+	@ConfigurationPropertyDefinition(name = "audit.db.async.lingerMillis", system = true, type = Long.class, defaultValue = "250", sensitive = true, label = "The maximum time in milliseconds to wait for more audit activities before writing incomplete batch.")
+	private ConfigurationProperty<Long> lingerMillis;
+
+	@Inject
+	@Configuration
+	@ConfigurationPropertyDefinition(name = "audit.db.async.queueCapacity", system = true, type = Integer.class, defaultValue = "10000", sensitive = true, label = "The maximum number of audit activities waiting to be written. Changes are applied after restart.")
+	private ConfigurationProperty<Integer> queueCapacity;
+
+	@Inject
+	@Configuration
+	@ConfigurationPropertyDefinition(name = "audit.db.async.enqueueTimeoutMillis", system = true, type = Long.class, defaultValue = "500", sensitive = true, label = "The maximum time in milliseconds the caller will wait for free space in the audit queue before the activity is written to a spill file.")
+	private ConfigurationProperty<Long> enqueueTimeoutMillis;
+
+	@Inject
+	@Configuration
+	@ConfigurationPropertyDefinition(name = "audit.db.async.spillRetryMillis", system = true, type = Long.class, defaultValue = "30000", sensitive = true, label = "The minimum time in milliseconds between the attempts to write the spilled audit activities to the audit database.")
+	private ConfigurationProperty<Long> spillRetryMillis;
+
+	@Inject
+	@Configuration
+	@ConfigurationPropertyDefinition(name = "audit.db.async.spillDirectory", system = true, sensitive = true, label = "Directory where to store the audit activities that could not be written to the audit database. If not set a long living temporary directory will be used.")
+	private ConfigurationProperty<String> spillDirectory;
+
+	@Inject
+	private AuditActivityBatchWriter batchWriter;
+
+	@Inject
+	private RecentActivitiesPushIndexer pushIndexer;
+
+	@Inject
+	private SecurityContextManager securityContextManager;
+
+	@Inject
+	private TempFileProvider tempFileProvider;
+
+	private volatile BlockingQueue<PendingActivity> queue;
+	private Thread worker;
+	private volatile boolean running;
+	private volatile boolean stopped;
+	private volatile long lastReplay;
+	private final AtomicLong spillCounter = new AtomicLong();
+
+	/**
+	 * Checks if the asynchronous audit is enabled.
+	 *
+	 * @return true, if enabled
+	 */
+	public boolean isEnabled() {
+		return asyncEnabled.get().booleanValue();
+	}
+
+	/**
+	 * Adds the given activity for writing to the audit database of the given tenant. If the queue is full the method
+	 * will block up to the configured enqueue timeout and then will write the activity to a spill file. If the sink is
+	 * already stopped the activity is written immediately.
+	 *
+	 * @param tenantId
+	 *            the tenant that produced the activity
+	 * @param activity
+	 *            the activity to write
+	 */
+	public void add(String tenantId, AuditActivity activity) {
+		if (activity == null) {
+			return;
+		}
+		PendingActivity pending = new PendingActivity(tenantId, activity);
+		if (stopped) {
+			// the writer is not restarted during shutdown
+			flush(Collections.singletonList(pending));
+			return;
+		}
+		if (!running) {
+			ensureStarted();
+		}
+		try {
+			if (queue.offer(pending, enqueueTimeoutMillis.get().longValue(), TimeUnit.MILLISECONDS)) {
+				return;
+			}
+			LOGGER.warn("Audit queue is full. Writing the activity to a spill file");
+		} catch (InterruptedException e) {
+			LOGGER.warn("Interrupted while waiting for free space in the audit queue. Writing the activity to a spill file");
+			Thread.currentThread().interrupt();
+		}
+		spill(tenantId, Collections.singletonList(activity));
+	}
+
+	/**
+	 * Starts the background writer on server start if the asynchronous audit is enabled so that the activities left in
+	 * spill files from previous runs are written to the database.
+	 */
+	@Startup(async = true)
+	public void initialize() {
+		if (isEnabled()) {
+			ensureStarted();
+		}
+	}
+
+	private synchronized void ensureStarted() {
+		if (running || stopped) {
+			return;
+		}
+		queue = new ArrayBlockingQueue<>(Math.max(queueCapacity.get().intValue(), 1));
+		running = true;
+		worker = ThreadFactories
+				.createSystemThreadFactory("AuditWriter", securityContextManager, ThreadFactories::asDaemon)
+					.newThread(this::processQueue);
+		worker.start();
+		LOGGER.info("Started asynchronous audit writer");
+	}
+
+	/**
+	 * Stops the background writer and writes the activities left in the queue.
+	 */
+	@PreDestroy
+	synchronized void shutdown() {
+		stopped = true;
+		if (!running) {
+			return;
+		}
+		running = false;
+		worker.interrupt();
+		try {
+			worker.join(TimeUnit.SECONDS.toMillis(10));
+		} catch (InterruptedException e) {
+			LOGGER.warn("Interrupted while waiting for the audit writer to stop");
+			Thread.currentThread().interrupt();
+		}
+		List<PendingActivity> remaining = new ArrayList<>(queue.size());
+		queue.drainTo(remaining);
+		flush(remaining);
+		LOGGER.info("Stopped asynchronous audit writer");
+	}
+
+	private void processQueue() {
+		while (running) {
+			try {
+				PendingActivity first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+				if (first == null) {
+					replaySpilled();
+				} else {
+					List<PendingActivity> batch = collectBatch(first);
+					// the batch is written even if interrupted while collecting it
+					boolean interrupted = Thread.interrupted();
+					flush(batch);
+					if (interrupted) {
+						LOGGER.trace("Audit writer interrupted");
+						return;
+					}
+				}
+			} catch (InterruptedException e) {
+				LOGGER.trace("Audit writer interrupted", e);
+				Thread.currentThread().interrupt();
+				return;
+			} catch (RuntimeException e) {
+				LOGGER.error("Unexpected error in the audit writer", e);
+			}
+		}
+	}
+
+	/**
+	 * Collects the activities for the next batch. If interrupted while waiting for more activities the collected ones
+	 * are returned and the interrupted status of the thread is set.
+	 *
+	 * @param first
+	 *            the first activity of the batch
+	 * @return the activities to write
+	 */
+	private List<PendingActivity> collectBatch(PendingActivity first) {
+		int maxSize = Math.max(batchSize.get().intValue(), 1);
+		List<PendingActivity> batch = new ArrayList<>(maxSize);
+		batch.add(first);
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMillis.get().longValue());
+		// take everything that is already in the queue without waiting
+		queue.drainTo(batch, maxSize - batch.size());
+		while (batch.size() < maxSize) {
+			long remaining = deadline - System.nanoTime();
+			if (remaining <= 0L) {
+				break;
+			}
+			PendingActivity next;
+			try {
+				next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+			} catch (InterruptedException e) {
+				LOGGER.trace("Interrupted while collecting audit batch", e);
+				Thread.currentThread().interrupt();
+				break;
+			}
+			if (next == null) {
+				break;
+			}
+			batch.add(next);
+			queue.drainTo(batch, maxSize - batch.size());
+		}
+		return batch;
+	}
+
+	/**
+	 * Writes the given activities grouped by tenant. The activities for tenants that could not be written are stored in
+	 * spill files.
+	 *
+	 * @param batch
+	 *            the activities to write
+	 */
+	void flush(List<PendingActivity> batch) {
+		Map<String, List<AuditActivity>> byTenant = new LinkedHashMap<>();
+		for (PendingActivity pending : batch) {
+			CollectionUtils.addValueToMap(byTenant, pending.tenantId, pending.activity);
+		}
+		byTenant.forEach((tenantId, activities) -> {
+			if (!write(tenantId, activities)) {
+				spill(tenantId, activities);
+			}
+		});
+	}
+
+	private boolean write(String tenantId, List<AuditActivity> activities) {
+		try {
+			securityContextManager.executeAsTenant(tenantId).consumer(batchWriter::write, activities);
+		} catch (RuntimeException e) {
+			LOGGER.warn("Could not write {} audit activities for tenant {} due to: {}", activities.size(), tenantId,
+					e.getMessage());
+			LOGGER.trace("Audit write failed", e);
+			// postpone the replay of the spilled files as the database is probably not available
+			lastReplay = System.currentTimeMillis();
+			return false;
+		}
+		pushIndexer.add(tenantId, activities);
+		return true;
+	}
+
+	/**
+	 * Writes the activities from the spill files to the audit database. The method does nothing if called before the
+	 * configured retry interval after the last attempt. Each file is deleted after successful write.
+	 */
+	void replaySpilled() {
+		long now = System.currentTimeMillis();
+		if (now - lastReplay < spillRetryMillis.get().longValue()) {
+			return;
+		}
+		lastReplay = now;
+		File[] files = getSpillDirectory().listFiles((dir, name) -> name.endsWith(SPILL_FILE_EXTENSION));
+		if (files == null || files.length == 0) {
+			return;
+		}
+		Arrays.sort(files);
+		LOGGER.info("Found {} audit spill files. Writing them to the audit database", files.length);
+		for (File file : files) {
+			if (!replay(file)) {
+				// no need to try the rest if the database is not available
+				return;
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private boolean replay(File file) {
+		String tenantId;
+		List<AuditActivity> activities;
+		try (ObjectInputStream input = new ObjectInputStream(
+				new BufferedInputStream(new FileInputStream(file)))) {
+			tenantId = input.readUTF();
+			activities = (List<AuditActivity>) input.readObject();
+		} catch (IOException | ClassNotFoundException e) {
+			LOGGER.error("Could not read audit spill file {}. The file will not be replayed", file, e);
+			quarantine(file);
+			return true;
+		}
+		if (!write(tenantId, activities)) {
+			return false;
+		}
+		if (!file.delete()) {
+			LOGGER.warn("Could not delete replayed audit spill file {}. Its activities may be written again", file);
+		}
+		return true;
+	}
+
+	private static void quarantine(File file) {
+		File corrupt = new File(file.getParentFile(), file.getName() + CORRUPT_FILE_EXTENSION);
+		if (file.renameTo(corrupt)) {
+			LOGGER.warn("Moved unreadable audit spill file to {}", corrupt);
+		} else {
+			LOGGER.error("Could not rename unreadable audit spill file {}", file);
+		}
+	}
+
+	/**
+	 * Writes the given activities to new spill file.
+	 *
+	 * @param tenantId
+	 *            the tenant of the activities
+	 * @param activities
+	 *            the activities to store
+	 */
+	void spill(String tenantId, List<AuditActivity> activities) {
+		// the file names are ordered by creation time so that the activities are replayed in the same order
+		String name = String.format("%020d-%06d-%s%s", System.currentTimeMillis(),
+				spillCounter.incrementAndGet() % 1000000, tenantId, SPILL_FILE_EXTENSION);
+		File target = new File(getSpillDirectory(), name);
+		File temp = new File(target.getParentFile(), name + ".tmp");
+		try (ObjectOutputStream output = new ObjectOutputStream(
+				new BufferedOutputStream(new FileOutputStream(temp)))) {
+			output.writeUTF(tenantId);
+			output.writeObject(new ArrayList<>(activities));
+		} catch (IOException e) {
+			LOGGER.error("Could not write {} audit activities for tenant {} to spill file. The activities are lost",
+					activities.size(), tenantId, e);
+			return;
+		}
+		// rename after the file is complete so that partially written files are not replayed
+		if (!temp.renameTo(target)) {
+			LOGGER.error("Could not rename audit spill file {} to {}", temp, target);
+			return;
+		}
+		LOGGER.info("Stored {} audit activities for tenant {} in spill file {}", activities.size(), tenantId, target);
+	}
+
+	private File getSpillDirectory() {
+		File directory;
+		if (StringUtils.isBlank(spillDirectory.get())) {
+			directory = tempFileProvider.createLongLifeTempDir(SPILL_DIR_NAME);
+		} else {
+			directory = new File(spillDirectory.get());
+		}
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			LOGGER.warn("Could not create audit spill directory {}", directory);
+		}
+		return directory;
+	}
+
+	/**
+	 * Activity waiting to be written with the tenant that produced it.
+	 *
+	 * @author BBonev
+	 */
+	static class PendingActivity {
+		final String tenantId;
+		final AuditActivity activity;
+
+		PendingActivity(String tenantId, AuditActivity activity) {
+			this.tenantId = tenantId;
+			this.activity = activity;
+		}
+	}
+}
@@ -0,0 +1,120 @@
+package com.sirma.itt.emf.audit.db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Iterator;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sirma.itt.emf.audit.activity.AuditActivity;
+import com.sirma.itt.emf.audit.configuration.AuditConfiguration;
+import com.sirma.itt.seip.exception.EmfRuntimeException;
+import com.sirma.itt.seip.time.TimeTracker;
+import com.sirma.itt.seip.tx.TransactionSupport;
+
+/**
+ * Writes {@link AuditActivity} entries to the audit database of the current tenant using JDBC batch inserts. The
+ * writer does not go through the entity manager. The generated identifiers are set to the written activities if the
+ * driver returns them.
+ *
+ * @author BBonev
+ */
+@Singleton
+public class AuditActivityBatchWriter {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(AuditActivityBatchWriter.class);
+	private static final String[] GENERATED_COLUMNS = { "id" };
+
+	static final String INSERT_ACTIVITY_SQL = "INSERT INTO emf_events (eventdate, username, actionid, objecttype, "
+			+ "objectsubtype, objectstate, objectpreviousstate, objecttitle, objectid, objectsystemid, objecturl, "
+			+ "context, requestid, relationid, targetproperties, relationstatus, userid) "
+			+ "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+	@Inject
+	private AuditConfiguration auditConfiguration;
+
+	@Inject
+	private TransactionSupport transactionSupport;
+
+	/**
+	 * Inserts the given activities in a new transaction in the audit database of the current tenant.
+	 *
+	 * @param activities
+	 *            the activities to insert
+	 * @throws EmfRuntimeException
+	 *             if the activities could not be written
+	 */
+	public void write(Collection<AuditActivity> activities) {
+		if (activities == null || activities.isEmpty()) {
+			return;
+		}
+		TimeTracker tracker = TimeTracker.createAndStart();
+		transactionSupport.invokeInNewTx(() -> insert(activities));
+		LOGGER.debug("Persisted batch of {} audit activities in {} ms", activities.size(), tracker.stop());
+	}
+
+	private void insert(Collection<AuditActivity> activities) {
+		try (Connection connection = auditConfiguration.getDataSource().getConnection();
+				PreparedStatement statement = connection.prepareStatement(INSERT_ACTIVITY_SQL, GENERATED_COLUMNS)) {
+			for (AuditActivity activity : activities) {
+				setParameters(statement, activity);
+				statement.addBatch();
+			}
+			statement.executeBatch();
+			setGeneratedIds(statement, activities);
+		} catch (SQLException e) {
+			throw new EmfRuntimeException("Could not persist batch of " + activities.size() + " audit activities", e);
+		}
+	}
+
+	private static void setGeneratedIds(PreparedStatement statement, Collection<AuditActivity> activities)
+			throws SQLException {
+		try (ResultSet keys = statement.getGeneratedKeys()) {
+			if (keys == null) {
+				return;
+			}
+			Iterator<AuditActivity> it = activities.iterator();
+			while (keys.next() && it.hasNext()) {
+				it.next().setId(Long.valueOf(keys.getLong(1)));
+			}
+		}
+	}
+
+	private static void setParameters(PreparedStatement statement, AuditActivity activity) throws SQLException {
+		setTimestamp(statement, 1, activity.getEventDate());
+		statement.setString(2, activity.getUserName());
+		statement.setString(3, activity.getActionID());
+		statement.setString(4, activity.getObjectType());
+		statement.setString(5, activity.getObjectSubType());
+		statement.setString(6, activity.getObjectState());
+		statement.setString(7, activity.getObjectPreviousState());
+		statement.setString(8, activity.getObjectTitle());
+		statement.setString(9, activity.getObjectID());
+		statement.setString(10, activity.getObjectSystemID());
+		statement.setString(11, activity.getObjectURL());
+		statement.setString(12, activity.getContext());
+		statement.setString(13, activity.getRequestId());
+		statement.setString(14, activity.getRelationId());
+		statement.setString(15, activity.getTargetProperties());
+		statement.setString(16, activity.getRelationStatus());
+		statement.setString(17, activity.getUserId());
+	}
+
+	private static void setTimestamp(PreparedStatement statement, int index, Date date) throws SQLException {
+		if (date == null) {
+			statement.setNull(index, Types.TIMESTAMP);
+		} else {
+			statement.setTimestamp(index, new Timestamp(date.getTime()));
+		}
+	}
+}
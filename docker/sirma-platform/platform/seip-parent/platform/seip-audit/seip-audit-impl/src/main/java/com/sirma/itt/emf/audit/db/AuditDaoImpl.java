@@ -15,13 +15,20 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.sirma.itt.emf.audit.activity.AuditActivity;
+import com.sirma.itt.emf.audit.processor.RecentActivitiesPushIndexer;
 import com.sirma.itt.emf.audit.solr.query.ServiceResult;
 import com.sirma.itt.seip.Pair;
 import com.sirma.itt.seip.db.DbDao;
+import com.sirma.itt.seip.security.context.SecurityContext;
 import com.sirma.itt.seip.time.TimeTracker;
+import com.sirma.itt.seip.tx.TransactionSupport;
 
 /**
  * Data access object for the audit log database. Persists and retrieves activities.
+ * <p>
+ * If the asynchronous audit is enabled via {@link AsyncAuditSink} the published activities are passed to the sink
+ * after successful completion of the current transaction instead of being persisted in it. Otherwise the persisted
+ * activities are passed to the {@link RecentActivitiesPushIndexer} after successful transaction if enabled.
  *
  * @author Mihail Radkov
  * @author Vilizar Tsonev
@@ -34,12 +41,35 @@ public class AuditDaoImpl implements AuditDao {
 	@AuditDb
 	private DbDao dbDao;
 
+	@Inject
+	private AsyncAuditSink asyncAuditSink;
+
+	@Inject
+	private RecentActivitiesPushIndexer pushIndexer;
+
+	@Inject
+	private TransactionSupport transactionSupport;
+
+	@Inject
+	private SecurityContext securityContext;
+
 	@Override
 	public void publish(AuditActivity activity) {
-		if (activity != null) {
+		if (activity == null) {
+			return;
+		}
+		if (asyncAuditSink.isEnabled()) {
+			String tenantId = securityContext.getCurrentTenantId();
+			transactionSupport.invokeOnSuccessfulTransaction(() -> asyncAuditSink.add(tenantId, activity));
+		} else {
 			TimeTracker tracker = TimeTracker.createAndStart();
 			dbDao.saveOrUpdate(activity);
 			LOGGER.debug("EMF activity persisted in {} ms", tracker.stop());
+			if (pushIndexer.isEnabled()) {
+				String tenantId = securityContext.getCurrentTenantId();
+				transactionSupport.invokeOnSuccessfulTransaction(
+						() -> pushIndexer.add(tenantId, Collections.singletonList(activity)));
+			}
 		}
 	}
 
@@ -18,11 +18,15 @@ import com.sirma.itt.seip.configuration.ConfigurationProperty;
 import com.sirma.itt.seip.configuration.annotation.Configuration;
 import com.sirma.itt.seip.configuration.annotation.ConfigurationPropertyDefinition;
 import com.sirma.itt.seip.exception.RollbackedException;
+import com.sirma.itt.seip.security.context.SecurityContext;
 import com.sirma.itt.seip.tasks.Schedule;
 
 /**
  * Import Trigger service. Defines a cron method that regularly imports data to recent activities core. Using the last
  * known date from the current solr data.
+ * <p>
+ * When the {@link RecentActivitiesPushIndexer} is enabled the import is performed only for tenants that are not caught
+ * up with the audit database, for example after server restart or failed push.
  *
  * @author BBonev
  */
@@ -39,6 +43,10 @@ public class RecentActivitiesImporter {
 	private AuditDao auditDao;
 	@Inject
 	private RecentActivitiesSolrImporter activitiesSolrImporter;
+	@Inject
+	private RecentActivitiesPushIndexer pushIndexer;
+	@Inject
+	private SecurityContext securityContext;
 
 	/**
 	 * Trigger automatic solr import of non imported recent activities
@@ -48,6 +56,11 @@ public class RecentActivitiesImporter {
 	@Schedule(identifier = "recentActivitiesImport", system = false)
 	@ConfigurationPropertyDefinition(name = "audit.solr.recentActivitiesImport.cron", defaultValue = "0/5 * * ? * *", system = true, sensitive = true, label = "Recent activities solr import trigger")
 	void triggerImport() throws RollbackedException {
+		String tenantId = securityContext.getCurrentTenantId();
+		boolean catchUp = pushIndexer.isEnabled();
+		if (catchUp && pushIndexer.isCaughtUp(tenantId)) {
+			return;
+		}
 		Date knownActivityDate;
 		try {
 			knownActivityDate = activitiesSolrImporter.getLastKnownActivityDate();
@@ -61,11 +74,17 @@ public class RecentActivitiesImporter {
 			while (!(activities = auditDao.getActivitiesAfter(knownActivityDate, requestBatchSize.get())).isEmpty()) {
 				LOGGER.trace("Importing {} entries", activities.size());
 				activitiesSolrImporter.importActivities(activities);
+				if (catchUp) {
+					pushIndexer.onImported(tenantId, activities);
+				}
 
 				// get the last processed date
 				// this could also be changed with query to solr but for now is not needed
 				knownActivityDate = getLastKnownActivityDate(activities);
 			}
+			if (catchUp) {
+				pushIndexer.onCatchUpCompleted(tenantId);
+			}
 		} catch (RecentActivitiesSolrImporter.SolrCoreNotFoundException e) {
 			LOGGER.warn("Cant import recent activity entries due to: {}", e.getMessage());
 			LOGGER.trace(e.getMessage(), e);
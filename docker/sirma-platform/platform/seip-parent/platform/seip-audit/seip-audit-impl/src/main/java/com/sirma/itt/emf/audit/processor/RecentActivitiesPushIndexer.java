@@ -0,0 +1,390 @@
+package com.sirma.itt.emf.audit.processor;
+
+import static com.sirma.itt.seip.collections.CollectionUtils.isEmpty;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sirma.itt.emf.audit.activity.AuditActivity;
+import com.sirma.itt.seip.configuration.ConfigurationProperty;
+import com.sirma.itt.seip.configuration.annotation.Configuration;
+import com.sirma.itt.seip.configuration.annotation.ConfigurationPropertyDefinition;
+import com.sirma.itt.seip.exception.EmfRuntimeException;
+import com.sirma.itt.seip.exception.RollbackedException;
+import com.sirma.itt.seip.security.context.SecurityContextManager;
+import com.sirma.itt.seip.security.context.ThreadFactories;
+
+/**
+ * Pushes committed {@link AuditActivity} entries to the recent activities solr core instead of waiting for the
+ * {@link RecentActivitiesImporter} to pull them from the audit database. The activities are added after successful
+ * transaction and are sent by a single background thread in micro batches via {@link RecentActivitiesSolrImporter}.
+ * <p>
+ * The durable watermark is the last activity date stored in the recent activities core. Each tenant starts as not
+ * caught up after server start and all activities after the watermark are imported from the database by the
+ * {@link RecentActivitiesImporter}. Until this completes the pushed activities for the tenant are held back and only
+ * the ones that were not imported are sent after that. They are matched by activity identifier and not by event date,
+ * because the activities are not committed in the order of their event dates. If sending of a batch fails the tenant
+ * is marked as not caught up again, so the missed activities will be imported from the database on the next import
+ * trigger.
+ *
+ * @author BBonev
+ */
+@Singleton
+public class RecentActivitiesPushIndexer {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+	private static final long IDLE_POLL_MILLIS = 1000L;
+
+	@Inject
+	@Configuration
+	@ConfigurationPropertyDefinition(name = "audit.solr.recentActivities.push.enabled", system = true, type = Boolean.class, defaultValue = "false", sensitive = true, label = "If enabled the committed audit activities are pushed to the recent activities solr core. The scheduled recent activities import is used only to catch up after server restart or failed push.")
+	private ConfigurationProperty<Boolean> pushEnabled;
+
+	@Inject
+	@Configuration
+	@ConfigurationPropertyDefinition(name = "audit.solr.recentActivities.push.batchSize", system = true, type = Integer.class, defaultValue = "500", sensitive = true, label = "The maximum number of audit activities to send to the recent activities solr core in a single request.")
+	private ConfigurationProperty<Integer> batchSize;
+
+	@Inject
+	@Configuration
+	@ConfigurationPropertyDefinition(name = "audit.solr.recentActivities.push.lingerMillis", system = true, type = Long.class, defaultValue = "500", sensitive = true, label = "The maximum time in milliseconds to wait for more audit activities before sending incomplete batch to the recent activities solr core.")
+	private ConfigurationProperty<Long> lingerMillis;
+
+	@Inject
+	@Configuration
+	@ConfigurationPropertyDefinition(name = "audit.solr.recentActivities.push.queueCapacity", system = true, type = Integer.class, defaultValue = "10000", sensitive = true, label = "The maximum number of pending pushes to the recent activities solr core. When full the activities are imported from the database on the next scheduled import. Changes are applied after restart.")
+	private ConfigurationProperty<Integer> queueCapacity;
+
+	@Inject
+	private RecentActivitiesSolrImporter activitiesSolrImporter;
+
+	@Inject
+	private SecurityContextManager securityContextManager;
+
+	private final Map<String, TenantState> tenants = new ConcurrentHashMap<>();
+	private volatile BlockingQueue<PendingActivities> queue;
+	private Thread worker;
+	private volatile boolean running;
+
+	/**
+	 * Checks if pushing of the audit activities is enabled.
+	 *
+	 * @return true, if enabled
+	 */
+	public boolean isEnabled() {
+		return pushEnabled.get().booleanValue();
+	}
+
+	/**
+	 * Adds committed activities of the given tenant for sending to the recent activities core. The activities should
+	 * have their database identifiers assigned. The method does not block.
+	 *
+	 * @param tenantId
+	 *            the tenant that produced the activities
+	 * @param activities
+	 *            the activities to send
+	 */
+	public void add(String tenantId, Collection<AuditActivity> activities) {
+		if (!isEnabled() || isEmpty(activities)) {
+			return;
+		}
+		TenantState state = getState(tenantId);
+		synchronized (state) {
+			if (!state.caughtUp) {
+				state.hold(activities);
+				return;
+			}
+			enqueue(tenantId, activities);
+		}
+	}
+
+	/**
+	 * Checks if the recent activities core of the given tenant is up to date with the audit database. If not the
+	 * activities should be imported from the database.
+	 *
+	 * @param tenantId
+	 *            the tenant to check
+	 * @return true, if all committed activities are sent or pending sending
+	 */
+	public boolean isCaughtUp(String tenantId) {
+		return getState(tenantId).caughtUp;
+	}
+
+	/**
+	 * Notifies that the given activities are imported from the database in the recent activities core of the given
+	 * tenant while it's catching up. These activities will not be sent again when the catch up completes.
+	 *
+	 * @param tenantId
+	 *            the tenant that was imported
+	 * @param activities
+	 *            the imported activities
+	 */
+	public void onImported(String tenantId, Collection<AuditActivity> activities) {
+		if (isEmpty(activities)) {
+			return;
+		}
+		TenantState state = getState(tenantId);
+		synchronized (state) {
+			if (!state.caughtUp) {
+				state.markImported(activities);
+			}
+		}
+	}
+
+	/**
+	 * Notifies that all activities from the database are imported in the recent activities core of the given tenant.
+	 * The held back activities that were not imported are sent and the new ones will be pushed directly.
+	 *
+	 * @param tenantId
+	 *            the tenant that was imported
+	 */
+	public void onCatchUpCompleted(String tenantId) {
+		TenantState state = getState(tenantId);
+		synchronized (state) {
+			if (state.overflow) {
+				// some activities may be missed, so another import is needed
+				state.reset();
+				return;
+			}
+			List<AuditActivity> notImported = new ArrayList<>(state.held.values());
+			state.reset();
+			state.caughtUp = true;
+			if (!notImported.isEmpty()) {
+				enqueue(tenantId, notImported);
+			}
+		}
+		LOGGER.info("Recent activities for tenant {} are up to date. Switching to push mode", tenantId);
+	}
+
+	private void enqueue(String tenantId, Collection<AuditActivity> activities) {
+		if (!running) {
+			ensureStarted();
+		}
+		if (!queue.offer(new PendingActivities(tenantId, new ArrayList<>(activities)))) {
+			LOGGER.warn("Recent activities push queue is full. The activities for tenant {} will be imported later",
+					tenantId);
+			markBehind(tenantId);
+		}
+	}
+
+	private void markBehind(String tenantId) {
+		TenantState state = getState(tenantId);
+		synchronized (state) {
+			state.caughtUp = false;
+		}
+	}
+
+	private TenantState getState(String tenantId) {
+		return tenants.computeIfAbsent(tenantId, k -> new TenantState());
+	}
+
+	private synchronized void ensureStarted() {
+		if (running) {
+			return;
+		}
+		queue = new ArrayBlockingQueue<>(Math.max(queueCapacity.get().intValue(), 1));
+		running = true;
+		worker = ThreadFactories
+				.createSystemThreadFactory("RecentActivitiesPush", securityContextManager, ThreadFactories::asDaemon)
+					.newThread(this::processQueue);
+		worker.start();
+		LOGGER.info("Started recent activities push indexer");
+	}
+
+	/**
+	 * Stops the background sender. The not send activities will be imported from the database after restart.
+	 */
+	@PreDestroy
+	synchronized void shutdown() {
+		if (!running) {
+			return;
+		}
+		running = false;
+		worker.interrupt();
+		try {
+			worker.join(TimeUnit.SECONDS.toMillis(10));
+		} catch (InterruptedException e) {
+			LOGGER.warn("Interrupted while waiting for the recent activities push indexer to stop");
+			Thread.currentThread().interrupt();
+		}
+		queue.clear();
+		LOGGER.info("Stopped recent activities push indexer");
+	}
+
+	private void processQueue() {
+		while (running) {
+			try {
+				PendingActivities first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+				if (first != null) {
+					flush(collectBatch(first));
+				}
+			} catch (InterruptedException e) {
+				LOGGER.trace("Recent activities push indexer interrupted", e);
+				Thread.currentThread().interrupt();
+				return;
+			} catch (RuntimeException e) {
+				LOGGER.error("Unexpected error in the recent activities push indexer", e);
+			}
+		}
+	}
+
+	private List<PendingActivities> collectBatch(PendingActivities first) throws InterruptedException {
+		int maxSize = Math.max(batchSize.get().intValue(), 1);
+		List<PendingActivities> batch = new ArrayList<>();
+		batch.add(first);
+		int size = first.activities.size();
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMillis.get().longValue());
+		// the activities added together are never split so that they are reduced together
+		while (size < maxSize) {
+			long remaining = deadline - System.nanoTime();
+			if (remaining <= 0L) {
+				break;
+			}
+			PendingActivities next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+			if (next == null) {
+				break;
+			}
+			batch.add(next);
+			size += next.activities.size();
+		}
+		return batch;
+	}
+
+	/**
+	 * Sends the given activities grouped by tenant. The tenants that could not be updated are marked as not caught up.
+	 *
+	 * @param batch
+	 *            the activities to send
+	 */
+	void flush(List<PendingActivities> batch) {
+		Map<String, List<AuditActivity>> byTenant = new LinkedHashMap<>();
+		for (PendingActivities pending : batch) {
+			byTenant.computeIfAbsent(pending.tenantId, k -> new ArrayList<>()).addAll(pending.activities);
+		}
+		byTenant.forEach(this::send);
+	}
+
+	private void send(String tenantId, List<AuditActivity> activities) {
+		if (!isCaughtUp(tenantId)) {
+			// a previous push failed, the activities will be imported from the database
+			return;
+		}
+		List<AuditActivity> toSend = activities
+				.stream()
+					.filter(activity -> Objects.nonNull(activity.getId()))
+					.collect(Collectors.toList());
+		if (toSend.size() < activities.size()) {
+			LOGGER.warn("Skipped {} audit activities without identifiers for tenant {}",
+					activities.size() - toSend.size(), tenantId);
+		}
+		try {
+			securityContextManager.executeAsTenant(tenantId).consumer(this::importActivities, toSend);
+		} catch (RuntimeException e) {
+			LOGGER.warn("Could not push {} recent activities for tenant {} due to: {}", toSend.size(), tenantId,
+					e.getMessage());
+			LOGGER.trace("Recent activities push failed", e);
+			markBehind(tenantId);
+		}
+	}
+
+	private void importActivities(Collection<AuditActivity> activities) {
+		try {
+			activitiesSolrImporter.importActivities(activities);
+		} catch (RollbackedException e) {
+			throw new EmfRuntimeException(e);
+		}
+	}
+
+	/**
+	 * Activities added together with the tenant that produced them.
+	 *
+	 * @author BBonev
+	 */
+	static class PendingActivities {
+		final String tenantId;
+		final Collection<AuditActivity> activities;
+
+		PendingActivities(String tenantId, Collection<AuditActivity> activities) {
+			this.tenantId = tenantId;
+			this.activities = activities;
+		}
+	}
+
+	/**
+	 * Push state of a single tenant. The access should be synchronized on the instance.
+	 *
+	 * @author BBonev
+	 */
+	private static class TenantState {
+		/** The maximum number of activities to hold back while the tenant is catching up */
+		private static final int MAX_HELD = 10000;
+
+		volatile boolean caughtUp;
+		boolean overflow;
+		/** The held back activities by identifier in order of adding */
+		final Map<Long, AuditActivity> held = new LinkedHashMap<>();
+		/** The identifiers of the last imported activities in order of importing */
+		final Set<Long> imported = new LinkedHashSet<>();
+
+		void hold(Collection<AuditActivity> activities) {
+			if (overflow) {
+				return;
+			}
+			if (held.size() + activities.size() > MAX_HELD) {
+				// no need to keep them, another database import will be performed
+				overflow = true;
+				held.clear();
+				return;
+			}
+			for (AuditActivity activity : activities) {
+				// activities without identifiers cannot be sent anyway
+				if (activity.getId() != null && !imported.contains(activity.getId())) {
+					held.put(activity.getId(), activity);
+				}
+			}
+		}
+
+		void markImported(Collection<AuditActivity> activities) {
+			for (AuditActivity activity : activities) {
+				Long id = activity.getId();
+				if (id != null) {
+					held.remove(id);
+					// the activity may be imported before it's added for pushing so keep the last identifiers
+					imported.add(id);
+				}
+			}
+			Iterator<Long> it = imported.iterator();
+			while (imported.size() > MAX_HELD && it.hasNext()) {
+				it.next();
+				it.remove();
+			}
+		}
+
+		void reset() {
+			overflow = false;
+			held.clear();
+			imported.clear();
+		}
+	}
+}
@@ -0,0 +1,248 @@
+package com.sirma.itt.emf.audit.db;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+
+import com.sirma.itt.emf.audit.activity.AuditActivity;
+import com.sirma.itt.emf.audit.db.AsyncAuditSink.PendingActivity;
+import com.sirma.itt.emf.audit.processor.RecentActivitiesPushIndexer;
+import com.sirma.itt.seip.configuration.ConfigurationProperty;
+import com.sirma.itt.seip.exception.EmfRuntimeException;
+import com.sirma.itt.seip.security.context.SecurityContextManager;
+import com.sirma.itt.seip.testutil.fakes.SecurityContextManagerFake;
+import com.sirma.itt.seip.testutil.mocks.ConfigurationPropertyMock;
+
+/**
+ * Tests for {@link AsyncAuditSink}.
+ *
+ * @author BBonev
+ */
+public class AsyncAuditSinkTest {
+
+	private static final String TENANT = "tenant.com";
+
+	@Rule
+	public TemporaryFolder tempFolder = new TemporaryFolder();
+
+	@InjectMocks
+	private AsyncAuditSink sink;
+
+	@Mock
+	private AuditActivityBatchWriter batchWriter;
+
+	@Mock
+	private RecentActivitiesPushIndexer pushIndexer;
+
+	@Spy
+	private SecurityContextManager securityContextManager = new SecurityContextManagerFake();
+
+	@Spy
+	private ConfigurationProperty<Boolean> asyncEnabled = new ConfigurationPropertyMock<>(Boolean.TRUE);
+	@Spy
+	private ConfigurationPropertyMock<Integer> batchSize = new ConfigurationPropertyMock<>(2);
+	@Spy
+	private ConfigurationPropertyMock<Long> lingerMillis = new ConfigurationPropertyMock<>(50L);
+	@Spy
+	private ConfigurationPropertyMock<Integer> queueCapacity = new ConfigurationPropertyMock<>(100);
+	@Spy
+	private ConfigurationPropertyMock<Long> enqueueTimeoutMillis = new ConfigurationPropertyMock<>(10L);
+	@Spy
+	private ConfigurationPropertyMock<Long> spillRetryMillis = new ConfigurationPropertyMock<>(0L);
+	@Spy
+	private ConfigurationPropertyMock<String> spillDirectory = new ConfigurationPropertyMock<>();
+
+	private List<Collection<AuditActivity>> written = new CopyOnWriteArrayList<>();
+
+	@Before
+	public void init() throws IOException {
+		MockitoAnnotations.initMocks(this);
+		spillDirectory.setValue(tempFolder.newFolder("spill").getAbsolutePath());
+		doAnswer(a -> written.add(new ArrayList<>(a.getArgumentAt(0, Collection.class))))
+				.when(batchWriter)
+					.write(anyCollectionOf(AuditActivity.class));
+	}
+
+	@After
+	public void cleanUp() {
+		sink.shutdown();
+	}
+
+	@Test
+	public void should_WriteActivitiesInBatches() throws Exception {
+		for (int i = 0; i < 5; i++) {
+			sink.add(TENANT, createActivity(i));
+		}
+
+		awaitWritten(5);
+		for (Collection<AuditActivity> batch : written) {
+			assertTrue(batch.size() <= 2);
+		}
+		assertEquals(0, getSpillFiles().length);
+	}
+
+	@Test
+	public void should_PassOnlyTheWrittenActivitiesToThePushIndexer() throws Exception {
+		sink.flush(Arrays.asList(new PendingActivity(TENANT, createActivity(1))));
+		verify(pushIndexer).add(eq(TENANT), anyCollectionOf(AuditActivity.class));
+
+		doThrow(EmfRuntimeException.class).when(batchWriter).write(anyCollectionOf(AuditActivity.class));
+		sink.flush(Arrays.asList(new PendingActivity(TENANT, createActivity(2))));
+		verifyNoMoreInteractions(pushIndexer);
+	}
+
+	@Test
+	public void should_SpillActivities_WhenTheDatabaseCannotAcceptThem() throws Exception {
+		doThrow(EmfRuntimeException.class).when(batchWriter).write(anyCollectionOf(AuditActivity.class));
+
+		sink.flush(Arrays.asList(new PendingActivity(TENANT, createActivity(1)),
+				new PendingActivity(TENANT, createActivity(2))));
+		assertEquals(1, getSpillFiles().length);
+
+		// the database is available again
+		doAnswer(a -> written.add(new ArrayList<>(a.getArgumentAt(0, Collection.class))))
+				.when(batchWriter)
+					.write(anyCollectionOf(AuditActivity.class));
+		sink.replaySpilled();
+
+		assertEquals(1, written.size());
+		List<AuditActivity> replayed = new ArrayList<>(written.get(0));
+		assertEquals("emf:object-1", replayed.get(0).getObjectID());
+		assertEquals("emf:object-2", replayed.get(1).getObjectID());
+		assertEquals(0, getSpillFiles().length);
+	}
+
+	@Test
+	public void should_KeepSpillFiles_WhenTheReplayFails() throws Exception {
+		sink.spill(TENANT, Arrays.asList(createActivity(1)));
+		doThrow(EmfRuntimeException.class).when(batchWriter).write(anyCollectionOf(AuditActivity.class));
+
+		sink.replaySpilled();
+
+		assertEquals(1, getSpillFiles().length);
+	}
+
+	@Test
+	public void should_MoveUnreadableSpillFiles() throws Exception {
+		File corrupt = new File(spillDirectory.get(), "00000000000000000001-000001-" + TENANT
+				+ AsyncAuditSink.SPILL_FILE_EXTENSION);
+		Files.write(corrupt.toPath(), "not a spill file".getBytes(StandardCharsets.UTF_8));
+
+		sink.replaySpilled();
+
+		verify(batchWriter, never()).write(anyCollectionOf(AuditActivity.class));
+		assertEquals(0, getSpillFiles().length);
+		assertTrue(new File(corrupt.getPath() + AsyncAuditSink.CORRUPT_FILE_EXTENSION).isFile());
+	}
+
+	@Test
+	public void should_WriteTheCollectedBatch_WhenStoppedWhileWaitingForMoreActivities() throws Exception {
+		batchSize.setValue(10);
+		lingerMillis.setValue(TimeUnit.MINUTES.toMillis(1));
+		sink.add(TENANT, createActivity(1));
+		// let the writer take the activity from the queue and wait for more
+		TimeUnit.MILLISECONDS.sleep(100);
+
+		sink.shutdown();
+
+		assertEquals(1, countWritten());
+	}
+
+	@Test
+	public void should_WriteActivitiesDirectly_AfterShutdown() throws Exception {
+		sink.add(TENANT, createActivity(1));
+		sink.shutdown();
+
+		sink.add(TENANT, createActivity(2));
+
+		assertEquals(2, countWritten());
+	}
+
+	@Test
+	public void should_NotReplaySpillFiles_BeforeTheRetryInterval() throws Exception {
+		spillRetryMillis.setValue(TimeUnit.MINUTES.toMillis(1));
+		sink.replaySpilled();
+		sink.spill(TENANT, Arrays.asList(createActivity(1)));
+
+		sink.replaySpilled();
+
+		verify(batchWriter, never()).write(anyCollectionOf(AuditActivity.class));
+		assertEquals(1, getSpillFiles().length);
+	}
+
+	@Test
+	public void should_SpillActivities_WhenTheQueueIsFull() throws Exception {
+		queueCapacity.setValue(1);
+		batchSize.setValue(1);
+		CountDownLatch writing = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		doAnswer(a -> {
+			writing.countDown();
+			release.await(10, TimeUnit.SECONDS);
+			return written.add(new ArrayList<>(a.getArgumentAt(0, Collection.class)));
+		}).when(batchWriter).write(anyCollectionOf(AuditActivity.class));
+
+		sink.add(TENANT, createActivity(1));
+		// the writer is blocked with the first activity
+		assertTrue(writing.await(10, TimeUnit.SECONDS));
+		// fills the queue
+		sink.add(TENANT, createActivity(2));
+		// could not be queued
+		sink.add(TENANT, createActivity(3));
+
+		assertEquals(1, getSpillFiles().length);
+		release.countDown();
+		awaitWritten(2);
+	}
+
+	private void awaitWritten(int expected) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+		while (countWritten() < expected && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertEquals(expected, countWritten());
+	}
+
+	private int countWritten() {
+		return written.stream().mapToInt(Collection::size).sum();
+	}
+
+	private File[] getSpillFiles() {
+		return new File(spillDirectory.get())
+				.listFiles((dir, name) -> name.endsWith(AsyncAuditSink.SPILL_FILE_EXTENSION));
+	}
+
+	private static AuditActivity createActivity(int index) {
+		AuditActivity activity = new AuditActivity();
+		activity.setObjectID("emf:object-" + index);
+		return activity;
+	}
+}
@@ -0,0 +1,121 @@
+package com.sirma.itt.emf.audit.db;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+
+import javax.sql.DataSource;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+
+import com.sirma.itt.emf.audit.activity.AuditActivity;
+import com.sirma.itt.emf.audit.configuration.AuditConfiguration;
+import com.sirma.itt.seip.Executable;
+import com.sirma.itt.seip.exception.EmfRuntimeException;
+import com.sirma.itt.seip.testutil.fakes.TransactionSupportFake;
+import com.sirma.itt.seip.tx.TransactionSupport;
+
+/**
+ * Tests for {@link AuditActivityBatchWriter}.
+ *
+ * @author BBonev
+ */
+public class AuditActivityBatchWriterTest {
+
+	@InjectMocks
+	private AuditActivityBatchWriter writer;
+
+	@Mock
+	private AuditConfiguration auditConfiguration;
+
+	@Spy
+	private TransactionSupport transactionSupport = new TransactionSupportFake();
+
+	@Mock
+	private DataSource dataSource;
+	@Mock
+	private Connection connection;
+	@Mock
+	private PreparedStatement statement;
+	@Mock
+	private ResultSet generatedKeys;
+
+	@Before
+	public void init() throws SQLException {
+		MockitoAnnotations.initMocks(this);
+		when(auditConfiguration.getDataSource()).thenReturn(dataSource);
+		when(dataSource.getConnection()).thenReturn(connection);
+		when(connection.prepareStatement(eq(AuditActivityBatchWriter.INSERT_ACTIVITY_SQL), any(String[].class)))
+				.thenReturn(statement);
+		when(statement.getGeneratedKeys()).thenReturn(generatedKeys);
+	}
+
+	@Test
+	public void should_InsertAllActivitiesInSingleBatch() throws SQLException {
+		Date eventDate = new Date();
+		AuditActivity first = new AuditActivity();
+		first.setEventDate(eventDate);
+		first.setObjectID("emf:object-1");
+		first.setUserId("emf:admin");
+		AuditActivity second = new AuditActivity();
+		second.setObjectID("emf:object-2");
+		when(generatedKeys.next()).thenReturn(Boolean.TRUE, Boolean.TRUE, Boolean.FALSE);
+		when(generatedKeys.getLong(1)).thenReturn(Long.valueOf(10L), Long.valueOf(11L));
+
+		writer.write(Arrays.asList(first, second));
+
+		verify(statement).setTimestamp(1, new Timestamp(eventDate.getTime()));
+		verify(statement).setNull(1, Types.TIMESTAMP);
+		verify(statement).setString(9, "emf:object-1");
+		verify(statement).setString(9, "emf:object-2");
+		verify(statement).setString(17, "emf:admin");
+		verify(statement, times(2)).addBatch();
+		verify(statement).executeBatch();
+		verify(statement).close();
+		verify(connection).close();
+		verify(transactionSupport).invokeInNewTx(any(Executable.class));
+		assertEquals(Long.valueOf(10L), first.getId());
+		assertEquals(Long.valueOf(11L), second.getId());
+	}
+
+	@Test
+	public void should_DoNothing_WhenNoActivities() throws SQLException {
+		writer.write(Collections.emptyList());
+		writer.write(null);
+
+		verify(dataSource, never()).getConnection();
+	}
+
+	@Test(expected = EmfRuntimeException.class)
+	public void should_FailOnDatabaseError() throws SQLException {
+		when(statement.executeBatch()).thenThrow(new SQLException("Connection refused"));
+
+		try {
+			writer.write(Collections.singletonList(new AuditActivity()));
+		} finally {
+			verify(statement).setString(eq(2), any());
+			verify(statement, never()).setTimestamp(anyInt(), any());
+			verify(connection).close();
+		}
+	}
+}
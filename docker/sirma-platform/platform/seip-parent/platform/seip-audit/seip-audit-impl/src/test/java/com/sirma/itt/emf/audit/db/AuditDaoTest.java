@@ -1,9 +1,12 @@
 package com.sirma.itt.emf.audit.db;
 
 import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import javax.persistence.EntityManager;
@@ -17,10 +20,13 @@ import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 
 import com.sirma.itt.emf.audit.activity.AuditActivity;
+import com.sirma.itt.emf.audit.processor.RecentActivitiesPushIndexer;
 import com.sirma.itt.emf.audit.solr.query.ServiceResult;
 import com.sirma.itt.seip.Entity;
 import com.sirma.itt.seip.db.DatabaseIdManager;
 import com.sirma.itt.seip.db.DbDao;
+import com.sirma.itt.seip.security.context.SecurityContext;
+import com.sirma.itt.seip.testutil.fakes.TransactionSupportFake;
 import com.sirma.itt.seip.util.ReflectionUtils;
 
 import de.akquinet.jbosscc.needle.annotation.ObjectUnderTest;
@@ -48,6 +54,15 @@ public class AuditDaoTest {
 	@Mock
 	private DatabaseIdManager idManager;
 
+	@Mock
+	private AsyncAuditSink asyncAuditSink;
+
+	@Mock
+	private SecurityContext securityContext;
+
+	@Mock
+	private RecentActivitiesPushIndexer pushIndexer;
+
 	/** Entity manager provided by Needle. */
 	private final EntityManager em = databaseRule.getEntityManager();
 
@@ -68,6 +83,10 @@ public class AuditDaoTest {
 		MockitoAnnotations.initMocks(this);
 		service = new AuditDaoImpl();
 		ReflectionUtils.setFieldValue(service, "dbDao", dbDao);
+		ReflectionUtils.setFieldValue(service, "asyncAuditSink", asyncAuditSink);
+		ReflectionUtils.setFieldValue(service, "transactionSupport", new TransactionSupportFake());
+		ReflectionUtils.setFieldValue(service, "securityContext", securityContext);
+		ReflectionUtils.setFieldValue(service, "pushIndexer", pushIndexer);
 
 		Mockito.when(idManager.isPersisted(Matchers.any(Entity.class))).thenReturn(false);
 		ReflectionUtils.setFieldValue(dbDao, "idManager", idManager);
@@ -108,6 +127,44 @@ public class AuditDaoTest {
 
 	}
 
+	/**
+	 * Tests that the activity is passed to the asynchronous sink when enabled.
+	 */
+	@Test
+	public void testPublishAsync() {
+		when(asyncAuditSink.isEnabled()).thenReturn(Boolean.TRUE);
+		when(securityContext.getCurrentTenantId()).thenReturn("tenant.com");
+
+		AuditActivity activity = getTestActivity(5);
+		service.publish(activity);
+
+		verify(asyncAuditSink).add("tenant.com", activity);
+		List<AuditActivity> activities = em
+				.createQuery("select aa from AuditActivity aa", AuditActivity.class)
+					.getResultList();
+		assertEquals(5, activities.size());
+	}
+
+	/**
+	 * Tests that the persisted activity is passed to the push indexer when enabled.
+	 */
+	@Test
+	public void testPublishAndPush() throws Exception {
+		when(pushIndexer.isEnabled()).thenReturn(Boolean.TRUE);
+		when(securityContext.getCurrentTenantId()).thenReturn("tenant.com");
+
+		AuditActivity activity = getTestActivity(5);
+		TransactionHelper helper = databaseRule.getTransactionHelper();
+		helper.executeInTransaction(new VoidRunnable() {
+			@Override
+			public void doRun(EntityManager entityManager) throws Exception {
+				service.publish(activity);
+			}
+		});
+
+		verify(pushIndexer).add("tenant.com", Collections.singletonList(activity));
+	}
+
 	/**
 	 * Try to get some activities by their ids.
 	 */
@@ -2,7 +2,9 @@ package com.sirma.itt.emf.audit.processor;
 
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyCollection;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -22,6 +24,7 @@ import com.sirma.itt.emf.audit.activity.AuditActivity;
 import com.sirma.itt.emf.audit.db.AuditDao;
 import com.sirma.itt.seip.configuration.ConfigurationProperty;
 import com.sirma.itt.seip.exception.RollbackedException;
+import com.sirma.itt.seip.security.context.SecurityContext;
 import com.sirma.itt.seip.testutil.mocks.ConfigurationPropertyMock;
 
 /**
@@ -31,6 +34,8 @@ import com.sirma.itt.seip.testutil.mocks.ConfigurationPropertyMock;
  */
 public class RecentActivitiesImporterTest {
 
+	private static final String TENANT = "tenant.com";
+
 	@InjectMocks
 	private RecentActivitiesImporter importer;
 
@@ -40,11 +45,16 @@ public class RecentActivitiesImporterTest {
 	private AuditDao auditDao;
 	@Mock
 	private RecentActivitiesSolrImporter activitiesSolrImporter;
+	@Mock
+	private RecentActivitiesPushIndexer pushIndexer;
+	@Mock
+	private SecurityContext securityContext;
 
 	@Before
 	@SuppressWarnings("unchecked")
 	public void beforeMethod() {
 		MockitoAnnotations.initMocks(this);
+		when(securityContext.getCurrentTenantId()).thenReturn(TENANT);
 		when(auditDao.getActivitiesAfter(any(), any())).thenReturn(Arrays.asList(createActivity(), createActivity()),
 				Arrays.asList(createActivity()), Collections.emptyList());
 	}
@@ -80,4 +90,37 @@ public class RecentActivitiesImporterTest {
 
 		verify(activitiesSolrImporter).importActivities(anyCollection());
 	}
+
+	@Test
+	public void shouldNotImport_When_PushedActivitiesAreUpToDate() throws Exception {
+		when(pushIndexer.isEnabled()).thenReturn(Boolean.TRUE);
+		when(pushIndexer.isCaughtUp(TENANT)).thenReturn(Boolean.TRUE);
+
+		importer.triggerImport();
+
+		verify(activitiesSolrImporter, never()).getLastKnownActivityDate();
+		verify(auditDao, never()).getActivitiesAfter(any(), any());
+	}
+
+	@Test
+	public void shouldNotifyPushIndexer_When_CatchUpCompletes() throws Exception {
+		when(pushIndexer.isEnabled()).thenReturn(Boolean.TRUE);
+
+		importer.triggerImport();
+
+		verify(activitiesSolrImporter, times(2)).importActivities(anyCollection());
+		verify(pushIndexer, times(2)).onImported(eq(TENANT), anyCollection());
+		verify(pushIndexer).onCatchUpCompleted(TENANT);
+	}
+
+	@Test
+	public void shouldNotNotifyPushIndexer_When_CatchUpFails() throws Exception {
+		when(pushIndexer.isEnabled()).thenReturn(Boolean.TRUE);
+		doThrow(RollbackedException.class).when(activitiesSolrImporter).importActivities(anyCollection());
+
+		importer.triggerImport();
+
+		verify(pushIndexer, never()).onImported(any(), anyCollection());
+		verify(pushIndexer, never()).onCatchUpCompleted(any());
+	}
 }
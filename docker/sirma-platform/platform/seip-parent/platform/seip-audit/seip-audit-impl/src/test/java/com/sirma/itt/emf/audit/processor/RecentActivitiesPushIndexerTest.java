@@ -0,0 +1,182 @@
+package com.sirma.itt.emf.audit.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+
+import com.sirma.itt.emf.audit.activity.AuditActivity;
+import com.sirma.itt.emf.audit.processor.RecentActivitiesPushIndexer.PendingActivities;
+import com.sirma.itt.seip.configuration.ConfigurationProperty;
+import com.sirma.itt.seip.exception.RollbackedException;
+import com.sirma.itt.seip.security.context.SecurityContextManager;
+import com.sirma.itt.seip.testutil.fakes.SecurityContextManagerFake;
+import com.sirma.itt.seip.testutil.mocks.ConfigurationPropertyMock;
+
+/**
+ * Tests for {@link RecentActivitiesPushIndexer}.
+ *
+ * @author BBonev
+ */
+public class RecentActivitiesPushIndexerTest {
+
+	private static final String TENANT = "tenant.com";
+
+	@InjectMocks
+	private RecentActivitiesPushIndexer indexer;
+
+	@Mock
+	private RecentActivitiesSolrImporter activitiesSolrImporter;
+
+	@Spy
+	private SecurityContextManager securityContextManager = new SecurityContextManagerFake();
+
+	@Spy
+	private ConfigurationPropertyMock<Boolean> pushEnabled = new ConfigurationPropertyMock<>(Boolean.TRUE);
+	@Spy
+	private ConfigurationProperty<Integer> batchSize = new ConfigurationPropertyMock<>(10);
+	@Spy
+	private ConfigurationProperty<Long> lingerMillis = new ConfigurationPropertyMock<>(20L);
+	@Spy
+	private ConfigurationProperty<Integer> queueCapacity = new ConfigurationPropertyMock<>(100);
+
+	private List<Collection<AuditActivity>> imported = new CopyOnWriteArrayList<>();
+
+	@Before
+	public void init() throws RollbackedException {
+		MockitoAnnotations.initMocks(this);
+		doAnswer(a -> imported.add(new ArrayList<>(a.getArgumentAt(0, Collection.class))))
+				.when(activitiesSolrImporter)
+					.importActivities(anyCollectionOf(AuditActivity.class));
+	}
+
+	@After
+	public void cleanUp() {
+		indexer.shutdown();
+	}
+
+	@Test
+	public void should_HoldActivities_UntilTheTenantIsCaughtUp() throws Exception {
+		assertFalse(indexer.isCaughtUp(TENANT));
+		indexer.add(TENANT, Arrays.asList(createActivity(1, 1000L), createActivity(2, 3000L)));
+		indexer.onImported(TENANT, Arrays.asList(createActivity(1, 1000L)));
+
+		indexer.onCatchUpCompleted(TENANT);
+
+		assertTrue(indexer.isCaughtUp(TENANT));
+		awaitImported(1);
+		assertEquals(Arrays.asList(Long.valueOf(2L)), getImportedIds());
+	}
+
+	@Test
+	public void should_SendHeldActivities_ThatWereNotImported_RegardlessOfTheirEventDate() throws Exception {
+		// activity 1 is committed after activity 2 but has older event date
+		indexer.onImported(TENANT, Arrays.asList(createActivity(2, 3000L)));
+		indexer.add(TENANT, Arrays.asList(createActivity(2, 3000L)));
+		indexer.add(TENANT, Arrays.asList(createActivity(1, 1000L)));
+
+		indexer.onCatchUpCompleted(TENANT);
+
+		awaitImported(1);
+		assertEquals(Arrays.asList(Long.valueOf(1L)), getImportedIds());
+	}
+
+	@Test
+	public void should_PushActivities_WhenCaughtUp() throws Exception {
+		indexer.onCatchUpCompleted(TENANT);
+
+		indexer.add(TENANT, Arrays.asList(createActivity(1, 1000L)));
+		indexer.add(TENANT, Arrays.asList(createActivity(2, 2000L), createActivity(3, 3000L)));
+
+		awaitImported(3);
+		assertEquals(Arrays.asList(Long.valueOf(1L), Long.valueOf(2L), Long.valueOf(3L)), getImportedIds());
+	}
+
+	@Test
+	public void should_RequireNewImport_WhenHeldActivitiesOverflow() throws Exception {
+		List<AuditActivity> activities = new ArrayList<>();
+		for (int i = 0; i <= 10000; i++) {
+			activities.add(createActivity(i, i));
+		}
+		indexer.add(TENANT, activities);
+
+		indexer.onCatchUpCompleted(TENANT);
+
+		assertFalse(indexer.isCaughtUp(TENANT));
+		verify(activitiesSolrImporter, never()).importActivities(anyCollectionOf(AuditActivity.class));
+	}
+
+	@Test
+	public void should_MarkTenantAsNotCaughtUp_WhenPushFails() throws Exception {
+		indexer.onCatchUpCompleted(TENANT);
+		doThrow(RollbackedException.class).when(activitiesSolrImporter).importActivities(
+				anyCollectionOf(AuditActivity.class));
+
+		indexer.flush(Arrays.asList(new PendingActivities(TENANT, Arrays.asList(createActivity(1, 1000L)))));
+
+		assertFalse(indexer.isCaughtUp(TENANT));
+	}
+
+	@Test
+	public void should_SkipActivitiesWithoutIdentifiers() throws Exception {
+		indexer.onCatchUpCompleted(TENANT);
+		AuditActivity notPersisted = createActivity(1, 1000L);
+		notPersisted.setId(null);
+
+		indexer.flush(Arrays.asList(
+				new PendingActivities(TENANT, Arrays.asList(notPersisted, createActivity(2, 2000L)))));
+
+		assertEquals(Arrays.asList(Long.valueOf(2L)), getImportedIds());
+	}
+
+	@Test
+	public void should_DoNothing_WhenDisabled() throws Exception {
+		pushEnabled.setValue(Boolean.FALSE);
+
+		indexer.add(TENANT, Arrays.asList(createActivity(1, 1000L)));
+		indexer.onCatchUpCompleted(TENANT);
+
+		TimeUnit.MILLISECONDS.sleep(100);
+		verify(activitiesSolrImporter, never()).importActivities(anyCollectionOf(AuditActivity.class));
+	}
+
+	private void awaitImported(int expected) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+		while (getImportedIds().size() < expected && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertEquals(expected, getImportedIds().size());
+	}
+
+	private List<Long> getImportedIds() {
+		return imported.stream().flatMap(Collection::stream).map(AuditActivity::getId).collect(Collectors.toList());
+	}
+
+	private static AuditActivity createActivity(long id, long eventDate) {
+		AuditActivity activity = new AuditActivity();
+		activity.setId(Long.valueOf(id));
+		activity.setEventDate(new Date(eventDate));
+		return activity;
+	}
+}
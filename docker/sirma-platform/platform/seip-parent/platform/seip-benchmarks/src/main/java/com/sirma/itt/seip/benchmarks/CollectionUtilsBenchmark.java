@@ -0,0 +1,133 @@
+package com.sirma.itt.seip.benchmarks;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sirma.itt.seip.collections.CollectionUtils;
+
+/**
+ * Benchmarks the most used {@link CollectionUtils} helpers with collections with size similar to the instance
+ * properties and the search results.
+ *
+ * @author BBonev
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollectionUtilsBenchmark {
+
+	/** The number of elements in the processed collections */
+	@Param({ "100", "10000" })
+	private int size;
+
+	private Map<String, Serializable> properties;
+	private List<String> identifiers;
+	private List<String> otherIdentifiers;
+	private List<String> withDuplicates;
+
+	/**
+	 * Initialize the benchmark data.
+	 */
+	@Setup(Level.Trial)
+	public void setUp() {
+		properties = new HashMap<>();
+		identifiers = new ArrayList<>(size);
+		otherIdentifiers = new ArrayList<>(size);
+		withDuplicates = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			if (i % 2 == 0) {
+				properties.put("emf:property" + i, "value" + i);
+			} else {
+				properties.put("emf:property" + i,
+						new ArrayList<>(Arrays.asList("emf:value-" + i, "emf:value-" + (i + 1))));
+			}
+			identifiers.add("emf:instance-" + i);
+			// half of the other identifiers are common with the first list
+			otherIdentifiers.add("emf:instance-" + (i + size / 2));
+			withDuplicates.add("emf:instance-" + i % (size / 4));
+		}
+	}
+
+	/**
+	 * Deep clones instance properties map.
+	 *
+	 * @return the copy
+	 */
+	@Benchmark
+	public Map<String, Serializable> cloneMap() {
+		return CollectionUtils.clone(properties);
+	}
+
+	/**
+	 * Intersects two collections where half of the elements are common.
+	 *
+	 * @return the common elements
+	 */
+	@Benchmark
+	public Set<String> intersection() {
+		return CollectionUtils.intersection(identifiers, otherIdentifiers);
+	}
+
+	/**
+	 * Removes the duplicates from a list where each element is present 4 times.
+	 *
+	 * @return the list without duplicates
+	 */
+	@Benchmark
+	public List<String> removeDuplicates() {
+		return CollectionUtils.removeDuplicates(new ArrayList<>(withDuplicates));
+	}
+
+	/**
+	 * Transforms a collection to a set.
+	 *
+	 * @return the transformed set
+	 */
+	@Benchmark
+	public Set<Integer> transformToSet() {
+		return CollectionUtils.transformToSet(identifiers, String::hashCode);
+	}
+
+	/**
+	 * Transforms a collection to a list.
+	 *
+	 * @return the transformed list
+	 */
+	@Benchmark
+	public List<Integer> transformToList() {
+		return CollectionUtils.transformToList(identifiers, String::length);
+	}
+
+	/**
+	 * Builds identity map from a collection.
+	 *
+	 * @return the identity map
+	 */
+	@Benchmark
+	public Map<String, String> toIdentityMap() {
+		return CollectionUtils.toIdentityMap(identifiers, Function.identity());
+	}
+}
@@ -0,0 +1,146 @@
+package com.sirma.itt.seip.benchmarks;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sirma.itt.seip.Pair;
+import com.sirma.itt.seip.cache.MemoryCache;
+import com.sirma.itt.seip.cache.lookup.EntityLookupCache;
+import com.sirma.itt.seip.cache.lookup.ReadOnlyEntityLookupCallbackDAOAdaptor;
+
+/**
+ * Benchmarks the {@link EntityLookupCache} single and bulk lookups for keys that are present in the cache and for keys
+ * that should be resolved via the lookup callback. The cache is backed by {@link MemoryCache} so only the lookup cache
+ * logic is measured without the underlying cache implementation.
+ *
+ * @author BBonev
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityLookupCacheBenchmark {
+
+	private static final int CACHED_KEYS = 10000;
+
+	/** The number of keys requested for the bulk lookups */
+	@Param({ "25", "250" })
+	private int batchSize;
+
+	private EntityLookupCache<String, String, Serializable> cache;
+	private String[] allCachedKeys;
+	private List<String> cachedKeys;
+	private List<String> partiallyCachedKeys;
+	private List<String> missingKeys;
+
+	/**
+	 * Fills the cache with the benchmark data.
+	 */
+	@Setup(Level.Trial)
+	public void setUp() {
+		cache = new EntityLookupCache<>(new MemoryCache<>(), new ValueLookup());
+		cachedKeys = new ArrayList<>(batchSize);
+		partiallyCachedKeys = new ArrayList<>(batchSize);
+		missingKeys = new ArrayList<>(batchSize / 2);
+		allCachedKeys = new String[CACHED_KEYS];
+		for (int i = 0; i < CACHED_KEYS; i++) {
+			allCachedKeys[i] = cachedKey(i);
+			cache.getByKey(allCachedKeys[i]);
+		}
+		for (int i = 0; i < batchSize; i++) {
+			cachedKeys.add(cachedKey(i));
+			// every second key is not present in the cache
+			if (i % 2 == 0) {
+				partiallyCachedKeys.add(cachedKey(i));
+			} else {
+				partiallyCachedKeys.add(missingKey(i));
+				missingKeys.add(missingKey(i));
+			}
+		}
+	}
+
+	private static String cachedKey(int index) {
+		return "emf:cached-" + index;
+	}
+
+	private static String missingKey(int index) {
+		return "emf:missing-" + index;
+	}
+
+	/**
+	 * Single key lookup that is present in the cache.
+	 *
+	 * @return the found pair
+	 */
+	@Benchmark
+	public Pair<String, String> getByKeyHit() {
+		return cache.getByKey(allCachedKeys[ThreadLocalRandom.current().nextInt(CACHED_KEYS)]);
+	}
+
+	/**
+	 * Single key lookup that is not present in the cache and is resolved via the lookup callback. The key is removed
+	 * before the lookup so the measured time includes the cache removal.
+	 *
+	 * @return the found pair
+	 */
+	@Benchmark
+	public Pair<String, String> getByKeyMiss() {
+		String key = missingKey(0);
+		cache.removeByKey(key);
+		return cache.getByKey(key);
+	}
+
+	/**
+	 * Bulk lookup of keys that are all present in the cache.
+	 *
+	 * @return the found pairs
+	 */
+	@Benchmark
+	public Map<String, Pair<String, String>> getByKeysHit() {
+		return cache.getByKeys(cachedKeys);
+	}
+
+	/**
+	 * Bulk lookup where half of the keys are resolved via the lookup callback. The missing keys are removed before the
+	 * lookup so the measured time includes the cache removals.
+	 *
+	 * @return the found pairs
+	 */
+	@Benchmark
+	public Map<String, Pair<String, String>> getByKeysPartialMiss() {
+		missingKeys.forEach(cache::removeByKey);
+		return cache.getByKeys(partiallyCachedKeys);
+	}
+
+	/**
+	 * Lookup callback that resolves the values without any I/O.
+	 *
+	 * @author BBonev
+	 */
+	private static class ValueLookup extends ReadOnlyEntityLookupCallbackDAOAdaptor<String, String> {
+
+		@Override
+		public Pair<String, String> findByKey(String key) {
+			return new Pair<>(key, "value-of-" + key);
+		}
+	}
+}
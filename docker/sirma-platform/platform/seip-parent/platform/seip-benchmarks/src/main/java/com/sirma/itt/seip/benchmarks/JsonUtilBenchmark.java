@@ -0,0 +1,133 @@
+package com.sirma.itt.seip.benchmarks;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sirma.itt.seip.convert.DefaultTypeConverter;
+import com.sirma.itt.seip.convert.TypeConverter;
+import com.sirma.itt.seip.convert.TypeConverterImpl;
+import com.sirma.itt.seip.convert.TypeConverterUtil;
+import com.sirma.itt.seip.json.JsonConverterProvider;
+import com.sirma.itt.seip.json.JsonUtil;
+
+/**
+ * Benchmarks the {@link JsonUtil} parsing and conversion of JSON objects similar to the instance data passed via the
+ * REST services.
+ *
+ * @author BBonev
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonUtilBenchmark {
+
+	/** The number of instances in the parsed JSON array. Affects only the array parsing */
+	@Param({ "1", "100" })
+	private int instances;
+
+	private String objectData;
+	private String arrayData;
+	private JSONObject parsedObject;
+	private Map<String, Object> instanceData;
+
+	/**
+	 * Initialize the type converter and the parsed data.
+	 */
+	@Setup(Level.Trial)
+	public void setUp() {
+		TypeConverter typeConverter = new TypeConverterImpl();
+		new DefaultTypeConverter().register(typeConverter);
+		new JsonConverterProvider().register(typeConverter);
+		TypeConverterUtil.setTypeConverter(typeConverter);
+
+		instanceData = createInstanceData(0);
+		parsedObject = JsonUtil.toJsonObject(instanceData);
+		objectData = parsedObject.toString();
+
+		JSONArray array = new JSONArray();
+		for (int i = 0; i < instances; i++) {
+			array.put(JsonUtil.toJsonObject(createInstanceData(i)));
+		}
+		arrayData = array.toString();
+	}
+
+	private static Map<String, Object> createInstanceData(int index) {
+		Map<String, Object> properties = new LinkedHashMap<>();
+		properties.put("title", "Instance title " + index);
+		properties.put("description", "Some longer description of the instance with number " + index);
+		properties.put("status", "IN_PROGRESS");
+		properties.put("version", "1." + index);
+		properties.put("size", Integer.valueOf(index * 1024));
+		properties.put("mimetype", "application/pdf");
+		properties.put("isDeleted", Boolean.FALSE);
+		properties.put("hasWatcher", Arrays.asList("emf:user1", "emf:user2", "emf:user3"));
+		properties.put("createdBy", "emf:admin");
+
+		Map<String, Object> data = new LinkedHashMap<>();
+		data.put("id", "emf:instance-" + index);
+		data.put("definitionId", "genericDocument");
+		data.put("instanceType", "documentinstance");
+		data.put("properties", properties);
+		return data;
+	}
+
+	/**
+	 * Parses JSON object from string.
+	 *
+	 * @return the parsed object
+	 */
+	@Benchmark
+	public JSONObject createObjectFromString() {
+		return JsonUtil.createObjectFromString(objectData);
+	}
+
+	/**
+	 * Parses JSON array of objects from string.
+	 *
+	 * @return the parsed array
+	 */
+	@Benchmark
+	public JSONArray createArrayFromString() {
+		return JsonUtil.createArrayFromString(arrayData);
+	}
+
+	/**
+	 * Converts parsed JSON object to a map of maps and collections.
+	 *
+	 * @return the converted map
+	 */
+	@Benchmark
+	public Map<String, Object> toMap() {
+		return JsonUtil.toMap(parsedObject);
+	}
+
+	/**
+	 * Converts Java map to JSON object.
+	 *
+	 * @return the converted object
+	 */
+	@Benchmark
+	public Object convertToJsonCompatibleValue() {
+		return JsonUtil.convertToJsonCompatibleValue(instanceData);
+	}
+}
@@ -0,0 +1,121 @@
+package com.sirma.itt.seip.benchmarks;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sirma.itt.emf.serialization.kryo.EmfKryoInitializer;
+import com.sirma.itt.seip.resources.EmfUser;
+import com.sirma.itt.seip.resources.ResourceProperties;
+import com.sirma.itt.seip.serialization.SerializationEngine;
+import com.sirma.itt.seip.serialization.kryo.KryoHelper;
+import com.sirma.itt.seip.serialization.kryo.KryoPooledSerializationEngine;
+import com.sirma.itt.seip.util.ReflectionUtils;
+
+/**
+ * Benchmarks the instance serialization and deserialization via the pooled {@link KryoPooledSerializationEngine}
+ * configured with the platform class registrations. The serialized instance is {@link EmfUser} as it's the most common
+ * instance stored in the caches.
+ *
+ * @author BBonev
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KryoSerializationBenchmark {
+
+	/** The number of additional properties set to the serialized instance */
+	@Param({ "10", "100" })
+	private int properties;
+
+	private SerializationEngine engine;
+	private EmfUser instance;
+	private Serializable serialized;
+
+	/**
+	 * Initialize the Kryo engine and the test instance.
+	 */
+	@Setup(Level.Trial)
+	public void setUp() {
+		KryoHelper kryoHelper = new KryoHelper();
+		ReflectionUtils.setFieldValue(kryoHelper, "kryoInitializer", new EmfKryoInitializer());
+		kryoHelper.initializeKryoRegister();
+		engine = new KryoPooledSerializationEngine(kryoHelper.getSerializationPool());
+
+		instance = createUser(properties);
+		serialized = engine.serialize(instance);
+	}
+
+	private static EmfUser createUser(int propertiesCount) {
+		EmfUser user = new EmfUser("benchmark-user");
+		user.setId("emf:benchmark-user");
+		user.setDisplayName("Benchmark User");
+		user.getProperties().put(ResourceProperties.FIRST_NAME, "Benchmark");
+		user.getProperties().put(ResourceProperties.LAST_NAME, "User");
+		user.getProperties().put(ResourceProperties.EMAIL, "benchmark.user@sirma.bg");
+		user.getProperties().put(ResourceProperties.LANGUAGE, "en");
+		user.getProperties().put("createdOn", new Date());
+		for (int i = 0; i < propertiesCount; i++) {
+			if (i % 3 == 0) {
+				List<String> values = new ArrayList<>(3);
+				values.add("emf:value-" + i);
+				values.add("emf:value-" + (i + 1));
+				values.add("emf:value-" + (i + 2));
+				user.getProperties().put("emf:multiValue" + i, (Serializable) values);
+			} else if (i % 3 == 1) {
+				user.getProperties().put("emf:number" + i, Integer.valueOf(i));
+			} else {
+				user.getProperties().put("emf:property" + i, "some property value " + i);
+			}
+		}
+		return user;
+	}
+
+	/**
+	 * Serializes the instance.
+	 *
+	 * @return the serialized data
+	 */
+	@Benchmark
+	public Serializable serialize() {
+		return engine.serialize(instance);
+	}
+
+	/**
+	 * Deserializes the instance.
+	 *
+	 * @return the deserialized instance
+	 */
+	@Benchmark
+	public Object deserialize() {
+		return engine.deserialize(serialized);
+	}
+
+	/**
+	 * Serializes and deserializes the instance. This is how the instance passes via replicated caches.
+	 *
+	 * @return the deserialized copy
+	 */
+	@Benchmark
+	public Object roundTrip() {
+		return engine.deserialize(engine.serialize(instance));
+	}
+}
@@ -0,0 +1,127 @@
+package com.sirma.itt.seip.benchmarks;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.json.JsonObject;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sirma.itt.seip.convert.DefaultTypeConverter;
+import com.sirma.itt.seip.convert.TypeConverter;
+import com.sirma.itt.seip.convert.TypeConverterImpl;
+import com.sirma.itt.seip.domain.definition.DataTypeDefinition;
+import com.sirma.itt.seip.domain.instance.EmfInstance;
+import com.sirma.itt.seip.instance.properties.PropertiesConverterImpl;
+import com.sirma.itt.seip.json.JsonConverterProvider;
+import com.sirma.itt.seip.testutil.mocks.DataTypeDefinitionMock;
+import com.sirma.itt.seip.testutil.mocks.DefinitionMock;
+import com.sirma.itt.seip.testutil.mocks.PropertyDefinitionMock;
+import com.sirma.itt.seip.util.ReflectionUtils;
+
+/**
+ * Benchmarks the {@link PropertiesConverterImpl} conversion of instance properties to and from the external model using
+ * a definition with the most common property types.
+ *
+ * @author BBonev
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PropertiesConverterBenchmark {
+
+	/** The number of fields from each data type in the definition */
+	@Param({ "5", "50" })
+	private int fieldsPerType;
+
+	private PropertiesConverterImpl converter;
+	private DefinitionMock definition;
+	private EmfInstance instance;
+	private Map<String, Object> externalModel;
+
+	/**
+	 * Initialize the converter, the definition and the converted data.
+	 */
+	@Setup(Level.Trial)
+	public void setUp() {
+		TypeConverter typeConverter = new TypeConverterImpl();
+		new DefaultTypeConverter().register(typeConverter);
+		new JsonConverterProvider().register(typeConverter);
+
+		converter = new PropertiesConverterImpl();
+		ReflectionUtils.setFieldValue(converter, "typeConverter", typeConverter);
+
+		definition = new DefinitionMock("benchmarkDefinition");
+		instance = new EmfInstance("emf:benchmark-instance");
+		instance.setIdentifier(definition.getIdentifier());
+		Date now = new Date();
+		for (int i = 0; i < fieldsPerType; i++) {
+			addField("text" + i, DataTypeDefinition.TEXT, String.class, false, "some text value " + i);
+			addField("multiText" + i, DataTypeDefinition.TEXT, String.class, true,
+					(Serializable) Arrays.asList("value1", "value2", "value3"));
+			addField("int" + i, DataTypeDefinition.INT, Integer.class, false, Integer.valueOf(i));
+			addField("long" + i, DataTypeDefinition.LONG, Long.class, false, Long.valueOf(i * 1000L));
+			addField("boolean" + i, DataTypeDefinition.BOOLEAN, Boolean.class, false, Boolean.valueOf(i % 2 == 0));
+			addField("datetime" + i, DataTypeDefinition.DATETIME, Date.class, false, now);
+		}
+		externalModel = new HashMap<>(converter.convertToExternalModel(instance, definition));
+	}
+
+	private void addField(String name, String type, Class<?> javaClass, boolean multiValued, Serializable value) {
+		PropertyDefinitionMock field = new PropertyDefinitionMock();
+		field.setName(name);
+		field.setDataType(new DataTypeDefinitionMock(javaClass, null));
+		field.setType(type);
+		field.setMultiValued(Boolean.valueOf(multiValued));
+		definition.getFields().add(field);
+		instance.add(name, value);
+	}
+
+	/**
+	 * Converts the instance properties to JSON.
+	 *
+	 * @return the build JSON
+	 */
+	@Benchmark
+	public JsonObject toJson() {
+		return converter.toJson(instance, definition);
+	}
+
+	/**
+	 * Converts the instance properties to the external model.
+	 *
+	 * @return the converted properties
+	 */
+	@Benchmark
+	public Map<String, ?> convertToExternalModel() {
+		return converter.convertToExternalModel(instance, definition);
+	}
+
+	/**
+	 * Converts the external model back to the internal instance properties.
+	 *
+	 * @return the converted properties
+	 */
+	@Benchmark
+	public Map<String, Serializable> convertToInternalModel() {
+		return converter.convertToInternalModel(externalModel, definition);
+	}
+}
@@ -0,0 +1,156 @@
+package com.sirma.itt.seip.benchmarks;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.sirma.itt.emf.GeneralSemanticTest;
+import com.sirma.itt.emf.mocks.DefinitionServiceMock;
+import com.sirma.itt.emf.mocks.search.SemanticPropertiesWriteConverterMock;
+import com.sirma.itt.emf.semantic.persistence.SemanticPropertiesWriteConverter;
+import com.sirma.itt.seip.domain.definition.DefinitionModel;
+import com.sirma.itt.seip.domain.instance.EmfInstance;
+import com.sirma.itt.seip.domain.instance.Instance;
+import com.sirma.itt.seip.testutil.fakes.InstanceTypeFake;
+import com.sirma.itt.seip.testutil.mocks.InstanceReferenceMock;
+import com.sirma.itt.semantic.model.vocabulary.EMF;
+
+/**
+ * Benchmarks the {@link SemanticPropertiesWriteConverter#buildModelForInstance(Instance, Instance, Model, Model)} for
+ * new and for modified instances. The converter is initialized against local in memory semantic repository with the
+ * same mocks used in the semantic tests. The definitions are parsed only once so that the definition loading is not
+ * included in the measured time.
+ *
+ * @author BBonev
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SemanticPropertiesWriteConverterBenchmark extends GeneralSemanticTest<SemanticPropertiesWriteConverter> {
+
+	private static final String OWNING_INSTANCE_ID = "emf:benchmark-project";
+
+	private Instance newInstance;
+	private Instance oldInstance;
+	private Instance modifiedInstance;
+
+	/**
+	 * Initialize the semantic repository, the converter and the converted instances.
+	 *
+	 * @throws Exception
+	 *             if the repository could not be initialized
+	 */
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		beforeClass();
+		beforeMethod();
+		context.put("definitionService", new CachingDefinitionService());
+		service = new SemanticPropertiesWriteConverterMock(context);
+
+		newInstance = createInstance("emf:benchmark-instance", "some string property value");
+		oldInstance = createInstance("emf:benchmark-instance", "some string property value");
+		modifiedInstance = createInstance("emf:benchmark-instance", "modified string property value");
+		modifiedInstance.add("multiValueField", (Serializable) Arrays.asList("value1", "value3"));
+	}
+
+	/**
+	 * Closes the semantic repository.
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		afterClass();
+	}
+
+	@Override
+	protected String getTestDataFile() {
+		return null;
+	}
+
+	private Instance createInstance(String id, Serializable stringValue) {
+		Instance instance = new EmfInstance(id);
+		// see test/resources/definitions/generic/genericCaseDev.xml in the semantic tests
+		instance.setIdentifier("genericCaseDev");
+		InstanceTypeFake.setType(instance, EMF.CASE.toString(), "caseinstance");
+
+		instance.add("emf:stringPropertyName", stringValue);
+		instance.add("booleanPropertyName", Boolean.TRUE);
+		instance.add("uriField", "emf:link-to");
+		instance.add("userField", "emf:link-to");
+		instance.add("multiUserField", (Serializable) Arrays.asList("emf:user1", "emf:user2"));
+		instance.add("multiValueField", (Serializable) Arrays.asList("value1", "value2"));
+		instance.add("emf:multiValueField", (Serializable) Arrays.asList("value1", "value2"));
+
+		InstanceReferenceMock owning = InstanceReferenceMock.createGeneric(OWNING_INSTANCE_ID);
+		InstanceTypeFake.setType(owning.toInstance(), EMF.PROJECT.toString(), "projectinstance");
+		contextService.bindContext(instance, owning);
+		return instance;
+	}
+
+	/**
+	 * Builds the model for instance that is not persisted, yet.
+	 *
+	 * @param blackhole
+	 *            the blackhole to consume the built models
+	 */
+	@Benchmark
+	public void buildModelForNewInstance(Blackhole blackhole) {
+		Model addModel = new LinkedHashModel();
+		Model removeModel = new LinkedHashModel();
+		blackhole.consume(service.buildModelForInstance(newInstance, null, addModel, removeModel));
+		blackhole.consume(addModel);
+		blackhole.consume(removeModel);
+	}
+
+	/**
+	 * Builds the diff model for modified instance.
+	 *
+	 * @param blackhole
+	 *            the blackhole to consume the built models
+	 */
+	@Benchmark
+	public void buildModelForModifiedInstance(Blackhole blackhole) {
+		Model addModel = new LinkedHashModel();
+		Model removeModel = new LinkedHashModel();
+		blackhole.consume(service.buildModelForInstance(modifiedInstance, oldInstance, addModel, removeModel));
+		blackhole.consume(addModel);
+		blackhole.consume(removeModel);
+	}
+
+	/**
+	 * Definition service mock that parses each definition only once.
+	 *
+	 * @author BBonev
+	 */
+	private static class CachingDefinitionService extends DefinitionServiceMock {
+
+		private static final long serialVersionUID = -2785304183839432473L;
+
+		private final transient Map<String, DefinitionModel> definitions = new ConcurrentHashMap<>();
+
+		@Override
+		public DefinitionModel find(String defId) {
+			return definitions.computeIfAbsent(defId, super::find);
+		}
+	}
+}